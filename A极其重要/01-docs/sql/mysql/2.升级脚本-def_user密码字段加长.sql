@@ -0,0 +1,5 @@
+/*
+ 已有数据库升级：密码改为 {算法id}加密结果 格式保存，原来的 varchar(64) 放不下，需要加长。
+ 新安装直接执行 lamp_none.sql 即可，无需执行本脚本。
+ */
+ALTER TABLE `def_user` MODIFY COLUMN `password` varchar(255) NOT NULL DEFAULT '' COMMENT '密码';
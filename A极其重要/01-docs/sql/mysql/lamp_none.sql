@@ -121,7 +121,8 @@ CREATE TABLE `base_operation_log` (
   `updated_time` datetime DEFAULT NULL COMMENT '最后更新时间',
   `updated_by` bigint DEFAULT NULL COMMENT '最后更新人',
   `created_org_id` bigint DEFAULT NULL COMMENT '创建人组织',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  KEY `idx_operation_log_created_time` (`created_time`) USING BTREE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='操作日志';
 
 -- ----------------------------
@@ -1040,7 +1041,8 @@ CREATE TABLE `def_login_log` (
   `created_by` bigint DEFAULT NULL COMMENT '创建人',
   `updated_time` datetime DEFAULT NULL COMMENT '最后更新时间',
   `updated_by` bigint DEFAULT NULL COMMENT '最后更新人',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  KEY `idx_login_log_created_time` (`created_time`) USING BTREE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='登录日志';
 
 -- ----------------------------
@@ -1641,7 +1643,7 @@ CREATE TABLE `def_user` (
   `password_error_last_time` datetime DEFAULT NULL COMMENT '输错密码时间',
   `password_error_num` int DEFAULT '0' COMMENT '密码错误次数',
   `password_expire_time` datetime DEFAULT NULL COMMENT '密码过期时间',
-  `password` varchar(64) NOT NULL DEFAULT '' COMMENT '密码',
+  `password` varchar(255) NOT NULL DEFAULT '' COMMENT '密码',
   `salt` varchar(20) NOT NULL DEFAULT '' COMMENT '密码盐',
   `last_login_time` datetime DEFAULT NULL COMMENT '最后登录时间',
   `created_by` bigint DEFAULT NULL COMMENT '创建人id',
@@ -1652,7 +1654,8 @@ CREATE TABLE `def_user` (
   UNIQUE KEY `uk_user_username` (`username`) USING BTREE,
   UNIQUE KEY `uk_user_mobile` (`mobile`) USING BTREE,
   UNIQUE KEY `uk_user_email` (`email`) USING BTREE,
-  UNIQUE KEY `uk_user_id_card` (`id_card`) USING BTREE
+  UNIQUE KEY `uk_user_id_card` (`id_card`) USING BTREE,
+  KEY `idx_user_created_time` (`created_time`) USING BTREE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='用户';
 
 -- ----------------------------
@@ -1666,6 +1669,37 @@ INSERT INTO `def_user` (`id`, `username`, `nick_name`, `email`, `mobile`, `id_ca
 INSERT INTO `def_user` (`id`, `username`, `nick_name`, `email`, `mobile`, `id_card`, `wx_open_id`, `dd_open_id`, `readonly`, `nation`, `education`, `sex`, `state`, `work_describe`, `password_error_last_time`, `password_error_num`, `password_expire_time`, `password`, `salt`, `last_login_time`, `created_by`, `created_time`, `updated_by`, `updated_time`) VALUES (1459157721822527488, 'test3', '测试号', NULL, '15211111114', NULL, '', '', b'0', '', NULL, '2', b'1', '', NULL, 0, NULL, '3834d8640e723952345f9d4d8373dceac3e3fb5665e1931590192bdf44b362b0', 'f93zwp2mgg12wslbdbu2', '2022-03-06 22:08:04', 1452186486253289472, '2021-11-12 21:54:45', 1452186486253289472, '2021-11-21 17:08:32');
 COMMIT;
 
+-- ----------------------------
+-- Table structure for def_user_search_token
+-- ----------------------------
+DROP TABLE IF EXISTS `def_user_search_token`;
+CREATE TABLE `def_user_search_token` (
+  `token` varchar(16) NOT NULL COMMENT '分词;字段前缀+单字或相邻两字 如: n:张三',
+  `user_id` bigint NOT NULL COMMENT '用户ID',
+  PRIMARY KEY (`token`,`user_id`) USING BTREE,
+  KEY `idx_user_search_token_user_id` (`user_id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_bin COMMENT='用户搜索分词';
+
+-- ----------------------------
+-- Table structure for def_user_search_token_state
+-- ----------------------------
+DROP TABLE IF EXISTS `def_user_search_token_state`;
+CREATE TABLE `def_user_search_token_state` (
+  `id` int NOT NULL COMMENT 'ID;固定为1',
+  `version` int DEFAULT NULL COMMENT '已回填完成的分词版本;为空表示尚未回填完成',
+  `lock_owner` varchar(64) DEFAULT NULL COMMENT '正在回填的实例',
+  `lock_expire_time` datetime DEFAULT NULL COMMENT '回填锁过期时间',
+  `updated_time` datetime DEFAULT NULL COMMENT '更新时间',
+  PRIMARY KEY (`id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='用户搜索分词回填状态';
+
+-- ----------------------------
+-- Records of def_user_search_token_state
+-- ----------------------------
+BEGIN;
+INSERT INTO `def_user_search_token_state` (`id`, `version`, `lock_owner`, `lock_expire_time`, `updated_time`) VALUES (1, NULL, NULL, NULL, NULL);
+COMMIT;
+
 -- ----------------------------
 -- Table structure for def_user_application
 -- ----------------------------
@@ -1820,7 +1854,8 @@ CREATE TABLE `extend_notice` (
   `updated_time` datetime DEFAULT NULL COMMENT '最后修改时间',
   `updated_by` bigint DEFAULT NULL COMMENT '最后修改人',
   `created_org_id` bigint DEFAULT NULL COMMENT '所属组织',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  KEY `idx_notice_recipient_created_time` (`recipient_id`,`created_time`) USING BTREE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='通知表';
 
 -- ----------------------------
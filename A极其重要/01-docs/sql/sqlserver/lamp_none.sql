@@ -428,6 +428,9 @@ GO
 ALTER TABLE [dbo].[base_operation_log] SET (LOCK_ESCALATION = TABLE)
 GO
 
+CREATE NONCLUSTERED INDEX [idx_operation_log_created_time] ON [dbo].[base_operation_log] ([created_time])
+GO
+
 EXEC sp_addextendedproperty
 'MS_Description', N'主键',
 'SCHEMA', N'dbo',
@@ -4534,6 +4537,9 @@ GO
 ALTER TABLE [dbo].[def_login_log] SET (LOCK_ESCALATION = TABLE)
 GO
 
+CREATE NONCLUSTERED INDEX [idx_login_log_created_time] ON [dbo].[def_login_log] ([created_time])
+GO
+
 EXEC sp_addextendedproperty
 'MS_Description', N'主键',
 'SCHEMA', N'dbo',
@@ -6710,7 +6716,7 @@ CREATE TABLE [dbo].[def_user] (
   [password_error_last_time] datetime  NULL,
   [password_error_num] int DEFAULT ((0)) NULL,
   [password_expire_time] datetime  NULL,
-  [password] varchar(64) COLLATE Chinese_PRC_CI_AS DEFAULT '' NOT NULL,
+  [password] varchar(255) COLLATE Chinese_PRC_CI_AS DEFAULT '' NOT NULL,
   [salt] varchar(20) COLLATE Chinese_PRC_CI_AS DEFAULT '' NOT NULL,
   [last_login_time] datetime  NULL,
   [created_by] bigint  NULL,
@@ -6927,6 +6933,60 @@ COMMIT
 GO
 
 
+-- ----------------------------
+-- Table structure for def_user_search_token
+-- ----------------------------
+IF EXISTS (SELECT * FROM sys.all_objects WHERE object_id = OBJECT_ID(N'[dbo].[def_user_search_token]') AND type IN ('U'))
+	DROP TABLE [dbo].[def_user_search_token]
+GO
+
+CREATE TABLE [dbo].[def_user_search_token] (
+  [token] nvarchar(16) COLLATE Chinese_PRC_BIN NOT NULL,
+  [user_id] bigint  NOT NULL,
+  CONSTRAINT [PK__def_user_search_token] PRIMARY KEY CLUSTERED ([token], [user_id])
+)
+GO
+
+CREATE NONCLUSTERED INDEX [idx_user_search_token_user_id] ON [dbo].[def_user_search_token] ([user_id])
+GO
+
+CREATE NONCLUSTERED INDEX [idx_user_created_time] ON [dbo].[def_user] ([created_time])
+GO
+
+EXEC sp_addextendedproperty
+'MS_Description', N'用户搜索分词',
+'SCHEMA', N'dbo',
+'TABLE', N'def_user_search_token'
+GO
+
+
+-- ----------------------------
+-- Table structure for def_user_search_token_state
+-- ----------------------------
+IF EXISTS (SELECT * FROM sys.all_objects WHERE object_id = OBJECT_ID(N'[dbo].[def_user_search_token_state]') AND type IN ('U'))
+	DROP TABLE [dbo].[def_user_search_token_state]
+GO
+
+CREATE TABLE [dbo].[def_user_search_token_state] (
+  [id] int  NOT NULL,
+  [version] int  NULL,
+  [lock_owner] nvarchar(64) COLLATE Chinese_PRC_CI_AS  NULL,
+  [lock_expire_time] datetime  NULL,
+  [updated_time] datetime  NULL,
+  CONSTRAINT [PK__def_user_search_token_state] PRIMARY KEY CLUSTERED ([id])
+)
+GO
+
+EXEC sp_addextendedproperty
+'MS_Description', N'用户搜索分词回填状态',
+'SCHEMA', N'dbo',
+'TABLE', N'def_user_search_token_state'
+GO
+
+INSERT INTO [dbo].[def_user_search_token_state]  VALUES (N'1', NULL, NULL, NULL, NULL)
+GO
+
+
 -- ----------------------------
 -- Table structure for def_user_application
 -- ----------------------------
@@ -7526,6 +7586,9 @@ GO
 ALTER TABLE [dbo].[extend_notice] SET (LOCK_ESCALATION = TABLE)
 GO
 
+CREATE NONCLUSTERED INDEX [idx_notice_recipient_created_time] ON [dbo].[extend_notice] ([recipient_id], [created_time])
+GO
+
 EXEC sp_addextendedproperty
 'MS_Description', N'ID',
 'SCHEMA', N'dbo',
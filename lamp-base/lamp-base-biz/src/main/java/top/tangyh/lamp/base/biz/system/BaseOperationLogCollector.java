@@ -0,0 +1,142 @@
+package top.tangyh.lamp.base.biz.system;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import top.tangyh.lamp.base.properties.OperationLogProperties;
+import top.tangyh.lamp.base.service.system.BaseOperationLogService;
+import top.tangyh.lamp.base.vo.save.system.BaseOperationLogSaveVO;
+import top.tangyh.lamp.common.stats.StatsSource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 操作日志收集器
+ * <p>
+ * 1. 接口线程只负责把日志放入内存队列，不等待数据库写入
+ * 2. 后台线程定时(或队列积压到 batchSize 时)批量写入扩展表和主表，每次刷盘一个事务
+ * 3. 队列满时直接丢弃新日志并计数，避免日志写入拖垮业务接口
+ *
+ * @author zuihou
+ * @date 2024/9/3 9:20
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BaseOperationLogCollector implements StatsSource {
+    private final BaseOperationLogService baseOperationLogService;
+    private final OperationLogProperties operationLogProperties;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private BlockingQueue<BaseOperationLogSaveVO> queue;
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(operationLogProperties.getQueueCapacity());
+        executor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("operation-log-flush-", true));
+        long interval = operationLogProperties.getFlushIntervalMillis();
+        executor.scheduleWithFixedDelay(this::flushSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 停机前把剩余日志写入数据库
+        flushSafely();
+    }
+
+    /**
+     * 收集日志
+     *
+     * @param saveVO 操作日志
+     * @return 是否放入队列， 队列已满时返回false
+     */
+    public boolean collect(BaseOperationLogSaveVO saveVO) {
+        if (!queue.offer(saveVO)) {
+            dropped.increment();
+            long droppedCount = dropped.sum();
+            if (droppedCount % 1000 == 1) {
+                log.warn("操作日志队列已满(容量={})，累计丢弃 {} 条", operationLogProperties.getQueueCapacity(), droppedCount);
+            }
+            return false;
+        }
+        accepted.increment();
+        if (queue.size() >= operationLogProperties.getBatchSize() && flushScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    flushScheduled.set(false);
+                    flushSafely();
+                });
+            } catch (RejectedExecutionException e) {
+                // 停机后后台线程已关闭，在当前线程写入，避免日志滞留在队列中
+                flushScheduled.set(false);
+                flushSafely();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String getStatsName() {
+        return "operationLog";
+    }
+
+    /**
+     * 运行指标， 通过 /actuator/lampstats/operationLog 查看
+     * <p>
+     * accepted: 已接收; dropped: 队列满丢弃; flushed: 已写入; failed: 写入失败; pending: 待写入
+     *
+     * @return 指标
+     */
+    @Override
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("accepted", accepted.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("flushed", flushed.sum());
+        stats.put("failed", failed.sum());
+        stats.put("pending", (long) queue.size());
+        return stats;
+    }
+
+    private void flushSafely() {
+        int batchSize = operationLogProperties.getBatchSize();
+        List<BaseOperationLogSaveVO> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                baseOperationLogService.saveBatchLog(batch);
+                flushed.add(batch.size());
+            } catch (Exception e) {
+                failed.add(batch.size());
+                log.error("批量保存操作日志失败，丢弃 {} 条", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package top.tangyh.lamp.base.biz.user;
+
+import cn.hutool.core.collection.CollUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import top.tangyh.basic.utils.TreeUtil;
+import top.tangyh.lamp.base.entity.user.BaseEmployee;
+import top.tangyh.lamp.base.entity.user.BaseOrg;
+import top.tangyh.lamp.base.manager.user.impl.LoginProfileCache;
+import top.tangyh.lamp.base.service.user.BaseEmployeeService;
+import top.tangyh.lamp.base.service.user.BaseOrgService;
+import top.tangyh.lamp.base.vo.result.user.BaseEmployeeResultVO;
+import top.tangyh.lamp.base.vo.result.user.LoginProfileResultVO;
+import top.tangyh.lamp.model.enumeration.StateEnum;
+
+import java.util.List;
+
+/**
+ * 用户的登录档案大业务层
+ * <p>
+ * 登录时需要查询员工、默认单位、部门和顶级单位，原来每次登录都要多次查询缓存或数据库，
+ * 并在员工首次登录时同步更新上次登录的单位和部门。现在：
+ * 1. 登录档案预先计算并缓存，登录时只需一次缓存查询
+ * 2. 员工、组织、员工所在组织变化后，档案自动过期，下次登录时重新计算
+ * 3. 需要保存的上次登录单位和部门由调用方异步保存
+ *
+ * @author zuihou
+ * @date 2024/9/13 10:00
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoginProfileBiz {
+    private final BaseEmployeeService baseEmployeeService;
+    private final BaseOrgService baseOrgService;
+    private final LoginProfileCache loginProfileCache;
+
+    /**
+     * 查询用户的登录档案
+     *
+     * @param userId 用户id
+     * @return 登录档案
+     */
+    public LoginProfileResultVO getLoginProfile(Long userId) {
+        LoginProfileResultVO profile = loginProfileCache.get(userId);
+        if (profile != null) {
+            return profile;
+        }
+        // 先读版本号再计算，计算期间数据发生变化时，缓存的档案版本号不一致，下次登录会重新计算
+        Long version = loginProfileCache.getVersion();
+        profile = build(userId).setVersion(version);
+        loginProfileCache.put(profile);
+        return profile;
+    }
+
+    /**
+     * 保存员工上次登录的单位和部门，保存后删除该用户的登录档案
+     *
+     * @param userId     用户id
+     * @param employeeId 员工id
+     * @param companyId  单位id
+     * @param deptId     部门id
+     */
+    public void saveLastOrg(Long userId, Long employeeId, Long companyId, Long deptId) {
+        BaseEmployee baseEmployee = new BaseEmployee();
+        baseEmployee.setId(employeeId);
+        baseEmployee.setUserId(userId);
+        baseEmployee.setLastCompanyId(companyId);
+        baseEmployee.setLastDeptId(deptId);
+        baseEmployeeService.updateById(baseEmployee);
+    }
+
+    private LoginProfileResultVO build(Long userId) {
+        LoginProfileResultVO profile = LoginProfileResultVO.builder().userId(userId).lastOrgChanged(false).build();
+
+        // 用户被禁用无法登陆， 员工被禁用无法访问当前企业的数据， 企业被禁用所有员工无法
+        List<BaseEmployeeResultVO> employeeList = baseEmployeeService.listEmployeeByUserId(userId);
+        if (CollUtil.isEmpty(employeeList) || !StateEnum.ENABLE.eq(employeeList.get(0).getState())) {
+            return profile;
+        }
+        Long employeeId = employeeList.get(0).getId();
+        profile.setEmployeeId(employeeId);
+
+        BaseEmployee baseEmployee = baseEmployeeService.getByIdCache(employeeId);
+        // 当前用户尚不属于任意租户
+        if (baseEmployee == null) {
+            return profile;
+        }
+
+        boolean flag = false;
+        Long currentDeptId;
+        // 上次登录的部门
+        if (baseEmployee.getLastDeptId() != null) {
+            currentDeptId = baseEmployee.getLastDeptId();
+        } else {
+            // 上次登录部门为空，则随机选择一个部门
+            List<BaseOrg> deptList = baseOrgService.findDeptByEmployeeId(employeeId, null);
+            BaseOrg defaultDept = baseOrgService.getDefaultOrg(deptList, null);
+
+            currentDeptId = defaultDept != null ? defaultDept.getId() : null;
+            flag = currentDeptId != null;
+        }
+
+        BaseOrg defaultCompany;
+        if (baseEmployee.getLastCompanyId() != null) {
+            defaultCompany = baseOrgService.getByIdCache(baseEmployee.getLastCompanyId());
+            profile.setCompanyId(baseEmployee.getLastCompanyId());
+        } else {
+            if (currentDeptId != null) {
+                defaultCompany = baseOrgService.getCompanyByDeptId(currentDeptId);
+            } else {
+                // currentDeptId 为空，员工可能直接挂在单位下、也可能挂不属于任何部门
+                List<BaseOrg> companyList = baseOrgService.findCompanyByEmployeeId(employeeId);
+                defaultCompany = baseOrgService.getDefaultOrg(companyList, null);
+            }
+
+            profile.setCompanyId(defaultCompany != null ? defaultCompany.getId() : null);
+            flag = flag || defaultCompany != null;
+        }
+
+        if (defaultCompany != null) {
+            Long rootId = TreeUtil.getTopNodeId(defaultCompany.getTreePath());
+            BaseOrg rootCompany = rootId != null ? baseOrgService.getByIdCache(rootId) : defaultCompany;
+            profile.setTopCompanyId(rootCompany != null ? rootCompany.getId() : null);
+        }
+
+        profile.setDeptId(currentDeptId);
+        profile.setLastOrgChanged(flag);
+        log.info("计算登录档案 userId={}, employeeId={}, companyId={}, deptId={}", userId, employeeId, profile.getCompanyId(), currentDeptId);
+        return profile;
+    }
+}
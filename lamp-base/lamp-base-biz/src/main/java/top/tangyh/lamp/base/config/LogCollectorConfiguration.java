@@ -0,0 +1,17 @@
+package top.tangyh.lamp.base.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import top.tangyh.lamp.base.properties.OperationLogProperties;
+import top.tangyh.lamp.msg.properties.InterfaceLogProperties;
+
+/**
+ * 日志收集器配置
+ *
+ * @author zuihou
+ * @date 2024/9/3 9:20
+ */
+@Configuration
+@EnableConfigurationProperties({OperationLogProperties.class, InterfaceLogProperties.class})
+public class LogCollectorConfiguration {
+}
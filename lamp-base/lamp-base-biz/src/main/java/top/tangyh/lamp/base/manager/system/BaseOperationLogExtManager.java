@@ -0,0 +1,16 @@
+package top.tangyh.lamp.base.manager.system;
+
+import top.tangyh.basic.base.manager.SuperManager;
+import top.tangyh.lamp.base.entity.system.BaseOperationLogExt;
+
+/**
+ * <p>
+ * 通用业务接口
+ * 操作日志扩展
+ * </p>
+ *
+ * @author zuihou
+ * @date 2021-11-08
+ */
+public interface BaseOperationLogExtManager extends SuperManager<BaseOperationLogExt> {
+}
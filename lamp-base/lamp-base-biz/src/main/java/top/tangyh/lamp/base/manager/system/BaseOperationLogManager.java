@@ -1,7 +1,12 @@
 package top.tangyh.lamp.base.manager.system;
 
 import top.tangyh.basic.base.manager.SuperManager;
+import top.tangyh.basic.database.mybatis.conditions.query.LbQueryWrap;
 import top.tangyh.lamp.base.entity.system.BaseOperationLog;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
+import top.tangyh.lamp.common.retention.LogRangeOperator;
+import top.tangyh.lamp.common.retention.LogRetentionProgress;
 
 import java.time.LocalDateTime;
 
@@ -14,7 +19,12 @@ import java.time.LocalDateTime;
  * @author zuihou
  * @date 2021-11-08
  */
-public interface BaseOperationLogManager extends SuperManager<BaseOperationLog> {
+public interface BaseOperationLogManager extends SuperManager<BaseOperationLog>, LogRangeOperator {
+    /**
+     * 表名
+     */
+    String TABLE = "base_operation_log";
+
     /**
      * 清理日志
      *
@@ -23,4 +33,27 @@ public interface BaseOperationLogManager extends SuperManager<BaseOperationLog>
      * @return 是否成功
      */
     Long clearLog(LocalDateTime clearBeforeTime, Integer clearBeforeNum);
+
+    /**
+     * 按配置的保留策略清理日志
+     *
+     * @return 删除行数
+     */
+    Long clearLogByPolicy();
+
+    /**
+     * 查询清理进度
+     *
+     * @return 清理进度
+     */
+    LogRetentionProgress getClearProgress();
+
+    /**
+     * 游标分页查询， 按 (创建时间, id) 倒序
+     *
+     * @param wrap   查询条件
+     * @param params 分页参数
+     * @return 分页结果
+     */
+    SeekPageResult<BaseOperationLog> seekPage(LbQueryWrap<BaseOperationLog> wrap, SeekPageParams<?> params);
 }
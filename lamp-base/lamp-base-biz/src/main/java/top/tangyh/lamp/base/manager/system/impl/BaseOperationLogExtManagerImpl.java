@@ -0,0 +1,24 @@
+package top.tangyh.lamp.base.manager.system.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import top.tangyh.basic.base.manager.impl.SuperManagerImpl;
+import top.tangyh.lamp.base.entity.system.BaseOperationLogExt;
+import top.tangyh.lamp.base.manager.system.BaseOperationLogExtManager;
+import top.tangyh.lamp.base.mapper.system.BaseOperationLogExtMapper;
+
+/**
+ * <p>
+ * 通用业务实现类
+ * 操作日志扩展
+ * </p>
+ *
+ * @author zuihou
+ * @date 2021-11-08
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BaseOperationLogExtManagerImpl extends SuperManagerImpl<BaseOperationLogExtMapper, BaseOperationLogExt> implements BaseOperationLogExtManager {
+}
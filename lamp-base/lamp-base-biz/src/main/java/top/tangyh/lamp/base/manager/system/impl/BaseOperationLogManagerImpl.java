@@ -1,18 +1,24 @@
 package top.tangyh.lamp.base.manager.system.impl;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import top.tangyh.basic.base.manager.impl.SuperManagerImpl;
 import top.tangyh.basic.database.mybatis.conditions.Wraps;
+import top.tangyh.basic.database.mybatis.conditions.query.LbQueryWrap;
 import top.tangyh.lamp.base.entity.system.BaseOperationLog;
 import top.tangyh.lamp.base.manager.system.BaseOperationLogManager;
 import top.tangyh.lamp.base.mapper.system.BaseOperationLogExtMapper;
 import top.tangyh.lamp.base.mapper.system.BaseOperationLogMapper;
+import top.tangyh.lamp.common.page.SeekPageHelper;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
+import top.tangyh.lamp.common.retention.LogRetentionExecutor;
+import top.tangyh.lamp.common.retention.LogRetentionProgress;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -30,16 +36,75 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BaseOperationLogManagerImpl extends SuperManagerImpl<BaseOperationLogMapper, BaseOperationLog> implements BaseOperationLogManager {
     private final BaseOperationLogExtMapper baseOperationLogExtMapper;
+    private final LogRetentionExecutor logRetentionExecutor;
+
+    @Override
+    public String getRetentionTable() {
+        return TABLE;
+    }
 
     @Override
     public Long clearLog(LocalDateTime clearBeforeTime, Integer clearBeforeNum) {
-        List<Long> idList = Collections.emptyList();
-        if (clearBeforeNum != null) {
-            Page<BaseOperationLog> page = super.page(new Page<>(0, clearBeforeNum), Wraps.<BaseOperationLog>lbQ().select(BaseOperationLog::getId).orderByDesc(BaseOperationLog::getCreatedTime));
-            idList = page.getRecords().stream().map(BaseOperationLog::getId).toList();
+        return logRetentionExecutor.execute(TABLE, this, clearBeforeTime, clearBeforeNum);
+    }
+
+    @Override
+    public Long clearLogByPolicy() {
+        return logRetentionExecutor.executePolicy(TABLE, this);
+    }
+
+    @Override
+    public LogRetentionProgress getClearProgress() {
+        return logRetentionExecutor.getProgress(TABLE);
+    }
+
+    @Override
+    public SeekPageResult<BaseOperationLog> seekPage(LbQueryWrap<BaseOperationLog> wrap, SeekPageParams<?> params) {
+        return SeekPageHelper.seekPage(this, wrap, params, BaseOperationLog::getCreatedTime, BaseOperationLog::getId);
+    }
+
+    @Override
+    public Long findClearUpperBoundId(LocalDateTime clearBeforeTime, Integer keepNum) {
+        Long upperBoundId = null;
+        if (clearBeforeTime != null) {
+            upperBoundId = baseMapper.selectMaxIdBefore(clearBeforeTime);
+            if (upperBoundId == null) {
+                return null;
+            }
         }
-        baseOperationLogExtMapper.clearLog(clearBeforeTime, idList);
-        return baseMapper.clearLog(clearBeforeTime, idList);
+        if (keepNum != null) {
+            // 跳过最新的 keepNum 条，剩余的最大id
+            Long keepBoundId = findIdByOffset(Wraps.<BaseOperationLog>lbQ().select(BaseOperationLog::getId).orderByDesc(BaseOperationLog::getId), keepNum);
+            if (keepBoundId == null) {
+                return null;
+            }
+            upperBoundId = upperBoundId == null ? keepBoundId : Math.min(upperBoundId, keepBoundId);
+        }
+        if (clearBeforeTime == null && keepNum == null) {
+            upperBoundId = findIdByOffset(Wraps.<BaseOperationLog>lbQ().select(BaseOperationLog::getId).orderByDesc(BaseOperationLog::getId), 0);
+        }
+        return upperBoundId;
+    }
+
+    @Override
+    public Long findClearBatchEndId(Long startId, Long upperBoundId, int batchSize) {
+        return findIdByOffset(Wraps.<BaseOperationLog>lbQ().select(BaseOperationLog::getId)
+                .gt(startId != null, BaseOperationLog::getId, startId)
+                .le(BaseOperationLog::getId, upperBoundId)
+                .orderByAsc(BaseOperationLog::getId), batchSize - 1);
+    }
+
+    @Override
+    public long deleteByIdRange(Long startId, Long endId, LocalDateTime clearBeforeTime) {
+        // 扩展表与主表id相同，先删除同一区间的扩展数据
+        baseOperationLogExtMapper.deleteByIdRange(startId, endId, clearBeforeTime);
+        Long deleted = baseMapper.deleteByIdRange(startId, endId, clearBeforeTime);
+        return deleted == null ? 0L : deleted;
     }
 
+    private Long findIdByOffset(Wrapper<BaseOperationLog> wrapper, long offset) {
+        // current = offset + 1, size = 1, 不查询总数
+        List<BaseOperationLog> list = super.page(new Page<>(offset + 1, 1, false), wrapper).getRecords();
+        return list.isEmpty() ? null : list.get(0).getId();
+    }
 }
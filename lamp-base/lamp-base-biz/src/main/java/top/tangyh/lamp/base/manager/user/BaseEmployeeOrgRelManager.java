@@ -6,6 +6,7 @@ import top.tangyh.lamp.base.entity.user.BaseEmployeeOrgRel;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -28,6 +29,15 @@ public interface BaseEmployeeOrgRelManager extends SuperManager<BaseEmployeeOrgR
      */
     List<Long> findOrgIdByEmployeeId(Long employeeId);
 
+    /**
+     * 批量查询员工所属的机构
+     * 一次 in 查询，避免分页列表逐个员工查询
+     *
+     * @param employeeIds 员工id
+     * @return 员工id -> 机构id
+     */
+    Map<Long, List<Long>> findOrgIdByEmployeeIds(Collection<Long> employeeIds);
+
     /**
      * 根据员工id删除 员工的组织机构
      *
@@ -1,5 +1,6 @@
 package top.tangyh.lamp.base.manager.user.impl;
 
+import cn.hutool.core.collection.CollUtil;
 import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import lombok.RequiredArgsConstructor;
@@ -11,12 +12,15 @@ import top.tangyh.basic.model.cache.CacheKeyBuilder;
 import top.tangyh.basic.utils.ArgumentAssert;
 import top.tangyh.lamp.base.entity.user.BaseEmployee;
 import top.tangyh.lamp.base.manager.user.BaseEmployeeManager;
+import top.tangyh.lamp.base.manager.user.BaseEmployeeOrgRelManager;
 import top.tangyh.lamp.base.mapper.user.BaseEmployeeMapper;
 import top.tangyh.lamp.base.vo.query.user.BaseEmployeePageQuery;
 import top.tangyh.lamp.base.vo.result.user.BaseEmployeeResultVO;
 import top.tangyh.lamp.common.cache.base.user.EmployeeCacheKeyBuilder;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -32,6 +36,7 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 public class BaseEmployeeManagerImpl extends SuperCacheManagerImpl<BaseEmployeeMapper, BaseEmployee> implements BaseEmployeeManager {
+    private final BaseEmployeeOrgRelManager baseEmployeeOrgRelManager;
 
     @Override
     protected CacheKeyBuilder cacheKeyBuilder() {
@@ -40,12 +45,27 @@ public class BaseEmployeeManagerImpl extends SuperCacheManagerImpl<BaseEmployeeM
 
     @Override
     public List<BaseEmployeeResultVO> listEmployeeByUserId(Long userId) {
-        return baseMapper.listEmployeeByUserId(userId);
+        List<BaseEmployeeResultVO> list = baseMapper.listEmployeeByUserId(userId);
+        fillOrgIdList(list);
+        return list;
     }
 
     @Override
     public IPage<BaseEmployeeResultVO> selectPageResultVO(IPage<BaseEmployee> page, Wrapper<BaseEmployee> wrapper, BaseEmployeePageQuery model) {
-        return baseMapper.selectPageResultVO(page, wrapper, model);
+        IPage<BaseEmployeeResultVO> pageResult = baseMapper.selectPageResultVO(page, wrapper, model);
+        fillOrgIdList(pageResult.getRecords());
+        return pageResult;
+    }
+
+    /**
+     * 一次查询出所有员工的所属机构
+     */
+    private void fillOrgIdList(List<BaseEmployeeResultVO> list) {
+        if (CollUtil.isEmpty(list)) {
+            return;
+        }
+        Map<Long, List<Long>> orgMap = baseEmployeeOrgRelManager.findOrgIdByEmployeeIds(list.stream().map(BaseEmployeeResultVO::getId).toList());
+        list.forEach(item -> item.setOrgIdList(orgMap.getOrDefault(item.getId(), new ArrayList<>())));
     }
 
     @Override
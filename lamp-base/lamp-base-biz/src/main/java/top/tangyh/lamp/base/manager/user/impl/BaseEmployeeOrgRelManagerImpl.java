@@ -18,7 +18,10 @@ import top.tangyh.lamp.base.mapper.user.BaseOrgMapper;
 import top.tangyh.lamp.common.cache.base.user.EmployeeOrgCacheKeyBuilder;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * <p>
@@ -44,6 +47,18 @@ public class BaseEmployeeOrgRelManagerImpl extends SuperManagerImpl<BaseEmployee
         return orgIdResult.asList();
     }
 
+    @Override
+    public Map<Long, List<Long>> findOrgIdByEmployeeIds(Collection<Long> employeeIds) {
+        if (CollUtil.isEmpty(employeeIds)) {
+            return Collections.emptyMap();
+        }
+        List<BaseEmployeeOrgRel> list = list(Wraps.<BaseEmployeeOrgRel>lbQ()
+                .select(BaseEmployeeOrgRel::getEmployeeId, BaseEmployeeOrgRel::getOrgId)
+                .in(BaseEmployeeOrgRel::getEmployeeId, employeeIds));
+        return list.stream().collect(Collectors.groupingBy(BaseEmployeeOrgRel::getEmployeeId,
+                Collectors.mapping(BaseEmployeeOrgRel::getOrgId, Collectors.toList())));
+    }
+
     @Override
     public boolean removeByEmployeeIds(Collection<Long> employeeIds) {
         ArgumentAssert.notEmpty(employeeIds, "员工ID不能为空");
@@ -0,0 +1,106 @@
+package top.tangyh.lamp.base.manager.user.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import top.tangyh.basic.cache.redis2.CacheResult;
+import top.tangyh.basic.cache.repository.CacheOps;
+import top.tangyh.basic.model.cache.CacheKey;
+import top.tangyh.lamp.base.vo.result.user.LoginProfileResultVO;
+import top.tangyh.lamp.common.cache.base.user.LoginProfileCacheKeyBuilder;
+import top.tangyh.lamp.common.cache.base.user.LoginProfileVersionCacheKeyBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 用户的登录档案缓存
+ * <p>
+ * 1. 每个用户的登录档案单独缓存，档案中记录计算时的数据版本
+ * 2. 员工、组织、员工所在组织变化后更新数据版本号，所有版本号不一致的档案视为过期，下次登录时重新计算
+ * 3. 只影响单个用户的修改(如切换单位)，直接删除该用户的档案
+ * <p>
+ * 本类只依赖缓存，员工、组织的服务类可以直接注入，不会产生循环依赖。
+ *
+ * @author zuihou
+ * @date 2024/9/13 10:00
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginProfileCache {
+    private final CacheOps cacheOps;
+
+    /**
+     * 读取未过期的登录档案，档案和版本号通过一次缓存查询读取
+     *
+     * @param userId 用户id
+     * @return 登录档案， 不存在或已过期时返回null
+     */
+    public LoginProfileResultVO get(Long userId) {
+        List<CacheKey> keys = Arrays.asList(LoginProfileVersionCacheKeyBuilder.builder(), LoginProfileCacheKeyBuilder.build(userId));
+        List<CacheResult<Object>> results = cacheOps.find(keys);
+        Long version = results.get(0).asLong();
+        Object value = results.get(1).getValue();
+        if (value instanceof LoginProfileResultVO profile && Objects.equals(profile.getVersion(), version)) {
+            return profile;
+        }
+        return null;
+    }
+
+    /**
+     * 当前数据版本
+     *
+     * @return 版本号， 缓存中没有版本号时为null
+     */
+    public Long getVersion() {
+        CacheResult<Long> result = cacheOps.get(LoginProfileVersionCacheKeyBuilder.builder());
+        return result == null ? null : result.asLong();
+    }
+
+    /**
+     * 缓存登录档案
+     *
+     * @param profile 登录档案
+     */
+    public void put(LoginProfileResultVO profile) {
+        cacheOps.set(LoginProfileCacheKeyBuilder.build(profile.getUserId()), profile);
+    }
+
+    /**
+     * 删除用户的登录档案
+     * 存在事务时，在事务提交后执行
+     *
+     * @param userId 用户id
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        afterCommit(() -> cacheOps.del(LoginProfileCacheKeyBuilder.build(userId)));
+    }
+
+    /**
+     * 更新数据版本号，使所有用户的登录档案过期
+     * 存在事务时，在事务提交后执行，避免并发登录时按未提交的数据计算出新版本的档案
+     */
+    public void refreshVersion() {
+        afterCommit(() -> cacheOps.set(LoginProfileVersionCacheKeyBuilder.builder(), System.currentTimeMillis()));
+    }
+
+    private void afterCommit(Runnable runnable) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runnable.run();
+                }
+            });
+            return;
+        }
+        runnable.run();
+    }
+}
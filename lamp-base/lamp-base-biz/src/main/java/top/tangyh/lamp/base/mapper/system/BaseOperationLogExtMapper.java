@@ -6,7 +6,6 @@ import top.tangyh.basic.base.mapper.SuperMapper;
 import top.tangyh.lamp.base.entity.system.BaseOperationLogExt;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 /**
  * <p>
@@ -20,11 +19,13 @@ import java.util.List;
 @Repository
 public interface BaseOperationLogExtMapper extends SuperMapper<BaseOperationLogExt> {
     /**
-     * 清理日志
+     * 按主键区间清理日志
      *
+     * @param startId         起始id (不包含)
+     * @param endId           结束id (包含)
      * @param clearBeforeTime 多久之前的
-     * @param idList          待删除
-     * @return 是否成功
+     * @return 删除行数
      */
-    Long clearLog(@Param("clearBeforeTime") LocalDateTime clearBeforeTime, @Param("idList") List<Long> idList);
+    Long deleteByIdRange(@Param("startId") Long startId, @Param("endId") Long endId,
+                         @Param("clearBeforeTime") LocalDateTime clearBeforeTime);
 }
@@ -0,0 +1,32 @@
+package top.tangyh.lamp.base.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import top.tangyh.basic.constant.Constants;
+
+/**
+ * 操作日志批量写入配置
+ *
+ * @author zuihou
+ * @date 2024/9/3 9:20
+ */
+@Setter
+@Getter
+@ConfigurationProperties(prefix = OperationLogProperties.PREFIX)
+public class OperationLogProperties {
+    public static final String PREFIX = Constants.PROJECT_PREFIX + ".operation-log";
+
+    /**
+     * 内存缓冲队列的容量，队列满后新日志将被丢弃
+     */
+    private Integer queueCapacity = 10000;
+    /**
+     * 每次批量写入的最大条数
+     */
+    private Integer batchSize = 200;
+    /**
+     * 定时刷盘间隔(毫秒)
+     */
+    private Long flushIntervalMillis = 1000L;
+}
@@ -2,9 +2,15 @@ package top.tangyh.lamp.base.service.system;
 
 import top.tangyh.basic.base.service.SuperService;
 import top.tangyh.lamp.base.entity.system.BaseOperationLog;
+import top.tangyh.lamp.base.vo.query.system.BaseOperationLogPageQuery;
 import top.tangyh.lamp.base.vo.result.system.BaseOperationLogResultVO;
+import top.tangyh.lamp.base.vo.save.system.BaseOperationLogSaveVO;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
+import top.tangyh.lamp.common.retention.LogRetentionProgress;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * <p>
@@ -25,6 +31,19 @@ public interface BaseOperationLogService extends SuperService<Long, BaseOperatio
      */
     boolean clearLog(LocalDateTime clearBeforeTime, Integer clearBeforeNum);
 
+    /**
+     * 按配置的保留策略清理日志
+     *
+     * @return 删除行数
+     */
+    Long clearLogByPolicy();
+
+    /**
+     * 查询清理进度
+     *
+     * @return 清理进度
+     */
+    LogRetentionProgress getClearProgress();
 
     /**
      * 根据id查询详情
@@ -36,4 +55,22 @@ public interface BaseOperationLogService extends SuperService<Long, BaseOperatio
      * @create [2022/10/13 10:31 AM ] [tangyh] [初始创建]
      */
     BaseOperationLogResultVO getDetail(Long id);
+
+    /**
+     * 批量保存操作日志
+     * <p>
+     * 在同一个事务中批量写入扩展表和主表
+     *
+     * @param list 操作日志
+     * @return 是否成功
+     */
+    boolean saveBatchLog(List<BaseOperationLogSaveVO> list);
+
+    /**
+     * 游标分页查询
+     *
+     * @param params 分页参数
+     * @return 分页结果
+     */
+    SeekPageResult<BaseOperationLogResultVO> seekPage(SeekPageParams<BaseOperationLogPageQuery> params);
 }
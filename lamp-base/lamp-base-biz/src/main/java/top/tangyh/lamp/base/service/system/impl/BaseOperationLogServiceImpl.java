@@ -4,17 +4,28 @@ import cn.hutool.core.bean.BeanUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import top.tangyh.basic.base.service.impl.SuperServiceImpl;
+import top.tangyh.basic.database.mybatis.conditions.Wraps;
+import top.tangyh.basic.database.mybatis.conditions.query.LbQueryWrap;
+import top.tangyh.basic.utils.BeanPlusUtil;
 import top.tangyh.lamp.base.entity.system.BaseOperationLog;
 import top.tangyh.lamp.base.entity.system.BaseOperationLogExt;
+import top.tangyh.lamp.base.manager.system.BaseOperationLogExtManager;
 import top.tangyh.lamp.base.manager.system.BaseOperationLogManager;
 import top.tangyh.lamp.base.mapper.system.BaseOperationLogExtMapper;
 import top.tangyh.lamp.base.service.system.BaseOperationLogService;
+import top.tangyh.lamp.base.vo.query.system.BaseOperationLogPageQuery;
 import top.tangyh.lamp.base.vo.result.system.BaseOperationLogResultVO;
 import top.tangyh.lamp.base.vo.save.system.BaseOperationLogSaveVO;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
+import top.tangyh.lamp.common.retention.LogRetentionProgress;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * <p>
@@ -33,6 +44,7 @@ import java.time.LocalDateTime;
 public class BaseOperationLogServiceImpl extends SuperServiceImpl<BaseOperationLogManager, Long, BaseOperationLog> implements BaseOperationLogService {
 
     private final BaseOperationLogExtMapper baseOperationLogExtMapper;
+    private final BaseOperationLogExtManager baseOperationLogExtManager;
 
     @Override
     public BaseOperationLogResultVO getDetail(Long id) {
@@ -44,12 +56,26 @@ public class BaseOperationLogServiceImpl extends SuperServiceImpl<BaseOperationL
         return result;
     }
 
+    /**
+     * 不开启事务，每批删除单独提交
+     */
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean clearLog(LocalDateTime clearBeforeTime, Integer clearBeforeNum) {
         return superManager.clearLog(clearBeforeTime, clearBeforeNum) > 0;
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Long clearLogByPolicy() {
+        return superManager.clearLogByPolicy();
+    }
+
+    @Override
+    public LogRetentionProgress getClearProgress() {
+        return superManager.getClearProgress();
+    }
+
     @Override
     public <SaveVO> BaseOperationLog save(SaveVO saveVO) {
         BaseOperationLogSaveVO logSaveVO = (BaseOperationLogSaveVO) saveVO;
@@ -58,4 +84,42 @@ public class BaseOperationLogServiceImpl extends SuperServiceImpl<BaseOperationL
         logSaveVO.setId(baseOperationLogExt.getId());
         return super.save(logSaveVO);
     }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean saveBatchLog(List<BaseOperationLogSaveVO> list) {
+        if (list.isEmpty()) {
+            return true;
+        }
+        List<BaseOperationLogExt> extList = new ArrayList<>(list.size());
+        for (BaseOperationLogSaveVO saveVO : list) {
+            extList.add(BeanUtil.toBean(saveVO, BaseOperationLogExt.class));
+        }
+        baseOperationLogExtManager.saveBatch(extList);
+
+        // 主表id 与 扩展表id 保持一致
+        List<BaseOperationLog> logList = new ArrayList<>(list.size());
+        for (int i = 0; i < list.size(); i++) {
+            BaseOperationLog operationLog = BeanUtil.toBean(list.get(i), BaseOperationLog.class);
+            operationLog.setId(extList.get(i).getId());
+            logList.add(operationLog);
+        }
+        return superManager.saveBatch(logList);
+    }
+
+    @Override
+    public SeekPageResult<BaseOperationLogResultVO> seekPage(SeekPageParams<BaseOperationLogPageQuery> params) {
+        BaseOperationLogPageQuery query = params.getModel() == null ? new BaseOperationLogPageQuery() : params.getModel();
+        LbQueryWrap<BaseOperationLog> wrap = Wraps.<BaseOperationLog>lbQ()
+                .eq(BaseOperationLog::getType, query.getType())
+                .eq(BaseOperationLog::getRequestIp, query.getRequestIp())
+                .like(BaseOperationLog::getUserName, query.getUserName())
+                .like(BaseOperationLog::getDescription, query.getDescription())
+                .like(BaseOperationLog::getRequestUri, query.getRequestUri())
+                .eq(BaseOperationLog::getHttpMethod, query.getHttpMethod())
+                .eq(BaseOperationLog::getCreatedOrgId, query.getCreatedOrgId())
+                .ge(BaseOperationLog::getStartTime, query.getStartTime())
+                .le(BaseOperationLog::getFinishTime, query.getFinishTime());
+        return superManager.seekPage(wrap, params).convert(list -> BeanPlusUtil.toBeanList(list, BaseOperationLogResultVO.class));
+    }
 }
@@ -22,6 +22,7 @@ import top.tangyh.lamp.base.entity.user.BaseEmployeeRoleRel;
 import top.tangyh.lamp.base.manager.user.BaseEmployeeManager;
 import top.tangyh.lamp.base.manager.user.BaseEmployeeOrgRelManager;
 import top.tangyh.lamp.base.manager.user.BaseEmployeeRoleRelManager;
+import top.tangyh.lamp.base.manager.user.impl.LoginProfileCache;
 import top.tangyh.lamp.base.service.user.BaseEmployeeService;
 import top.tangyh.lamp.base.vo.query.user.BaseEmployeePageQuery;
 import top.tangyh.lamp.base.vo.result.user.BaseEmployeeResultVO;
@@ -54,11 +55,14 @@ import java.util.List;
 public class BaseEmployeeServiceImpl extends SuperCacheServiceImpl<BaseEmployeeManager, Long, BaseEmployee> implements BaseEmployeeService {
     private final BaseEmployeeRoleRelManager baseEmployeeRoleRelManager;
     private final BaseEmployeeOrgRelManager baseEmployeeOrgRelManager;
+    private final LoginProfileCache loginProfileCache;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean saveBatch(Collection<BaseEmployee> entityList) {
-        return superManager.saveBatch(entityList);
+        boolean flag = superManager.saveBatch(entityList);
+        loginProfileCache.refreshVersion();
+        return flag;
     }
 
     @Override
@@ -144,6 +148,7 @@ public class BaseEmployeeServiceImpl extends SuperCacheServiceImpl<BaseEmployeeM
         }
 
         cacheOps.del(EmployeeOrgCacheKeyBuilder.build(baseEmployee.getId()));
+        loginProfileCache.refreshVersion();
     }
 
     @Override
@@ -152,6 +157,7 @@ public class BaseEmployeeServiceImpl extends SuperCacheServiceImpl<BaseEmployeeM
         boolean flag = superManager.removeByIds(idList);
         baseEmployeeOrgRelManager.removeByEmployeeIds(idList);
         baseEmployeeRoleRelManager.removeByEmployeeIds(idList);
+        loginProfileCache.refreshVersion();
         return flag;
     }
 
@@ -161,6 +167,8 @@ public class BaseEmployeeServiceImpl extends SuperCacheServiceImpl<BaseEmployeeM
         ArgumentAssert.notEmpty(employeeList, "员工列表不能为空");
         superManager.saveBatch(employeeList);
 
+        loginProfileCache.refreshVersion();
+
         List<Long> employeeIdList = employeeList.stream().map(BaseEmployee::getId).toList();
         return baseEmployeeRoleRelManager.bindRole(employeeIdList, RoleConstant.TENANT_ADMIN);
     }
@@ -168,13 +176,28 @@ public class BaseEmployeeServiceImpl extends SuperCacheServiceImpl<BaseEmployeeM
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean updateById(BaseEmployee baseEmployee) {
-        return superManager.updateById(baseEmployee);
+        boolean flag = superManager.updateById(baseEmployee);
+        evictLoginProfile(baseEmployee);
+        return flag;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean updateAllById(BaseEmployee baseEmployee) {
-        return superManager.updateAllById(baseEmployee);
+        boolean flag = superManager.updateAllById(baseEmployee);
+        evictLoginProfile(baseEmployee);
+        return flag;
+    }
+
+    /**
+     * 只修改了一个员工时，只删除该员工所属用户的登录档案；不知道所属用户时，使所有档案过期
+     */
+    private void evictLoginProfile(BaseEmployee baseEmployee) {
+        if (baseEmployee.getUserId() != null) {
+            loginProfileCache.evict(baseEmployee.getUserId());
+        } else {
+            loginProfileCache.refreshVersion();
+        }
     }
 
     @Override
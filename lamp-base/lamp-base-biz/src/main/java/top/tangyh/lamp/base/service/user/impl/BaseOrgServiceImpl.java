@@ -22,6 +22,7 @@ import top.tangyh.lamp.base.entity.user.BaseOrgRoleRel;
 import top.tangyh.lamp.base.manager.user.BaseEmployeeOrgRelManager;
 import top.tangyh.lamp.base.manager.user.BaseOrgManager;
 import top.tangyh.lamp.base.manager.user.BaseOrgRoleRelManager;
+import top.tangyh.lamp.base.manager.user.impl.LoginProfileCache;
 import top.tangyh.lamp.base.service.user.BaseOrgService;
 import top.tangyh.lamp.base.vo.query.user.BaseOrgPageQuery;
 import top.tangyh.lamp.base.vo.result.user.BaseOrgResultVO;
@@ -60,6 +61,7 @@ public class BaseOrgServiceImpl extends SuperCacheServiceImpl<BaseOrgManager, Lo
     private final BaseEmployeeOrgRelManager baseEmployeeOrgRelManager;
     private final BaseOrgRoleRelManager baseOrgRoleRelManager;
     private final EchoService echoService;
+    private final LoginProfileCache loginProfileCache;
 
     @Override
     public Map<Serializable, Object> findByIds(Set<Serializable> ids) {
@@ -106,6 +108,16 @@ public class BaseOrgServiceImpl extends SuperCacheServiceImpl<BaseOrgManager, Lo
         return baseOrg;
     }
 
+    @Override
+    protected <SaveVO> void saveAfter(SaveVO saveVO, BaseOrg entity) {
+        loginProfileCache.refreshVersion();
+    }
+
+    @Override
+    protected <UpdateVO> void updateAfter(UpdateVO updateVO, BaseOrg entity) {
+        loginProfileCache.refreshVersion();
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean removeByIds(Collection<Long> idList) {
@@ -121,6 +133,7 @@ public class BaseOrgServiceImpl extends SuperCacheServiceImpl<BaseOrgManager, Lo
 
         baseOrgRoleRelManager.deleteByOrg(idList);
         baseEmployeeOrgRelManager.deleteByOrg(idList);
+        loginProfileCache.refreshVersion();
         return flag;
     }
 
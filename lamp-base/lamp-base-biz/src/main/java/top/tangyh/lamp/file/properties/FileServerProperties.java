@@ -58,6 +58,10 @@ public class FileServerProperties {
     private MinIo minIo = new MinIo();
     private Local local = new Local();
     private FastDfs fastDfs = new FastDfs();
+    /**
+     * 私有桶 临时访问地址的缓存
+     */
+    private UrlCache urlCache = new UrlCache();
 
     public boolean validSuffix(String name) {
         if (StrUtil.isEmpty(suffix)) {
@@ -69,6 +73,23 @@ public class FileServerProperties {
         return StrUtil.split(suffix, ",").stream().anyMatch(name::endsWith);
     }
 
+    @Data
+    public static class UrlCache {
+        /**
+         * 是否缓存私有桶的临时访问地址
+         */
+        private Boolean enabled = true;
+        /**
+         * 最多缓存多少个地址
+         */
+        private Long maxSize = 20000L;
+        /**
+         * 缓存比签名有效期提前多少秒失效，保证返回给前端的地址至少还能用这么久
+         * 签名有效期较短时，最多提前有效期的一半
+         */
+        private Integer safetySeconds = 300;
+    }
+
     public enum Region {
         /**
          * z0
@@ -1,6 +1,5 @@
 package top.tangyh.lamp.file.strategy;
 
-import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.URLUtil;
@@ -25,15 +24,14 @@ import top.tangyh.lamp.file.properties.FileServerProperties;
 import top.tangyh.lamp.file.utils.ZipUtils;
 import top.tangyh.lamp.file.vo.param.FileUploadVO;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
-
-import static java.util.stream.Collectors.toList;
 
 /**
  * @author zuihou
@@ -48,6 +46,8 @@ public class FileContext {
     private FileServerProperties fileServerProperties;
     @Autowired
     private FileMapper fileMapper;
+    @Autowired
+    private FileUrlCache fileUrlCache;
 
     private static Predicate<File> getFilePredicate() {
         return file -> file != null && StrUtil.isNotEmpty(file.getUrl());
@@ -95,6 +95,9 @@ public class FileContext {
                     .build();
             FileStrategy fileStrategy = getFileStrategy(item.getStorageType());
             fileStrategy.delete(fileDeleteBO);
+            if (item.getStorageType() != null) {
+                fileUrlCache.evict(item.getStorageType(), item.getBucket(), item.getPath());
+            }
         });
         return true;
     }
@@ -112,48 +115,50 @@ public class FileContext {
     }
 
     private Map<String, String> findUrl(List<File> pathFiles) {
-        Map<String, List<File>> pathMap = pathFiles.stream().collect(Collectors.groupingBy(File::getPath, LinkedHashMap::new, toList()));
+        Map<String, File> pathMap = new LinkedHashMap<>(CollHelper.initialCapacity(pathFiles.size()));
+        pathFiles.forEach(file -> pathMap.putIfAbsent(file.getPath(), file));
 
+        Map<String, String> urlMap = findUrlByStorageType(pathMap.values());
         Map<String, String> map = new LinkedHashMap<>(CollHelper.initialCapacity(pathMap.size()));
-        pathMap.forEach((path, files) -> {
-            if (CollUtil.isEmpty(files)) {
-                return;
-            }
-            File fileFile = files.get(0);
-
-            if (FileStorageType.LOCAL.eq(fileFile.getStorageType())) {
-                map.put(path, fileFile.getUrl());
+        pathMap.forEach((path, file) -> {
+            if (FileStorageType.LOCAL.eq(file.getStorageType())) {
+                map.put(path, file.getUrl());
             } else {
-                FileStrategy fileStrategy = getFileStrategy(fileFile.getStorageType());
-                map.put(path, fileStrategy.getUrl(FileGetUrlBO.builder()
-                        .bucket(fileFile.getBucket())
-                        .path(fileFile.getPath())
-                        .originalFileName(fileFile.getOriginalFileName())
-                        .build()));
+                map.put(path, urlMap.get(path));
             }
         });
         return map;
     }
 
     public Map<Long, String> findUrlById(List<Long> ids) {
-        List<File> pathFiles = fileMapper.selectList(Wraps.<File>lbQ().in(File::getId, ids));
+        List<File> idFiles = fileMapper.selectList(Wraps.<File>lbQ().in(File::getId, ids));
 
-        Map<Long, List<File>> pathMap = pathFiles.stream().collect(Collectors.groupingBy(File::getId, LinkedHashMap::new, toList()));
+        Map<String, String> urlMap = findUrl(idFiles);
+        Map<Long, String> map = new LinkedHashMap<>(CollHelper.initialCapacity(idFiles.size()));
+        idFiles.forEach(file -> map.put(file.getId(), urlMap.get(file.getPath())));
+        return map;
+    }
 
-        Map<Long, String> map = new LinkedHashMap<>(CollHelper.initialCapacity(pathMap.size()));
-        pathMap.forEach((id, files) -> {
-            if (CollUtil.isEmpty(files)) {
-                return;
-            }
-            File fileFile = files.get(0);
+    /**
+     * 按存储类型分组，每种存储类型只调用一次 FileStrategy#findUrl， 签名地址走缓存
+     *
+     * @param files 文件
+     * @return 文件路径 -> 访问地址
+     */
+    private Map<String, String> findUrlByStorageType(Collection<File> files) {
+        Map<FileStorageType, List<FileGetUrlBO>> typeMap = new LinkedHashMap<>();
+        for (File file : files) {
+            FileStorageType storageType = file.getStorageType() == null ? fileServerProperties.getStorageType() : file.getStorageType();
+            typeMap.computeIfAbsent(storageType, k -> new ArrayList<>()).add(FileGetUrlBO.builder()
+                    .bucket(file.getBucket())
+                    .path(file.getPath())
+                    .originalFileName(file.getOriginalFileName())
+                    .build());
+        }
 
-            FileStrategy fileStrategy = getFileStrategy(fileFile.getStorageType());
-            map.put(id, fileStrategy.getUrl(FileGetUrlBO.builder()
-                    .bucket(fileFile.getBucket())
-                    .path(fileFile.getPath())
-                    .originalFileName(fileFile.getOriginalFileName())
-                    .build()));
-        });
+        Map<String, String> map = new HashMap<>(CollHelper.initialCapacity(files.size()));
+        typeMap.forEach((storageType, fileGets) ->
+                map.putAll(fileUrlCache.findUrl(storageType, getFileStrategy(storageType), fileGets)));
         return map;
     }
 
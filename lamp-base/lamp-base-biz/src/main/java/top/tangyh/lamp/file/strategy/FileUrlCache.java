@@ -0,0 +1,178 @@
+package top.tangyh.lamp.file.strategy;
+
+import cn.hutool.core.util.StrUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+import top.tangyh.basic.utils.StrPool;
+import top.tangyh.lamp.common.stats.StatsSource;
+import top.tangyh.lamp.file.domain.FileGetUrlBO;
+import top.tangyh.lamp.file.enumeration.FileStorageType;
+import top.tangyh.lamp.file.properties.FileServerProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 文件访问地址缓存
+ * <p>
+ * 私有桶的文件需要签名后才能访问，签名地址在有效期内可以重复使用。
+ * 按 (存储类型, 桶, 路径) 缓存签名地址，缓存比签名提前 safetySeconds 失效；
+ * 未命中的文件合并后调用一次 FileStrategy#findUrl 批量获取。
+ * <p>
+ * 公开桶、本地存储、FastDFS 的地址只是字符串拼接，不缓存。
+ *
+ * @author zuihou
+ * @date 2024/9/6 9:30
+ */
+@Component
+public class FileUrlCache implements StatsSource {
+    private final FileServerProperties fileServerProperties;
+    private final Cache<String, CachedUrl> cache;
+
+    private final LongAdder hit = new LongAdder();
+    private final LongAdder miss = new LongAdder();
+    private final LongAdder signed = new LongAdder();
+
+    public FileUrlCache(FileServerProperties fileServerProperties) {
+        this.fileServerProperties = fileServerProperties;
+        this.cache = CacheBuilder.newBuilder().maximumSize(fileServerProperties.getUrlCache().getMaxSize()).build();
+    }
+
+    /**
+     * 批量获取访问地址
+     *
+     * @param storageType 存储类型
+     * @param strategy    存储策略
+     * @param fileGets    文件
+     * @return 文件路径 -> 访问地址
+     */
+    public Map<String, String> findUrl(FileStorageType storageType, FileStrategy strategy, List<FileGetUrlBO> fileGets) {
+        long ttlMillis = getTtlMillis(storageType);
+        if (ttlMillis <= 0) {
+            return strategy.findUrl(fileGets);
+        }
+
+        long now = System.currentTimeMillis();
+        Map<String, String> map = new LinkedHashMap<>();
+        List<FileGetUrlBO> missList = new ArrayList<>();
+        for (FileGetUrlBO fileGet : fileGets) {
+            // 先占位，保证返回的顺序与入参一致
+            map.put(fileGet.getPath(), null);
+            if (isPublic(storageType, fileGet.getBucket())) {
+                missList.add(fileGet);
+                continue;
+            }
+            CachedUrl cached = cache.getIfPresent(key(storageType, fileGet.getBucket(), fileGet.getPath()));
+            if (cached != null && cached.getExpireTime() > now) {
+                hit.increment();
+                map.put(fileGet.getPath(), cached.getUrl());
+            } else {
+                miss.increment();
+                missList.add(fileGet);
+            }
+        }
+        if (missList.isEmpty()) {
+            return map;
+        }
+
+        Map<String, String> urlMap = strategy.findUrl(missList);
+        long expireTime = System.currentTimeMillis() + ttlMillis;
+        for (FileGetUrlBO fileGet : missList) {
+            String url = urlMap.get(fileGet.getPath());
+            map.put(fileGet.getPath(), url);
+            if (StrUtil.isNotEmpty(url) && !isPublic(storageType, fileGet.getBucket())) {
+                signed.increment();
+                cache.put(key(storageType, fileGet.getBucket(), fileGet.getPath()), new CachedUrl(url, expireTime));
+            }
+        }
+        return map;
+    }
+
+    /**
+     * 文件删除后淘汰地址
+     *
+     * @param storageType 存储类型
+     * @param bucket      桶
+     * @param path        路径
+     */
+    public void evict(FileStorageType storageType, String bucket, String path) {
+        cache.invalidate(key(storageType, bucket, path));
+    }
+
+    @Override
+    public String getStatsName() {
+        return "fileUrlCache";
+    }
+
+    /**
+     * 运行指标， 通过 /actuator/lampstats/fileUrlCache 查看
+     *
+     * @return 指标
+     */
+    @Override
+    public Map<String, Object> getStats() {
+        long hitCount = hit.sum();
+        long missCount = miss.sum();
+        long total = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", cache.size());
+        stats.put("hit", hitCount);
+        stats.put("miss", missCount);
+        stats.put("hitRate", total == 0 ? 0D : (double) hitCount / total);
+        stats.put("signed", signed.sum());
+        return stats;
+    }
+
+    /**
+     * 缓存有效期 = 签名有效期 - min(safetySeconds, 签名有效期 / 2)
+     */
+    private long getTtlMillis(FileStorageType storageType) {
+        FileServerProperties.UrlCache urlCache = fileServerProperties.getUrlCache();
+        if (!Boolean.TRUE.equals(urlCache.getEnabled()) || storageType == null) {
+            return 0L;
+        }
+        Integer expiry = switch (storageType) {
+            case MIN_IO -> fileServerProperties.getMinIo().getExpiry();
+            case ALI_OSS -> fileServerProperties.getAli().getExpiry();
+            case HUAWEI_OSS -> fileServerProperties.getHuawei().getExpiry();
+            case QINIU_OSS -> fileServerProperties.getQiNiu().getExpiry();
+            default -> null;
+        };
+        if (expiry == null || expiry <= 0) {
+            return 0L;
+        }
+        long ttlSeconds = expiry - Math.min(urlCache.getSafetySeconds(), expiry / 2);
+        return ttlSeconds * 1000;
+    }
+
+    private boolean isPublic(FileStorageType storageType, String bucket) {
+        return fileServerProperties.getPublicBucket().contains(StrUtil.isEmpty(bucket) ? getDefaultBucket(storageType) : bucket);
+    }
+
+    private String getDefaultBucket(FileStorageType storageType) {
+        return switch (storageType) {
+            case MIN_IO -> fileServerProperties.getMinIo().getBucket();
+            case ALI_OSS -> fileServerProperties.getAli().getBucket();
+            case HUAWEI_OSS -> fileServerProperties.getHuawei().getBucket();
+            case QINIU_OSS -> fileServerProperties.getQiNiu().getBucket();
+            default -> StrPool.EMPTY;
+        };
+    }
+
+    private static String key(FileStorageType storageType, String bucket, String path) {
+        return storageType.name() + StrPool.COLON + StrUtil.nullToEmpty(bucket) + StrPool.COLON + path;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class CachedUrl {
+        private final String url;
+        private final long expireTime;
+    }
+}
@@ -89,7 +89,8 @@ public class AliFileStrategyImpl extends AbstractFileStrategy {
 
     @Override
     public Map<String, String> findUrl(List<FileGetUrlBO> fileGets) {
-        OSS ossClient = createOss();
+        // 公开桶只需拼接地址，用到时才创建客户端，且所有文件共用一个客户端
+        OSS ossClient = null;
         Set<String> publicBucket = fileProperties.getPublicBucket();
         FileServerProperties.Ali ali = fileProperties.getAli();
         Map<String, String> map = new LinkedHashMap<>(CollHelper.initialCapacity(fileGets.size()));
@@ -105,14 +106,19 @@ public class AliFileStrategyImpl extends AbstractFileStrategy {
                             fileGet.getPath();
                     map.put(fileGet.getPath(), url);
                 } else {
-                    map.put(fileGet.getPath(), generatePresignedUrl(bucket, fileGet.getPath()));
+                    if (ossClient == null) {
+                        ossClient = createOss();
+                    }
+                    map.put(fileGet.getPath(), generatePresignedUrl(ossClient, bucket, fileGet.getPath()));
                 }
             } catch (Exception e) {
                 log.warn("加载文件url地址失败，请确保yml中第三方存储参数配置正确. bucket={}, , 文件名={} path={}", bucket, fileGet.getOriginalFileName(), fileGet.getPath(), e);
                 map.put(fileGet.getPath(), StrPool.EMPTY);
             }
         }
-        ossClient.shutdown();
+        if (ossClient != null) {
+            ossClient.shutdown();
+        }
         return map;
     }
 
@@ -132,13 +138,13 @@ public class AliFileStrategyImpl extends AbstractFileStrategy {
     /**
      * 获取有访问权限的路径地址
      *
+     * @param oss        客户端
      * @param bucketName 桶名称
      * @param path       文件路径
      * @return 访问地址
      */
-    private String generatePresignedUrl(String bucketName, String path) {
+    private String generatePresignedUrl(OSS oss, String bucketName, String path) {
         FileServerProperties.Ali ali = fileProperties.getAli();
-        OSS oss = createOss();
         Date date = new Date(System.currentTimeMillis() + ali.getExpiry() * 1000);
         URL url = oss.generatePresignedUrl(bucketName, path, date);
         return url.toString();
@@ -0,0 +1,195 @@
+package top.tangyh.lamp.msg.biz;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import top.tangyh.lamp.common.stats.StatsSource;
+import top.tangyh.lamp.msg.entity.ExtendInterfaceLogging;
+import top.tangyh.lamp.msg.manager.ExtendInterfaceLogManager;
+import top.tangyh.lamp.msg.manager.ExtendInterfaceLoggingManager;
+import top.tangyh.lamp.msg.properties.InterfaceLogProperties;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 消息接口执行日志收集器
+ * <p>
+ * 原来每发送一条消息都要执行一次 update extend_interface_log set success_count = success_count + 1，
+ * 批量发送短信时所有线程都在等待同一行的行锁。本类：
+ * 1. 成功、失败次数先累加到内存中每个接口日志一组的 LongAdder
+ * 2. 后台线程定时把累加的增量写入数据库，每个接口日志只执行一条 update
+ * 3. 执行记录放入内存队列，后台线程批量写入；队列满时同步写入，不丢弃
+ * 4. 停机前把剩余的增量和执行记录写入数据库
+ * <p>
+ * 增量写入失败时加回内存，下次刷盘时重试。
+ *
+ * @author zuihou
+ * @date 2024/9/11 14:20
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InterfaceLogCollector implements StatsSource {
+    private final ExtendInterfaceLogManager extendInterfaceLogManager;
+    private final ExtendInterfaceLoggingManager extendInterfaceLoggingManager;
+    private final InterfaceLogProperties interfaceLogProperties;
+
+    /**
+     * 接口日志id -> 未写入的次数
+     */
+    private final Map<Long, Counter> counterMap = new ConcurrentHashMap<>();
+    private final LongAdder updated = new LongAdder();
+    private final LongAdder loggingFlushed = new LongAdder();
+    private final LongAdder loggingSync = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private BlockingQueue<ExtendInterfaceLogging> queue;
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(interfaceLogProperties.getQueueCapacity());
+        executor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("interface-log-flush-", true));
+        long interval = interfaceLogProperties.getFlushIntervalMillis();
+        executor.scheduleWithFixedDelay(this::flushSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 停机前把剩余的次数和执行记录写入数据库
+        flushSafely();
+    }
+
+    /**
+     * 递增成功次数
+     *
+     * @param id 接口日志id
+     */
+    public void incrSuccessCount(Long id) {
+        Counter counter = counterMap.computeIfAbsent(id, k -> new Counter());
+        counter.success.increment();
+        counter.lastExecTime = LocalDateTime.now();
+    }
+
+    /**
+     * 递增失败次数
+     *
+     * @param id 接口日志id
+     */
+    public void incrFailCount(Long id) {
+        Counter counter = counterMap.computeIfAbsent(id, k -> new Counter());
+        counter.fail.increment();
+        counter.lastExecTime = LocalDateTime.now();
+    }
+
+    /**
+     * 收集执行记录
+     *
+     * @param logging 执行记录
+     */
+    public void collect(ExtendInterfaceLogging logging) {
+        if (!queue.offer(logging)) {
+            loggingSync.increment();
+            extendInterfaceLoggingManager.save(logging);
+        }
+    }
+
+    @Override
+    public String getStatsName() {
+        return "interfaceLog";
+    }
+
+    /**
+     * 运行指标， 通过 /actuator/lampstats/interfaceLog 查看
+     * <p>
+     * interfaces: 接口数; pendingSuccess/pendingFail: 待写入的成功/失败次数; updated: 已执行的update数;
+     * pendingLogging: 待写入的执行记录; loggingFlushed: 批量写入的执行记录; loggingSync: 队列满时同步写入的执行记录; failed: 写入失败次数
+     *
+     * @return 指标
+     */
+    @Override
+    public Map<String, Long> getStats() {
+        long pendingSuccess = 0;
+        long pendingFail = 0;
+        for (Counter counter : counterMap.values()) {
+            pendingSuccess += counter.success.sum();
+            pendingFail += counter.fail.sum();
+        }
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("interfaces", (long) counterMap.size());
+        stats.put("pendingSuccess", pendingSuccess);
+        stats.put("pendingFail", pendingFail);
+        stats.put("updated", updated.sum());
+        stats.put("pendingLogging", (long) queue.size());
+        stats.put("loggingFlushed", loggingFlushed.sum());
+        stats.put("loggingSync", loggingSync.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    private void flushSafely() {
+        flushCounter();
+        flushLogging();
+    }
+
+    private void flushCounter() {
+        counterMap.forEach((id, counter) -> {
+            long success = counter.success.sumThenReset();
+            long fail = counter.fail.sumThenReset();
+            if (success == 0 && fail == 0) {
+                return;
+            }
+            try {
+                extendInterfaceLogManager.incrCount(id, success, fail, counter.lastExecTime);
+                updated.increment();
+            } catch (Exception e) {
+                failed.increment();
+                counter.success.add(success);
+                counter.fail.add(fail);
+                log.error("写入接口日志[{}]的执行次数失败，成功 {} 次，失败 {} 次，下次重试", id, success, fail, e);
+            }
+        });
+    }
+
+    private void flushLogging() {
+        int batchSize = interfaceLogProperties.getBatchSize();
+        List<ExtendInterfaceLogging> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                extendInterfaceLoggingManager.saveBatch(batch);
+                loggingFlushed.add(batch.size());
+            } catch (Exception e) {
+                failed.increment();
+                log.error("批量保存接口执行记录失败，丢弃 {} 条", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    private static class Counter {
+        private final LongAdder success = new LongAdder();
+        private final LongAdder fail = new LongAdder();
+        private volatile LocalDateTime lastExecTime;
+    }
+}
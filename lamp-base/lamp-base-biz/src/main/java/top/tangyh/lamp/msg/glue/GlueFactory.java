@@ -1,31 +1,56 @@
 package top.tangyh.lamp.msg.glue;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
 import groovy.lang.Binding;
 import groovy.lang.GroovyClassLoader;
+import jakarta.annotation.Resource;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.codehaus.groovy.runtime.InvokerHelper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotationUtils;
 import top.tangyh.lamp.msg.glue.impl.SpringGlueFactory;
 import top.tangyh.lamp.msg.strategy.MsgStrategy;
 
-import java.math.BigInteger;
-import java.security.MessageDigest;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * glue factory, product class/object by name
+ * <p>
+ * 编译后的脚本类按 key(如: 接口id、模板id) 缓存，并记录脚本的版本(修改时间)：
+ * 1. 版本或脚本内容变化时重新编译，旧的类随类加载器一起被回收
+ * 2. 缓存的脚本数有上限，超出时淘汰最久未使用的脚本
+ * 3. 每个脚本使用独立的 GroovyClassLoader，被淘汰的脚本类不再被引用后，随类加载器一起被卸载
+ * 4. 脚本类只有注入字段、没有其他实例字段时，视为无状态，多次发送复用同一个实例
  *
  * @author zuihou
  */
+@Slf4j
 public class GlueFactory {
-
-
-    private final static ConcurrentMap<String, Class<?>> CLASS_CACHE = new ConcurrentHashMap<>();
-    private static GlueFactory glueFactory = new SpringGlueFactory();
     /**
-     * groovy class loader
+     * 最多缓存的脚本数
      */
-    private final GroovyClassLoader groovyClassLoader = new GroovyClassLoader();
+    private static final int MAX_SIZE = 256;
+    private static final String SCRIPT_KEY_PREFIX = "script:";
+
+    private final static Cache<String, GlueClass> CLASS_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(MAX_SIZE)
+            .recordStats()
+            .removalListener(GlueFactory::onRemoval)
+            .build();
+    private final static LongAdder COMPILE_COUNT = new LongAdder();
+    private final static LongAdder COMPILE_NANOS = new LongAdder();
+    private static GlueFactory glueFactory = new SpringGlueFactory();
 
     public static GlueFactory getInstance() {
         return glueFactory;
@@ -37,6 +62,8 @@ public class GlueFactory {
         } else if (type == 1) {
             glueFactory = new SpringGlueFactory();
         }
+        // 已缓存的无状态实例由旧的工厂注入，需要重新创建
+        CLASS_CACHE.invalidateAll();
     }
 
     /**
@@ -47,18 +74,39 @@ public class GlueFactory {
      * @throws Exception
      */
     public MsgStrategy loadNewInstance(String script) throws Exception {
+        return loadInstance(scriptKey(script), null, script);
+    }
+
+    /**
+     * 加载groovy脚本，并实例化
+     *
+     * @param key     脚本的唯一标识， 如: interface:1
+     * @param version 脚本的版本， 如: 修改时间
+     * @param script  groovy脚本
+     * @return 实例， 无状态的脚本返回共享的实例
+     * @throws Exception
+     */
+    public MsgStrategy loadInstance(String key, Object version, String script) throws Exception {
         if (script != null && script.trim().length() > 0) {
-            Class<?> clazz = getCodeSourceClass(script);
-            if (clazz != null) {
-                Object instance = clazz.getDeclaredConstructor().newInstance();
-                if (instance instanceof MsgStrategy inst) {
-                    this.injectService(inst);
-                    return inst;
-                } else {
-                    throw new IllegalArgumentException("glue 加载失败，"
-                            + "无法将实例转换 [" + instance.getClass() + "] 为 MsgStrategy");
+            GlueClass glueClass = getGlueClass(key, version, script);
+            if (!MsgStrategy.class.isAssignableFrom(glueClass.getClazz())) {
+                throw new IllegalArgumentException("glue 加载失败，"
+                        + "无法将实例转换 [" + glueClass.getClazz() + "] 为 MsgStrategy");
+            }
+            if (!glueClass.isStateless()) {
+                return newInstance(glueClass.getClazz());
+            }
+            MsgStrategy instance = glueClass.getInstance();
+            if (instance == null) {
+                synchronized (glueClass) {
+                    instance = glueClass.getInstance();
+                    if (instance == null) {
+                        instance = newInstance(glueClass.getClazz());
+                        glueClass.setInstance(instance);
+                    }
                 }
             }
+            return instance;
         }
         throw new IllegalArgumentException("脚本不能为空");
     }
@@ -75,30 +123,41 @@ public class GlueFactory {
      * @update [2022/7/25 9:35 PM ] [tangyh] [变更描述]
      */
     public Object exeGroovyScript(String script, Map<String, Object> params) {
+        return exeGroovyScript(scriptKey(script), null, script, params);
+    }
+
+    /**
+     * 执行脚本
+     *
+     * @param key     脚本的唯一标识， 如: template:1
+     * @param version 脚本的版本， 如: 修改时间
+     * @param script  script
+     * @param params  params
+     * @return 脚本的返回值
+     */
+    public Object exeGroovyScript(String key, Object version, String script, Map<String, Object> params) {
         if (script != null && script.trim().length() > 0) {
-            Class<?> clazz = getCodeSourceClass(script);
-            if (clazz != null) {
-                return InvokerHelper.createScript(clazz, new Binding(params)).run();
-            }
+            GlueClass glueClass = getGlueClass(key, version, script);
+            return InvokerHelper.createScript(glueClass.getClazz(), new Binding(params)).run();
         }
         throw new IllegalArgumentException("脚本不能为空");
     }
 
-    private Class<?> getCodeSourceClass(String codeSource) {
-        try {
-            // md5
-            byte[] md5 = MessageDigest.getInstance("MD5").digest(codeSource.getBytes());
-            String md5Str = new BigInteger(1, md5).toString(16);
-
-            Class<?> clazz = CLASS_CACHE.get(md5Str);
-            if (clazz == null) {
-                clazz = groovyClassLoader.parseClass(codeSource);
-                CLASS_CACHE.putIfAbsent(md5Str, clazz);
-            }
-            return clazz;
-        } catch (Exception e) {
-            return groovyClassLoader.parseClass(codeSource);
-        }
+    /**
+     * 脚本缓存的统计信息
+     *
+     * @return 缓存数、命中数、未命中数、编译次数、编译总耗时
+     */
+    public static Map<String, Object> getStats() {
+        CacheStats stats = CLASS_CACHE.stats();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("size", CLASS_CACHE.size());
+        map.put("hitCount", stats.hitCount());
+        map.put("missCount", stats.missCount());
+        map.put("evictionCount", stats.evictionCount());
+        map.put("compileCount", COMPILE_COUNT.sum());
+        map.put("compileMillis", TimeUnit.NANOSECONDS.toMillis(COMPILE_NANOS.sum()));
+        return map;
     }
 
     /**
@@ -110,4 +169,112 @@ public class GlueFactory {
         // do something
     }
 
+    private MsgStrategy newInstance(Class<?> clazz) throws Exception {
+        MsgStrategy instance = (MsgStrategy) clazz.getDeclaredConstructor().newInstance();
+        this.injectService(instance);
+        return instance;
+    }
+
+    private GlueClass getGlueClass(String key, Object version, String script) {
+        GlueClass glueClass = CLASS_CACHE.getIfPresent(key);
+        if (glueClass != null && glueClass.matches(version, script)) {
+            return glueClass;
+        }
+        return CLASS_CACHE.asMap().compute(key, (k, old) -> old != null && old.matches(version, script) ? old : compile(k, version, script));
+    }
+
+    private static GlueClass compile(String key, Object version, String script) {
+        long start = System.nanoTime();
+        GroovyClassLoader classLoader = new GroovyClassLoader(GlueFactory.class.getClassLoader());
+        Class<?> clazz;
+        try {
+            clazz = classLoader.parseClass(script);
+        } catch (RuntimeException e) {
+            close(classLoader);
+            throw e;
+        }
+        long nanos = System.nanoTime() - start;
+        COMPILE_COUNT.increment();
+        COMPILE_NANOS.add(nanos);
+        log.info("编译脚本[{}]，版本: {}，耗时 {} ms", key, version, TimeUnit.NANOSECONDS.toMillis(nanos));
+        return new GlueClass(version, script, clazz, classLoader, isStateless(clazz));
+    }
+
+    /**
+     * 只有静态字段和注入字段的类视为无状态
+     */
+    private static boolean isStateless(Class<?> clazz) {
+        for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || isGroovyField(field)) {
+                    continue;
+                }
+                if (AnnotationUtils.getAnnotation(field, Resource.class) == null
+                        && AnnotationUtils.getAnnotation(field, Autowired.class) == null) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * groovy 编译时生成的字段
+     */
+    private static boolean isGroovyField(Field field) {
+        String name = field.getName();
+        return field.isSynthetic() || "metaClass".equals(name) || name.startsWith("$") || name.startsWith("__");
+    }
+
+    private static String scriptKey(String script) {
+        // 只用于定位缓存，内容是否相同由 GlueClass#matches 判断
+        return script == null ? SCRIPT_KEY_PREFIX : SCRIPT_KEY_PREFIX + script.length() + ":" + script.hashCode();
+    }
+
+    private static void onRemoval(RemovalNotification<String, GlueClass> notification) {
+        // 不关闭类加载器：正在执行的脚本实例可能还要加载闭包、内部类等，关闭后会抛出 NoClassDefFoundError
+        // 不再被引用后，类加载器和脚本类由 GC 回收
+        if (notification.getValue() != null) {
+            log.info("移除脚本[{}]，原因: {}", notification.getKey(), notification.getCause());
+        }
+    }
+
+    private static void close(GroovyClassLoader classLoader) {
+        classLoader.clearCache();
+        try {
+            classLoader.close();
+        } catch (IOException e) {
+            log.warn("关闭脚本类加载器失败", e);
+        }
+    }
+
+    /**
+     * 编译后的脚本
+     */
+    @Getter
+    private static class GlueClass {
+        private final Object version;
+        private final String script;
+        private final Class<?> clazz;
+        private final GroovyClassLoader classLoader;
+        private final boolean stateless;
+        private volatile MsgStrategy instance;
+
+        private GlueClass(Object version, String script, Class<?> clazz, GroovyClassLoader classLoader, boolean stateless) {
+            this.version = version;
+            this.script = script;
+            this.clazz = clazz;
+            this.classLoader = classLoader;
+            this.stateless = stateless;
+        }
+
+        private void setInstance(MsgStrategy instance) {
+            this.instance = instance;
+        }
+
+        private boolean matches(Object version, String script) {
+            return Objects.equals(this.version, version) && this.script.equals(script);
+        }
+    }
+
 }
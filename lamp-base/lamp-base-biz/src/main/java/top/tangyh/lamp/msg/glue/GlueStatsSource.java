@@ -0,0 +1,28 @@
+package top.tangyh.lamp.msg.glue;
+
+import org.springframework.stereotype.Component;
+import top.tangyh.lamp.common.stats.StatsSource;
+
+import java.util.Map;
+
+/**
+ * 脚本缓存的运行指标
+ * <p>
+ * GlueFactory 不是 spring bean，脚本缓存是静态的，由本类提供给运行指标端点
+ *
+ * @author zuihou
+ * @date 2024/9/13 16:00
+ */
+@Component
+public class GlueStatsSource implements StatsSource {
+
+    @Override
+    public String getStatsName() {
+        return "glueScript";
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        return GlueFactory.getStats();
+    }
+}
@@ -3,6 +3,8 @@ package top.tangyh.lamp.msg.manager;
 import top.tangyh.basic.base.manager.SuperManager;
 import top.tangyh.lamp.msg.entity.ExtendInterfaceLog;
 
+import java.time.LocalDateTime;
+
 /**
  * <p>
  * 通用业务接口
@@ -37,6 +39,16 @@ public interface ExtendInterfaceLogManager extends SuperManager<ExtendInterfaceL
      * @return
      */
     void incrFailCount(Long id);
+
+    /**
+     * 累加成功次数和失败次数
+     *
+     * @param id           日志ID
+     * @param successCount 成功次数增量
+     * @param failCount    失败次数增量
+     * @param execTime     最后执行时间
+     */
+    void incrCount(Long id, long successCount, long failCount, LocalDateTime execTime);
 }
 
 
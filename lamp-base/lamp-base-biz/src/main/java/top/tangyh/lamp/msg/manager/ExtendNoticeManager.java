@@ -1,6 +1,9 @@
 package top.tangyh.lamp.msg.manager;
 
 import top.tangyh.basic.base.manager.SuperManager;
+import top.tangyh.basic.database.mybatis.conditions.query.LbQueryWrap;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
 import top.tangyh.lamp.msg.entity.ExtendNotice;
 
 /**
@@ -15,6 +18,14 @@ import top.tangyh.lamp.msg.entity.ExtendNotice;
  */
 public interface ExtendNoticeManager extends SuperManager<ExtendNotice> {
 
+    /**
+     * 游标分页查询， 按 (创建时间, id) 倒序
+     *
+     * @param wrap   查询条件
+     * @param params 分页参数
+     * @return 分页结果
+     */
+    SeekPageResult<ExtendNotice> seekPage(LbQueryWrap<ExtendNotice> wrap, SeekPageParams<?> params);
 }
 
 
@@ -39,6 +39,11 @@ public class ExtendInterfaceLogManagerImpl extends SuperManagerImpl<ExtendInterf
     public void incrFailCount(Long id) {
         baseMapper.incrFailCount(id, LocalDateTime.now());
     }
+
+    @Override
+    public void incrCount(Long id, long successCount, long failCount, LocalDateTime execTime) {
+        baseMapper.incrCount(id, successCount, failCount, execTime);
+    }
 }
 
 
@@ -4,6 +4,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import top.tangyh.basic.base.manager.impl.SuperManagerImpl;
+import top.tangyh.basic.database.mybatis.conditions.query.LbQueryWrap;
+import top.tangyh.lamp.common.page.SeekPageHelper;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
 import top.tangyh.lamp.msg.entity.ExtendNotice;
 import top.tangyh.lamp.msg.manager.ExtendNoticeManager;
 import top.tangyh.lamp.msg.mapper.ExtendNoticeMapper;
@@ -23,6 +27,10 @@ import top.tangyh.lamp.msg.mapper.ExtendNoticeMapper;
 @Service
 public class ExtendNoticeManagerImpl extends SuperManagerImpl<ExtendNoticeMapper, ExtendNotice> implements ExtendNoticeManager {
 
+    @Override
+    public SeekPageResult<ExtendNotice> seekPage(LbQueryWrap<ExtendNotice> wrap, SeekPageParams<?> params) {
+        return SeekPageHelper.seekPage(this, wrap, params, ExtendNotice::getCreatedTime, ExtendNotice::getId);
+    }
 }
 
 
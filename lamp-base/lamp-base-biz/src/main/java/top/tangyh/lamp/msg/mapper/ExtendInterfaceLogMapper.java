@@ -36,6 +36,18 @@ public interface ExtendInterfaceLogMapper extends SuperMapper<ExtendInterfaceLog
      * @return
      */
     int incrFailCount(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * 累加成功次数和失败次数
+     *
+     * @param id           日志ID
+     * @param successCount 成功次数增量
+     * @param failCount    失败次数增量
+     * @param now          最后执行时间
+     * @return
+     */
+    int incrCount(@Param("id") Long id, @Param("successCount") long successCount, @Param("failCount") long failCount,
+                  @Param("now") LocalDateTime now);
 }
 
 
@@ -0,0 +1,32 @@
+package top.tangyh.lamp.msg.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import top.tangyh.basic.constant.Constants;
+
+/**
+ * 消息接口执行日志批量写入配置
+ *
+ * @author zuihou
+ * @date 2024/9/11 14:20
+ */
+@Setter
+@Getter
+@ConfigurationProperties(prefix = InterfaceLogProperties.PREFIX)
+public class InterfaceLogProperties {
+    public static final String PREFIX = Constants.PROJECT_PREFIX + ".interface-log";
+
+    /**
+     * 内存缓冲队列的容量，队列满后执行记录改为同步写入
+     */
+    private Integer queueCapacity = 10000;
+    /**
+     * 每次批量写入执行记录的最大条数
+     */
+    private Integer batchSize = 200;
+    /**
+     * 定时刷盘间隔(毫秒)
+     */
+    private Long flushIntervalMillis = 1000L;
+}
@@ -3,6 +3,8 @@ package top.tangyh.lamp.msg.service;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import top.tangyh.basic.base.request.PageParams;
 import top.tangyh.basic.base.service.SuperService;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
 import top.tangyh.lamp.msg.entity.ExtendNotice;
 import top.tangyh.lamp.msg.vo.query.ExtendNoticePageQuery;
 import top.tangyh.lamp.msg.vo.result.ExtendNoticeResultVO;
@@ -31,6 +33,14 @@ public interface ExtendNoticeService extends SuperService<Long, ExtendNotice> {
      */
     IPage<ExtendNoticeResultVO> page(IPage<ExtendNoticeResultVO> page, PageParams<ExtendNoticePageQuery> params);
 
+    /**
+     * 游标分页查询 接收人的通知
+     *
+     * @param params 分页参数， model.recipientId 必传
+     * @return 分页结果
+     */
+    SeekPageResult<ExtendNoticeResultVO> seekPage(SeekPageParams<ExtendNoticePageQuery> params);
+
     /**
      * 标记 已读
      *
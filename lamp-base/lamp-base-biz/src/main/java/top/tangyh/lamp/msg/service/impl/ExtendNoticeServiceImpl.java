@@ -9,7 +9,11 @@ import org.springframework.transaction.annotation.Transactional;
 import top.tangyh.basic.base.request.PageParams;
 import top.tangyh.basic.base.service.impl.SuperServiceImpl;
 import top.tangyh.basic.database.mybatis.conditions.Wraps;
+import top.tangyh.basic.database.mybatis.conditions.query.LbQueryWrap;
 import top.tangyh.basic.utils.ArgumentAssert;
+import top.tangyh.basic.utils.BeanPlusUtil;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
 import top.tangyh.lamp.msg.entity.ExtendNotice;
 import top.tangyh.lamp.msg.manager.ExtendNoticeManager;
 import top.tangyh.lamp.msg.service.ExtendNoticeService;
@@ -40,6 +44,21 @@ public class ExtendNoticeServiceImpl extends SuperServiceImpl<ExtendNoticeManage
         return null;
     }
 
+    @Override
+    public SeekPageResult<ExtendNoticeResultVO> seekPage(SeekPageParams<ExtendNoticePageQuery> params) {
+        ExtendNoticePageQuery query = params.getModel();
+        ArgumentAssert.notNull(query, "请传入查询参数");
+        ArgumentAssert.notNull(query.getRecipientId(), "接收人不能为空");
+        LbQueryWrap<ExtendNotice> wrap = Wraps.<ExtendNotice>lbQ()
+                .eq(ExtendNotice::getRecipientId, query.getRecipientId())
+                .eq(ExtendNotice::getRemindMode, query.getRemindMode())
+                .eq(ExtendNotice::getIsRead, query.getIsRead())
+                .eq(ExtendNotice::getIsHandle, query.getIsHandle())
+                .eq(ExtendNotice::getBizType, query.getBizType())
+                .like(ExtendNotice::getTitle, query.getTitle());
+        return superManager.seekPage(wrap, params).convert(list -> BeanPlusUtil.toBeanList(list, ExtendNoticeResultVO.class));
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Boolean mark(List<Long> noticeIds, Long employeeId) {
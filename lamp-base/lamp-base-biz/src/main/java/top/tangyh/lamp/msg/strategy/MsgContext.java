@@ -10,6 +10,7 @@ import org.springframework.transaction.annotation.Transactional;
 import top.tangyh.basic.utils.ArgumentAssert;
 import top.tangyh.basic.utils.SpringUtils;
 
+import top.tangyh.lamp.msg.biz.InterfaceLogCollector;
 import top.tangyh.lamp.msg.entity.DefInterface;
 import top.tangyh.lamp.msg.entity.DefMsgTemplate;
 import top.tangyh.lamp.msg.entity.ExtendInterfaceLog;
@@ -22,7 +23,6 @@ import top.tangyh.lamp.msg.enumeration.MsgInterfaceLoggingStatusEnum;
 import top.tangyh.lamp.msg.enumeration.TaskStatus;
 import top.tangyh.lamp.msg.glue.GlueFactory;
 import top.tangyh.lamp.msg.manager.ExtendInterfaceLogManager;
-import top.tangyh.lamp.msg.manager.ExtendInterfaceLoggingManager;
 import top.tangyh.lamp.msg.manager.ExtendMsgManager;
 import top.tangyh.lamp.msg.strategy.domain.MsgParam;
 import top.tangyh.lamp.msg.strategy.domain.MsgResult;
@@ -42,7 +42,7 @@ import java.util.Map;
 public class MsgContext {
     private final ExtendInterfaceLogManager extendInterfaceLogManager;
     private final ExtendMsgManager extendMsgManager;
-    private final ExtendInterfaceLoggingManager extendInterfaceLoggingManager;
+    private final InterfaceLogCollector interfaceLogCollector;
 
     @Transactional(rollbackFor = Exception.class)
     
@@ -87,7 +87,7 @@ public class MsgContext {
                 /*
                  * 注意： 脚本中，不支持lombok注解
                  */
-                msgStrategy = GlueFactory.getInstance().loadNewInstance(defInterface.getScript());
+                msgStrategy = GlueFactory.getInstance().loadInstance("interface:" + defInterface.getId(), defInterface.getUpdatedTime(), defInterface.getScript());
                 ArgumentAssert.notNull(msgStrategy, "实现类不存在");
                 result = msgStrategy.exec(msgParam);
             }
@@ -96,11 +96,11 @@ public class MsgContext {
             if (success) {
                 logging.setStatus(MsgInterfaceLoggingStatusEnum.SUCCESS.getValue());
                 extendMsg.setStatus(TaskStatus.SUCCESS);
-                extendInterfaceLogManager.incrSuccessCount(extendInterfaceLog.getId());
+                interfaceLogCollector.incrSuccessCount(extendInterfaceLog.getId());
             } else {
                 extendMsg.setStatus(TaskStatus.FAIL);
                 logging.setStatus(MsgInterfaceLoggingStatusEnum.FAIL.getValue());
-                extendInterfaceLogManager.incrFailCount(extendInterfaceLog.getId());
+                interfaceLogCollector.incrFailCount(extendInterfaceLog.getId());
             }
 
             logging.setResult(JSONUtil.toJsonStr(result));
@@ -116,10 +116,10 @@ public class MsgContext {
             log.error("执行发送消息失败", e);
             logging.setStatus(MsgInterfaceLoggingStatusEnum.FAIL.getValue());
             logging.setErrorMsg(ExceptionUtil.getRootCauseMessage(e));
-            extendInterfaceLogManager.incrFailCount(extendInterfaceLog.getId());
+            interfaceLogCollector.incrFailCount(extendInterfaceLog.getId());
 
         } finally {
-            extendInterfaceLoggingManager.save(logging);
+            interfaceLogCollector.collect(logging);
         }
         return true;
     }
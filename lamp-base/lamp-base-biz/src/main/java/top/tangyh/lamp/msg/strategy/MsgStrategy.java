@@ -64,7 +64,8 @@ public interface MsgStrategy {
         String title = templateTitle;
         String content = templateContent;
         if (StrUtil.isNotEmpty(script)) {
-            resultParams = (Map<String, Object>) GlueFactory.getInstance().exeGroovyScript(script, params);
+            resultParams = (Map<String, Object>) GlueFactory.getInstance().exeGroovyScript("template:" + extendMsgTemplate.getId(),
+                    extendMsgTemplate.getUpdatedTime(), script, params);
         }
         if (StrUtil.isNotEmpty(templateTitle)) {
             title = FreeMarkerUtil.generateString(templateTitle, resultParams);
@@ -0,0 +1,136 @@
+package top.tangyh.lamp.file.strategy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.multipart.MultipartFile;
+import top.tangyh.lamp.file.domain.FileDeleteBO;
+import top.tangyh.lamp.file.domain.FileGetUrlBO;
+import top.tangyh.lamp.file.entity.File;
+import top.tangyh.lamp.file.enumeration.FileStorageType;
+import top.tangyh.lamp.file.properties.FileServerProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 文件访问地址缓存 测试
+ * <p>
+ * 使用只记录调用次数的签名策略，不依赖真实的对象存储
+ *
+ * @author zuihou
+ * @date 2024/9/6 9:30
+ */
+public class FileUrlCacheTest {
+    private FileServerProperties properties;
+    private FileUrlCache fileUrlCache;
+    private StubFileStrategy strategy;
+
+    @BeforeEach
+    public void init() {
+        properties = new FileServerProperties();
+        properties.getMinIo().setBucket("private");
+        properties.getPublicBucket().add("public");
+        fileUrlCache = new FileUrlCache(properties);
+        strategy = new StubFileStrategy();
+    }
+
+    @Test
+    public void testCacheSignedUrl() {
+        List<FileGetUrlBO> fileGets = Arrays.asList(fileGet("private", "a.png"), fileGet("private", "b.png"));
+
+        Map<String, String> first = fileUrlCache.findUrl(FileStorageType.MIN_IO, strategy, fileGets);
+        Map<String, String> second = fileUrlCache.findUrl(FileStorageType.MIN_IO, strategy, fileGets);
+
+        assertEquals(first, second);
+        assertEquals(1, strategy.batches.size());
+        assertEquals(2L, fileUrlCache.getStats().get("hit"));
+        assertEquals(2L, fileUrlCache.getStats().get("signed"));
+    }
+
+    @Test
+    public void testSignOnlyMissedFiles() {
+        fileUrlCache.findUrl(FileStorageType.MIN_IO, strategy, Collections.singletonList(fileGet("private", "a.png")));
+        Map<String, String> map = fileUrlCache.findUrl(FileStorageType.MIN_IO, strategy,
+                Arrays.asList(fileGet("private", "a.png"), fileGet("private", "b.png")));
+
+        assertEquals(Arrays.asList("a.png", "b.png"), new ArrayList<>(map.keySet()));
+        assertEquals(Collections.singletonList("b.png"), strategy.batches.get(1));
+    }
+
+    @Test
+    public void testPublicBucketNotCached() {
+        List<FileGetUrlBO> fileGets = Collections.singletonList(fileGet("public", "a.png"));
+
+        fileUrlCache.findUrl(FileStorageType.MIN_IO, strategy, fileGets);
+        fileUrlCache.findUrl(FileStorageType.MIN_IO, strategy, fileGets);
+
+        assertEquals(2, strategy.batches.size());
+        assertEquals(0L, fileUrlCache.getStats().get("signed"));
+    }
+
+    @Test
+    public void testEvict() {
+        List<FileGetUrlBO> fileGets = Collections.singletonList(fileGet("private", "a.png"));
+
+        fileUrlCache.findUrl(FileStorageType.MIN_IO, strategy, fileGets);
+        fileUrlCache.evict(FileStorageType.MIN_IO, "private", "a.png");
+        fileUrlCache.findUrl(FileStorageType.MIN_IO, strategy, fileGets);
+
+        assertEquals(2, strategy.batches.size());
+    }
+
+    @Test
+    public void testDisabled() {
+        properties.getUrlCache().setEnabled(false);
+        List<FileGetUrlBO> fileGets = Collections.singletonList(fileGet("private", "a.png"));
+
+        fileUrlCache.findUrl(FileStorageType.MIN_IO, strategy, fileGets);
+        fileUrlCache.findUrl(FileStorageType.MIN_IO, strategy, fileGets);
+
+        assertEquals(2, strategy.batches.size());
+    }
+
+    private static FileGetUrlBO fileGet(String bucket, String path) {
+        return FileGetUrlBO.builder().bucket(bucket).path(path).build();
+    }
+
+    /**
+     * 每次签名返回不同的地址，并记录每次批量签名的文件路径
+     */
+    private static class StubFileStrategy implements FileStrategy {
+        private final List<List<String>> batches = new ArrayList<>();
+
+        @Override
+        public File upload(MultipartFile file, String bucket, String bizType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean delete(FileDeleteBO fileDeleteBO) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, String> findUrl(List<FileGetUrlBO> fileGets) {
+            List<String> paths = new ArrayList<>();
+            Map<String, String> map = new LinkedHashMap<>();
+            for (FileGetUrlBO fileGet : fileGets) {
+                paths.add(fileGet.getPath());
+                map.put(fileGet.getPath(), getUrl(fileGet));
+            }
+            batches.add(paths);
+            return map;
+        }
+
+        @Override
+        public String getUrl(FileGetUrlBO fileGet) {
+            return "http://stub/" + fileGet.getBucket() + "/" + fileGet.getPath() + "?signature=" + System.nanoTime();
+        }
+    }
+}
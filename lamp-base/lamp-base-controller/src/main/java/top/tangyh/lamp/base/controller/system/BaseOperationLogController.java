@@ -6,6 +6,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,6 +22,9 @@ import top.tangyh.lamp.base.vo.query.system.BaseOperationLogPageQuery;
 import top.tangyh.lamp.base.vo.result.system.BaseOperationLogResultVO;
 import top.tangyh.lamp.base.vo.save.system.BaseOperationLogSaveVO;
 import top.tangyh.lamp.base.vo.update.system.BaseOperationLogUpdateVO;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
+import top.tangyh.lamp.common.retention.LogRetentionProgress;
 
 import java.time.LocalDateTime;
 
@@ -52,6 +58,14 @@ public class BaseOperationLogController extends SuperController<BaseOperationLog
         return R.success(superService.getDetail(id));
     }
 
+    @Operation(summary = "游标分页查询", description = "按上一页返回的 nextCursor 翻页，不统计总数，适合数据量大、翻页深的场景")
+    @PostMapping("/seekPage")
+    public R<SeekPageResult<BaseOperationLogResultVO>> seekPage(@RequestBody SeekPageParams<BaseOperationLogPageQuery> params) {
+        SeekPageResult<BaseOperationLogResultVO> result = superService.seekPage(params);
+        echoService.action(result.getRecords());
+        return success(result);
+    }
+
     @Operation(summary = "清空日志")
     @DeleteMapping("clear")
     @WebLog("清空日志")
@@ -81,4 +95,17 @@ public class BaseOperationLogController extends SuperController<BaseOperationLog
         }
         return success(superService.clearLog(clearBeforeTime, clearBeforeNum));
     }
+
+    @Operation(summary = "按保留策略清理日志", description = "由定时任务调用")
+    @PostMapping("clearByPolicy")
+    @WebLog("按保留策略清理日志")
+    public R<Long> clearByPolicy() {
+        return success(superService.clearLogByPolicy());
+    }
+
+    @Operation(summary = "查询清理进度")
+    @GetMapping("clearProgress")
+    public R<LogRetentionProgress> clearProgress() {
+        return success(superService.getClearProgress());
+    }
 }
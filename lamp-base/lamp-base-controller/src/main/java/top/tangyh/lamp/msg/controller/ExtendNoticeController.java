@@ -19,6 +19,8 @@ import top.tangyh.basic.context.ContextUtil;
 import top.tangyh.basic.database.mybatis.conditions.Wraps;
 import top.tangyh.basic.interfaces.echo.EchoService;
 import top.tangyh.basic.utils.BeanPlusUtil;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
 import top.tangyh.lamp.msg.entity.ExtendNotice;
 import top.tangyh.lamp.msg.enumeration.NoticeRemindModeEnum;
 import top.tangyh.lamp.msg.service.ExtendNoticeService;
@@ -88,6 +90,19 @@ public class ExtendNoticeController extends SuperController<ExtendNoticeService,
     }
 
 
+    @Operation(summary = "游标分页查询我的消息", description = "按上一页返回的 nextCursor 翻页，不统计总数")
+    @PostMapping("/seekMyNotice")
+    public R<SeekPageResult<ExtendNoticeResultVO>> seekMyNotice(@RequestBody SeekPageParams<ExtendNoticePageQuery> params) {
+        if (params.getModel() == null) {
+            params.setModel(new ExtendNoticePageQuery());
+        }
+        // 只能查询自己的消息
+        params.getModel().setRecipientId(ContextUtil.getEmployeeId());
+        SeekPageResult<ExtendNoticeResultVO> result = superService.seekPage(params);
+        echoService.action(result.getRecords());
+        return R.success(result);
+    }
+
     /**
      * 标记消息为已读
      *
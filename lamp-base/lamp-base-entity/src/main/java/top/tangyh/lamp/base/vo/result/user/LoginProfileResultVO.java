@@ -0,0 +1,46 @@
+package top.tangyh.lamp.base.vo.result.user;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+
+/**
+ * <p>
+ * 实体类
+ * 用户的登录档案
+ * </p>
+ * 登录时需要的员工、单位、部门信息，预先计算后缓存
+ *
+ * @author zuihou
+ * @date 2024/9/13 10:00
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+@Builder
+@Schema(description = "用户的登录档案")
+public class LoginProfileResultVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "用户id")
+    private Long userId;
+    @Schema(description = "登录员工id;没有员工或员工被禁用时为空")
+    private Long employeeId;
+    @Schema(description = "当前所属顶级单位id")
+    private Long topCompanyId;
+    @Schema(description = "当前所属单位id")
+    private Long companyId;
+    @Schema(description = "当前所属部门id")
+    private Long deptId;
+    @Schema(description = "是否需要保存上次登录的单位和部门;员工首次登录时自动选择了单位或部门")
+    private Boolean lastOrgChanged;
+    @Schema(description = "计算档案时的数据版本")
+    private Long version;
+}
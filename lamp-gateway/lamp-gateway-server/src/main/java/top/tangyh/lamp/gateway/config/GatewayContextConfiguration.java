@@ -0,0 +1,26 @@
+package top.tangyh.lamp.gateway.config;
+
+import io.micrometer.context.ContextRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Hooks;
+import top.tangyh.lamp.gateway.filter.GatewayContextAccessor;
+
+/**
+ * 网关请求上下文 -> MDC 桥接
+ * <p>
+ * 注册 GatewayContextAccessor 并开启 Reactor 自动上下文传递，过滤器、负载均衡等在请求链路中打印的日志都带上链路追踪id
+ *
+ * @author zuihou
+ * @date 2024/9/12 14:00
+ */
+@Configuration
+public class GatewayContextConfiguration {
+
+    @PostConstruct
+    public void init() {
+        // 相同 key 的 accessor 会被替换，重复初始化不会重复注册
+        ContextRegistry.getInstance().registerThreadLocalAccessor(new GatewayContextAccessor());
+        Hooks.enableAutomaticContextPropagation();
+    }
+}
@@ -23,6 +23,7 @@ import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 import top.tangyh.basic.base.R;
+import top.tangyh.lamp.gateway.filter.GatewayContext;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -104,7 +105,7 @@ public class JsonExceptionHandler implements ErrorWebExceptionHandler {
         String msg = R.result(httpStatus.value(), null, body, body).setPath(request.getPath().toString()).toString();
         result.put("body", msg);
         //错误记录
-        log.error("[全局异常处理]异常请求路径:{},记录异常信息:{}", request.getPath(), ex.getMessage());
+        GatewayContext.withMdc(exchange, () -> log.error("[全局异常处理]异常请求路径:{},记录异常信息:{}", request.getPath(), ex.getMessage()));
         //参考AbstractErrorWebExceptionHandler
         if (exchange.getResponse().isCommitted()) {
             return Mono.error(ex);
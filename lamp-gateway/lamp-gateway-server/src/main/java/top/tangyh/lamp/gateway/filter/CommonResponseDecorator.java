@@ -3,68 +3,122 @@ package top.tangyh.lamp.gateway.filter;
 import lombok.extern.slf4j.Slf4j;
 import org.reactivestreams.Publisher;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferFactory;
-import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import top.tangyh.lamp.gateway.properties.ResponseLogProperties;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
+ * 记录响应体的装饰器
+ * <p>
+ * 原来每个响应都要把全部 DataBuffer 读成 byte[]、转成字符串打印，再包装成新的 DataBuffer 写出，
+ * 整个响应被缓冲并复制两次，也无法流式输出。本类：
+ * 1. 响应体原样转发，不读取、不释放、不重新包装 DataBuffer
+ * 2. 只记录配置的内容类型，流式和二进制响应直接转发
+ * 3. 通过 DataBuffer 的只读视图复制前 maxBytes 个字节用于打印，不改变 DataBuffer 的读取位置
+ * 4. 不修改响应状态码
+ * 5. 打印日志时才把请求上下文放入 MDC
+ *
  * @author zuihou
  * @date 2021/10/29 14:55
  */
 @Slf4j
 public class CommonResponseDecorator extends ServerHttpResponseDecorator {
+    /**
+     * 流式和二进制的内容类型，不记录
+     */
+    private static final List<MediaType> SKIP_TYPES = List.of(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_NDJSON,
+            MediaType.APPLICATION_OCTET_STREAM);
 
-    private DataBufferFactory bufferFactory;
+    private final String path;
+    private final GatewayContext context;
+    private final ResponseLogProperties responseLogProperties;
+    /**
+     * 是否还有记录日志的额度
+     */
+    private final BooleanSupplier permit;
 
-    public CommonResponseDecorator(ServerHttpResponse delegate) {
+    public CommonResponseDecorator(ServerHttpResponse delegate, String path, GatewayContext context,
+                                   ResponseLogProperties responseLogProperties, BooleanSupplier permit) {
         super(delegate);
-        this.bufferFactory = delegate.bufferFactory();
+        this.path = path;
+        this.context = context;
+        this.responseLogProperties = responseLogProperties;
+        this.permit = permit;
     }
 
     @Override
     public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
-        if (body instanceof Flux) {
-            Flux<? extends DataBuffer> fluxBody = (Flux<? extends DataBuffer>) body;
-//            if (this.getDelegate().getHeaders().getContentLength() < 1) {
-////                ResponseVo response = new ResponseVo();
-////                response.setCode(0);
-////                response.setMessage("success");
-////                byte[] resp = BeanMapper.toJsonString(response).getBytes(Charset.forName("UTF-8"));
-////                this.getDelegate().getHeaders().setContentLength(resp.length);
-//
-//                return getDelegate().writeWith(Flux.just(bufferFactory.wrap(resp)));
-//            }
-            this.getDelegate().setStatusCode(HttpStatus.OK);
-            MediaType contentType = getDelegate().getHeaders().getContentType();
-            log.info("contentType1={}", contentType);
-            log.info("contentType2={}", MediaType.APPLICATION_JSON.equals(contentType));
+        MediaType contentType = getHeaders().getContentType();
+        if (!isLoggable(contentType) || !permit.getAsBoolean()) {
+            return super.writeWith(body);
+        }
+        Capture capture = new Capture(Math.max(responseLogProperties.getMaxBytes(), 0));
+        Charset charset = contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset();
+        return super.writeWith(Flux.from(body)
+                .doOnNext(capture::append)
+                .doOnComplete(() -> GatewayContext.withMdc(context, () -> log.info("响应 path={} status={} bytes={}{} body={}",
+                        path, getStatusCode(), capture.total, capture.isTruncated() ? "(已截断)" : "", capture.toString(charset)))));
+    }
+
+    private boolean isLoggable(MediaType contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        for (MediaType skipType : SKIP_TYPES) {
+            if (skipType.isCompatibleWith(contentType)) {
+                return false;
+            }
+        }
+        for (MediaType mediaType : responseLogProperties.getContentTypes()) {
+            if (mediaType.isCompatibleWith(contentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-            return super.writeWith(fluxBody.map(dataBuffer -> {
-                // probably should reuse buffers
-                byte[] content = new byte[dataBuffer.readableByteCount()];
-                dataBuffer.read(content);
-                // 释放掉内存
-                DataBufferUtils.release(dataBuffer);
-                if (MediaType.APPLICATION_JSON.equals(contentType)) {
-                    String rs = new String(content, Charset.forName("UTF-8"));
-                    log.info(rs);
+    /**
+     * 响应体的前 maxBytes 个字节
+     */
+    private static class Capture {
+        private final byte[] bytes;
+        private int size;
+        private long total;
+
+        private Capture(int maxBytes) {
+            this.bytes = new byte[maxBytes];
+        }
+
+        private void append(DataBuffer dataBuffer) {
+            total += dataBuffer.readableByteCount();
+            if (size >= bytes.length) {
+                return;
+            }
+            try (DataBuffer.ByteBufferIterator iterator = dataBuffer.readableByteBuffers()) {
+                while (iterator.hasNext() && size < bytes.length) {
+                    ByteBuffer byteBuffer = iterator.next();
+                    int length = Math.min(byteBuffer.remaining(), bytes.length - size);
+                    byteBuffer.get(bytes, size, length);
+                    size += length;
                 }
-//                ResponseVo response = new ResponseVo();
-//                response.setCode(0);
-//                response.setMessage("success");
-//                response.setData(BeanMapper.parseJson(rs, Map.class));
-//                byte[] newRs = BeanMapper.toJsonString(response).getBytes(Charset.forName("UTF-8"));
-//                this.getDelegate().getHeaders().setContentLength(newRs.length);//如果不重新设置长度则收不到消息。
-                return bufferFactory.wrap(content);
-            }));
+            }
+        }
+
+        private boolean isTruncated() {
+            return total > size;
+        }
+
+        private String toString(Charset charset) {
+            return new String(bytes, 0, size, charset);
         }
-        return super.writeWith(body);
     }
 }
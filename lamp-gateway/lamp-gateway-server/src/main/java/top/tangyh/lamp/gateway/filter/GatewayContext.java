@@ -0,0 +1,93 @@
+package top.tangyh.lamp.gateway.filter;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.MDC;
+import org.springframework.web.server.ServerWebExchange;
+import top.tangyh.basic.context.ContextConstants;
+
+/**
+ * 网关请求上下文
+ * <p>
+ * 网关运行在 Netty 的事件循环线程上，同一个线程交替处理多个请求，直接放入 MDC、ThreadLocal 的值会串到其他请求中。
+ * 本类保存当前请求的链路追踪id、应用id：
+ * 1. TraceFilter 创建上下文，放入 exchange 的属性和 Reactor 的 Context 中
+ * 2. 后续过滤器从 exchange 的属性中读取、补充上下文
+ * 3. Reactor 每次在线程上执行算子时，由 GatewayContextAccessor 把 Context 中的上下文放入 MDC，执行完恢复原值
+ * 4. 不在 Reactor Context 中执行的日志(如全局异常处理)，使用 withMdc 临时放入 MDC
+ *
+ * @author zuihou
+ * @date 2024/9/12 14:00
+ */
+@Getter
+public class GatewayContext {
+    public static final String KEY = GatewayContext.class.getName();
+
+    private final String traceId;
+    @Setter
+    private String applicationId;
+
+    public GatewayContext(String traceId) {
+        this.traceId = traceId;
+    }
+
+    /**
+     * 获取当前请求的上下文
+     *
+     * @param exchange exchange
+     * @return 上下文， TraceFilter 之前为null
+     */
+    public static GatewayContext get(ServerWebExchange exchange) {
+        return exchange.getAttribute(KEY);
+    }
+
+    /**
+     * 把当前请求的上下文放入 MDC 后执行，用于打印日志
+     *
+     * @param exchange exchange
+     * @param runnable 打印日志
+     */
+    public static void withMdc(ServerWebExchange exchange, Runnable runnable) {
+        withMdc(get(exchange), runnable);
+    }
+
+    /**
+     * 把上下文放入 MDC 后执行，用于打印日志； 执行完恢复 MDC 原来的值
+     *
+     * @param context  上下文， 为null时直接执行
+     * @param runnable 打印日志
+     */
+    public static void withMdc(GatewayContext context, Runnable runnable) {
+        if (context == null) {
+            runnable.run();
+            return;
+        }
+        String traceId = MDC.get(ContextConstants.TRACE_ID_HEADER);
+        String applicationId = MDC.get(ContextConstants.APPLICATION_ID_HEADER);
+        putMdc(context);
+        try {
+            runnable.run();
+        } finally {
+            putMdc(ContextConstants.TRACE_ID_HEADER, traceId);
+            putMdc(ContextConstants.APPLICATION_ID_HEADER, applicationId);
+        }
+    }
+
+    /**
+     * 把上下文放入 MDC
+     *
+     * @param context 上下文， 为null时清空
+     */
+    static void putMdc(GatewayContext context) {
+        putMdc(ContextConstants.TRACE_ID_HEADER, context == null ? null : context.getTraceId());
+        putMdc(ContextConstants.APPLICATION_ID_HEADER, context == null ? null : context.getApplicationId());
+    }
+
+    private static void putMdc(String key, String value) {
+        if (value == null) {
+            MDC.remove(key);
+        } else {
+            MDC.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package top.tangyh.lamp.gateway.filter;
+
+import io.micrometer.context.ThreadLocalAccessor;
+
+/**
+ * 在 Reactor Context 和 MDC 之间传递网关请求上下文
+ * <p>
+ * 开启 Reactor 自动上下文传递后，算子在线程上执行前调用 setValue 放入 Context 中的上下文，
+ * 执行完调用 restore/setValue() 恢复线程原来的值，不会串到同一线程上的其他请求中。
+ *
+ * @author zuihou
+ * @date 2024/9/12 14:00
+ */
+public class GatewayContextAccessor implements ThreadLocalAccessor<GatewayContext> {
+    private static final ThreadLocal<GatewayContext> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public Object key() {
+        return GatewayContext.KEY;
+    }
+
+    @Override
+    public GatewayContext getValue() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public void setValue(GatewayContext value) {
+        CURRENT.set(value);
+        GatewayContext.putMdc(value);
+    }
+
+    @Override
+    public void setValue() {
+        CURRENT.remove();
+        GatewayContext.putMdc(null);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void reset() {
+        setValue();
+    }
+}
@@ -1,5 +1,6 @@
 package top.tangyh.lamp.gateway.filter;
 
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
 import org.springframework.core.Ordered;
 
 /**
@@ -19,6 +20,10 @@ public interface OrderedConstant {
      * uri权限
      */
     int AUTHENTICATION = -500;
+    /**
+     * 响应体日志， 需要在写响应之前装饰响应
+     */
+    int RESPONSE_LOG = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
     int SWAGGER = 1;
     int GRAY = 10150;
 }
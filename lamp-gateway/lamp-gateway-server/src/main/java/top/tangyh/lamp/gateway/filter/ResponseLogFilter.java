@@ -0,0 +1,78 @@
+package top.tangyh.lamp.gateway.filter;
+
+import cn.hutool.core.collection.CollUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import top.tangyh.lamp.gateway.properties.ResponseLogProperties;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 响应体日志
+ * <p>
+ * 默认关闭。开启后只有匹配配置的路由id或请求路径、且被采样的请求才装饰响应，
+ * 每秒记录的响应数有上限，其余请求的响应体原样转发。
+ *
+ * @author zuihou
+ * @date 2024/9/12 11:00
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseLogFilter implements GlobalFilter, Ordered {
+    private final ResponseLogProperties responseLogProperties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final AtomicLong windowSecond = new AtomicLong();
+    private final AtomicInteger windowCount = new AtomicInteger();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!responseLogProperties.getEnabled() || !isMatch(exchange) || !isSampled()) {
+            return chain.filter(exchange);
+        }
+        String path = exchange.getRequest().getPath().value();
+        CommonResponseDecorator response = new CommonResponseDecorator(exchange.getResponse(), path,
+                GatewayContext.get(exchange), responseLogProperties, this::tryAcquire);
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return OrderedConstant.RESPONSE_LOG;
+    }
+
+    private boolean isMatch(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route != null && CollUtil.contains(responseLogProperties.getRouteIds(), route.getId())) {
+            return true;
+        }
+        String path = exchange.getRequest().getPath().value();
+        return responseLogProperties.getPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    private boolean isSampled() {
+        double sampleRate = responseLogProperties.getSampleRate();
+        return sampleRate >= 1D || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * 按秒计数，超过每秒上限后不再记录
+     */
+    private boolean tryAcquire() {
+        long second = System.currentTimeMillis() / 1000;
+        long current = windowSecond.get();
+        if (second != current && windowSecond.compareAndSet(current, second)) {
+            windowCount.set(0);
+        }
+        return windowCount.incrementAndGet() <= responseLogProperties.getMaxLogsPerSecond();
+    }
+}
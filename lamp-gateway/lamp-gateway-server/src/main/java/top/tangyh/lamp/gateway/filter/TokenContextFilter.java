@@ -4,7 +4,6 @@ import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.URLUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.core.io.buffer.DataBuffer;
@@ -19,13 +18,11 @@ import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 import top.tangyh.basic.base.R;
-import top.tangyh.basic.context.ContextConstants;
-import top.tangyh.basic.context.ContextUtil;
 import top.tangyh.basic.exception.BizException;
 import top.tangyh.basic.exception.UnauthorizedException;
 import top.tangyh.basic.utils.StrPool;
 import top.tangyh.lamp.common.properties.IgnoreProperties;
-import top.tangyh.lamp.common.utils.Base64Util;
+import top.tangyh.lamp.system.manager.system.impl.DefClientRegistry;
 
 import static top.tangyh.basic.context.ContextConstants.APPLICATION_ID_HEADER;
 import static top.tangyh.basic.context.ContextConstants.APPLICATION_ID_KEY;
@@ -43,6 +40,7 @@ import static top.tangyh.basic.context.ContextConstants.CLIENT_KEY;
 @RequiredArgsConstructor
 public class TokenContextFilter implements WebFilter, Ordered {
     private final IgnoreProperties ignoreProperties;
+    private final DefClientRegistry defClientRegistry;
     @Value("${spring.profiles.active:dev}")
     protected String profiles;
 
@@ -91,17 +89,19 @@ public class TokenContextFilter implements WebFilter, Ordered {
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
         ServerHttpResponse response = exchange.getResponse();
-        ServerHttpRequest.Builder mutate = request.mutate();
-
-        ContextUtil.setGrayVersion(getHeader(ContextConstants.GRAY_VERSION, request));
-
+        GatewayContext context = GatewayContext.get(exchange);
+        if (context == null) {
+            context = new GatewayContext(TraceIdGenerator.next());
+            exchange.getAttributes().put(GatewayContext.KEY, context);
+        }
 
+        String clientId;
         try {
             // 2,解码 Authorization
-            parseClient(request, mutate);
+            clientId = parseClient(request);
 
             // 3, 获取 应用id
-            parseApplication(request, mutate);
+            parseApplication(request, context);
 
         } catch (UnauthorizedException e) {
             return errorResponse(response, e.getMessage(), e.getCode(), HttpStatus.UNAUTHORIZED);
@@ -111,35 +111,53 @@ public class TokenContextFilter implements WebFilter, Ordered {
             return errorResponse(response, "验证token出错", R.FAIL_CODE, HttpStatus.BAD_REQUEST);
         }
 
+        // 没有需要传递的请求头时，不重新构建请求
+        if (clientId == null && context.getApplicationId() == null) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest.Builder mutate = request.mutate();
+        addHeader(mutate, CLIENT_ID_HEADER, clientId);
+        addHeader(mutate, APPLICATION_ID_HEADER, context.getApplicationId());
         ServerHttpRequest build = mutate.build();
         return chain.filter(exchange.mutate().request(build).build());
     }
 
-    private void parseClient(ServerHttpRequest request, ServerHttpRequest.Builder mutate) {
+    private String parseClient(ServerHttpRequest request) {
         String base64Authorization = getHeader(CLIENT_KEY, request);
-        if (StrUtil.isNotEmpty(base64Authorization)) {
-            String[] client = Base64Util.getClient(base64Authorization);
-            ContextUtil.setClientId(client[0]);
-            addHeader(mutate, CLIENT_ID_HEADER, ContextUtil.getClientId());
+        if (StrUtil.isEmpty(base64Authorization)) {
+            return null;
         }
+        // 解码结果按请求头的值缓存
+        return defClientRegistry.parseHeader(base64Authorization)[0];
     }
 
-    private void parseApplication(ServerHttpRequest request, ServerHttpRequest.Builder mutate) {
+    private void parseApplication(ServerHttpRequest request, GatewayContext context) {
         String applicationIdStr = getHeader(APPLICATION_ID_KEY, request);
         if (StrUtil.isNotEmpty(applicationIdStr)) {
-            ContextUtil.setApplicationId(applicationIdStr);
-            addHeader(mutate, APPLICATION_ID_HEADER, ContextUtil.getApplicationId());
-            MDC.put(APPLICATION_ID_HEADER, applicationIdStr);
+            context.setApplicationId(applicationIdStr);
         }
     }
 
-    private void addHeader(ServerHttpRequest.Builder mutate, String name, Object value) {
+    private void addHeader(ServerHttpRequest.Builder mutate, String name, String value) {
         if (value == null) {
             return;
         }
-        String valueStr = value.toString();
-        String valueEncode = URLUtil.encode(valueStr);
-        mutate.header(name, valueEncode);
+        mutate.header(name, encodeHeader(value));
+    }
+
+    /**
+     * 只有包含需要编码的字符时才编码， id、客户端id 等通常不需要编码
+     */
+    private static String encodeHeader(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean unreserved = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~';
+            if (!unreserved) {
+                return URLUtil.encode(value);
+            }
+        }
+        return value;
     }
 
     protected Mono<Void> errorResponse(ServerHttpResponse response, String errMsg, int errCode, HttpStatus httpStatus) {
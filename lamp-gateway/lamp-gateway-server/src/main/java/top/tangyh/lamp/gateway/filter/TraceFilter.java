@@ -1,7 +1,5 @@
 package top.tangyh.lamp.gateway.filter;
 
-import cn.hutool.core.util.IdUtil;
-import org.slf4j.MDC;
 import org.springframework.core.Ordered;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
@@ -9,10 +7,13 @@ import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 import top.tangyh.basic.context.ContextConstants;
 
 /**
  * 生成日志链路追踪id，并传入header中
+ * <p>
+ * 链路追踪id保存在 GatewayContext 中，随 exchange 的属性和 Reactor Context 传递，由 GatewayContextAccessor 在执行时放入 MDC
  *
  * @author zuihou
  * @date 2020年03月09日18:02:47
@@ -22,16 +23,15 @@ public class TraceFilter implements WebFilter, Ordered {
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         //链路追踪id
-        String traceId = IdUtil.fastSimpleUUID();
-        MDC.put(ContextConstants.TRACE_ID_HEADER, traceId);
-        try {
-            ServerHttpRequest serverHttpRequest = exchange.getRequest().mutate()
-                    .headers(h -> h.add(ContextConstants.TRACE_ID_HEADER, traceId))
-                    .build();
-            return chain.filter(exchange.mutate().request(serverHttpRequest).build());
-        }finally {
-            MDC.remove(ContextConstants.TRACE_ID_HEADER);
-        }
+        String traceId = TraceIdGenerator.next();
+        GatewayContext context = new GatewayContext(traceId);
+        exchange.getAttributes().put(GatewayContext.KEY, context);
+
+        ServerHttpRequest serverHttpRequest = exchange.getRequest().mutate()
+                .headers(h -> h.add(ContextConstants.TRACE_ID_HEADER, traceId))
+                .build();
+        return chain.filter(exchange.mutate().request(serverHttpRequest).build())
+                .contextWrite(Context.of(GatewayContext.KEY, context));
     }
 
     @Override
@@ -0,0 +1,54 @@
+package top.tangyh.lamp.gateway.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.MediaType;
+import top.tangyh.basic.constant.Constants;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 网关响应体日志配置
+ * <p>
+ * 默认关闭，响应体原样转发；开启后只记录匹配的路由或路径、匹配的内容类型的响应
+ *
+ * @author zuihou
+ * @date 2024/9/12 11:00
+ */
+@Setter
+@Getter
+@ConfigurationProperties(prefix = ResponseLogProperties.PREFIX)
+public class ResponseLogProperties {
+    public static final String PREFIX = Constants.PROJECT_PREFIX + ".response-log";
+
+    /**
+     * 是否记录响应体
+     */
+    private Boolean enabled = false;
+    /**
+     * 需要记录的路由id
+     */
+    private List<String> routeIds = new ArrayList<>();
+    /**
+     * 需要记录的请求路径， 支持通配符，如: /oauth/**
+     */
+    private List<String> paths = new ArrayList<>();
+    /**
+     * 需要记录的内容类型
+     */
+    private List<MediaType> contentTypes = new ArrayList<>(List.of(MediaType.APPLICATION_JSON));
+    /**
+     * 每个响应最多记录的字节数
+     */
+    private Integer maxBytes = 2048;
+    /**
+     * 采样率 0~1
+     */
+    private Double sampleRate = 1D;
+    /**
+     * 每秒最多记录的响应数
+     */
+    private Integer maxLogsPerSecond = 10;
+}
@@ -0,0 +1,197 @@
+package top.tangyh.lamp.oauth.biz;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.wf.captcha.ArithmeticCaptcha;
+import com.wf.captcha.ChineseCaptcha;
+import com.wf.captcha.ChineseGifCaptcha;
+import com.wf.captcha.GifCaptcha;
+import com.wf.captcha.SpecCaptcha;
+import com.wf.captcha.base.Captcha;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import top.tangyh.lamp.common.stats.StatsSource;
+import top.tangyh.lamp.oauth.properties.CaptchaProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 图片验证码预生成池
+ * <p>
+ * GIF、PNG 验证码的绘制和编码比较耗CPU，登录页并发较高时会拖慢接口。
+ * 后台线程提前把验证码渲染成图片放入池中，接口只需从池中取出一张并绑定key；池为空时才同步生成。
+ * <p>
+ * 每张图片记录了生成时的规格(类型、宽高、长度、字符类型)，配置刷新后，规格不一致的图片会被丢弃。
+ *
+ * @author zuihou
+ * @date 2024/9/5 10:20
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CaptchaPool implements StatsSource {
+    private final CaptchaProperties captchaProperties;
+
+    private final LongAdder pooled = new LongAdder();
+    private final LongAdder fallback = new LongAdder();
+    private final LongAdder rendered = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private BlockingQueue<CaptchaImage> queue;
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        CaptchaProperties.Pool pool = captchaProperties.getPool();
+        // 池的容量在启动时确定，多个补充线程并发放入时也不会超出
+        queue = new ArrayBlockingQueue<>(Math.max(pool.getSize(), 1));
+        int threads = Math.max(pool.getRefillThreads(), 1);
+        executor = Executors.newScheduledThreadPool(threads, new NamedThreadFactory("captcha-pool-", true));
+        for (int i = 0; i < threads; i++) {
+            executor.scheduleWithFixedDelay(this::refill, 0, pool.getRefillIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 获取一张验证码图片
+     * 优先从池中获取，池为空时同步生成
+     *
+     * @return 验证码图片
+     */
+    public CaptchaImage take() {
+        if (Boolean.TRUE.equals(captchaProperties.getPool().getEnabled())) {
+            String spec = currentSpec();
+            CaptchaImage image;
+            while ((image = queue.poll()) != null) {
+                if (spec.equals(image.getSpec())) {
+                    pooled.increment();
+                    return image;
+                }
+                discarded.increment();
+            }
+        }
+        fallback.increment();
+        return render();
+    }
+
+    @Override
+    public String getStatsName() {
+        return "captchaPool";
+    }
+
+    /**
+     * 运行指标， 通过 /actuator/lampstats/captchaPool 查看
+     *
+     * @return 指标
+     */
+    @Override
+    public Map<String, Object> getStats() {
+        long pooledCount = pooled.sum();
+        long fallbackCount = fallback.sum();
+        long total = pooledCount + fallbackCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("depth", queue.size());
+        stats.put("capacity", queue.size() + queue.remainingCapacity());
+        stats.put("pooled", pooledCount);
+        stats.put("fallback", fallbackCount);
+        stats.put("fallbackRate", total == 0 ? 0D : (double) fallbackCount / total);
+        stats.put("rendered", rendered.sum());
+        stats.put("discarded", discarded.sum());
+        return stats;
+    }
+
+    private void refill() {
+        try {
+            CaptchaProperties.Pool pool = captchaProperties.getPool();
+            if (!Boolean.TRUE.equals(pool.getEnabled())) {
+                queue.clear();
+                return;
+            }
+            while (queue.remainingCapacity() > 0 && !Thread.currentThread().isInterrupted()) {
+                if (!queue.offer(render())) {
+                    // 其他补充线程已把池放满
+                    discarded.increment();
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            // 字体库缺失等问题会导致生成失败，此时由接口同步生成并抛出异常
+            log.error("预生成验证码失败", e);
+        }
+    }
+
+    private CaptchaImage render() {
+        String spec = currentSpec();
+        Captcha captcha = createCaptcha();
+        String text = captcha.text().toLowerCase();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        captcha.out(out);
+        rendered.increment();
+        return new CaptchaImage(text, out.toByteArray(), captchaProperties.getType().getContentType(), spec);
+    }
+
+    private String currentSpec() {
+        return captchaProperties.getType() + ":" + captchaProperties.getWidth() + ":" + captchaProperties.getHeight()
+                + ":" + captchaProperties.getLen() + ":" + captchaProperties.getCharType();
+    }
+
+    private Captcha createCaptcha() {
+
+        CaptchaProperties.CaptchaType type = captchaProperties.getType();
+        Captcha captcha = switch (type) {
+            case GIF ->
+                    new GifCaptcha(captchaProperties.getWidth(), captchaProperties.getHeight(), captchaProperties.getLen());
+            case SPEC ->
+                    new SpecCaptcha(captchaProperties.getWidth(), captchaProperties.getHeight(), captchaProperties.getLen());
+            case CHINESE ->
+                    new ChineseCaptcha(captchaProperties.getWidth(), captchaProperties.getHeight(), captchaProperties.getLen());
+            case CHINESE_GIF ->
+                    new ChineseGifCaptcha(captchaProperties.getWidth(), captchaProperties.getHeight(), captchaProperties.getLen());
+            default ->
+                    new ArithmeticCaptcha(captchaProperties.getWidth(), captchaProperties.getHeight(), captchaProperties.getLen());
+        };
+        captcha.setCharType(captchaProperties.getCharType());
+
+        return captcha;
+    }
+
+    /**
+     * 预生成的验证码图片
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CaptchaImage {
+        /**
+         * 验证码文本 (小写)
+         */
+        private final String text;
+        /**
+         * 图片
+         */
+        private final byte[] bytes;
+        /**
+         * 图片类型
+         */
+        private final String contentType;
+        /**
+         * 生成时的规格
+         */
+        private final String spec;
+    }
+}
@@ -0,0 +1,120 @@
+package top.tangyh.lamp.oauth.biz;
+
+import cn.hutool.core.util.StrUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import top.tangyh.lamp.common.properties.SystemProperties;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 登录失败次数限制
+ * <p>
+ * 撞库、暴力破解时，每次请求都要计算一次密码(故意计算缓慢)，并更新数据库中的密码错误次数。
+ * 本类在内存中按账号、IP统计时间窗口内的失败次数，超过限制后直接拒绝，不再计算密码和写数据库。
+ * <p>
+ * 只统计本服务实例的失败次数，账号锁定仍以数据库中的密码错误次数为准。
+ * 客户端IP从受信任的代理追加的 X-Forwarded-For 值中获取，客户端自己伪造的值不会被使用。
+ *
+ * @author zuihou
+ * @date 2024/9/13 15:00
+ */
+@Component
+@RequiredArgsConstructor
+public class LoginAttemptLimiter {
+    private static final long MAX_SIZE = 100000L;
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    private final SystemProperties systemProperties;
+
+    private Cache<String, AtomicInteger> accountCache;
+    private Cache<String, AtomicInteger> ipCache;
+
+    @PostConstruct
+    public void init() {
+        long window = systemProperties.getPassword().getFailWindowSeconds();
+        accountCache = CacheBuilder.newBuilder().maximumSize(MAX_SIZE).expireAfterWrite(window, TimeUnit.SECONDS).build();
+        ipCache = CacheBuilder.newBuilder().maximumSize(MAX_SIZE).expireAfterWrite(window, TimeUnit.SECONDS).build();
+    }
+
+    /**
+     * 获取客户端IP
+     * <p>
+     * X-Forwarded-For 中每经过一个代理在最右边追加一个IP，最左边的值由客户端控制，不可信；
+     * 从右往左跳过受信任的代理层数后，取到的是最外层受信任代理看到的客户端IP
+     *
+     * @param request 请求
+     * @return 客户端IP
+     */
+    public String getClientIp(HttpServletRequest request) {
+        int hops = Math.max(systemProperties.getPassword().getTrustedProxyHops(), 0);
+        List<String> forwarded = StrUtil.splitTrim(request.getHeader(X_FORWARDED_FOR), StrUtil.C_COMMA);
+        if (hops == 0 || forwarded.isEmpty()) {
+            return request.getRemoteAddr();
+        }
+        // 实际经过的代理比配置的少时，取最左边的值
+        return forwarded.get(Math.max(forwarded.size() - hops, 0));
+    }
+
+    /**
+     * 是否允许继续校验密码
+     *
+     * @param account 登录账号
+     * @param ip      客户端IP
+     * @return 是否允许
+     */
+    public boolean tryAcquire(String account, String ip) {
+        SystemProperties.Password password = systemProperties.getPassword();
+        return !exceeded(accountCache, normalize(account), password.getMaxAccountFailures())
+                && !exceeded(ipCache, ip, password.getMaxIpFailures());
+    }
+
+    /**
+     * 记录一次失败
+     *
+     * @param account 登录账号
+     * @param ip      客户端IP
+     */
+    public void recordFailure(String account, String ip) {
+        increment(accountCache, normalize(account));
+        increment(ipCache, ip);
+    }
+
+    /**
+     * 登录成功，清除账号的失败次数
+     *
+     * @param account 登录账号
+     */
+    public void recordSuccess(String account) {
+        String key = normalize(account);
+        if (key != null) {
+            accountCache.invalidate(key);
+        }
+    }
+
+    private static boolean exceeded(Cache<String, AtomicInteger> cache, String key, Integer max) {
+        if (key == null || max == null || max <= 0) {
+            return false;
+        }
+        AtomicInteger count = cache.getIfPresent(key);
+        return count != null && count.get() >= max;
+    }
+
+    private static void increment(Cache<String, AtomicInteger> cache, String key) {
+        if (key == null) {
+            return;
+        }
+        // 只在第一次失败时写入缓存，时间窗口从第一次失败开始计算
+        cache.asMap().computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private static String normalize(String account) {
+        return StrUtil.isBlank(account) ? null : account.trim().toLowerCase();
+    }
+}
@@ -20,7 +20,6 @@ import top.tangyh.lamp.common.constant.BizConstant;
 import top.tangyh.lamp.common.constant.RoleConstant;
 import top.tangyh.lamp.model.enumeration.HttpMethod;
 import top.tangyh.lamp.model.enumeration.system.ResourceTypeEnum;
-import top.tangyh.lamp.model.vo.result.ResourceApiVO;
 import top.tangyh.lamp.system.entity.application.DefApplication;
 import top.tangyh.lamp.system.entity.application.DefResource;
 import top.tangyh.lamp.system.entity.application.DefResourceApi;
@@ -31,12 +30,9 @@ import top.tangyh.lamp.system.service.application.DefResourceService;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * 资源大业务
@@ -415,21 +411,7 @@ public class ResourceBiz {
 
     public Map<String, Set<String>> findAllApi() {
         // 查询系统中配置的URI和权限关系
-        List<ResourceApiVO> list = defResourceService.findAllApi();
-        return list.stream()
-                .collect(Collectors.toMap(
-                        item -> item.getUri() + "###" + item.getRequestMethod(),
-                        resourceApiVO -> {
-                            Set<String> codes = new HashSet<>();
-                            codes.add(resourceApiVO.getCode());
-                            return codes;
-                        },
-                        (existingCodes, newCodes) -> {
-                            existingCodes.addAll(newCodes);
-                            return existingCodes;
-                        },
-                        LinkedHashMap::new
-                ));
+        return defResourceService.findAllApiMap();
     }
 
 }
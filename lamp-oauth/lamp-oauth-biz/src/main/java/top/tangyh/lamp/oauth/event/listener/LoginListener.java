@@ -6,6 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
+import top.tangyh.lamp.base.biz.user.LoginProfileBiz;
 import top.tangyh.lamp.oauth.event.LoginEvent;
 import top.tangyh.lamp.oauth.event.model.LoginStatusDTO;
 import top.tangyh.lamp.system.enumeration.system.LoginStatusEnum;
@@ -25,6 +26,7 @@ import top.tangyh.lamp.system.vo.save.system.DefLoginLogSaveVO;
 public class LoginListener {
     private final DefLoginLogService defLoginLogService;
     private final DefUserService defUserService;
+    private final LoginProfileBiz loginProfileBiz;
 
     @Async
     @EventListener({LoginEvent.class})
@@ -34,6 +36,11 @@ public class LoginListener {
         if (LoginStatusEnum.SUCCESS.eq(loginStatus.getStatus())) {
             // 重置错误次数 和 最后登录时间
             this.defUserService.resetPassErrorNum(loginStatus.getUserId());
+            // 保存首次登录时自动选择的单位和部门
+            if (loginStatus.getEmployeeId() != null && (loginStatus.getLastCompanyId() != null || loginStatus.getLastDeptId() != null)) {
+                this.loginProfileBiz.saveLastOrg(loginStatus.getUserId(), loginStatus.getEmployeeId(),
+                        loginStatus.getLastCompanyId(), loginStatus.getLastDeptId());
+            }
         } else if (LoginStatusEnum.PASSWORD_ERROR.eq(loginStatus.getStatus())) {
             // 密码错误
             this.defUserService.incrPasswordErrorNumById(loginStatus.getUserId());
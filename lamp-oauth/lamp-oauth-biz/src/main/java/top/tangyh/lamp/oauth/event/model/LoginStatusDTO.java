@@ -81,6 +81,15 @@ public class LoginStatusDTO implements Serializable {
 
     private String status;
 
+    /**
+     * 需要保存的上次登录单位
+     */
+    private Long lastCompanyId;
+    /**
+     * 需要保存的上次登录部门
+     */
+    private Long lastDeptId;
+
     public static LoginStatusDTO success(Long userId, Long employeeId) {
         return LoginStatusDTO.builder()
                 .userId(userId).employeeId(employeeId)
@@ -14,7 +14,6 @@ package top.tangyh.lamp.oauth.granter;
 
 import cn.dev33.satoken.session.SaSession;
 import cn.dev33.satoken.stp.StpUtil;
-import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.extra.servlet.JakartaServletUtil;
 import lombok.AllArgsConstructor;
@@ -33,17 +32,15 @@ import top.tangyh.basic.utils.ArgumentAssert;
 import top.tangyh.basic.utils.SpringUtils;
 import top.tangyh.basic.utils.StrPool;
 import top.tangyh.basic.utils.TreeUtil;
+import top.tangyh.lamp.base.biz.user.LoginProfileBiz;
 import top.tangyh.lamp.base.entity.user.BaseEmployee;
 import top.tangyh.lamp.base.entity.user.BaseOrg;
 import top.tangyh.lamp.base.service.user.BaseEmployeeService;
 import top.tangyh.lamp.base.service.user.BaseOrgService;
-import top.tangyh.lamp.base.vo.result.user.BaseEmployeeResultVO;
+import top.tangyh.lamp.base.vo.result.user.LoginProfileResultVO;
 import top.tangyh.lamp.common.properties.SystemProperties;
-import top.tangyh.lamp.common.utils.Base64Util;
 import top.tangyh.lamp.file.service.AppendixService;
-import top.tangyh.lamp.model.enumeration.StateEnum;
 import top.tangyh.lamp.model.enumeration.base.OrgTypeEnum;
-import top.tangyh.lamp.model.enumeration.base.UserStatusEnum;
 import top.tangyh.lamp.oauth.event.LoginEvent;
 import top.tangyh.lamp.oauth.event.model.LoginStatusDTO;
 import top.tangyh.lamp.oauth.vo.param.LoginParamVO;
@@ -51,10 +48,11 @@ import top.tangyh.lamp.oauth.vo.result.LoginResultVO;
 import top.tangyh.lamp.system.entity.system.DefClient;
 import top.tangyh.lamp.system.entity.tenant.DefUser;
 import top.tangyh.lamp.system.enumeration.system.LoginStatusEnum;
+import top.tangyh.lamp.system.manager.system.impl.DefClientRegistry;
 import top.tangyh.lamp.system.service.system.DefClientService;
 import top.tangyh.lamp.system.service.tenant.DefUserService;
 
-import java.util.List;
+import java.util.Map;
 
 import static top.tangyh.basic.context.ContextConstants.CLIENT_KEY;
 import static top.tangyh.basic.context.ContextConstants.JWT_KEY_COMPANY_ID;
@@ -79,11 +77,15 @@ public abstract class AbstractTokenGranter implements TokenGranter {
     @Autowired
     protected DefClientService defClientService;
     @Autowired
+    protected DefClientRegistry defClientRegistry;
+    @Autowired
     protected DefUserService defUserService;
     @Autowired
     protected BaseEmployeeService baseEmployeeService;
     @Autowired
     protected BaseOrgService baseOrgService;
+    @Autowired
+    protected LoginProfileBiz loginProfileBiz;
 
 
     @Override
@@ -119,15 +121,21 @@ public abstract class AbstractTokenGranter implements TokenGranter {
             return result;
         }
 
-        // 5. 获取员工和租户
-        Employee employee = getEmployee(defUser);
-
-        // 6. 查询单位、部门
-        Org org = findOrg(employee);
+        // 5. 查询预先计算的登录档案(员工、单位、部门)
+        LoginProfileResultVO profile = loginProfileBiz.getLoginProfile(defUser.getId());
+        Employee employee = Employee.builder().employeeId(profile.getEmployeeId()).build();
+        Org org = Org.builder()
+                .currentTopCompanyId(profile.getTopCompanyId())
+                .currentCompanyId(profile.getCompanyId())
+                .currentDeptId(profile.getDeptId()).build();
 
-        // 7. 封装token
+        // 6. 封装token
         LoginResultVO loginResultVO = buildResult(employee, org, defUser);
         LoginStatusDTO loginStatus = LoginStatusDTO.success(defUser.getId(), employee.getEmployeeId());
+        if (Boolean.TRUE.equals(profile.getLastOrgChanged())) {
+            // 首次登录自动选择的单位和部门，在登录事件中异步保存
+            loginStatus.setLastCompanyId(profile.getCompanyId()).setLastDeptId(profile.getDeptId());
+        }
         SpringUtils.publishEvent(new LoginEvent(loginStatus));
         return R.success(loginResultVO);
     }
@@ -153,7 +161,7 @@ public abstract class AbstractTokenGranter implements TokenGranter {
      */
     protected R<LoginResultVO> checkClient() {
         String basicHeader = JakartaServletUtil.getHeader(WebUtils.request(), CLIENT_KEY, StrPool.UTF_8);
-        String[] client = Base64Util.getClient(basicHeader);
+        String[] client = defClientRegistry.parseHeader(basicHeader);
         DefClient defClient = defClientService.getClient(client[0], client[1]);
 
         if (defClient == null) {
@@ -224,122 +232,6 @@ public abstract class AbstractTokenGranter implements TokenGranter {
         return R.success(null);
     }
 
-    /**
-     * 查询员工信息
-     *
-     * @param defUser 用户信息
-     * @return top.tangyh.lamp.oauth.granter.AbstractTokenGranter.Employee
-     * @author tangyh
-     * @date 2022/10/5 12:38 PM
-     * @create [2022/10/5 12:38 PM ] [tangyh] [初始创建]
-     */
-    protected Employee getEmployee(DefUser defUser) {
-        // 用户被禁用无法登陆， 员工被禁用无法访问当前企业的数据， 企业被禁用所有员工无法
-        List<BaseEmployeeResultVO> employeeList = baseEmployeeService.listEmployeeByUserId(defUser.getId());
-        Long employeeId = null;
-        Long userId = defUser.getId();
-        UserStatusEnum userStatus = UserStatusEnum.NORMAL;
-        if (CollUtil.isNotEmpty(employeeList)) {
-            BaseEmployeeResultVO defaultEmployee = employeeList.get(0);
-            // 正常状态
-            if (StateEnum.ENABLE.eq(defaultEmployee.getState())) {
-                employeeId = defaultEmployee.getId();
-            } else {
-                userStatus = UserStatusEnum.USER_DISABLE;
-            }
-        } else {
-            userStatus = UserStatusEnum.USER_DISABLE;
-        }
-        log.info("userStatus={}, userId={}, employeeId={}", userStatus, userId, employeeId);
-        return Employee.builder().employeeId(employeeId).build();
-    }
-
-    /**
-     * 查询单位和部门信息
-     *
-     * @param employee 员工信息
-     * @return top.tangyh.lamp.oauth.granter.AbstractTokenGranter.Org
-     * @author tangyh
-     * @date 2022/10/5 12:40 PM
-     * @create [2022/10/5 12:40 PM ] [tangyh] [初始创建]
-     */
-    protected Org findOrg(Employee employee) {
-        Long employeeId = employee.getEmployeeId();
-
-        // 当前所属部门
-        Long currentDeptId = null;
-        // 当前所属单位
-        Long currentCompanyId = null;
-        // 当前所属顶级单位
-        Long currentTopCompanyId = null;
-        if (employeeId != null) {
-            BaseEmployee baseEmployee = baseEmployeeService.getByIdCache(employeeId);
-
-            // 当前用户尚不属于任意租户
-            if (baseEmployee == null) {
-                return Org.builder()
-                        .currentTopCompanyId(null)
-                        .currentCompanyId(null)
-                        .currentDeptId(null).build();
-            }
-
-            boolean flag = false;
-            // 上次登录的部门
-            if (baseEmployee.getLastDeptId() != null) {
-                currentDeptId = baseEmployee.getLastDeptId();
-                // TODO 若用户变更了部门，是否有问题
-            } else {
-                // 上次登录部门为空，则随机选择一个部门
-                List<BaseOrg> deptList = baseOrgService.findDeptByEmployeeId(employeeId, null);
-                BaseOrg defaultDept = baseOrgService.getDefaultOrg(deptList, null);
-
-                currentDeptId = defaultDept != null ? defaultDept.getId() : null;
-                baseEmployee.setLastDeptId(currentDeptId);
-
-                flag = currentDeptId != null;
-            }
-
-            BaseOrg defaultCompany;
-            if (baseEmployee.getLastCompanyId() != null) {
-                currentCompanyId = baseEmployee.getLastCompanyId();
-
-                defaultCompany = baseOrgService.getByIdCache(currentCompanyId);
-            } else {
-                if (currentDeptId != null) {
-                    defaultCompany = baseOrgService.getCompanyByDeptId(currentDeptId);
-                } else {
-                    // currentDeptId 为空，员工可能直接挂在单位下、也可能挂不属于任何部门
-                    List<BaseOrg> companyList = baseOrgService.findCompanyByEmployeeId(employeeId);
-                    defaultCompany = baseOrgService.getDefaultOrg(companyList, baseEmployee.getLastCompanyId());
-                }
-
-                currentCompanyId = defaultCompany != null ? defaultCompany.getId() : null;
-                baseEmployee.setLastCompanyId(currentCompanyId);
-                flag = flag || currentCompanyId != null;
-
-            }
-
-            if (defaultCompany != null) {
-                Long rootId = TreeUtil.getTopNodeId(defaultCompany.getTreePath());
-                BaseOrg rootCompany;
-                if (rootId != null) {
-                    rootCompany = baseOrgService.getByIdCache(rootId);
-                } else {
-                    rootCompany = defaultCompany;
-                }
-                currentTopCompanyId = rootCompany != null ? rootCompany.getId() : null;
-            }
-
-            if (flag) {
-                baseEmployeeService.updateById(baseEmployee);
-            }
-        }
-        return Org.builder()
-                .currentTopCompanyId(currentTopCompanyId)
-                .currentCompanyId(currentCompanyId)
-                .currentDeptId(currentDeptId).build();
-    }
-
     /**
      * 构建返回值
      *
@@ -356,18 +248,21 @@ public abstract class AbstractTokenGranter implements TokenGranter {
         StpUtil.login(defUser.getId(), "PC");
         SaSession tokenSession = StpUtil.getSession();
         tokenSession.setLoginId(defUser.getId());
+        // SaSession#set 每次都会写一次缓存，这里先修改数据再统一写一次
+        Map<String, Object> dataMap = tokenSession.getDataMap();
         if (org.getCurrentTopCompanyId() != null) {
-            tokenSession.set(JWT_KEY_TOP_COMPANY_ID, org.getCurrentTopCompanyId());
+            dataMap.put(JWT_KEY_TOP_COMPANY_ID, org.getCurrentTopCompanyId());
         }
         if (org.getCurrentCompanyId() != null) {
-            tokenSession.set(JWT_KEY_COMPANY_ID, org.getCurrentCompanyId());
+            dataMap.put(JWT_KEY_COMPANY_ID, org.getCurrentCompanyId());
         }
         if (org.getCurrentDeptId() != null) {
-            tokenSession.set(JWT_KEY_DEPT_ID, org.getCurrentDeptId());
+            dataMap.put(JWT_KEY_DEPT_ID, org.getCurrentDeptId());
         }
         if (employee.getEmployeeId() != null) {
-            tokenSession.set(JWT_KEY_EMPLOYEE_ID, employee.getEmployeeId());
+            dataMap.put(JWT_KEY_EMPLOYEE_ID, employee.getEmployeeId());
         }
+        tokenSession.update();
 
         LoginResultVO resultVO = new LoginResultVO();
         resultVO.setToken(StpUtil.getTokenValue());
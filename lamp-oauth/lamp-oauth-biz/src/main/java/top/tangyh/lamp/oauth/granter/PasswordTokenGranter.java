@@ -17,23 +17,26 @@ package top.tangyh.lamp.oauth.granter;
 
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.crypto.SecureUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import top.tangyh.basic.base.R;
+import top.tangyh.basic.boot.utils.WebUtils;
 import top.tangyh.basic.exception.code.ExceptionCode;
 import top.tangyh.basic.utils.DateUtils;
 import top.tangyh.basic.utils.SpringUtils;
 import top.tangyh.basic.utils.StrHelper;
-import top.tangyh.basic.utils.ValidatorUtil;
 import top.tangyh.lamp.base.service.user.BaseOrgService;
+import top.tangyh.lamp.common.constant.ParameterKey;
+import top.tangyh.lamp.oauth.biz.LoginAttemptLimiter;
 import top.tangyh.lamp.oauth.event.LoginEvent;
 import top.tangyh.lamp.oauth.event.model.LoginStatusDTO;
 import top.tangyh.lamp.oauth.vo.param.LoginParamVO;
 import top.tangyh.lamp.oauth.vo.result.LoginResultVO;
+import top.tangyh.lamp.system.biz.password.PasswordHasher;
 import top.tangyh.lamp.system.entity.tenant.DefUser;
 import top.tangyh.lamp.system.enumeration.system.LoginStatusEnum;
+import top.tangyh.lamp.system.manager.system.impl.DefParameterRegistry;
 
 import java.time.LocalDateTime;
 
@@ -54,6 +57,12 @@ public class PasswordTokenGranter extends AbstractTokenGranter implements TokenG
 
     @Autowired
     protected BaseOrgService baseOrgService;
+    @Autowired
+    protected PasswordHasher passwordHasher;
+    @Autowired
+    protected LoginAttemptLimiter loginAttemptLimiter;
+    @Autowired
+    protected DefParameterRegistry defParameterRegistry;
 
     @Override
     public R<LoginResultVO> checkParam(LoginParamVO loginParam) {
@@ -67,20 +76,8 @@ public class PasswordTokenGranter extends AbstractTokenGranter implements TokenG
 
     @Override
     protected DefUser getUser(LoginParamVO loginParam) {
-        String username = loginParam.getUsername();
-        boolean emailLogin = ValidatorUtil.isEmail(username);
-        if (emailLogin) {
-            return defUserService.getUserByEmail(username);
-        }
-        boolean idCardLogin = ValidatorUtil.isIdCard(username);
-        if (idCardLogin) {
-            return defUserService.getUserByIdCard(username);
-        }
-        boolean mobileLogin = ValidatorUtil.isMobile(username);
-        if (mobileLogin) {
-            return defUserService.getUserByMobile(username);
-        }
-        return defUserService.getUserByUsername(username);
+        // 根据标识格式(邮箱、身份证、手机号、用户名)只查询一次
+        return defUserService.getUserByLoginIdentifier(loginParam.getUsername());
     }
 
     /**
@@ -94,8 +91,17 @@ public class PasswordTokenGranter extends AbstractTokenGranter implements TokenG
     protected R<LoginResultVO> checkUserPassword(LoginParamVO loginParam, DefUser user) {
         String username = loginParam.getUsername();
         String password = loginParam.getPassword();
+        String ip = loginAttemptLimiter.getClientIp(WebUtils.request());
+        // 短时间内失败次数过多，不再校验密码
+        if (!loginAttemptLimiter.tryAcquire(username, ip)) {
+            String msg = "登录失败次数过多，请稍后再试";
+            SpringUtils.publishEvent(new LoginEvent(user == null ? LoginStatusDTO.fail(username, LoginStatusEnum.USER_ERROR, msg)
+                    : LoginStatusDTO.fail(user.getId(), LoginStatusEnum.USER_ERROR, msg)));
+            return R.fail(msg);
+        }
         // 密码错误
         if (user == null) {
+            loginAttemptLimiter.recordFailure(username, ip);
             SpringUtils.publishEvent(new LoginEvent(LoginStatusDTO.fail(username, LoginStatusEnum.USER_ERROR, "用户不存在！")));
             return R.fail(ExceptionCode.JWT_USER_INVALID);
         }
@@ -114,7 +120,7 @@ public class PasswordTokenGranter extends AbstractTokenGranter implements TokenG
 
         // 用户锁定
         Integer passwordErrorNum = Convert.toInt(user.getPasswordErrorNum(), 0);
-        Integer maxPasswordErrorNum = systemProperties.getMaxPasswordErrorNum();
+        Integer maxPasswordErrorNum = defParameterRegistry.getInt(ParameterKey.MAX_PASSWORD_ERROR_NUM, systemProperties.getMaxPasswordErrorNum());
         if (maxPasswordErrorNum > 0 && passwordErrorNum >= maxPasswordErrorNum) {
             log.info("[{}][{}], 输错密码次数：{}, 最大限制次数:{}", user.getNickName(), user.getId(), passwordErrorNum, maxPasswordErrorNum);
 
@@ -123,7 +129,8 @@ public class PasswordTokenGranter extends AbstractTokenGranter implements TokenG
              * (最后一次输错密码的时间 + 锁定时间) > (当前时间) 表示未解锁
              * (最后一次输错密码的时间 + 锁定时间) < (当前时间) 表示自动解锁，并重置错误次数和最后一次错误时间
              */
-            LocalDateTime passwordErrorLockExpireTime = DateUtils.conversionDateTime(user.getPasswordErrorLastTime(), systemProperties.getPasswordErrorLockUserTime());
+            String lockUserTime = defParameterRegistry.getString(ParameterKey.PASSWORD_ERROR_LOCK_USER_TIME, systemProperties.getPasswordErrorLockUserTime());
+            LocalDateTime passwordErrorLockExpireTime = DateUtils.conversionDateTime(user.getPasswordErrorLastTime(), lockUserTime);
             log.info("密码最后一次输错后，解锁时间: {}", passwordErrorLockExpireTime);
             // passwordErrorLockTime(锁定到期时间) > 当前时间
             if (passwordErrorLockExpireTime.isAfter(LocalDateTime.now())) {
@@ -134,13 +141,18 @@ public class PasswordTokenGranter extends AbstractTokenGranter implements TokenG
             }
         }
 
-        String passwordMd5 = SecureUtil.sha256(password + user.getSalt());
-        if (!passwordMd5.equalsIgnoreCase(user.getPassword())) {
-            String msg = StrUtil.format("用户名或密码错误{}次，连续输错{}次您将被锁定！", (user.getPasswordErrorNum() + 1), maxPasswordErrorNum);
+        if (!passwordHasher.verify(password, user.getPassword(), user.getSalt())) {
+            loginAttemptLimiter.recordFailure(username, ip);
+            String msg = StrUtil.format("用户名或密码错误{}次，连续输错{}次您将被锁定！", (passwordErrorNum + 1), maxPasswordErrorNum);
             // 密码错误事件
             SpringUtils.publishEvent(new LoginEvent(LoginStatusDTO.fail(user.getId(), LoginStatusEnum.PASSWORD_ERROR, msg)));
             return R.fail(msg);
         }
+        loginAttemptLimiter.recordSuccess(username);
+
+        // 加密算法或参数已过时，在后台使用新的算法重新保存密码
+        String oldPassword = user.getPassword();
+        passwordHasher.rehashAsync(password, oldPassword, newPassword -> defUserService.rehashPassword(user.getId(), oldPassword, newPassword));
         return R.success(null);
     }
 
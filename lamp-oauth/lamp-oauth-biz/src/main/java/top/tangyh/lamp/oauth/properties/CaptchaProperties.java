@@ -1,6 +1,7 @@
 package top.tangyh.lamp.oauth.properties;
 
 import lombok.AllArgsConstructor;
+import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -42,7 +43,30 @@ public class CaptchaProperties {
      * 6：数字大写字母
      */
     private Integer charType = 1;
+    /**
+     * 预生成验证码池
+     */
+    private Pool pool = new Pool();
 
+    @Data
+    public static class Pool {
+        /**
+         * 是否启用预生成， 关闭后每次请求同步生成验证码图片
+         */
+        private Boolean enabled = true;
+        /**
+         * 池中最多保留多少张验证码图片，修改后重启生效
+         */
+        private Integer size = 200;
+        /**
+         * 后台补充验证码的线程数
+         */
+        private Integer refillThreads = 1;
+        /**
+         * 后台检查补充的间隔(毫秒)
+         */
+        private Long refillIntervalMillis = 500L;
+    }
 
     @Getter
     @AllArgsConstructor
@@ -23,4 +23,11 @@ public interface DictService extends LoadService {
      * @return key： 字典key  value: item list
      */
     Map<String, List<DefDictItemResultVO>> findDictMapItemListByKey(List<String> dictKeys);
+
+    /**
+     * 字典数据的版本号， 字典或字典项变化后改变
+     *
+     * @return 版本号
+     */
+    long getVersion();
 }
@@ -0,0 +1,21 @@
+package top.tangyh.lamp.oauth.service;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 批量回显查询服务
+ *
+ * @author zuihou
+ * @date 2024/9/11 9:30
+ */
+public interface EchoBatchService {
+    /**
+     * 并行查询多种类型的回显数据
+     *
+     * @param typeIds 类型(@Echo 注解的 api 值) -> 唯一键
+     * @return 类型 -> (唯一键 -> 回显对象)
+     */
+    Map<String, Map<Serializable, Object>> findByTypes(Map<String, Set<Serializable>> typeIds);
+}
@@ -2,12 +2,6 @@ package top.tangyh.lamp.oauth.service.impl;
 
 import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
-import com.wf.captcha.ArithmeticCaptcha;
-import com.wf.captcha.ChineseCaptcha;
-import com.wf.captcha.ChineseGifCaptcha;
-import com.wf.captcha.GifCaptcha;
-import com.wf.captcha.SpecCaptcha;
-import com.wf.captcha.base.Captcha;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +20,7 @@ import top.tangyh.lamp.common.cache.common.CaptchaCacheKeyBuilder;
 import top.tangyh.lamp.model.enumeration.base.MsgTemplateCodeEnum;
 import top.tangyh.lamp.msg.api.MsgApi;
 import top.tangyh.lamp.msg.vo.update.ExtendMsgSendVO;
+import top.tangyh.lamp.oauth.biz.CaptchaPool;
 import top.tangyh.lamp.oauth.granter.CaptchaTokenGranter;
 import top.tangyh.lamp.oauth.properties.CaptchaProperties;
 import top.tangyh.lamp.oauth.service.CaptchaService;
@@ -47,7 +42,7 @@ import static top.tangyh.basic.exception.code.ExceptionCode.CAPTCHA_ERROR;
 public class CaptchaServiceImpl implements CaptchaService {
 
     private final CacheOps cacheOps;
-    private final CaptchaProperties captchaProperties;
+    private final CaptchaPool captchaPool;
     @Lazy
     @Autowired
     private MsgApi msgApi;
@@ -70,13 +65,14 @@ public class CaptchaServiceImpl implements CaptchaService {
         if (StrUtil.isBlank(key)) {
             throw BizException.validFail("验证码key不能为空");
         }
-        Captcha captcha = createCaptcha();
+        CaptchaPool.CaptchaImage captcha = captchaPool.take();
 
         CacheKey cacheKey = CaptchaCacheKeyBuilder.build(key, CaptchaTokenGranter.GRANT_TYPE);
-        cacheOps.set(cacheKey, captcha.text().toLowerCase());
+        cacheOps.set(cacheKey, captcha.getText());
 
-        setHeader(response);
-        captcha.out(response.getOutputStream());
+        setHeader(response, captcha.getContentType());
+        response.setContentLength(captcha.getBytes().length);
+        response.getOutputStream().write(captcha.getBytes());
     }
 
 
@@ -154,28 +150,8 @@ public class CaptchaServiceImpl implements CaptchaService {
     }
 
 
-    private Captcha createCaptcha() {
-
-        CaptchaProperties.CaptchaType type = captchaProperties.getType();
-        Captcha captcha = switch (type) {
-            case GIF ->
-                    new GifCaptcha(captchaProperties.getWidth(), captchaProperties.getHeight(), captchaProperties.getLen());
-            case SPEC ->
-                    new SpecCaptcha(captchaProperties.getWidth(), captchaProperties.getHeight(), captchaProperties.getLen());
-            case CHINESE ->
-                    new ChineseCaptcha(captchaProperties.getWidth(), captchaProperties.getHeight(), captchaProperties.getLen());
-            case CHINESE_GIF ->
-                    new ChineseGifCaptcha(captchaProperties.getWidth(), captchaProperties.getHeight(), captchaProperties.getLen());
-            default ->
-                    new ArithmeticCaptcha(captchaProperties.getWidth(), captchaProperties.getHeight(), captchaProperties.getLen());
-        };
-        captcha.setCharType(captchaProperties.getCharType());
-
-        return captcha;
-    }
-
-    private void setHeader(HttpServletResponse response) {
-        response.setContentType(captchaProperties.getType().getContentType());
+    private void setHeader(HttpServletResponse response, String contentType) {
+        response.setContentType(contentType);
         response.setHeader(HttpHeaders.PRAGMA, "No-cache");
         response.setHeader(HttpHeaders.CACHE_CONTROL, "No-cache");
         response.setDateHeader(HttpHeaders.EXPIRES, 0L);
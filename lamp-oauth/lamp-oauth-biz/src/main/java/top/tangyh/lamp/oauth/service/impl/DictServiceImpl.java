@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import top.tangyh.lamp.oauth.service.DictService;
 import top.tangyh.lamp.system.manager.system.DefDictManager;
+import top.tangyh.lamp.system.manager.system.impl.DefDictRegistry;
 import top.tangyh.lamp.system.vo.result.system.DefDictItemResultVO;
 
 import java.io.Serializable;
@@ -23,6 +24,7 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class DictServiceImpl implements DictService {
     private final DefDictManager defDictManager;
+    private final DefDictRegistry defDictRegistry;
 
     /**
      * 先从base库查， 若base库没有，在去def库查。
@@ -57,4 +59,9 @@ public class DictServiceImpl implements DictService {
         map.putAll(defMap);
         return map;
     }
+
+    @Override
+    public long getVersion() {
+        return defDictRegistry.getVersion();
+    }
 }
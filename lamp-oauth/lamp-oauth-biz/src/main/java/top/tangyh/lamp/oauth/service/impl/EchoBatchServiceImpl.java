@@ -0,0 +1,164 @@
+package top.tangyh.lamp.oauth.service.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.ClassUtil;
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Service;
+import top.tangyh.basic.context.ContextUtil;
+import top.tangyh.basic.interfaces.echo.LoadService;
+import top.tangyh.lamp.common.properties.SystemProperties;
+import top.tangyh.lamp.oauth.service.EchoBatchService;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量回显查询
+ * <p>
+ * 原来一页数据需要回显用户、岗位、机构、字典时，调用方要依次调用4个 /echo/xxx/findByIds 接口。
+ * 本类在一次请求中接收全部类型的id：
+ * 1. 只有一种类型时，在当前线程查询
+ * 2. 有多种类型时，在线程数有限的线程池中并行查询，当前线程的上下文(租户、用户等)传递到查询线程
+ * 3. 某个类型查询失败或超时，该类型返回空，不影响其他类型
+ * <p>
+ * 类型即 @Echo 注解的 api 值，按以下顺序在容器中查找 LoadService：
+ * 配置的别名(feign 接口 -> 本服务的实现) > bean 名称 > 全类名
+ *
+ * @author zuihou
+ * @date 2024/9/11 9:30
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EchoBatchServiceImpl implements EchoBatchService {
+    private final ApplicationContext applicationContext;
+    private final SystemProperties systemProperties;
+
+    /**
+     * 类型 -> 查询实现， 只缓存支持的类型
+     */
+    private final Map<String, LoadService> loadServiceMap = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(systemProperties.getEchoBatch().getThreads(), 1);
+        executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("echo-batch-", true));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Map<String, Map<Serializable, Object>> findByTypes(Map<String, Set<Serializable>> typeIds) {
+        if (MapUtil.isEmpty(typeIds)) {
+            return Collections.emptyMap();
+        }
+        Map<String, Map<Serializable, Object>> result = new LinkedHashMap<>();
+        Map<String, LoadService> todo = new LinkedHashMap<>();
+        typeIds.forEach((type, ids) -> {
+            LoadService loadService = getLoadService(type);
+            if (loadService == null) {
+                log.warn("不支持的回显类型: {}", type);
+            }
+            if (loadService == null || CollUtil.isEmpty(ids)) {
+                result.put(type, Collections.emptyMap());
+            } else {
+                todo.put(type, loadService);
+            }
+        });
+        if (todo.size() == 1) {
+            Map.Entry<String, LoadService> entry = todo.entrySet().iterator().next();
+            result.put(entry.getKey(), load(entry.getKey(), entry.getValue(), typeIds.get(entry.getKey())));
+            return result;
+        }
+
+        Map<String, String> localMap = new HashMap<>(ContextUtil.getLocalMap());
+        Map<String, CompletableFuture<Map<Serializable, Object>>> futureMap = new LinkedHashMap<>();
+        todo.forEach((type, loadService) -> futureMap.put(type, CompletableFuture.supplyAsync(() -> {
+            ContextUtil.setLocalMap(localMap);
+            try {
+                return load(type, loadService, typeIds.get(type));
+            } finally {
+                ContextUtil.remove();
+            }
+        }, executor)));
+
+        long deadline = System.currentTimeMillis() + systemProperties.getEchoBatch().getTimeoutMillis();
+        futureMap.forEach((type, future) -> {
+            try {
+                long wait = Math.max(deadline - System.currentTimeMillis(), 0L);
+                result.put(type, future.get(wait, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.put(type, Collections.emptyMap());
+            } catch (Exception e) {
+                future.cancel(true);
+                log.warn("查询回显类型[{}]超时或失败", type, e);
+                result.put(type, Collections.emptyMap());
+            }
+        });
+        return result;
+    }
+
+    private LoadService getLoadService(String type) {
+        LoadService loadService = loadServiceMap.get(type);
+        if (loadService == null) {
+            loadService = findLoadService(type).orElse(null);
+            if (loadService != null) {
+                loadServiceMap.put(type, loadService);
+            }
+        }
+        return loadService;
+    }
+
+    /**
+     * 在容器中查找类型对应的 LoadService
+     */
+    private Optional<LoadService> findLoadService(String type) {
+        String beanName = systemProperties.getEchoBatch().getAliases().getOrDefault(type, type);
+        if (applicationContext.containsBean(beanName) && applicationContext.isTypeMatch(beanName, LoadService.class)) {
+            return Optional.of(applicationContext.getBean(beanName, LoadService.class));
+        }
+        if (StrUtil.contains(type, StrUtil.C_DOT)) {
+            try {
+                Class<?> clazz = ClassUtil.loadClass(type, false);
+                if (LoadService.class.isAssignableFrom(clazz)) {
+                    return applicationContext.getBeanProvider(clazz).stream().findFirst().map(LoadService.class::cast);
+                }
+            } catch (Exception e) {
+                log.debug("回显类型[{}]不是有效的类名", type, e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Map<Serializable, Object> load(String type, LoadService loadService, Set<Serializable> ids) {
+        try {
+            Map<Serializable, Object> map = loadService.findByIds(ids);
+            return map == null ? Collections.emptyMap() : map;
+        } catch (Exception e) {
+            log.warn("查询回显类型[{}]失败", type, e);
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -7,6 +7,7 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -16,6 +17,7 @@ import top.tangyh.basic.base.R;
 import top.tangyh.lamp.base.service.user.BaseOrgService;
 import top.tangyh.lamp.base.service.user.BasePositionService;
 import top.tangyh.lamp.oauth.service.DictService;
+import top.tangyh.lamp.oauth.service.EchoBatchService;
 import top.tangyh.lamp.system.service.tenant.DefUserService;
 
 import java.io.Serializable;
@@ -40,6 +42,7 @@ public class EchoController {
     private final BaseOrgService baseOrgService;
     private final DefUserService userService;
     private final BasePositionService basePositionService;
+    private final EchoBatchService echoBatchService;
 
     @GetMapping("/anyTenant/test")
     @WebLog
@@ -70,4 +73,10 @@ public class EchoController {
         return this.dictService.findByIds(ids);
     }
 
+    @Operation(summary = "批量查询回显数据", description = "一次查询多种类型的回显数据，key为@Echo注解的api值")
+    @PostMapping("/findByTypes")
+    public Map<String, Map<Serializable, Object>> findByTypes(@RequestBody Map<String, Set<Serializable>> typeIds) {
+        return echoBatchService.findByTypes(typeIds);
+    }
+
 }
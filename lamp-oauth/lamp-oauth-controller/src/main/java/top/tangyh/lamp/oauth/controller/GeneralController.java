@@ -3,18 +3,25 @@ package top.tangyh.lamp.oauth.controller;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
 import com.baomidou.mybatisplus.core.handlers.MybatisEnumTypeHandler;
+import com.fasterxml.jackson.databind.util.RawValue;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 import top.tangyh.basic.base.R;
 import top.tangyh.basic.interfaces.BaseEnum;
+import top.tangyh.basic.jackson.JsonUtil;
 import top.tangyh.basic.utils.ClassUtils;
 import top.tangyh.basic.utils.CollHelper;
 import top.tangyh.basic.utils.StrPool;
@@ -25,11 +32,20 @@ import top.tangyh.lamp.oauth.service.ParamService;
 import top.tangyh.lamp.oauth.vo.param.CodeQueryVO;
 import top.tangyh.lamp.system.vo.result.system.DefDictItemResultVO;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
@@ -37,6 +53,12 @@ import java.util.function.Predicate;
 
 /**
  * 通用 控制器
+ * <p>
+ * 枚举在启动时加载一次，生成只读的枚举目录，并计算目录内容的摘要；字典从字典注册表的内存快照中读取。
+ * 枚举优先从编译时生成的索引文件(lamp-enum-indexer)中加载，没有索引文件时才扫描包路径；
+ * 每个枚举的选项在启动时预先序列化为 JSON，不需要排除、追加选项的查询直接返回预先序列化的结果。
+ * 枚举、字典查询接口返回 ETag(由数据摘要或版本号、查询参数计算)，客户端在请求头 If-None-Match 中带上
+ * 上一次的 ETag，数据未变化时返回 304 且不返回数据。
  *
  * @author zuihou
  * @date 2019/07/25
@@ -46,8 +68,22 @@ import java.util.function.Predicate;
 @Tag(name = "字典-枚举-参数-通用查询")
 @RequiredArgsConstructor
 public class GeneralController {
-    private static final Map<String, Map<String, String>> ENUM_MAP = new HashMap<>();
-    private static final Map<String, List<Option>> ENUM_LIST_MAP = new HashMap<>();
+    /**
+     * 编译时生成的枚举索引， 与 EnumIndexProcessor.INDEX_FILE 一致
+     */
+    private static final String ENUM_INDEX_FILE = "META-INF/lamp/enums.idx";
+    /**
+     * 枚举类型 -> 选项， 初始化后只读
+     */
+    private static volatile Map<String, List<Option>> ENUM_LIST_MAP = Collections.emptyMap();
+    /**
+     * 枚举类型 -> 预先序列化的选项， 初始化后只读
+     */
+    private static volatile Map<String, Object> ENUM_RAW_MAP = Collections.emptyMap();
+    /**
+     * 枚举目录内容的摘要
+     */
+    private static volatile String ENUM_DIGEST = "";
     /**
      * 过滤那些枚举
      */
@@ -61,19 +97,73 @@ public class GeneralController {
             log.warn("请在配置文件中配置{}.enumPackage", SystemProperties.PREFIX);
             return;
         }
-        Set<Class<?>> enumClass = ClassUtils.scanPackage(enumPackage, CLASS_FILTER);
+        Set<Class<?>> enumClass = Boolean.TRUE.equals(systemProperties.getEnumIndex()) ? loadIndexedEnums(enumPackage) : null;
+        boolean indexed = enumClass != null;
+        if (!indexed) {
+            enumClass = ClassUtils.scanPackage(enumPackage, CLASS_FILTER);
+        }
 
         StringJoiner enumSb = new StringJoiner(StrPool.COMMA);
-        enumClass.forEach(item -> {
+        // 按名称排序，保证各服务实例的目录摘要一致
+        Map<String, List<Option>> enumListMap = new LinkedHashMap<>();
+        Map<String, Object> enumRawMap = new LinkedHashMap<>();
+        enumClass.stream().sorted(Comparator.comparing(Class::getSimpleName)).forEach(item -> {
             Object[] enumConstants = item.getEnumConstants();
             BaseEnum[] baseEnums = Arrays.stream(enumConstants).map(i -> (BaseEnum) i).toArray(BaseEnum[]::new);
 
-            ENUM_LIST_MAP.put(item.getSimpleName(), Option.mapOptions(baseEnums));
-            ENUM_MAP.put(item.getSimpleName(), CollHelper.getMap(baseEnums));
+            List<Option> options = Option.mapOptions(baseEnums);
+            enumListMap.put(item.getSimpleName(), options);
+            enumRawMap.put(item.getSimpleName(), new RawValue(JsonUtil.toJson(options)));
             enumSb.add(item.getSimpleName());
         });
+        ENUM_DIGEST = DigestUtil.md5Hex(JsonUtil.toJson(enumListMap));
+        ENUM_LIST_MAP = Collections.unmodifiableMap(enumListMap);
+        ENUM_RAW_MAP = Collections.unmodifiableMap(enumRawMap);
 
-        log.info("扫描: {} ,共加载了{}个枚举类, 分别为: {}", enumPackage, ENUM_MAP.size(), enumSb);
+        log.info("{}: {} ,共加载了{}个枚举类, 分别为: {}", indexed ? "读取枚举索引" : "扫描", enumPackage, ENUM_LIST_MAP.size(), enumSb);
+    }
+
+    /**
+     * 从各 jar 中的枚举索引文件加载枚举
+     *
+     * @param enumPackage 枚举所在的包
+     * @return 没有任何索引文件时返回null， 由调用方扫描包路径
+     */
+    private static Set<Class<?>> loadIndexedEnums(String enumPackage) {
+        ClassLoader classLoader = GeneralController.class.getClassLoader();
+        List<String> packages = StrUtil.splitTrim(enumPackage, StrPool.COMMA);
+        Set<String> names = new LinkedHashSet<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(ENUM_INDEX_FILE);
+            if (!urls.hasMoreElements()) {
+                return null;
+            }
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                    reader.lines().map(String::trim)
+                            .filter(name -> packages.stream().anyMatch(pkg -> name.startsWith(pkg + StrPool.DOT)))
+                            .forEach(names::add);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("读取枚举索引失败，改为扫描包路径", e);
+            return null;
+        }
+
+        Set<Class<?>> enumClass = new LinkedHashSet<>();
+        for (String name : names) {
+            try {
+                Class<?> clazz = Class.forName(name, false, classLoader);
+                if (CLASS_FILTER.test(clazz)) {
+                    enumClass.add(clazz);
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                // 增量编译留下的已删除的枚举
+                log.debug("忽略枚举索引中无法加载的类: {}", name);
+            }
+        }
+        return enumClass;
     }
 
     private final DictService dictService;
@@ -132,18 +222,41 @@ public class GeneralController {
         return R.success("1234");
     }
 
-    @Operation(summary = "获取当前系统指定枚举 List", description = "获取当前系统指定枚举（lamp-web使用）")
+    /**
+     * 计算ETag
+     *
+     * @param version 数据的摘要或版本号
+     * @param query   查询参数
+     */
+    private static String buildEtag(String version, List<CodeQueryVO> query) {
+        return StrUtil.wrap(DigestUtil.md5Hex(version + StrPool.COLON + JsonUtil.toJson(query)), "\"");
+    }
+
+    private static <T> ResponseEntity<R<T>> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    @Operation(summary = "获取当前系统指定枚举 List", description = "获取当前系统指定枚举（lamp-web使用）；枚举未变化时返回304")
     @PostMapping("/anyTenant/enums/findEnumListByType")
-    public R<Map<String, List<Option>>> findEnumListByType(@RequestBody List<CodeQueryVO> types) {
+    public ResponseEntity<R<Map<String, Object>>> findEnumListByType(@RequestBody List<CodeQueryVO> types,
+                                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = buildEtag(ENUM_DIGEST, types);
+        if (etag.equals(ifNoneMatch)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(R.success(mapOptionByEnum(types)));
+    }
+
+    private static Map<String, Object> mapOptionByEnum(List<CodeQueryVO> types) {
         if (CollUtil.isEmpty(types)) {
-            return R.success(ENUM_LIST_MAP);
+            return ENUM_RAW_MAP;
         }
         Map<String, CodeQueryVO> codeMap = MapUtil.newHashMap();
         if (CollUtil.isNotEmpty(types)) {
             types.forEach(item -> codeMap.put(item.getType(), item));
         }
 
-        Map<String, List<Option>> map = new HashMap<>(CollHelper.initialCapacity(types.size()));
+        Map<String, Object> map = new HashMap<>(CollHelper.initialCapacity(types.size()));
         for (CodeQueryVO type : types) {
             if (!ENUM_LIST_MAP.containsKey(type.getType())) {
                 continue;
@@ -151,6 +264,11 @@ public class GeneralController {
             List<Option> cacheOptions = ENUM_LIST_MAP.get(type.getType());
 
             CodeQueryVO codeQuery = codeMap.get(type.getType());
+            if (codeQuery.getExtend() == null && CollUtil.isEmpty(codeQuery.getExcludes())) {
+                // 不需要排除、追加选项，直接返回预先序列化的结果
+                map.put(type.getType(), ENUM_RAW_MAP.get(type.getType()));
+                continue;
+            }
             boolean extendFirst = codeQuery == null || codeQuery.getExtendFirst() == null || codeQuery.getExtendFirst();
             List<Option> options = new ArrayList<>();
             if (codeQuery != null && extendFirst && codeQuery.getExtend() != null) {
@@ -171,14 +289,19 @@ public class GeneralController {
             }
             map.put(type.getType(), options);
         }
-        return R.success(map);
+        return map;
     }
 
-    @Operation(summary = "根据类型编码查询字典项,并排除指定项", description = "根据类型编码查询字典项")
+    @Operation(summary = "根据类型编码查询字典项,并排除指定项", description = "根据类型编码查询字典项；字典未变化时返回304")
     @PostMapping("/anyUser/dict/findDictMapItemListByKey")
-    public R<Map<String, List<Option>>> findDictMapItemListByKey(@RequestBody List<CodeQueryVO> codeQueryVO) {
+    public ResponseEntity<R<Map<String, List<Option>>>> findDictMapItemListByKey(@RequestBody List<CodeQueryVO> codeQueryVO,
+                                                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = buildEtag(String.valueOf(dictService.getVersion()), codeQueryVO);
+        if (etag.equals(ifNoneMatch)) {
+            return notModified(etag);
+        }
         Map<String, List<DefDictItemResultVO>> map = dictService.findDictMapItemListByKey(codeQueryVO.stream().map(CodeQueryVO::getType).toList());
-        return R.success(mapOptionByDict(map, codeQueryVO));
+        return ResponseEntity.ok().eTag(etag).body(R.success(mapOptionByDict(map, codeQueryVO)));
     }
 
 //    @GetMapping("/anyUser/parameter/value")
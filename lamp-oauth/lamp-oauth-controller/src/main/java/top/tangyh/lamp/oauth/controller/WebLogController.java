@@ -14,7 +14,7 @@ import org.springframework.web.bind.annotation.RestController;
 import top.tangyh.basic.base.R;
 import top.tangyh.basic.model.log.OptLogDTO;
 import top.tangyh.basic.utils.BeanPlusUtil;
-import top.tangyh.lamp.base.service.system.BaseOperationLogService;
+import top.tangyh.lamp.base.biz.system.BaseOperationLogCollector;
 import top.tangyh.lamp.base.vo.save.system.BaseOperationLogSaveVO;
 
 /**
@@ -35,7 +35,7 @@ import top.tangyh.lamp.base.vo.save.system.BaseOperationLogSaveVO;
 @Hidden
 public class WebLogController {
 
-    private final BaseOperationLogService baseOperationLogService;
+    private final BaseOperationLogCollector baseOperationLogCollector;
 
     /**
      * 保存系统日志
@@ -44,10 +44,9 @@ public class WebLogController {
      * @return 保存结果
      */
     @PostMapping("/anyUser/optLog")
-    @Operation(summary = "保存系统日志", description = "保存系统日志不为空的字段")
+    @Operation(summary = "保存系统日志", description = "放入缓冲队列后异步批量保存")
     public R<Boolean> save(@RequestBody OptLogDTO data) {
-        baseOperationLogService.save(BeanPlusUtil.toBean(data, BaseOperationLogSaveVO.class));
-        return R.success(true);
+        return R.success(baseOperationLogCollector.collect(BeanPlusUtil.toBean(data, BaseOperationLogSaveVO.class)));
     }
 
 }
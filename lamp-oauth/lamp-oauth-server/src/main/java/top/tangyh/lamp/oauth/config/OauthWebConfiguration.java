@@ -7,7 +7,7 @@ import org.springframework.context.annotation.Configuration;
 import top.tangyh.basic.boot.config.BaseConfig;
 import top.tangyh.basic.log.event.SysLogListener;
 import top.tangyh.basic.utils.BeanPlusUtil;
-import top.tangyh.lamp.base.service.system.BaseOperationLogService;
+import top.tangyh.lamp.base.biz.system.BaseOperationLogCollector;
 import top.tangyh.lamp.base.vo.save.system.BaseOperationLogSaveVO;
 import top.tangyh.lamp.common.properties.SystemProperties;
 
@@ -24,7 +24,7 @@ public class OauthWebConfiguration extends BaseConfig {
      */
     @Bean
     @ConditionalOnExpression("${lamp.log.enabled:true} && 'DB'.equals('${lamp.log.type:LOGGER}')")
-    public SysLogListener sysLogListener(BaseOperationLogService logApi) {
-        return new SysLogListener(data -> logApi.save(BeanPlusUtil.toBean(data, BaseOperationLogSaveVO.class)));
+    public SysLogListener sysLogListener(BaseOperationLogCollector collector) {
+        return new SysLogListener(data -> collector.collect(BeanPlusUtil.toBean(data, BaseOperationLogSaveVO.class)));
     }
 }
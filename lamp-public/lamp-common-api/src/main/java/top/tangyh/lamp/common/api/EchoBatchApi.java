@@ -0,0 +1,33 @@
+package top.tangyh.lamp.common.api;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import top.tangyh.basic.constant.Constants;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 批量回显API
+ * <p>
+ * 一次请求查询多种类型的回显数据，类型使用 @Echo 注解的 api 值，如: top.tangyh.lamp.common.api.DictApi
+ * 回显时由 EchoBatchPrefetcher 调用，不需要业务代码直接使用
+ *
+ * @author zuihou
+ * @date 2024/9/11 9:30
+ */
+@FeignClient(name = "${" + Constants.PROJECT_PREFIX + ".feign.oauth-server:lamp-oauth-server}", path = "")
+public interface EchoBatchApi {
+
+    /**
+     * 根据类型和id批量查询
+     *
+     * @param typeIds 类型 -> 唯一键（可能不是主键ID)
+     * @return 类型 -> (唯一键 -> 回显对象)， 不支持的类型返回空
+     */
+    @PostMapping("/echo/findByTypes")
+    Map<String, Map<Serializable, Object>> findByTypes(@RequestBody Map<String, Set<Serializable>> typeIds);
+
+}
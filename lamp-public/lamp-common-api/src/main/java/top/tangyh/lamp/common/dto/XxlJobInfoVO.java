@@ -114,6 +114,36 @@ public class XxlJobInfoVO implements Serializable {
         return xxlJobInfo;
     }
 
+    /**
+     * 创建周期执行的任务
+     *
+     * @param jobGroupName    执行器名
+     * @param jobDesc         任务描述
+     * @param cron            cron表达式
+     * @param executorHandler 任务Handler名称
+     * @param executorParam   任务参数
+     * @return 任务
+     */
+    public static XxlJobInfoVO createCron(String jobGroupName, String jobDesc, String cron,
+                                          String executorHandler, String executorParam) {
+        XxlJobInfoVO xxlJobInfo = new XxlJobInfoVO();
+        xxlJobInfo.setJobGroupName(jobGroupName);
+        xxlJobInfo.setJobDesc(jobDesc);
+        xxlJobInfo.setAuthor("admin");
+        xxlJobInfo.setAlarmEmail("");
+        xxlJobInfo.setScheduleType("CRON");
+        xxlJobInfo.setScheduleConf(cron);
+        xxlJobInfo.setMisfireStrategy("DO_NOTHING");
+        xxlJobInfo.setExecutorRouteStrategy("FIRST");
+        xxlJobInfo.setExecutorHandler(executorHandler);
+        xxlJobInfo.setExecutorParam(executorParam);
+        xxlJobInfo.setExecutorBlockStrategy("DISCARD_LATER");
+        xxlJobInfo.setExecutorTimeout(-1);
+        xxlJobInfo.setExecutorFailRetryCount(0);
+        xxlJobInfo.setGlueType("BEAN");
+        return xxlJobInfo;
+    }
+
     public String getScheduleTime() {
         return scheduleTime;
     }
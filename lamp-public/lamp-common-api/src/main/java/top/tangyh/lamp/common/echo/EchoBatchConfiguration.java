@@ -0,0 +1,33 @@
+package top.tangyh.lamp.common.echo;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import top.tangyh.basic.constant.Constants;
+import top.tangyh.lamp.common.api.EchoBatchApi;
+
+/**
+ * 回显数据预取配置
+ * <p>
+ * 网关不执行回显，只在 servlet 服务中启用
+ *
+ * @author zuihou
+ * @date 2024/9/11 9:30
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = Constants.PROJECT_PREFIX + ".system.echo-batch", name = "prefetch", havingValue = "true", matchIfMissing = true)
+public class EchoBatchConfiguration {
+
+    @Bean
+    public static EchoBatchPrefetcher echoBatchPrefetcher(ObjectProvider<EchoBatchApi> echoBatchApi) {
+        return new EchoBatchPrefetcher(echoBatchApi);
+    }
+
+    @Bean
+    public static EchoBatchPostProcessor echoBatchPostProcessor(EchoBatchPrefetcher echoBatchPrefetcher) {
+        return new EchoBatchPostProcessor(echoBatchPrefetcher);
+    }
+}
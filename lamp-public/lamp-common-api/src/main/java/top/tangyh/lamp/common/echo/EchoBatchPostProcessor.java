@@ -0,0 +1,86 @@
+package top.tangyh.lamp.common.echo;
+
+import cn.hutool.core.util.ArrayUtil;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ClassUtils;
+import top.tangyh.basic.interfaces.echo.EchoService;
+import top.tangyh.basic.interfaces.echo.LoadService;
+
+import java.io.Serializable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 接入回显数据预取
+ * <p>
+ * 1. EchoService：回显前预取全部 feign 类型的数据
+ * 2. 实现了 LoadService 的 feign 客户端：已预取的类型直接返回预取的结果
+ *
+ * @author zuihou
+ * @date 2024/9/11 9:30
+ */
+public class EchoBatchPostProcessor implements BeanPostProcessor {
+    private static final String ACTION = "action";
+    private static final String FIND_BY_IDS = "findByIds";
+
+    private final EchoBatchPrefetcher prefetcher;
+
+    public EchoBatchPostProcessor(EchoBatchPrefetcher prefetcher) {
+        this.prefetcher = prefetcher;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof EchoService) {
+            return wrap(bean, (proxy, method, args) -> {
+                if (ACTION.equals(method.getName()) && ArrayUtil.isNotEmpty(args) && args[0] != null) {
+                    return prefetcher.prefetch(args[0], () -> invoke(bean, method, args));
+                }
+                return invoke(bean, method, args);
+            });
+        }
+        if (bean instanceof LoadService && isFeignClient(bean)) {
+            // feign 客户端的 bean 名称即 @Echo 中的 api: 接口全类名
+            prefetcher.addFeignType(beanName);
+            return wrap(bean, (proxy, method, args) -> {
+                if (FIND_BY_IDS.equals(method.getName()) && ArrayUtil.length(args) == 1 && args[0] instanceof Set) {
+                    @SuppressWarnings("unchecked")
+                    Map<Serializable, Object> prefetched = EchoBatchPrefetcher.getPrefetched(beanName, (Set<Serializable>) args[0]);
+                    if (prefetched != null) {
+                        return prefetched;
+                    }
+                }
+                return invoke(bean, method, args);
+            });
+        }
+        return bean;
+    }
+
+    private static boolean isFeignClient(Object bean) {
+        for (Class<?> clazz : ClassUtils.getAllInterfacesForClass(bean.getClass())) {
+            if (AnnotationUtils.findAnnotation(clazz, FeignClient.class) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Object wrap(Object bean, InvocationHandler handler) {
+        return Proxy.newProxyInstance(bean.getClass().getClassLoader(), ClassUtils.getAllInterfacesForClass(bean.getClass()), handler);
+    }
+
+    private static Object invoke(Object bean, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(bean, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
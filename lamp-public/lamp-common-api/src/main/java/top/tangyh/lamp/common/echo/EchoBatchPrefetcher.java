@@ -0,0 +1,238 @@
+package top.tangyh.lamp.common.echo;
+
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import top.tangyh.basic.annotation.echo.Echo;
+import top.tangyh.basic.interfaces.echo.EchoVO;
+import top.tangyh.lamp.common.api.EchoBatchApi;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 回显数据预取
+ * <p>
+ * 回显一页数据时，EchoService 对每种 @Echo api 分别调用一次 feign 接口(用户、机构、岗位、字典...)。
+ * 本类在回显前收集本次需要的全部 feign 类型和 id，调用一次 /echo/findByTypes 批量查询，
+ * 结果保存在当前线程中；随后 EchoService 逐个调用 feign 接口时，已预取的类型直接返回预取的结果。
+ * <p>
+ * 只预取 feign 类型，本服务内的 LoadService 不经过网络，不需要预取。
+ * 收集不到的字段、预取失败的类型，仍按原来的方式调用 feign 接口。
+ *
+ * @author zuihou
+ * @date 2024/9/11 9:30
+ */
+@Slf4j
+public class EchoBatchPrefetcher {
+    private static final int MAX_DEPTH = 3;
+    private static final ThreadLocal<Map<String, Prefetched>> PREFETCHED = new ThreadLocal<>();
+
+    private final ObjectProvider<EchoBatchApi> echoBatchApi;
+    /**
+     * feign 类型， 即 feign 客户端的 bean 名称(接口全类名)
+     */
+    private final Set<String> feignTypes = ConcurrentHashMap.newKeySet();
+    /**
+     * 类 -> 需要回显的字段
+     */
+    private final Map<Class<?>, List<EchoField>> fieldCache = new ConcurrentHashMap<>();
+
+    public EchoBatchPrefetcher(ObjectProvider<EchoBatchApi> echoBatchApi) {
+        this.echoBatchApi = echoBatchApi;
+    }
+
+    void addFeignType(String type) {
+        feignTypes.add(type);
+    }
+
+    /**
+     * 预取 obj 中全部 feign 类型的回显数据，并在当前线程中执行回显
+     *
+     * @param obj    待回显的对象
+     * @param action 回显
+     * @return 回显的返回值
+     */
+    Object prefetch(Object obj, Action action) throws Throwable {
+        Map<String, Set<Serializable>> typeIds = new HashMap<>();
+        Set<String> dictApis = new HashSet<>();
+        collect(obj, typeIds, dictApis, 1);
+        if (typeIds.size() < 2) {
+            return action.run();
+        }
+
+        Map<String, Map<Serializable, Object>> result;
+        try {
+            result = echoBatchApi.getObject().findByTypes(typeIds);
+        } catch (Exception e) {
+            log.warn("批量查询回显数据失败，逐个类型查询", e);
+            return action.run();
+        }
+        Map<String, Prefetched> prefetched = new HashMap<>();
+        typeIds.forEach((type, ids) -> {
+            Map<Serializable, Object> values = result == null ? null : result.get(type);
+            if (values != null) {
+                prefetched.put(type, new Prefetched(toStringSet(ids), values, dictApis.contains(type)));
+            }
+        });
+
+        Map<String, Prefetched> old = PREFETCHED.get();
+        PREFETCHED.set(prefetched);
+        try {
+            return action.run();
+        } finally {
+            if (old == null) {
+                PREFETCHED.remove();
+            } else {
+                PREFETCHED.set(old);
+            }
+        }
+    }
+
+    /**
+     * 查询已预取的回显数据
+     *
+     * @param type feign 类型
+     * @param ids  待查询的id
+     * @return 全部id都已预取时返回预取的结果， 否则返回null
+     */
+    static Map<Serializable, Object> getPrefetched(String type, Set<Serializable> ids) {
+        Map<String, Prefetched> prefetched = PREFETCHED.get();
+        Prefetched item = prefetched == null ? null : prefetched.get(type);
+        if (item == null || ids == null) {
+            return null;
+        }
+        Set<String> keys = toStringSet(ids);
+        if (!item.getIds().containsAll(keys)) {
+            return null;
+        }
+        if (item.isDict()) {
+            // 字典按字典类型查询，结果的 key 为 字典类型 + 分隔符 + 字典项，无法按 id 过滤；
+            // 多出的其他字典类型的项不会被使用
+            return new HashMap<>(item.getValues());
+        }
+        // 经过 feign 反序列化后，结果的 key 都是字符串
+        Map<Serializable, Object> map = new HashMap<>(keys.size() * 2);
+        item.getValues().forEach((k, v) -> {
+            if (keys.contains(String.valueOf(k))) {
+                map.put(k, v);
+            }
+        });
+        return map;
+    }
+
+    private void collect(Object obj, Map<String, Set<Serializable>> typeIds, Set<String> dictApis, int depth) {
+        if (obj == null || depth > MAX_DEPTH) {
+            return;
+        }
+        if (obj instanceof Collection<?> collection) {
+            collection.forEach(item -> collect(item, typeIds, dictApis, depth));
+            return;
+        }
+        if (obj.getClass().isArray()) {
+            if (!obj.getClass().getComponentType().isPrimitive()) {
+                for (Object item : (Object[]) obj) {
+                    collect(item, typeIds, dictApis, depth);
+                }
+            }
+            return;
+        }
+        // 分页对象
+        Method getRecords = ReflectUtil.getPublicMethod(obj.getClass(), "getRecords");
+        if (getRecords != null && !(obj instanceof EchoVO)) {
+            collect(ReflectUtil.invoke(obj, getRecords), typeIds, dictApis, depth);
+            return;
+        }
+        if (!(obj instanceof EchoVO)) {
+            return;
+        }
+        for (EchoField echoField : fieldCache.computeIfAbsent(obj.getClass(), this::parseFields)) {
+            Object value = ReflectUtil.getFieldValue(obj, echoField.getField());
+            if (value == null) {
+                continue;
+            }
+            if (echoField.getApi() == null) {
+                collect(value, typeIds, dictApis, depth + 1);
+            } else if (StrUtil.isNotEmpty(echoField.getDictType())) {
+                // 字典按字典类型查询
+                typeIds.computeIfAbsent(echoField.getApi(), k -> new HashSet<>()).add(echoField.getDictType());
+                dictApis.add(echoField.getApi());
+            } else if (value instanceof Collection<?> ids) {
+                ids.stream().filter(Serializable.class::isInstance)
+                        .forEach(id -> typeIds.computeIfAbsent(echoField.getApi(), k -> new HashSet<>()).add((Serializable) id));
+            } else if (value instanceof Serializable id) {
+                typeIds.computeIfAbsent(echoField.getApi(), k -> new HashSet<>()).add(id);
+            }
+        }
+    }
+
+    /**
+     * 解析 feign 类型的 @Echo 字段，以及可能包含回显对象的字段
+     */
+    private List<EchoField> parseFields(Class<?> clazz) {
+        List<EchoField> list = new ArrayList<>();
+        for (Field field : ReflectUtil.getFields(clazz)) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            Echo echo = field.getAnnotation(Echo.class);
+            if (echo != null) {
+                if (feignTypes.contains(echo.api())) {
+                    list.add(new EchoField(field, echo.api(), echo.dictType()));
+                }
+            } else if (EchoVO.class.isAssignableFrom(field.getType()) || Collection.class.isAssignableFrom(field.getType())
+                    || ArrayUtil.isArray(field.getType())) {
+                list.add(new EchoField(field, null, null));
+            }
+        }
+        return list.isEmpty() ? Collections.emptyList() : list;
+    }
+
+    private static Set<String> toStringSet(Collection<? extends Serializable> ids) {
+        Set<String> set = new HashSet<>(ids.size() * 2);
+        ids.forEach(id -> set.add(String.valueOf(id)));
+        return set;
+    }
+
+    @FunctionalInterface
+    interface Action {
+        Object run() throws Throwable;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class EchoField {
+        private final Field field;
+        /**
+         * feign 类型， 为空表示需要继续解析的嵌套字段
+         */
+        private final String api;
+        private final String dictType;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Prefetched {
+        private final Set<String> ids;
+        private final Map<Serializable, Object> values;
+        /**
+         * 是否字典类型， 按字典类型查询
+         */
+        private final boolean dict;
+    }
+}
@@ -194,6 +194,12 @@ public interface CacheKeyTable {
          * 完整key: org_role:{ORG_ID} -> [ROLE_ID, ...]
          */
         String ORG_ROLE = "org_role";
+
+        /**
+         * 用户的登录档案 前缀
+         * 完整key: login_profile:{USER_ID} -> obj
+         */
+        String LOGIN_PROFILE = "login_profile";
     }
     // 消息服务缓存 end
 
@@ -0,0 +1,57 @@
+package top.tangyh.lamp.common.cache.base.user;
+
+import top.tangyh.basic.model.cache.CacheKey;
+import top.tangyh.basic.model.cache.CacheKeyBuilder;
+import top.tangyh.lamp.common.cache.CacheKeyModular;
+import top.tangyh.lamp.common.cache.CacheKeyTable;
+
+import java.time.Duration;
+
+/**
+ * 用户的登录档案 KEY
+ * <p>
+ * 登录时需要的员工、单位、部门信息
+ *
+ * @author zuihou
+ * @date 2024/9/13 10:00
+ */
+public class LoginProfileCacheKeyBuilder implements CacheKeyBuilder {
+    public static CacheKey build(Long userId) {
+        return new LoginProfileCacheKeyBuilder().key(userId);
+    }
+
+    @Override
+    public String getTenant() {
+        return null;
+    }
+
+    @Override
+    public String getTable() {
+        return CacheKeyTable.Base.LOGIN_PROFILE;
+    }
+
+    @Override
+    public String getPrefix() {
+        return CacheKeyModular.PREFIX;
+    }
+
+    @Override
+    public String getModular() {
+        return CacheKeyModular.BASE;
+    }
+
+    @Override
+    public String getField() {
+        return "user_id";
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.obj;
+    }
+
+    @Override
+    public Duration getExpire() {
+        return Duration.ofHours(24);
+    }
+}
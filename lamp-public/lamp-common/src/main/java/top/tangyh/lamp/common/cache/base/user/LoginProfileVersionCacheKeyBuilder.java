@@ -0,0 +1,59 @@
+package top.tangyh.lamp.common.cache.base.user;
+
+import top.tangyh.basic.model.cache.CacheKey;
+import top.tangyh.basic.model.cache.CacheKeyBuilder;
+import top.tangyh.lamp.common.cache.CacheKeyModular;
+import top.tangyh.lamp.common.cache.CacheKeyTable;
+
+import java.time.Duration;
+
+/**
+ * 用户的登录档案 数据版本
+ * <p>
+ * 员工、组织、员工所在组织变化后更新版本号，版本号不一致的登录档案视为过期
+ *
+ * @author zuihou
+ * @date 2024/9/13 10:00
+ */
+public class LoginProfileVersionCacheKeyBuilder implements CacheKeyBuilder {
+
+    public static CacheKey builder() {
+        return new LoginProfileVersionCacheKeyBuilder().key();
+    }
+
+    @Override
+    public String getPrefix() {
+        return CacheKeyModular.PREFIX;
+    }
+
+    @Override
+    public String getTenant() {
+        return null;
+    }
+
+    @Override
+    public String getTable() {
+        return CacheKeyTable.Base.LOGIN_PROFILE;
+    }
+
+    @Override
+    public String getModular() {
+        return CacheKeyModular.BASE;
+    }
+
+    @Override
+    public String getField() {
+        return "version";
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.number;
+    }
+
+    @Override
+    public Duration getExpire() {
+        return Duration.ofDays(30);
+    }
+
+}
@@ -0,0 +1,66 @@
+package top.tangyh.lamp.common.cache.tenant.application;
+
+import top.tangyh.basic.model.cache.CacheHashKey;
+import top.tangyh.basic.model.cache.CacheKeyBuilder;
+import top.tangyh.lamp.common.cache.CacheKeyModular;
+import top.tangyh.lamp.common.cache.CacheKeyTable;
+
+import java.time.Duration;
+
+/**
+ * 接口权限表 KEY
+ * <p>
+ * key: lc:system:dra:api_map:string
+ * field1: {uri}###{requestMethod} --> 资源编码1,资源编码2
+ * field2: #version --> 加载时间
+ * <p>
+ * #def_resource_api
+ *
+ * @author zuihou
+ * @date 2024/9/10 17:10
+ */
+public class ResourceApiMapCacheKeyBuilder implements CacheKeyBuilder {
+
+    public static CacheHashKey builder() {
+        return new ResourceApiMapCacheKeyBuilder().hashKey();
+    }
+
+    public static CacheHashKey builder(String field) {
+        return new ResourceApiMapCacheKeyBuilder().hashFieldKey(field);
+    }
+
+    @Override
+    public String getPrefix() {
+        return CacheKeyModular.PREFIX;
+    }
+
+    @Override
+    public String getTenant() {
+        return null;
+    }
+
+    @Override
+    public String getTable() {
+        return CacheKeyTable.System.RESOURCE_API;
+    }
+
+    @Override
+    public String getModular() {
+        return CacheKeyModular.SYSTEM;
+    }
+
+    @Override
+    public String getField() {
+        return "api_map";
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.string;
+    }
+
+    @Override
+    public Duration getExpire() {
+        return Duration.ofHours(24);
+    }
+}
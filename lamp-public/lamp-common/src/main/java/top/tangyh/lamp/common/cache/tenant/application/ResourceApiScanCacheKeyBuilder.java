@@ -0,0 +1,59 @@
+package top.tangyh.lamp.common.cache.tenant.application;
+
+import top.tangyh.basic.model.cache.CacheHashKey;
+import top.tangyh.basic.model.cache.CacheKeyBuilder;
+import top.tangyh.lamp.common.cache.CacheKeyModular;
+import top.tangyh.lamp.common.cache.CacheKeyTable;
+
+/**
+ * 服务扫描到的接口 KEY
+ * <p>
+ * key: lc:system:dra:scan:string:{springApplicationName}
+ * field1: {uri}###{requestMethod} --> {controller}###{接口名}
+ * field2: #digest --> 全部接口的摘要
+ * <p>
+ * #def_resource_api
+ *
+ * @author zuihou
+ * @date 2024/9/10 17:10
+ */
+public class ResourceApiScanCacheKeyBuilder implements CacheKeyBuilder {
+
+    public static CacheHashKey builder(String springApplicationName) {
+        return new ResourceApiScanCacheKeyBuilder().hashKey(springApplicationName);
+    }
+
+    public static CacheHashKey builder(String springApplicationName, String field) {
+        return new ResourceApiScanCacheKeyBuilder().hashFieldKey(field, springApplicationName);
+    }
+
+    @Override
+    public String getPrefix() {
+        return CacheKeyModular.PREFIX;
+    }
+
+    @Override
+    public String getTenant() {
+        return null;
+    }
+
+    @Override
+    public String getTable() {
+        return CacheKeyTable.System.RESOURCE_API;
+    }
+
+    @Override
+    public String getModular() {
+        return CacheKeyModular.SYSTEM;
+    }
+
+    @Override
+    public String getField() {
+        return "scan";
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.string;
+    }
+}
@@ -0,0 +1,60 @@
+package top.tangyh.lamp.common.cache.tenant.base;
+
+import top.tangyh.basic.model.cache.CacheKey;
+import top.tangyh.basic.model.cache.CacheKeyBuilder;
+import top.tangyh.lamp.common.cache.CacheKeyModular;
+import top.tangyh.lamp.common.cache.CacheKeyTable;
+
+import java.time.Duration;
+
+/**
+ * 参数 数据版本
+ * <p>
+ * #def_parameter
+ * 参数新增、修改、删除后更新版本号，各服务的参数注册表发现版本变化后重新加载
+ *
+ * @author zuihou
+ * @date 2024/9/11 16:00
+ */
+public class DefParameterVersionCacheKeyBuilder implements CacheKeyBuilder {
+
+    public static CacheKey builder() {
+        return new DefParameterVersionCacheKeyBuilder().key();
+    }
+
+    @Override
+    public String getPrefix() {
+        return CacheKeyModular.PREFIX;
+    }
+
+    @Override
+    public String getTenant() {
+        return null;
+    }
+
+    @Override
+    public String getTable() {
+        return CacheKeyTable.System.DEF_PARAMETER;
+    }
+
+    @Override
+    public String getModular() {
+        return CacheKeyModular.SYSTEM;
+    }
+
+    @Override
+    public String getField() {
+        return "version";
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.number;
+    }
+
+    @Override
+    public Duration getExpire() {
+        return Duration.ofDays(30);
+    }
+
+}
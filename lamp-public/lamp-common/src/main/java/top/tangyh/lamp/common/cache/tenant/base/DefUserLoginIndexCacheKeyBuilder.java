@@ -0,0 +1,57 @@
+package top.tangyh.lamp.common.cache.tenant.base;
+
+import top.tangyh.basic.model.cache.CacheHashKey;
+import top.tangyh.basic.model.cache.CacheKeyBuilder;
+import top.tangyh.lamp.common.cache.CacheKeyModular;
+import top.tangyh.lamp.common.cache.CacheKeyTable;
+
+/**
+ * 用户登录标识索引 KEY
+ * <p>
+ * key: lc:system:def_user:login_index:number
+ * field1: username:{username} --> user_id
+ * field2: mobile:{mobile} --> user_id
+ * field3: email:{email} --> user_id
+ * field4: idCard:{idCard} --> user_id
+ * <p>
+ * #def_user
+ *
+ * @author zuihou
+ * @date 2024/9/4 14:30
+ */
+public class DefUserLoginIndexCacheKeyBuilder implements CacheKeyBuilder {
+
+    public static CacheHashKey builder(String identifier) {
+        return new DefUserLoginIndexCacheKeyBuilder().hashFieldKey(identifier);
+    }
+
+    @Override
+    public String getPrefix() {
+        return CacheKeyModular.PREFIX;
+    }
+
+    @Override
+    public String getTenant() {
+        return null;
+    }
+
+    @Override
+    public String getTable() {
+        return CacheKeyTable.System.DEF_USER;
+    }
+
+    @Override
+    public String getModular() {
+        return CacheKeyModular.SYSTEM;
+    }
+
+    @Override
+    public String getField() {
+        return "login_index";
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.number;
+    }
+}
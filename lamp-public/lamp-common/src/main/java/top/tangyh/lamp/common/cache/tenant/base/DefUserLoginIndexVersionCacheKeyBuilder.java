@@ -0,0 +1,60 @@
+package top.tangyh.lamp.common.cache.tenant.base;
+
+import top.tangyh.basic.model.cache.CacheKey;
+import top.tangyh.basic.model.cache.CacheKeyBuilder;
+import top.tangyh.lamp.common.cache.CacheKeyModular;
+import top.tangyh.lamp.common.cache.CacheKeyTable;
+
+import java.time.Duration;
+
+/**
+ * 用户登录标识索引 数据版本
+ * <p>
+ * #def_user
+ * 登录标识写入索引后更新版本号，各服务发现版本与加载布隆过滤器时不一致后，不再信任布隆过滤器的判定
+ *
+ * @author zuihou
+ * @date 2024/9/4 14:30
+ */
+public class DefUserLoginIndexVersionCacheKeyBuilder implements CacheKeyBuilder {
+
+    public static CacheKey builder() {
+        return new DefUserLoginIndexVersionCacheKeyBuilder().key();
+    }
+
+    @Override
+    public String getPrefix() {
+        return CacheKeyModular.PREFIX;
+    }
+
+    @Override
+    public String getTenant() {
+        return null;
+    }
+
+    @Override
+    public String getTable() {
+        return CacheKeyTable.System.DEF_USER;
+    }
+
+    @Override
+    public String getModular() {
+        return CacheKeyModular.SYSTEM;
+    }
+
+    @Override
+    public String getField() {
+        return "login_index_version";
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.number;
+    }
+
+    @Override
+    public Duration getExpire() {
+        return Duration.ofDays(30);
+    }
+
+}
@@ -8,17 +8,18 @@ import top.tangyh.lamp.common.cache.CacheKeyTable;
 import java.time.Duration;
 
 /**
- * 客户端
+ * 客户端 数据版本
  * <p>
  * #def_client
+ * 客户端新增、修改、删除后更新版本号，各服务的客户端注册表发现版本变化后重新加载
  *
  * @author zuihou
  * @date 2020/9/20 6:45 下午
  */
-public class DefClientSecretCacheKeyBuilder implements CacheKeyBuilder {
+public class DefClientVersionCacheKeyBuilder implements CacheKeyBuilder {
 
-    public static CacheKey builder(String clientId, String clientSecret) {
-        return new DefClientSecretCacheKeyBuilder().key(clientId, clientSecret);
+    public static CacheKey builder() {
+        return new DefClientVersionCacheKeyBuilder().key();
     }
 
     @Override
@@ -43,17 +44,17 @@ public class DefClientSecretCacheKeyBuilder implements CacheKeyBuilder {
 
     @Override
     public String getField() {
-        return "cid.secret";
+        return "version";
     }
 
     @Override
     public ValueType getValueType() {
-        return ValueType.string;
+        return ValueType.number;
     }
 
     @Override
     public Duration getExpire() {
-        return Duration.ofHours(24);
+        return Duration.ofDays(30);
     }
 
 }
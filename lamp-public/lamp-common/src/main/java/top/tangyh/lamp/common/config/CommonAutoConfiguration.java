@@ -15,6 +15,7 @@ import top.tangyh.basic.constant.Constants;
 import top.tangyh.lamp.common.aspect.LampLogAspect;
 import top.tangyh.lamp.common.cache.CacheKeyModular;
 import top.tangyh.lamp.common.properties.IgnoreProperties;
+import top.tangyh.lamp.common.properties.LogRetentionProperties;
 import top.tangyh.lamp.common.properties.SystemProperties;
 
 /**
@@ -27,7 +28,7 @@ import top.tangyh.lamp.common.properties.SystemProperties;
 @Configuration
 @RequiredArgsConstructor
 @ConditionalOnWebApplication
-@EnableConfigurationProperties({SystemProperties.class, IgnoreProperties.class})
+@EnableConfigurationProperties({SystemProperties.class, IgnoreProperties.class, LogRetentionProperties.class})
 public class CommonAutoConfiguration {
     private final SystemProperties systemProperties;
 
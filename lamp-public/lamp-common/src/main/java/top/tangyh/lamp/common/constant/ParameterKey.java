@@ -9,6 +9,14 @@ package top.tangyh.lamp.common.constant;
 public interface ParameterKey {
 
     String LOGIN_POLICY = LoginPolicy.class.getSimpleName();
+    /**
+     * 密码最大输错次数  小于0不限制， 未配置时使用 lamp.system.max-password-error-num
+     */
+    String MAX_PASSWORD_ERROR_NUM = "maxPasswordErrorNum";
+    /**
+     * 密码错误锁定用户时间， 未配置时使用 lamp.system.password-error-lock-user-time
+     */
+    String PASSWORD_ERROR_LOCK_USER_TIME = "passwordErrorLockUserTime";
 
     enum LoginPolicy {
         /**
@@ -0,0 +1,60 @@
+package top.tangyh.lamp.common.page;
+
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.util.StrUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import top.tangyh.basic.exception.BizException;
+import top.tangyh.basic.utils.StrPool;
+
+import java.time.LocalDateTime;
+
+/**
+ * 游标分页的翻页标识
+ * <p>
+ * 记录上一页最后一条数据的 (排序字段, id)，下一页查询条件为：
+ * sort &lt; ? or (sort = ? and id &lt; ?)
+ * 对前端是不透明的字符串，前端只需原样回传。
+ *
+ * @author zuihou
+ * @date 2024/9/9 15:20
+ */
+@Getter
+@AllArgsConstructor
+public class SeekCursor {
+    /**
+     * 上一页最后一条数据的排序字段值
+     */
+    private final LocalDateTime sortValue;
+    /**
+     * 上一页最后一条数据的id
+     */
+    private final Long id;
+
+    /**
+     * 编码为翻页标识
+     *
+     * @return 翻页标识
+     */
+    public String encode() {
+        return Base64.encodeUrlSafe(sortValue + StrPool.COMMA + id);
+    }
+
+    /**
+     * 解析翻页标识
+     *
+     * @param cursor 翻页标识
+     * @return 首页返回null
+     */
+    public static SeekCursor decode(String cursor) {
+        if (StrUtil.isBlank(cursor)) {
+            return null;
+        }
+        try {
+            String[] values = StrUtil.splitToArray(Base64.decodeStr(cursor), StrPool.COMMA);
+            return new SeekCursor(LocalDateTime.parse(values[0]), Long.valueOf(values[1]));
+        } catch (Exception e) {
+            throw BizException.wrap("翻页标识无效，请从第一页重新查询");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package top.tangyh.lamp.common.page;
+
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.service.IService;
+import top.tangyh.basic.database.mybatis.conditions.query.LbQueryWrap;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 游标分页查询
+ * <p>
+ * 按 (sortColumn desc, idColumn desc) 排序，根据翻页标识拼接 sort &lt; ? or (sort = ? and id &lt; ?)，
+ * 多查一条判断是否还有下一页。
+ *
+ * @author zuihou
+ * @date 2024/9/9 15:20
+ */
+public class SeekPageHelper {
+
+    /**
+     * 游标分页查询
+     *
+     * @param service    查询的 service 或 manager
+     * @param wrap       查询条件
+     * @param params     分页参数
+     * @param sortColumn 排序字段
+     * @param idColumn   id字段
+     * @return 分页结果
+     */
+    public static <T> SeekPageResult<T> seekPage(IService<T> service, LbQueryWrap<T> wrap, SeekPageParams<?> params,
+                                                 SFunction<T, LocalDateTime> sortColumn, SFunction<T, Long> idColumn) {
+        int limit = params.limit();
+        Long total = Boolean.TRUE.equals(params.getSearchCount()) ? service.count(wrap) : null;
+        SeekCursor cursor = SeekCursor.decode(params.getCursor());
+        if (cursor != null) {
+            wrap.and(w -> w.lt(sortColumn, cursor.getSortValue())
+                    .or(o -> o.eq(sortColumn, cursor.getSortValue()).lt(idColumn, cursor.getId())));
+        }
+        wrap.orderByDesc(sortColumn).orderByDesc(idColumn);
+        // 多查一条，用于判断是否还有下一页
+        List<T> list = service.page(new Page<>(1, limit + 1L, false), wrap).getRecords();
+        return SeekPageResult.of(list, limit, sortColumn, idColumn).setTotal(total);
+    }
+}
@@ -0,0 +1,46 @@
+package top.tangyh.lamp.common.page;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 游标分页参数
+ * <p>
+ * 与 PageParams 不同，不按页码跳页，只能根据上一页返回的 nextCursor 查询下一页；
+ * 查询不使用 offset，翻到多深都只扫描 size 条数据， 且默认不统计总数。
+ *
+ * @author zuihou
+ * @date 2024/9/9 15:20
+ */
+@Data
+@Schema(description = "游标分页参数")
+public class SeekPageParams<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
+    /**
+     * 每页最大条数
+     */
+    public static final int MAX_SIZE = 500;
+
+    @Schema(description = "查询参数")
+    private T model;
+    @Schema(description = "每页条数", example = "20")
+    private Integer size = 20;
+    @Schema(description = "翻页标识，查询第一页时不传，之后传入上一页返回的 nextCursor")
+    private String cursor;
+    @Schema(description = "是否统计总数", example = "false")
+    private Boolean searchCount = false;
+
+    /**
+     * 实际查询的条数
+     *
+     * @return 条数
+     */
+    public int limit() {
+        if (size == null || size <= 0) {
+            return 20;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+}
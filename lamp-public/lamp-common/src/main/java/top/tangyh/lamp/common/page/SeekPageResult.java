@@ -0,0 +1,66 @@
+package top.tangyh.lamp.common.page;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果
+ *
+ * @author zuihou
+ * @date 2024/9/9 15:20
+ */
+@Data
+@Accessors(chain = true)
+@Schema(description = "游标分页结果")
+public class SeekPageResult<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "数据")
+    private List<T> records;
+    @Schema(description = "是否还有下一页")
+    private Boolean hasMore;
+    @Schema(description = "下一页的翻页标识")
+    private String nextCursor;
+    @Schema(description = "总数， 未统计时为空")
+    private Long total;
+
+    /**
+     * 根据多查询的一条数据判断是否还有下一页，并生成下一页的翻页标识
+     *
+     * @param rows      按 limit + 1 条查询的数据
+     * @param limit     每页条数
+     * @param sortValue 排序字段
+     * @param id        id
+     * @return 分页结果
+     */
+    public static <E> SeekPageResult<E> of(List<E> rows, int limit, Function<E, LocalDateTime> sortValue, Function<E, Long> id) {
+        boolean hasMore = rows.size() > limit;
+        List<E> records = hasMore ? new ArrayList<>(rows.subList(0, limit)) : rows;
+        SeekPageResult<E> result = new SeekPageResult<>();
+        result.setRecords(records);
+        result.setHasMore(hasMore);
+        if (hasMore) {
+            E last = records.get(records.size() - 1);
+            result.setNextCursor(new SeekCursor(sortValue.apply(last), id.apply(last)).encode());
+        }
+        return result;
+    }
+
+    /**
+     * 转换数据类型
+     *
+     * @param mapper 转换函数
+     * @return 新的分页结果
+     */
+    public <R> SeekPageResult<R> convert(Function<List<T>, List<R>> mapper) {
+        return new SeekPageResult<R>().setRecords(mapper.apply(records)).setHasMore(hasMore)
+                .setNextCursor(nextCursor).setTotal(total);
+    }
+}
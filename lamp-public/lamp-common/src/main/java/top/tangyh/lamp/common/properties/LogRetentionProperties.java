@@ -0,0 +1,71 @@
+package top.tangyh.lamp.common.properties;
+
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
+import top.tangyh.basic.constant.Constants;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 日志清理配置
+ * <p>
+ * 按主键区间分批删除，避免一次性大事务长时间锁表
+ *
+ * @author zuihou
+ * @date 2024/9/2 10:12
+ */
+@Setter
+@Getter
+@RefreshScope
+@ConfigurationProperties(prefix = LogRetentionProperties.PREFIX)
+public class LogRetentionProperties {
+    public static final String PREFIX = Constants.PROJECT_PREFIX + ".log-retention";
+
+    /**
+     * 每批删除的最大行数
+     */
+    private Integer batchSize = 1000;
+    /**
+     * 两批之间的停顿时间(毫秒)，给正常的日志写入让出锁和undo空间
+     */
+    private Long pauseMillis = 100L;
+    /**
+     * 是否在本服务内定时按保留策略清理
+     * 部署多个实例时，可以只在其中一个实例开启
+     */
+    private Boolean scheduled = true;
+    /**
+     * 定时清理的 cron 表达式
+     */
+    private String cron = "0 0 3 * * ?";
+    /**
+     * 每张表的保留策略
+     * key: 表名， 如： def_login_log、 base_operation_log
+     */
+    private Map<String, Policy> policies = new HashMap<>();
+
+    public Policy getPolicy(String table) {
+        return policies.get(table);
+    }
+
+    @Data
+    public static class Policy {
+        /**
+         * 是否启用定时清理
+         */
+        private Boolean enabled = true;
+        /**
+         * 保留多久以内的日志，如：90d
+         */
+        private Duration maxAge;
+        /**
+         * 最多保留多少条日志
+         */
+        private Integer maxRows;
+    }
+}
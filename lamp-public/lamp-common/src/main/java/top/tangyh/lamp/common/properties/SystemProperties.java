@@ -1,5 +1,6 @@
 package top.tangyh.lamp.common.properties;
 
+import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -74,6 +75,12 @@ public class SystemProperties {
     private String cachePrefix;
     /** oauth 服务扫描枚举类的包路径 */
     private String enumPackage;
+    /**
+     * oauth 服务是否从编译时生成的枚举索引中加载枚举
+     * <p>
+     * 索引只包含本项目的枚举， 依赖 jar 中的枚举需要展示时， 设置为 false 改为扫描包路径
+     */
+    private Boolean enumIndex = true;
 
     /**
      * 是否禁止写入
@@ -83,4 +90,246 @@ public class SystemProperties {
      * 禁止写入名单
      */
     private Map<String, List<String>> notAllowWriteList = new HashMap<>();
+
+    /**
+     * 登录标识(用户名、手机号、邮箱、身份证) 索引配置
+     */
+    private LoginIndex loginIndex = new LoginIndex();
+    /**
+     * 用户搜索(用户名、姓名 模糊查询) 配置
+     */
+    private UserSearch userSearch = new UserSearch();
+    /**
+     * 流式导出Excel 配置
+     */
+    private ExcelExport excelExport = new ExcelExport();
+    /**
+     * 批量导入用户 配置
+     */
+    private UserImport userImport = new UserImport();
+    /**
+     * 启动时扫描本服务接口 配置
+     */
+    private ApiScan apiScan = new ApiScan();
+    /**
+     * 批量回显 配置
+     */
+    private EchoBatch echoBatch = new EchoBatch();
+    /**
+     * 服务监控 配置
+     */
+    private ServerMonitor serverMonitor = new ServerMonitor();
+    /**
+     * 数据源健康检查 配置
+     */
+    private DatasourceHealth datasourceHealth = new DatasourceHealth();
+    /**
+     * 密码加密和校验
+     */
+    private Password password = new Password();
+
+    @Data
+    public static class LoginIndex {
+        /**
+         * 本地缓存的最大条数
+         */
+        private Long localMaxSize = 100000L;
+        /**
+         * 本地缓存的有效期(分钟)
+         */
+        private Long localExpireMinutes = 10L;
+        /**
+         * 不存在的登录标识 在本地缓存的有效期(秒)
+         */
+        private Long nullValSeconds = 60L;
+        /**
+         * 布隆过滤器 预计容纳的登录标识数量
+         */
+        private Long bloomExpectedSize = 1000000L;
+        /**
+         * 布隆过滤器 误判率
+         */
+        private Double bloomFpp = 0.01D;
+        /**
+         * 布隆过滤器 重建间隔(分钟)
+         */
+        private Long bloomRebuildMinutes = 30L;
+    }
+
+    @Data
+    public static class UserSearch {
+        /**
+         * 是否使用分词表 (def_user_search_token) 加速模糊查询， 关闭后退化为 like '%x%'
+         */
+        private Boolean enabled = true;
+        /**
+         * 分词表尚未回填完成时，是否由后台自动从用户表回填
+         */
+        private Boolean rebuildOnStartup = true;
+        /**
+         * 回填时每批处理的用户数
+         */
+        private Integer rebuildBatchSize = 1000;
+    }
+
+    @Data
+    public static class ExcelExport {
+        /**
+         * 每批查询、写入的行数
+         */
+        private Integer batchSize = 1000;
+        /**
+         * 单次导出的最大行数
+         */
+        private Integer maxRows = 500000;
+    }
+
+    @Data
+    public static class UserImport {
+        /**
+         * 每批校验、保存的行数
+         */
+        private Integer batchSize = 1000;
+        /**
+         * 计算密码摘要、写入登录索引的线程数
+         */
+        private Integer threads = 4;
+        /**
+         * 单次导入的最大行数
+         */
+        private Integer maxRows = 200000;
+    }
+
+    @Data
+    public static class ApiScan {
+        /**
+         * 是否在启动时扫描本服务的接口
+         */
+        private Boolean enabled = true;
+        /**
+         * 只扫描此包下的控制器
+         */
+        private String basePackage = "top.tangyh";
+        /**
+         * 接口路径前缀; lamp-cloud版 需要配置为网关中本服务的路由前缀，如: /system
+         */
+        private String uriPrefix = "";
+    }
+
+    @Data
+    public static class EchoBatch {
+        /**
+         * 调用方回显时，是否把多个 feign 类型合并为一次 /echo/findByTypes 调用
+         */
+        private Boolean prefetch = true;
+        /**
+         * 并行查询各类型回显数据的线程数
+         */
+        private Integer threads = 8;
+        /**
+         * 等待全部类型查询完成的最长时间(毫秒)，超时的类型返回空
+         */
+        private Long timeoutMillis = 5000L;
+        /**
+         * 回显类型的别名: 类型 -> 本服务中实现该类型的 LoadService bean 名称
+         * 用于把 @Echo 中的 feign 接口全类名映射到本服务的实现，避免通过 feign 调用自己；
+         * 不在此配置中的类型，直接按 bean 名称或全类名在容器中查找 LoadService
+         */
+        private Map<String, String> aliases = new HashMap<>(Map.of(
+                "top.tangyh.lamp.common.api.UserinfoApi", "defUserServiceImpl",
+                "top.tangyh.lamp.common.api.OrgApi", "baseOrgServiceImpl",
+                "top.tangyh.lamp.common.api.PositionApi", "basePositionServiceImpl",
+                "top.tangyh.lamp.common.api.DictApi", "dictServiceImpl"
+        ));
+    }
+
+    @Data
+    public static class ServerMonitor {
+        /**
+         * CPU、内存、JVM 的采样间隔(秒)
+         */
+        private Integer intervalSeconds = 5;
+        /**
+         * 磁盘的采样间隔(秒)， 枚举磁盘较慢，不需要每次都采集
+         */
+        private Integer diskIntervalSeconds = 60;
+        /**
+         * 保留的历史采样数
+         */
+        private Integer historySize = 360;
+    }
+
+    @Data
+    public static class DatasourceHealth {
+        /**
+         * 是否定时检查全部数据源
+         */
+        private Boolean enabled = true;
+        /**
+         * 检查间隔(秒)
+         */
+        private Integer intervalSeconds = 60;
+        /**
+         * 并行检查的线程数
+         */
+        private Integer threads = 2;
+        /**
+         * 建立链接、校验链接的超时时间(毫秒)
+         */
+        private Long maxWaitMillis = 3000L;
+    }
+
+    @Data
+    public static class Password {
+        /**
+         * 新密码使用的加密算法: pbkdf2、bcrypt
+         */
+        private String algorithm = "pbkdf2";
+        /**
+         * pbkdf2 迭代次数
+         */
+        private Integer pbkdf2Iterations = 310000;
+        /**
+         * bcrypt 计算强度(4-31)
+         */
+        private Integer bcryptCost = 10;
+        /**
+         * 登录成功后，若密码的加密算法或参数已过时，是否在后台重新加密
+         */
+        private Boolean rehashOnLogin = true;
+        /**
+         * 校验密码的线程数
+         */
+        private Integer verifyThreads = 4;
+        /**
+         * 等待校验的最大请求数，超过后直接拒绝
+         */
+        private Integer verifyQueueSize = 64;
+        /**
+         * 等待校验结果的最长时间(毫秒)
+         */
+        private Long verifyTimeoutMillis = 5000L;
+        /**
+         * 等待重新加密的最大数量，超过后丢弃，下次登录成功后再重新加密
+         */
+        private Integer rehashQueueSize = 64;
+        /**
+         * 统计登录失败次数的时间窗口(秒)
+         */
+        private Integer failWindowSeconds = 300;
+        /**
+         * 时间窗口内同一账号最多失败次数，超过后不再校验密码， 0 表示不限制
+         */
+        private Integer maxAccountFailures = 10;
+        /**
+         * 时间窗口内同一IP最多失败次数，超过后不再校验密码， 0 表示不限制
+         */
+        private Integer maxIpFailures = 50;
+        /**
+         * 受信任的代理层数，统计IP失败次数时取 X-Forwarded-For 中从右往左第 N 个值作为客户端IP
+         * 默认按 nginx -> 网关 部署(01-docs/dockerfile/nginx 中的配置)：网关追加的为最右边的值，nginx 追加的为倒数第二个值；
+         * 不经过 nginx 直接访问网关时改为 1， 网关前还有其他代理时相应增加， 0 表示直接使用连接的IP
+         */
+        private Integer trustedProxyHops = 2;
+    }
 }
@@ -0,0 +1,50 @@
+package top.tangyh.lamp.common.retention;
+
+import java.time.LocalDateTime;
+
+/**
+ * 日志表的主键区间操作
+ * <p>
+ * 日志id为雪花id，随时间递增，所以按主键区间删除即可按时间顺序从旧到新清理
+ *
+ * @author zuihou
+ * @date 2024/9/2 10:12
+ */
+public interface LogRangeOperator {
+
+    /**
+     * 日志表名， 对应保留策略的 key
+     *
+     * @return 表名
+     */
+    String getRetentionTable();
+
+    /**
+     * 查询本次清理的最大id (包含)
+     *
+     * @param clearBeforeTime 清理该时间之前的日志
+     * @param keepNum         保留最新的多少条日志
+     * @return 最大id， 为null表示没有需要清理的数据
+     */
+    Long findClearUpperBoundId(LocalDateTime clearBeforeTime, Integer keepNum);
+
+    /**
+     * 查询一批数据的结束id
+     *
+     * @param startId      起始id (不包含)，为null表示从头开始
+     * @param upperBoundId 最大id (包含)
+     * @param batchSize    每批数量
+     * @return 第batchSize条数据的id， 剩余不足一批时返回null
+     */
+    Long findClearBatchEndId(Long startId, Long upperBoundId, int batchSize);
+
+    /**
+     * 按主键区间删除
+     *
+     * @param startId         起始id (不包含)，为null表示从头开始
+     * @param endId           结束id (包含)
+     * @param clearBeforeTime 清理该时间之前的日志
+     * @return 删除的行数
+     */
+    long deleteByIdRange(Long startId, Long endId, LocalDateTime clearBeforeTime);
+}
@@ -0,0 +1,131 @@
+package top.tangyh.lamp.common.retention;
+
+import cn.hutool.core.bean.BeanUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import top.tangyh.basic.exception.BizException;
+import top.tangyh.lamp.common.properties.LogRetentionProperties;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 日志分批清理
+ * <p>
+ * 1. 先计算出本次需要清理的最大id
+ * 2. 再从最小的id开始，每次按主键区间删除 batchSize 条，每批单独提交，批次之间停顿 pauseMillis
+ * <p>
+ * 调用方不能开启事务，否则所有批次会合并到一个大事务中。
+ *
+ * @author zuihou
+ * @date 2024/9/2 10:12
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LogRetentionExecutor {
+    private final Map<String, LogRetentionProgress> progressMap = new ConcurrentHashMap<>();
+    private final LogRetentionProperties logRetentionProperties;
+
+    /**
+     * 按表配置的保留策略清理
+     *
+     * @param table    表名
+     * @param operator 表的主键区间操作
+     * @return 删除的行数
+     */
+    public long executePolicy(String table, LogRangeOperator operator) {
+        LogRetentionProperties.Policy policy = logRetentionProperties.getPolicy(table);
+        if (policy == null || !Boolean.TRUE.equals(policy.getEnabled())
+                || (policy.getMaxAge() == null && policy.getMaxRows() == null)) {
+            log.info("表 {} 未配置日志保留策略，跳过清理", table);
+            return 0L;
+        }
+        LocalDateTime clearBeforeTime = policy.getMaxAge() != null ? LocalDateTime.now().minus(policy.getMaxAge()) : null;
+        return execute(table, operator, clearBeforeTime, policy.getMaxRows());
+    }
+
+    /**
+     * 分批清理
+     *
+     * @param table           表名
+     * @param operator        表的主键区间操作
+     * @param clearBeforeTime 清理该时间之前的日志
+     * @param keepNum         保留最新的多少条日志
+     * @return 删除的行数
+     */
+    public long execute(String table, LogRangeOperator operator, LocalDateTime clearBeforeTime, Integer keepNum) {
+        LogRetentionProgress progress = new LogRetentionProgress().setTable(table).setRunning(true)
+                .setDeleted(0L).setBatches(0).setStartTime(LocalDateTime.now());
+        // 原子地检查并登记，避免两次触发同时开始清理
+        LogRetentionProgress current = progressMap.compute(table,
+                (k, old) -> old != null && Boolean.TRUE.equals(old.getRunning()) ? old : progress);
+        if (current != progress) {
+            throw BizException.wrap("表 {} 正在清理中，请稍后再试", table);
+        }
+
+        int batchSize = Math.max(logRetentionProperties.getBatchSize(), 1);
+        long pauseMillis = logRetentionProperties.getPauseMillis() == null ? 0L : logRetentionProperties.getPauseMillis();
+        try {
+            Long upperBoundId = operator.findClearUpperBoundId(clearBeforeTime, keepNum);
+            progress.setUpperBoundId(upperBoundId);
+            if (upperBoundId == null) {
+                return 0L;
+            }
+
+            Long cursor = null;
+            while (true) {
+                Long endId = operator.findClearBatchEndId(cursor, upperBoundId, batchSize);
+                boolean last = endId == null;
+                if (last) {
+                    endId = upperBoundId;
+                }
+                long deleted = operator.deleteByIdRange(cursor, endId, clearBeforeTime);
+                cursor = endId;
+
+                progress.setCurrentId(cursor);
+                progress.setDeleted(progress.getDeleted() + deleted);
+                progress.setBatches(progress.getBatches() + 1);
+                log.info("清理 {} 第{}批，本批删除 {} 行，累计 {} 行，当前id={}，最大id={}",
+                        table, progress.getBatches(), deleted, progress.getDeleted(), cursor, upperBoundId);
+
+                if (last) {
+                    break;
+                }
+                pause(pauseMillis);
+            }
+            return progress.getDeleted();
+        } catch (RuntimeException e) {
+            progress.setErrorMsg(e.getMessage());
+            throw e;
+        } finally {
+            progress.setRunning(false);
+            progress.setEndTime(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * 查询清理进度
+     *
+     * @param table 表名
+     * @return 进度， 从未清理过时返回null
+     */
+    public LogRetentionProgress getProgress(String table) {
+        LogRetentionProgress progress = progressMap.get(table);
+        return progress == null ? null : BeanUtil.toBean(progress, LogRetentionProgress.class);
+    }
+
+    private static void pause(long pauseMillis) {
+        if (pauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw BizException.wrap("日志清理被中断");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package top.tangyh.lamp.common.retention;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 日志清理进度
+ *
+ * @author zuihou
+ * @date 2024/9/2 10:12
+ */
+@Data
+@Accessors(chain = true)
+@Schema(description = "日志清理进度")
+public class LogRetentionProgress implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "表名")
+    private String table;
+    @Schema(description = "是否正在清理")
+    private Boolean running;
+    @Schema(description = "已删除行数")
+    private Long deleted;
+    @Schema(description = "已执行批次")
+    private Integer batches;
+    @Schema(description = "本次清理的最大id")
+    private Long upperBoundId;
+    @Schema(description = "当前清理到的id")
+    private Long currentId;
+    @Schema(description = "开始时间")
+    private LocalDateTime startTime;
+    @Schema(description = "结束时间")
+    private LocalDateTime endTime;
+    @Schema(description = "失败原因")
+    private String errorMsg;
+}
@@ -0,0 +1,83 @@
+package top.tangyh.lamp.common.retention;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+import top.tangyh.lamp.common.properties.LogRetentionProperties;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志定时清理
+ * <p>
+ * 按 cron 表达式定时执行本服务内全部日志表(LogRangeOperator)的保留策略，未配置保留策略的表跳过。
+ * 同一张表正在清理时(手动触发)，本次跳过。
+ *
+ * @author zuihou
+ * @date 2024/9/2 10:12
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LogRetentionScheduler {
+    private final LogRetentionExecutor logRetentionExecutor;
+    private final LogRetentionProperties logRetentionProperties;
+    private final ObjectProvider<LogRangeOperator> operators;
+
+    private ScheduledExecutorService executor;
+    private CronExpression cron;
+
+    @PostConstruct
+    public void init() {
+        if (!Boolean.TRUE.equals(logRetentionProperties.getScheduled()) || StrUtil.isBlank(logRetentionProperties.getCron())) {
+            return;
+        }
+        cron = CronExpression.parse(logRetentionProperties.getCron());
+        executor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("log-retention-", true));
+        scheduleNext();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void scheduleNext() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = cron.next(now);
+        if (next == null || executor.isShutdown()) {
+            return;
+        }
+        executor.schedule(() -> {
+            try {
+                clearAll();
+            } finally {
+                scheduleNext();
+            }
+        }, Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void clearAll() {
+        operators.orderedStream().forEach(operator -> {
+            String table = operator.getRetentionTable();
+            try {
+                long deleted = logRetentionExecutor.executePolicy(table, operator);
+                log.info("定时清理 {} 完成，删除 {} 行", table, deleted);
+            } catch (Exception e) {
+                log.warn("定时清理 {} 失败", table, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package top.tangyh.lamp.common.stats;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 运行指标端点
+ * <p>
+ * GET /actuator/lampstats 查看本服务全部 StatsSource 的指标，/actuator/lampstats/{name} 查看指定的指标。
+ * 需要在 management.endpoints.web.exposure.include 中加入 lampstats
+ *
+ * @author zuihou
+ * @date 2024/9/13 16:00
+ */
+@Endpoint(id = "lampstats")
+public class LampStatsEndpoint {
+    private final ObjectProvider<StatsSource> statsSources;
+
+    public LampStatsEndpoint(ObjectProvider<StatsSource> statsSources) {
+        this.statsSources = statsSources;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new TreeMap<>();
+        statsSources.orderedStream().forEach(source -> map.put(source.getStatsName(), source.getStats()));
+        return map;
+    }
+
+    /**
+     * 查看指定的指标
+     *
+     * @param name 指标名称
+     * @return 指标， 不存在时返回null(404)
+     */
+    @ReadOperation
+    public Map<String, ?> statsOf(@Selector String name) {
+        return statsSources.orderedStream().filter(source -> source.getStatsName().equals(name))
+                .findFirst().map(StatsSource::getStats).orElse(null);
+    }
+}
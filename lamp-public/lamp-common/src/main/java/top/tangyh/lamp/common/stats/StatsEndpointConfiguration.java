@@ -0,0 +1,25 @@
+package top.tangyh.lamp.common.stats;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 运行指标端点配置， 只在引入了 actuator 的服务中生效
+ *
+ * @author zuihou
+ * @date 2024/9/13 16:00
+ */
+@Configuration
+@ConditionalOnClass(Endpoint.class)
+public class StatsEndpointConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LampStatsEndpoint lampStatsEndpoint(ObjectProvider<StatsSource> statsSources) {
+        return new LampStatsEndpoint(statsSources);
+    }
+}
@@ -0,0 +1,28 @@
+package top.tangyh.lamp.common.stats;
+
+import java.util.Map;
+
+/**
+ * 运行指标来源
+ * <p>
+ * 缓存、后台队列、线程池等组件实现本接口后，其运行指标统一通过 actuator 端点 /actuator/lampstats 查看
+ *
+ * @author zuihou
+ * @date 2024/9/13 16:00
+ */
+public interface StatsSource {
+
+    /**
+     * 指标名称， 同一服务内唯一
+     *
+     * @return 名称
+     */
+    String getStatsName();
+
+    /**
+     * 当前的运行指标
+     *
+     * @return 指标
+     */
+    Map<String, ?> getStats();
+}
@@ -0,0 +1,54 @@
+package top.tangyh.lamp.common.utils;
+
+import cn.hutool.core.util.StrUtil;
+
+/**
+ * like 查询参数工具类
+ * <p>
+ * 在 mapper.xml 中配合 escape 使用，如：
+ * <pre>
+ * &lt;bind name="emailPrefix" value="@top.tangyh.lamp.common.utils.LikeUtil@rightLike(param.email)"/&gt;
+ * and u.email like #{emailPrefix} escape '/'
+ * </pre>
+ * 使用 / 作为转义符，mysql、sqlserver、oracle 写法一致，不需要处理反斜杠在字符串字面量中的差异。
+ *
+ * @author zuihou
+ * @date 2024/9/9 10:30
+ */
+public class LikeUtil {
+    /**
+     * 转义符，需要与 sql 中的 escape 一致
+     */
+    public static final char ESCAPE = '/';
+
+    /**
+     * 前缀匹配参数：转义后追加 %
+     *
+     * @param value 查询值
+     * @return 前缀匹配参数
+     */
+    public static String rightLike(String value) {
+        return escape(StrUtil.trim(value)) + "%";
+    }
+
+    /**
+     * 转义 like 中的通配符： % _ 以及 sqlserver 的 [
+     *
+     * @param value 查询值
+     * @return 转义后的值
+     */
+    public static String escape(String value) {
+        if (StrUtil.isEmpty(value)) {
+            return StrUtil.EMPTY;
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ESCAPE || c == '%' || c == '_' || c == '[') {
+                sb.append(ESCAPE);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,147 @@
+package top.tangyh.lamp.enumindex;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 枚举索引注解处理器
+ * <p>
+ * oauth 服务启动时需要找出全部 mybatis-plus 枚举，原来扫描整个包路径下的类文件，模块越多启动越慢。
+ * 本处理器在编译时找出实现了 IEnum 或有 @EnumValue 字段的枚举，写入 META-INF/lamp/enums.idx，
+ * 启动时只需读取各 jar 中的索引文件。
+ * <p>
+ * 增量编译时只处理本次编译的类，已有索引中的枚举会保留；已删除的枚举在启动加载时忽略。
+ *
+ * @author zuihou
+ * @date 2024/9/12 9:30
+ */
+@SupportedAnnotationTypes("*")
+public class EnumIndexProcessor extends AbstractProcessor {
+    /**
+     * 索引文件， 每行一个枚举的全类名
+     */
+    public static final String INDEX_FILE = "META-INF/lamp/enums.idx";
+    private static final String IENUM = "com.baomidou.mybatisplus.annotation.IEnum";
+    private static final String ENUM_VALUE = "com.baomidou.mybatisplus.annotation.EnumValue";
+
+    private final Set<String> enums = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            write();
+            return false;
+        }
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element);
+        }
+        // 不声明处理了任何注解，不影响 lombok 等其他处理器
+        return false;
+    }
+
+    private void collect(Element element) {
+        if (element.getKind() == ElementKind.ENUM && isMpEnum((TypeElement) element)) {
+            enums.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+        }
+        for (Element enclosed : element.getEnclosedElements()) {
+            if (enclosed.getKind().isClass() || enclosed.getKind().isInterface()) {
+                collect(enclosed);
+            }
+        }
+    }
+
+    private boolean isMpEnum(TypeElement element) {
+        for (Element enclosed : element.getEnclosedElements()) {
+            if (enclosed.getKind() == ElementKind.FIELD && hasAnnotation(enclosed, ENUM_VALUE)) {
+                return true;
+            }
+        }
+        return isSubtypeOf(element.asType(), IENUM);
+    }
+
+    private static boolean hasAnnotation(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().toString().equals(annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSubtypeOf(TypeMirror type, String name) {
+        Types types = processingEnv.getTypeUtils();
+        for (TypeMirror supertype : types.directSupertypes(type)) {
+            if (types.erasure(supertype).toString().equals(name) || isSubtypeOf(supertype, name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void write() {
+        if (enums.isEmpty()) {
+            return;
+        }
+        Filer filer = processingEnv.getFiler();
+        Set<String> all = new TreeSet<>(enums);
+        all.addAll(readExisting(filer));
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_FILE);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String name : all) {
+                    writer.write(name);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "写入枚举索引失败: " + e.getMessage());
+        }
+    }
+
+    private Set<String> readExisting(Filer filer) {
+        Set<String> set = new TreeSet<>();
+        try {
+            FileObject file = filer.getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_FILE);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        set.add(line.trim());
+                    }
+                }
+            }
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            // 全量编译，没有已存在的索引
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "读取已有枚举索引失败: " + e.getMessage());
+        }
+        return set;
+    }
+}
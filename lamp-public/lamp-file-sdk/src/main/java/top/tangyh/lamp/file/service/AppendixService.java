@@ -53,6 +53,17 @@ public interface AppendixService extends SuperManager<Appendix> {
      */
     <T extends SuperEntity<Long> & EchoVO> void echoAppendix(List<T> list, String... bizTypes);
 
+    /**
+     * 回显附件id
+     * <p>
+     * 与 echoAppendix 相比，echoMap 中只放入文件id列表(bizType -> List&lt;Long&gt;)，
+     * 只查询 id、业务id、业务类型 3个字段， 不逐行创建 AppendixResultVO， 适合数据量较大的分页列表
+     *
+     * @param page     分页数据
+     * @param bizTypes 业务类型
+     */
+    <T extends SuperEntity<Long> & EchoVO> void echoAppendixId(IPage<T> page, String... bizTypes);
+
     /**
      * 构建 listByObjectId 方法的key
      *
@@ -1,6 +1,5 @@
 package top.tangyh.lamp.file.service.impl;
 
-import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.metadata.IPage;
@@ -15,7 +14,6 @@ import top.tangyh.basic.database.mybatis.conditions.Wraps;
 import top.tangyh.basic.database.mybatis.conditions.query.LbQueryWrap;
 import top.tangyh.basic.interfaces.echo.EchoVO;
 import top.tangyh.basic.utils.ArgumentAssert;
-import top.tangyh.basic.utils.BeanPlusUtil;
 import top.tangyh.basic.utils.CollHelper;
 import top.tangyh.lamp.file.entity.Appendix;
 import top.tangyh.lamp.file.mapper.AppendixMapper;
@@ -23,14 +21,19 @@ import top.tangyh.lamp.file.service.AppendixService;
 import top.tangyh.lamp.model.vo.result.AppendixResultVO;
 import top.tangyh.lamp.model.vo.save.AppendixSaveVO;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * <p>
@@ -76,13 +79,41 @@ public class AppendixServiceImpl extends SuperManagerImpl<AppendixMapper, Append
         });
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public <T extends SuperEntity<Long> & EchoVO> void echoAppendixId(IPage<T> page, String... bizTypes) {
+        if (page == null || CollUtil.isEmpty(page.getRecords())) {
+            return;
+        }
+        List<T> list = page.getRecords();
+        List<Long> ids = list.stream().map(SuperEntity::getId).toList();
+        // 只查询回显需要的3个字段，不创建 AppendixResultVO
+        List<Appendix> appendixList = list(Wraps.<Appendix>lbQ().select(Appendix::getId, Appendix::getBizId, Appendix::getBizType)
+                .in(Appendix::getBizId, ids).in(Appendix::getBizType, bizTypes));
+
+        Map<Long, Map<String, List<Long>>> map = new HashMap<>(CollHelper.initialCapacity(list.size()));
+        Set<String> bizTypeSet = new HashSet<>();
+        for (Appendix appendix : appendixList) {
+            bizTypeSet.add(appendix.getBizType());
+            map.computeIfAbsent(appendix.getBizId(), k -> new HashMap<>())
+                    .computeIfAbsent(appendix.getBizType(), k -> new ArrayList<>()).add(appendix.getId());
+        }
+
+        for (T item : list) {
+            Map<String, List<Long>> typeMap = map.getOrDefault(item.getId(), Collections.emptyMap());
+            for (String bizType : bizTypeSet) {
+                item.getEchoMap().put(bizType, typeMap.getOrDefault(bizType, Collections.emptyList()));
+            }
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Multimap<AppendixService.AppendixBizKey, AppendixResultVO> listByBizId(Long bizId, String... bizType) {
         ArgumentAssert.notNull(bizId, "请传入业务id");
         LbQueryWrap<Appendix> wrap = Wraps.<Appendix>lbQ().eq(Appendix::getBizId, bizId).in(Appendix::getBizType, bizType);
         List<Appendix> list = list(wrap);
-        return CollHelper.iterableToMultiMap(list, item -> AppendixService.AppendixBizKey.builder().bizId(item.getBizId()).bizType(item.getBizType()).build(), item -> BeanPlusUtil.toBean(item, AppendixResultVO.class));
+        return CollHelper.iterableToMultiMap(list, item -> AppendixService.AppendixBizKey.builder().bizId(item.getBizId()).bizType(item.getBizType()).build(), AppendixServiceImpl::toResultVO);
     }
 
     @Override
@@ -91,7 +122,7 @@ public class AppendixServiceImpl extends SuperManagerImpl<AppendixMapper, Append
         ArgumentAssert.notEmpty(bizIds, "请传入业务id");
         LbQueryWrap<Appendix> wrap = Wraps.<Appendix>lbQ().in(Appendix::getBizId, bizIds).in(Appendix::getBizType, bizType);
         List<Appendix> list = list(wrap);
-        return CollHelper.iterableToMultiMap(list, item -> AppendixService.AppendixBizKey.builder().bizId(item.getBizId()).bizType(item.getBizType()).build(), item -> BeanPlusUtil.toBean(item, AppendixResultVO.class));
+        return CollHelper.iterableToMultiMap(list, item -> AppendixService.AppendixBizKey.builder().bizId(item.getBizId()).bizType(item.getBizType()).build(), AppendixServiceImpl::toResultVO);
     }
 
     @Override
@@ -100,7 +131,7 @@ public class AppendixServiceImpl extends SuperManagerImpl<AppendixMapper, Append
         ArgumentAssert.notNull(bizId, "请传入业务id");
         LbQueryWrap<Appendix> wrap = Wraps.<Appendix>lbQ().eq(Appendix::getBizId, bizId).eq(Appendix::getBizType, bizType);
         List<Appendix> list = baseMapper.selectList(wrap);
-        return list.stream().map(item -> BeanUtil.toBean(item, AppendixResultVO.class)).toList();
+        return list.stream().map(AppendixServiceImpl::toResultVO).toList();
     }
 
     @Override
@@ -114,7 +145,7 @@ public class AppendixServiceImpl extends SuperManagerImpl<AppendixMapper, Append
             return null;
         }
         Appendix appendix = list.get(0);
-        return BeanPlusUtil.toBean(appendix, AppendixResultVO.class);
+        return toResultVO(appendix);
     }
 
     @Override
@@ -123,6 +154,13 @@ public class AppendixServiceImpl extends SuperManagerImpl<AppendixMapper, Append
         return save(Collections.singletonList(appendix));
     }
 
+    /**
+     * 按差异同步附件
+     * <p>
+     * 1. 一次查询出所有 (业务id, 业务类型) 当前关联的文件
+     * 2. 与本次提交的文件比较，计算出需要删除和新增的文件
+     * 3. 一条 delete in 删除，一次批量插入新增，未变化的关联不做任何操作
+     */
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Boolean save(List<AppendixSaveVO> appendixList) {
@@ -130,21 +168,55 @@ public class AppendixServiceImpl extends SuperManagerImpl<AppendixMapper, Append
             return true;
         }
 
-        removeByBiz(appendixList);
+        // (业务id, 业务类型) -> 本次提交的文件id
+        Map<AppendixService.AppendixBizKey, Set<Long>> targetMap = new LinkedHashMap<>();
+        for (AppendixSaveVO appendix : appendixList) {
+            if (appendix == null || appendix.getBizId() == null || CollUtil.isEmpty(appendix.getTypeFiles())) {
+                continue;
+            }
+            for (AppendixSaveVO.TypeFile typeFile : appendix.getTypeFiles()) {
+                if (typeFile == null || StrUtil.isEmpty(typeFile.getBizType())) {
+                    continue;
+                }
+                Set<Long> fileIds = targetMap.computeIfAbsent(buildBiz(appendix.getBizId(), typeFile.getBizType()), k -> new LinkedHashSet<>());
+                Optional.ofNullable(typeFile.getFileIdList()).orElse(List.of()).stream().filter(Objects::nonNull).forEach(fileIds::add);
+            }
+        }
+        if (targetMap.isEmpty()) {
+            return true;
+        }
+
+        // 当前已关联的文件
+        Set<Long> bizIds = targetMap.keySet().stream().map(AppendixService.AppendixBizKey::getBizId).collect(Collectors.toSet());
+        Set<String> bizTypes = targetMap.keySet().stream().map(AppendixService.AppendixBizKey::getBizType).collect(Collectors.toSet());
+        List<Appendix> existList = list(Wraps.<Appendix>lbQ().select(Appendix::getId, Appendix::getBizId, Appendix::getBizType)
+                .in(Appendix::getBizId, bizIds).in(Appendix::getBizType, bizTypes));
+        Map<AppendixService.AppendixBizKey, Set<Long>> existMap = new HashMap<>(CollHelper.initialCapacity(existList.size()));
+        for (Appendix exist : existList) {
+            existMap.computeIfAbsent(buildBiz(exist.getBizId(), exist.getBizType()), k -> new HashSet<>()).add(exist.getId());
+        }
 
-        List<Appendix> allList = appendixList.stream().filter(Objects::nonNull)
-                .flatMap(appendix -> Optional.ofNullable(appendix.getTypeFiles()).orElse(List.of())
-                        .stream().filter(Objects::nonNull)
-                        .flatMap(item -> CollUtil.isEmpty(item.getFileIdList()) || StrUtil.isEmpty(item.getBizType())
-                                ? Stream.empty()
-                                : item.getFileIdList().stream().filter(Objects::nonNull).map(id -> {
-                            Appendix dix = new Appendix();
-                            dix.setBizId(appendix.getBizId()).setBizType(item.getBizType());
-                            dix.setId(id);
-                            return dix;
-                        }))).toList();
+        List<Long> removeIds = new ArrayList<>();
+        List<Appendix> addList = new ArrayList<>();
+        targetMap.forEach((biz, fileIds) -> {
+            Set<Long> existIds = existMap.getOrDefault(biz, Collections.emptySet());
+            existIds.stream().filter(id -> !fileIds.contains(id)).forEach(removeIds::add);
+            fileIds.stream().filter(id -> !existIds.contains(id)).forEach(id -> {
+                Appendix dix = new Appendix();
+                dix.setBizId(biz.getBizId()).setBizType(biz.getBizType());
+                dix.setId(id);
+                addList.add(dix);
+            });
+        });
 
-        return saveBatch(allList);
+        // 先删后增：文件从一个业务类型移到另一个业务类型时，主键(文件id)不变
+        if (!removeIds.isEmpty()) {
+            removeByIds(removeIds);
+        }
+        if (!addList.isEmpty()) {
+            return saveBatch(addList);
+        }
+        return true;
     }
 
     @Override
@@ -154,17 +226,26 @@ public class AppendixServiceImpl extends SuperManagerImpl<AppendixMapper, Append
             return;
         }
 
+        Set<AppendixService.AppendixBizKey> bizSet = new HashSet<>();
         for (AppendixSaveVO appendix : appendixList) {
-            if (appendix.getBizId() == null || CollUtil.isEmpty(appendix.getTypeFiles())) {
-                continue;
-            }
-
-            List<String> bizTypes = appendix.getTypeFiles().stream().filter(Objects::nonNull).map(AppendixSaveVO.TypeFile::getBizType).filter(StrUtil::isNotEmpty).toList();
-            if (CollUtil.isEmpty(bizTypes)) {
+            if (appendix == null || appendix.getBizId() == null || CollUtil.isEmpty(appendix.getTypeFiles())) {
                 continue;
             }
+            appendix.getTypeFiles().stream().filter(Objects::nonNull).map(AppendixSaveVO.TypeFile::getBizType)
+                    .filter(StrUtil::isNotEmpty).forEach(bizType -> bizSet.add(buildBiz(appendix.getBizId(), bizType)));
+        }
+        if (bizSet.isEmpty()) {
+            return;
+        }
 
-            remove(Wraps.<Appendix>lbQ().eq(Appendix::getBizId, appendix.getBizId()).in(Appendix::getBizType, bizTypes));
+        Set<Long> bizIds = bizSet.stream().map(AppendixService.AppendixBizKey::getBizId).collect(Collectors.toSet());
+        Set<String> bizTypes = bizSet.stream().map(AppendixService.AppendixBizKey::getBizType).collect(Collectors.toSet());
+        List<Long> removeIds = list(Wraps.<Appendix>lbQ().select(Appendix::getId, Appendix::getBizId, Appendix::getBizType)
+                .in(Appendix::getBizId, bizIds).in(Appendix::getBizType, bizTypes))
+                .stream().filter(item -> bizSet.contains(buildBiz(item.getBizId(), item.getBizType())))
+                .map(Appendix::getId).toList();
+        if (!removeIds.isEmpty()) {
+            removeByIds(removeIds);
         }
     }
 
@@ -177,4 +258,7 @@ public class AppendixServiceImpl extends SuperManagerImpl<AppendixMapper, Append
         return remove(Wraps.<Appendix>lbQ().eq(Appendix::getBizType, bizType).in(Appendix::getBizId, bizIds));
     }
 
+    private static AppendixResultVO toResultVO(Appendix appendix) {
+        return AppendixResultVO.builder().id(appendix.getId()).bizId(appendix.getBizId()).bizType(appendix.getBizType()).build();
+    }
 }
@@ -0,0 +1,306 @@
+package top.tangyh.lamp.system.biz;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.exceptions.ExceptionUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.ClassLoaderUtil;
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import top.tangyh.lamp.common.properties.SystemProperties;
+import top.tangyh.lamp.system.entity.tenant.DefDatasourceConfig;
+import top.tangyh.lamp.system.manager.tenant.DefDatasourceConfigManager;
+import top.tangyh.lamp.system.vo.result.tenant.DefDatasourceHealthResultVO;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 数据源健康检查
+ * <p>
+ * 原来每次测试链接都新建一个连接池，检查完立即关闭，测试多个数据源时只能逐个等待。本类：
+ * 1. 每次检查通过 DriverManager 新建一个链接，检查完立即关闭，不缓存连接池，不占用租户库的空闲链接
+ * 2. 按数据库类型设置建立链接和读取的超时时间，数据库无响应时不会无限等待
+ * 3. 后台线程定时检查全部数据源，记录耗时分布、最近一次错误等，查询状态时直接返回
+ * 4. 批量检查时，在线程数有限的线程池中并行执行
+ * <p>
+ * 检查方式为建立链接并调用 JDBC 的 Connection#isValid，不依赖具体数据库，H2 等嵌入式数据库同样适用。
+ *
+ * @author zuihou
+ * @date 2024/9/11 17:30
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DatasourceHealthProber {
+    /**
+     * 耗时分布的区间上限(毫秒)
+     */
+    private static final long[] BUCKETS = {10L, 50L, 100L, 500L, 1000L, 3000L};
+
+    private final DefDatasourceConfigManager defDatasourceConfigManager;
+    private final SystemProperties systemProperties;
+
+    /**
+     * 数据源id -> 检查状态
+     */
+    private final Map<Long, Probe> probeMap = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        SystemProperties.DatasourceHealth config = systemProperties.getDatasourceHealth();
+        executor = Executors.newFixedThreadPool(Math.max(config.getThreads(), 1), new NamedThreadFactory("datasource-probe-", true));
+        scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("datasource-probe-scheduler-", true));
+        if (config.getEnabled()) {
+            long interval = Math.max(config.getIntervalSeconds(), 1);
+            scheduler.scheduleWithFixedDelay(this::probeAllSafely, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+        probeMap.clear();
+    }
+
+    /**
+     * 检查一个数据源
+     *
+     * @param config 数据源
+     * @return 检查后的状态
+     */
+    public DefDatasourceHealthResultVO probe(DefDatasourceConfig config) {
+        Probe probe = probeMap.computeIfAbsent(config.getId(), k -> new Probe());
+        // 同一个数据源串行检查，避免检查变慢时堆积链接
+        synchronized (probe) {
+            probe.name = config.getName();
+
+            long start = System.nanoTime();
+            try {
+                long maxWaitMillis = getMaxWaitMillis();
+                try (Connection connection = connect(config, maxWaitMillis)) {
+                    connection.setNetworkTimeout(executor, (int) maxWaitMillis);
+                    if (!connection.isValid((int) Math.max(TimeUnit.MILLISECONDS.toSeconds(maxWaitMillis), 1L))) {
+                        throw new SQLException("链接不可用");
+                    }
+                }
+                probe.success(elapsedMillis(start));
+            } catch (Exception e) {
+                probe.fail(elapsedMillis(start), e);
+                log.warn("数据源[{}]检查失败 {}", config.getName(), config.getUrl(), e);
+            }
+            return probe.toResultVO(config.getId());
+        }
+    }
+
+    /**
+     * 并行检查多个数据源
+     *
+     * @param configs 数据源
+     * @return key: 数据源id value: 检查后的状态， 超时未完成的数据源返回上一次的状态
+     */
+    public Map<Long, DefDatasourceHealthResultVO> probe(Collection<DefDatasourceConfig> configs) {
+        Map<Long, DefDatasourceHealthResultVO> result = new LinkedHashMap<>();
+        if (CollUtil.isEmpty(configs)) {
+            return result;
+        }
+        Map<Long, CompletableFuture<DefDatasourceHealthResultVO>> futureMap = new LinkedHashMap<>();
+        for (DefDatasourceConfig config : configs) {
+            futureMap.put(config.getId(), CompletableFuture.supplyAsync(() -> probe(config), executor));
+        }
+
+        // 每个数据源最多等待获取链接和校验链接的时间
+        long deadline = System.currentTimeMillis() + getMaxWaitMillis() * 2 + 1000L;
+        futureMap.forEach((id, future) -> {
+            try {
+                long wait = Math.max(deadline - System.currentTimeMillis(), 0L);
+                result.put(id, future.get(wait, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.put(id, getStatus(id));
+            } catch (Exception e) {
+                log.warn("数据源[{}]检查超时或失败", id, e);
+                result.put(id, getStatus(id));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 最近一次检查的状态
+     *
+     * @param id 数据源id
+     * @return 状态， 未检查过时返回null
+     */
+    public DefDatasourceHealthResultVO getStatus(Long id) {
+        Probe probe = probeMap.get(id);
+        return probe == null ? null : probe.toResultVO(id);
+    }
+
+    /**
+     * 全部数据源最近一次检查的状态
+     *
+     * @return 按数据源id升序
+     */
+    public List<DefDatasourceHealthResultVO> getStatus() {
+        List<DefDatasourceHealthResultVO> list = new ArrayList<>(probeMap.size());
+        probeMap.forEach((id, probe) -> list.add(probe.toResultVO(id)));
+        list.sort(Comparator.comparing(DefDatasourceHealthResultVO::getId));
+        return list;
+    }
+
+    /**
+     * 移除数据源的状态
+     *
+     * @param ids 数据源id
+     */
+    public void remove(Collection<Long> ids) {
+        ids.forEach(probeMap::remove);
+    }
+
+    private void probeAllSafely() {
+        try {
+            List<DefDatasourceConfig> list = defDatasourceConfigManager.list();
+            Set<Long> ids = list.stream().map(DefDatasourceConfig::getId).collect(Collectors.toSet());
+            // 已删除的数据源
+            remove(probeMap.keySet().stream().filter(id -> !ids.contains(id)).toList());
+            probe(list);
+        } catch (Exception e) {
+            log.warn("定时检查数据源失败", e);
+        }
+    }
+
+    /**
+     * 新建链接， 并按数据库类型设置建立链接和读取的超时时间
+     */
+    private static Connection connect(DefDatasourceConfig config, long timeoutMillis) throws Exception {
+        if (StrUtil.isNotEmpty(config.getDriverClassName())) {
+            // 驱动类需要先加载，才能注册到 DriverManager
+            ClassLoaderUtil.loadClass(config.getDriverClassName());
+        }
+        Properties props = new Properties();
+        if (config.getUsername() != null) {
+            props.setProperty("user", config.getUsername());
+        }
+        if (config.getPassword() != null) {
+            props.setProperty("password", config.getPassword());
+        }
+        String url = StrUtil.nullToEmpty(config.getUrl());
+        String millis = String.valueOf(timeoutMillis);
+        String seconds = String.valueOf(Math.max(TimeUnit.MILLISECONDS.toSeconds(timeoutMillis), 1L));
+        if (StrUtil.startWithAny(url, "jdbc:mysql:", "jdbc:mariadb:")) {
+            props.setProperty("connectTimeout", millis);
+            props.setProperty("socketTimeout", millis);
+        } else if (url.startsWith("jdbc:sqlserver:")) {
+            props.setProperty("loginTimeout", seconds);
+        } else if (url.startsWith("jdbc:postgresql:")) {
+            props.setProperty("connectTimeout", seconds);
+            props.setProperty("socketTimeout", seconds);
+        } else if (url.startsWith("jdbc:oracle:")) {
+            props.setProperty("oracle.net.CONNECT_TIMEOUT", millis);
+            props.setProperty("oracle.jdbc.ReadTimeout", millis);
+        }
+        return DriverManager.getConnection(url, props);
+    }
+
+    private long getMaxWaitMillis() {
+        return Math.max(systemProperties.getDatasourceHealth().getMaxWaitMillis(), 1L);
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * 单个数据源的检查状态
+     */
+    private static class Probe {
+        private final LongAdder[] histogram = new LongAdder[BUCKETS.length + 1];
+        private final LongAdder successCount = new LongAdder();
+        private final LongAdder failCount = new LongAdder();
+        private volatile String name;
+        private volatile Boolean up;
+        private volatile Long lastLatencyMillis;
+        private volatile LocalDateTime lastProbeTime;
+        private volatile LocalDateTime lastSuccessTime;
+        private volatile String lastError;
+        private volatile int consecutiveFails;
+
+        private Probe() {
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        private void success(long millis) {
+            record(millis);
+            successCount.increment();
+            up = true;
+            consecutiveFails = 0;
+            lastSuccessTime = lastProbeTime;
+        }
+
+        private void fail(long millis, Exception e) {
+            record(millis);
+            failCount.increment();
+            up = false;
+            consecutiveFails++;
+            lastError = ExceptionUtil.getRootCauseMessage(e);
+        }
+
+        private void record(long millis) {
+            int index = 0;
+            while (index < BUCKETS.length && millis > BUCKETS[index]) {
+                index++;
+            }
+            histogram[index].increment();
+            lastLatencyMillis = millis;
+            lastProbeTime = LocalDateTime.now();
+        }
+
+        private DefDatasourceHealthResultVO toResultVO(Long id) {
+            DefDatasourceHealthResultVO vo = new DefDatasourceHealthResultVO();
+            vo.setId(id);
+            vo.setName(name);
+            vo.setUp(up);
+            vo.setLastLatencyMillis(lastLatencyMillis);
+            vo.setLastProbeTime(lastProbeTime);
+            vo.setLastSuccessTime(lastSuccessTime);
+            vo.setLastError(lastError);
+            vo.setConsecutiveFails(consecutiveFails);
+            vo.setSuccessCount(successCount.sum());
+            vo.setFailCount(failCount.sum());
+            Map<String, Long> map = new LinkedHashMap<>();
+            for (int i = 0; i < BUCKETS.length; i++) {
+                map.put("<=" + BUCKETS[i] + "ms", histogram[i].sum());
+            }
+            map.put(">" + BUCKETS[BUCKETS.length - 1] + "ms", histogram[BUCKETS.length].sum());
+            vo.setLatencyHistogram(map);
+            return vo;
+        }
+    }
+}
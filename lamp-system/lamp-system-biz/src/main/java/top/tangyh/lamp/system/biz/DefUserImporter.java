@@ -0,0 +1,330 @@
+package top.tangyh.lamp.system.biz;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.context.AnalysisContext;
+import com.alibaba.excel.read.listener.ReadListener;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.google.common.collect.Lists;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import top.tangyh.lamp.common.properties.SystemProperties;
+import top.tangyh.lamp.system.biz.password.PasswordHasher;
+import top.tangyh.lamp.system.entity.tenant.DefUser;
+import top.tangyh.lamp.system.manager.tenant.DefUserManager;
+import top.tangyh.lamp.system.manager.tenant.impl.DefUserLoginIndex;
+import top.tangyh.lamp.system.vo.result.tenant.DefUserImportResultVO;
+import top.tangyh.lamp.system.vo.save.tenant.DefUserImportVO;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 批量导入用户
+ * <p>
+ * 逐行保存时，每行都要分别检查用户名、邮箱、手机号、身份证是否存在，导入几万行需要几十万次查询。本类按批处理：
+ * 1. 按 batchSize 分批读取 Excel，逐行校验格式
+ * 2. 记录文件中已出现的用户名、邮箱、手机号、身份证，检查文件内重复
+ * 3. 每批对每个唯一字段只执行一次 in 查询，检查数据库中是否已存在
+ * 4. 在线程数有限的线程池中并行计算密码摘要
+ * 5. 每批一个事务，调用 saveBatch 保存，并批量写入搜索分词；提交后在线程池中写入登录索引
+ * 6. 整批保存失败时(如并发导入了相同的用户)，拆成两半分别重试，直到定位到失败的行
+ * 校验或保存失败的行记录行号和原因，不影响其他行。
+ * <p>
+ * 数据库的排序规则通常不区分大小写，唯一字段去除首尾空格并转为小写后再检查是否重复。
+ *
+ * @author zuihou
+ * @date 2024/9/10 15:30
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DefUserImporter {
+    private final DefUserManager defUserManager;
+    private final DefUserLoginIndex defUserLoginIndex;
+    private final SystemProperties systemProperties;
+    private final Validator validator;
+    private final PasswordHasher passwordHasher;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(systemProperties.getUserImport().getThreads(), 1);
+        executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("user-import-", true));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 导入
+     *
+     * @param in Excel 文件
+     * @return 导入结果
+     */
+    public DefUserImportResultVO importUsers(InputStream in) {
+        SystemProperties.UserImport config = systemProperties.getUserImport();
+        long start = System.currentTimeMillis();
+        ImportContext ctx = new ImportContext();
+        EasyExcel.read(in, DefUserImportVO.class, new ReadListener<DefUserImportVO>() {
+            private List<ImportRow> rows = new ArrayList<>(config.getBatchSize());
+
+            @Override
+            public void invoke(DefUserImportVO data, AnalysisContext context) {
+                if (ctx.result.getTotal() >= config.getMaxRows()) {
+                    ctx.result.setTruncated(true);
+                    return;
+                }
+                ctx.result.setTotal(ctx.result.getTotal() + 1);
+                rows.add(new ImportRow(context.readRowHolder().getRowIndex() + 1, trim(data)));
+                if (rows.size() >= config.getBatchSize()) {
+                    importBatch(rows, ctx);
+                    rows = new ArrayList<>(config.getBatchSize());
+                }
+            }
+
+            @Override
+            public boolean hasNext(AnalysisContext context) {
+                return !ctx.result.isTruncated();
+            }
+
+            @Override
+            public void doAfterAllAnalysed(AnalysisContext context) {
+                importBatch(rows, ctx);
+                rows = new ArrayList<>();
+            }
+        }).sheet().doRead();
+
+        DefUserImportResultVO result = ctx.result;
+        result.getErrors().sort(Comparator.comparing(DefUserImportResultVO.RowError::getRowNum));
+        result.setFail(result.getErrors().size());
+        result.setCostMillis(System.currentTimeMillis() - start);
+        log.info("导入用户完成，共 {} 行，成功 {} 行，失败 {} 行，耗时 {} ms", result.getTotal(), result.getSuccess(),
+                result.getFail(), result.getCostMillis());
+        return result;
+    }
+
+    private void importBatch(List<ImportRow> rows, ImportContext ctx) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        // 格式校验、文件内重复
+        List<ImportRow> valid = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            String message = validate(row.getData());
+            if (message == null) {
+                message = ctx.checkDuplicate(row);
+            }
+            if (message != null) {
+                ctx.fail(row, message);
+            } else {
+                valid.add(row);
+            }
+        }
+
+        // 数据库中已存在
+        Map<UniqueField, Set<String>> existMap = new EnumMap<>(UniqueField.class);
+        for (UniqueField field : UniqueField.values()) {
+            List<String> values = valid.stream().map(row -> field.getGetter().apply(row.getData())).filter(StrUtil::isNotEmpty).toList();
+            existMap.put(field, defUserManager.findExistValues(field.getColumn(), values));
+        }
+        List<ImportRow> saveRows = new ArrayList<>(valid.size());
+        for (ImportRow row : valid) {
+            String message = null;
+            for (UniqueField field : UniqueField.values()) {
+                String value = field.getGetter().apply(row.getData());
+                if (StrUtil.isNotEmpty(value) && existMap.get(field).contains(normalize(value))) {
+                    message = StrUtil.format("{}：{}已经存在", field.getLabel(), value);
+                    break;
+                }
+            }
+            if (message != null) {
+                ctx.fail(row, message);
+            } else {
+                saveRows.add(row);
+            }
+        }
+        if (saveRows.isEmpty()) {
+            return;
+        }
+
+        List<DefUser> userList = saveRows.stream().map(row -> BeanUtil.toBean(row.getData(), DefUser.class)).toList();
+        // 加密算法故意计算缓慢，在线程池中并行加密；未填写密码的用户使用默认密码，每个用户单独加密(盐不同)
+        String defPwd = systemProperties.getDefPwd();
+        parallel(userList, user -> {
+            user.setSalt(RandomUtil.randomString(20));
+            user.setPassword(passwordHasher.encode(StrUtil.isEmpty(user.getPassword()) ? defPwd : user.getPassword()));
+            user.setPasswordErrorNum(0);
+            user.setReadonly(false);
+            user.setState(true);
+        });
+
+        List<DefUser> savedList = new ArrayList<>(userList.size());
+        save(saveRows, userList, savedList, ctx);
+        if (savedList.isEmpty()) {
+            return;
+        }
+        ctx.result.setSuccess(ctx.result.getSuccess() + savedList.size());
+
+        defUserManager.delUserCache(savedList);
+        try {
+            parallel(savedList, defUserLoginIndex::register);
+        } catch (Exception e) {
+            log.error("导入的用户写入登录索引失败，登录时将回源数据库", e);
+        }
+    }
+
+    /**
+     * 保存一批用户，失败时拆成两半分别保存，只有单行仍然失败时才记录为失败
+     *
+     * @param rows      行， 与 userList 一一对应
+     * @param userList  待保存的用户
+     * @param savedList 保存成功的用户
+     * @param ctx       导入状态
+     */
+    private void save(List<ImportRow> rows, List<DefUser> userList, List<DefUser> savedList, ImportContext ctx) {
+        try {
+            defUserManager.saveBatchNew(userList);
+            savedList.addAll(userList);
+            return;
+        } catch (Exception e) {
+            // 并发导入、新增了相同的用户等情况，整批回滚
+            if (rows.size() == 1) {
+                log.warn("保存第 {} 行用户失败", rows.get(0).getRowNum(), e);
+                ctx.fail(rows.get(0), "保存失败：" + StrUtil.maxLength(e.getMessage(), 200));
+                return;
+            }
+            log.info("保存第 {} - {} 行用户失败，拆分后重试：{}", rows.get(0).getRowNum(), rows.get(rows.size() - 1).getRowNum(), e.getMessage());
+        }
+        int mid = rows.size() / 2;
+        save(rows.subList(0, mid), userList.subList(0, mid), savedList, ctx);
+        save(rows.subList(mid, rows.size()), userList.subList(mid, userList.size()), savedList, ctx);
+    }
+
+    private String validate(DefUserImportVO data) {
+        Set<ConstraintViolation<DefUserImportVO>> violations = validator.validate(data);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.iterator().next().getMessage();
+    }
+
+    /**
+     * 拆分为与线程数相同的份数，在线程池中并行处理，全部完成后返回
+     */
+    private <T> void parallel(List<T> list, Consumer<T> action) {
+        int threads = Math.max(systemProperties.getUserImport().getThreads(), 1);
+        int size = (list.size() + threads - 1) / threads;
+        List<CompletableFuture<Void>> futures = new ArrayList<>(threads);
+        for (List<T> part : Lists.partition(list, size)) {
+            futures.add(CompletableFuture.runAsync(() -> part.forEach(action), executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    /**
+     * 唯一字段的比较值
+     */
+    private static String normalize(String value) {
+        return StrUtil.trim(value).toLowerCase();
+    }
+
+    private static DefUserImportVO trim(DefUserImportVO data) {
+        data.setUsername(StrUtil.trimToNull(data.getUsername()));
+        data.setNickName(StrUtil.trimToNull(data.getNickName()));
+        data.setEmail(StrUtil.trimToNull(data.getEmail()));
+        data.setMobile(StrUtil.trimToNull(data.getMobile()));
+        data.setIdCard(StrUtil.trimToNull(data.getIdCard()));
+        data.setSex(StrUtil.trimToNull(data.getSex()));
+        return data;
+    }
+
+    /**
+     * 需要唯一的字段
+     */
+    @Getter
+    @AllArgsConstructor
+    private enum UniqueField {
+        USERNAME("用户名", DefUserImportVO::getUsername, DefUser::getUsername),
+        EMAIL("邮箱", DefUserImportVO::getEmail, DefUser::getEmail),
+        MOBILE("手机号", DefUserImportVO::getMobile, DefUser::getMobile),
+        ID_CARD("身份证号", DefUserImportVO::getIdCard, DefUser::getIdCard),
+        ;
+
+        private final String label;
+        private final Function<DefUserImportVO, String> getter;
+        private final SFunction<DefUser, String> column;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class ImportRow {
+        private final Integer rowNum;
+        private final DefUserImportVO data;
+    }
+
+    /**
+     * 一次导入的状态
+     */
+    private static class ImportContext {
+        private final DefUserImportResultVO result = new DefUserImportResultVO();
+        /**
+         * 字段 -> (去除首尾空格并转为小写的值 -> 首次出现的行号)
+         */
+        private final Map<UniqueField, Map<String, Integer>> seenMap = new EnumMap<>(UniqueField.class);
+
+        private ImportContext() {
+            for (UniqueField field : UniqueField.values()) {
+                seenMap.put(field, new HashMap<>());
+            }
+        }
+
+        /**
+         * 检查文件内是否重复，不重复时记录该行的值
+         */
+        private String checkDuplicate(ImportRow row) {
+            for (UniqueField field : UniqueField.values()) {
+                String value = field.getGetter().apply(row.getData());
+                Integer firstRow = StrUtil.isEmpty(value) ? null : seenMap.get(field).get(normalize(value));
+                if (firstRow != null) {
+                    return StrUtil.format("{}：{}与第{}行重复", field.getLabel(), value, firstRow);
+                }
+            }
+            for (UniqueField field : UniqueField.values()) {
+                String value = field.getGetter().apply(row.getData());
+                if (StrUtil.isNotEmpty(value)) {
+                    seenMap.get(field).put(normalize(value), row.getRowNum());
+                }
+            }
+            return null;
+        }
+
+        private void fail(ImportRow row, String message) {
+            result.getErrors().add(new DefUserImportResultVO.RowError(row.getRowNum(), row.getData().getUsername(), message));
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package top.tangyh.lamp.system.biz;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.core.util.URLUtil;
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.exception.ExcelGenerateException;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import top.tangyh.basic.base.R;
+import top.tangyh.basic.context.ContextUtil;
+import top.tangyh.basic.interfaces.echo.EchoService;
+import top.tangyh.basic.jackson.JsonUtil;
+import top.tangyh.basic.utils.ArgumentAssert;
+import top.tangyh.lamp.common.properties.SystemProperties;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * 流式导出Excel
+ * <p>
+ * 一次性查询全部数据再写入Excel，导出几十万行时会占满内存。本类按批处理：
+ * 1. 按主键游标分批查询，每批 batchSize 行，不使用 offset
+ * 2. 每批转换为导出对象后执行一次回显，字典、用户等数据按批查询
+ * 3. 每批写入 EasyExcel， 底层的 SXSSF 会把超出窗口的行刷到临时文件，内存中只保留少量行
+ * 内存占用只与 batchSize 有关，与导出总行数无关。
+ * <p>
+ * 超过最大行数时导出前 maxRows 行；调用 cancel、查询出错或客户端断开连接时停止导出，
+ * 此时不输出不完整的Excel，而是返回错误信息，避免用户拿到被截断却能正常打开的文件。
+ * <p>
+ * 需要取消导出时，先调用 prepare 由服务端生成导出id，再携带该id导出；导出id与当前用户绑定，
+ * 只有发起导出的用户可以使用和取消。
+ * 取消标识保存在本机内存中，集群部署时需要将取消请求路由到导出所在的节点。
+ *
+ * @author zuihou
+ * @date 2024/9/10 10:15
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExcelStreamExporter {
+    /**
+     * 已生成但未开始导出的id的有效期
+     */
+    private static final long PREPARE_TTL_MILLIS = 10 * 60 * 1000L;
+    private static final String CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private final EchoService echoService;
+    private final SystemProperties systemProperties;
+
+    /**
+     * 导出id -> 正在进行的导出
+     */
+    private final Map<String, RunningExport> runningMap = new ConcurrentHashMap<>();
+
+    /**
+     * 生成导出id， 用于取消导出
+     *
+     * @return 导出id
+     */
+    public String prepare() {
+        long now = System.currentTimeMillis();
+        runningMap.entrySet().removeIf(e -> !e.getValue().getStarted().get() && now - e.getValue().getCreateTime() > PREPARE_TTL_MILLIS);
+
+        RunningExport running = new RunningExport(ContextUtil.getUserId(), now, new AtomicBoolean(false), new AtomicBoolean(false));
+        String exportId;
+        do {
+            exportId = IdUtil.fastSimpleUUID();
+        } while (runningMap.putIfAbsent(exportId, running) != null);
+        return exportId;
+    }
+
+    /**
+     * 导出
+     *
+     * @param exportId   prepare 生成的导出id， 用于取消导出，可以为空
+     * @param fileName   文件名 (不含后缀)
+     * @param excelClass 导出对象类型
+     * @param limit      最大导出行数， 为空或超过配置的最大行数时使用配置值
+     * @param reader     分批查询
+     * @param converter  实体 -> 导出对象
+     * @param response   响应
+     * @return 导出行数
+     */
+    public <E, V> long export(String exportId, String fileName, Class<V> excelClass, Integer limit,
+                              BatchReader<E> reader, Function<List<E>, List<V>> converter, HttpServletResponse response) {
+        SystemProperties.ExcelExport config = systemProperties.getExcelExport();
+        int batchSize = config.getBatchSize();
+        long maxRows = limit == null || limit <= 0 ? config.getMaxRows() : Math.min(limit, config.getMaxRows());
+
+        RunningExport running = StrUtil.isEmpty(exportId) ? null : runningMap.get(exportId);
+        if (StrUtil.isNotEmpty(exportId)) {
+            ArgumentAssert.isFalse(running == null || !Objects.equals(running.getUserId(), ContextUtil.getUserId()), "导出id无效，请重新导出");
+            ArgumentAssert.isTrue(running.getStarted().compareAndSet(false, true), "导出id已使用，请重新导出");
+        }
+        AtomicBoolean cancelled = running == null ? new AtomicBoolean(false) : running.getCancelled();
+
+        long start = System.currentTimeMillis();
+        long rows = 0;
+        String stopReason = "完成";
+        boolean stopped = false;
+        boolean completed = false;
+        response.setContentType(CONTENT_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Content-Disposition", "attachment;filename*=utf-8''" + URLUtil.encode(fileName + ".xlsx"));
+        DiscardableOutputStream out = null;
+        ExcelWriter writer = null;
+        try {
+            out = new DiscardableOutputStream(response.getOutputStream());
+            writer = EasyExcel.write(out, excelClass).autoCloseStream(false).build();
+            WriteSheet sheet = EasyExcel.writerSheet(fileName).build();
+            E last = null;
+            while (rows < maxRows) {
+                if (cancelled.get() || Thread.currentThread().isInterrupted()) {
+                    stopReason = "已取消";
+                    stopped = true;
+                    break;
+                }
+                int size = (int) Math.min(batchSize, maxRows - rows);
+                List<E> list = reader.read(last, size);
+                if (CollUtil.isEmpty(list)) {
+                    break;
+                }
+                List<V> voList = converter.apply(list);
+                echoService.action(voList);
+                writer.write(voList, sheet);
+                rows += list.size();
+                if (list.size() < size) {
+                    break;
+                }
+                last = list.get(list.size() - 1);
+            }
+            if (!stopped) {
+                if (rows >= maxRows) {
+                    stopReason = "达到最大行数";
+                }
+                // SXSSF 在 finish 时才把整个文件写入响应
+                writer.finish();
+                completed = true;
+            }
+        } catch (IOException | ExcelGenerateException e) {
+            // 通常是客户端断开了连接
+            stopReason = "客户端断开";
+            log.warn("导出[{}]时写入响应失败，已查询 {} 行", fileName, rows, e);
+        } catch (RuntimeException e) {
+            stopReason = "失败";
+            log.error("导出[{}]失败，已查询 {} 行", fileName, rows, e);
+        } finally {
+            if (writer != null && !completed) {
+                // 丢弃未完成的文件，只释放 SXSSF 的临时文件
+                out.discard();
+                try {
+                    writer.finish();
+                } catch (Exception ignore) {
+                    // 临时文件已释放或响应流已不可用
+                }
+            }
+            if (running != null) {
+                runningMap.remove(exportId, running);
+            }
+        }
+        log.info("导出[{}] {}，共 {} 行，耗时 {} ms", fileName, stopReason, rows, System.currentTimeMillis() - start);
+        if (!completed) {
+            writeError(response, "导出" + stopReason + "，请重新导出");
+        }
+        return rows;
+    }
+
+    /**
+     * 取消导出， 只能取消当前用户发起的导出
+     *
+     * @param exportId 导出id
+     * @return 本机是否存在当前用户的该导出
+     */
+    public boolean cancel(String exportId) {
+        RunningExport running = runningMap.get(exportId);
+        if (running == null || !Objects.equals(running.getUserId(), ContextUtil.getUserId())) {
+            return false;
+        }
+        running.getCancelled().set(true);
+        return true;
+    }
+
+    /**
+     * 文件内容尚未写入响应，重置响应后返回错误信息
+     */
+    private static void writeError(HttpServletResponse response, String msg) {
+        if (response.isCommitted()) {
+            return;
+        }
+        try {
+            response.reset();
+            response.setContentType("application/json");
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getOutputStream().write(JsonUtil.toJson(R.fail(msg)).getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            log.debug("写入导出失败信息失败", e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class RunningExport {
+        /**
+         * 发起导出的用户
+         */
+        private final Long userId;
+        /**
+         * 生成时间
+         */
+        private final long createTime;
+        /**
+         * 是否已开始导出
+         */
+        private final AtomicBoolean started;
+        /**
+         * 是否已取消
+         */
+        private final AtomicBoolean cancelled;
+    }
+
+    /**
+     * 调用 discard 后丢弃所有写入，不关闭响应流
+     */
+    private static class DiscardableOutputStream extends FilterOutputStream {
+        private volatile boolean discarded = false;
+
+        private DiscardableOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        private void discard() {
+            discarded = true;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!discarded) {
+                out.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!discarded) {
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!discarded) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    /**
+     * 分批查询
+     */
+    @FunctionalInterface
+    public interface BatchReader<E> {
+        /**
+         * 查询下一批数据
+         *
+         * @param last      上一批的最后一条数据， 第一批为null
+         * @param batchSize 本批最多查询的行数
+         * @return 数据， 按游标字段升序
+         */
+        List<E> read(E last, int batchSize);
+    }
+}
@@ -0,0 +1,127 @@
+package top.tangyh.lamp.system.biz;
+
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import top.tangyh.basic.cache.redis2.CacheResult;
+import top.tangyh.basic.cache.repository.CachePlusOps;
+import top.tangyh.lamp.common.cache.tenant.application.ResourceApiScanCacheKeyBuilder;
+import top.tangyh.lamp.common.properties.SystemProperties;
+import top.tangyh.lamp.model.enumeration.HttpMethod;
+import top.tangyh.lamp.system.manager.application.impl.DefResourceApiMap;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 启动时扫描本服务的接口
+ * <p>
+ * 配置资源接口时需要知道各服务有哪些接口。每个服务启动后扫描 RequestMappingHandlerMapping，
+ * 计算全部接口的摘要，与 Redis 中记录的摘要比较：
+ * 1. 摘要相同，说明接口没有变化，不做任何写入
+ * 2. 摘要不同，只写入新增、修改的接口，删除已下线的接口，最后更新摘要
+ * 扫描结果保存在每个服务一个的 Redis hash 中，由系统服务读取。
+ *
+ * @author zuihou
+ * @date 2024/9/10 17:40
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ResourceApiScanner {
+    private static final String DIGEST_FIELD = "#digest";
+
+    private final ApplicationContext applicationContext;
+    private final CachePlusOps cachePlusOps;
+    private final SystemProperties systemProperties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scan() {
+        SystemProperties.ApiScan config = systemProperties.getApiScan();
+        String applicationName = applicationContext.getEnvironment().getProperty("spring.application.name");
+        if (!Boolean.TRUE.equals(config.getEnabled()) || StrUtil.isEmpty(applicationName)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Map<String, String> apiMap = collect(config);
+            String digest = SecureUtil.sha256(apiMap.toString());
+
+            CacheResult<String> old = cachePlusOps.hGet(ResourceApiScanCacheKeyBuilder.builder(applicationName, DIGEST_FIELD));
+            if (old != null && digest.equals(Convert.toStr(old.getValue()))) {
+                log.info("服务[{}]的 {} 个接口没有变化", applicationName, apiMap.size());
+                return;
+            }
+
+            Map<String, CacheResult<String>> stored = cachePlusOps.hGetAll(ResourceApiScanCacheKeyBuilder.builder(applicationName));
+            int changed = 0;
+            for (Map.Entry<String, String> entry : apiMap.entrySet()) {
+                CacheResult<String> value = stored.get(entry.getKey());
+                if (value == null || !entry.getValue().equals(Convert.toStr(value.getValue()))) {
+                    cachePlusOps.hSet(ResourceApiScanCacheKeyBuilder.builder(applicationName, entry.getKey()), entry.getValue());
+                    changed++;
+                }
+            }
+            int removed = 0;
+            for (String api : stored.keySet()) {
+                if (!DIGEST_FIELD.equals(api) && !apiMap.containsKey(api)) {
+                    cachePlusOps.hDel(ResourceApiScanCacheKeyBuilder.builder(applicationName, api));
+                    removed++;
+                }
+            }
+            cachePlusOps.hSet(ResourceApiScanCacheKeyBuilder.builder(applicationName, DIGEST_FIELD), digest);
+            log.info("服务[{}]共 {} 个接口，新增或修改 {} 个，删除 {} 个，耗时 {} ms", applicationName, apiMap.size(), changed, removed,
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("扫描服务[{}]的接口失败", applicationName, e);
+        }
+    }
+
+    /**
+     * 收集本服务的接口
+     *
+     * @return uri###method -> controller###接口名， 按key排序
+     */
+    private Map<String, String> collect(SystemProperties.ApiScan config) {
+        RequestMappingHandlerMapping mapping = applicationContext.getBean("requestMappingHandlerMapping", RequestMappingHandlerMapping.class);
+        Map<String, String> apiMap = new TreeMap<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : mapping.getHandlerMethods().entrySet()) {
+            HandlerMethod handlerMethod = entry.getValue();
+            Class<?> controller = handlerMethod.getBeanType();
+            if (!StrUtil.startWith(controller.getName(), config.getBasePackage())) {
+                continue;
+            }
+            Operation operation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), Operation.class);
+            String name = operation != null && StrUtil.isNotEmpty(operation.summary()) ? operation.summary() : handlerMethod.getMethod().getName();
+            String value = controller.getSimpleName() + DefResourceApiMap.API_SPLIT + name;
+
+            RequestMappingInfo info = entry.getKey();
+            Set<RequestMethod> methods = info.getMethodsCondition().getMethods();
+            for (String pattern : info.getPatternValues()) {
+                String uri = StrUtil.nullToEmpty(config.getUriPrefix()) + pattern;
+                if (methods.isEmpty()) {
+                    apiMap.put(uri + DefResourceApiMap.API_SPLIT + HttpMethod.ALL.name(), value);
+                }
+                for (RequestMethod method : methods) {
+                    apiMap.put(uri + DefResourceApiMap.API_SPLIT + method.name(), value);
+                }
+            }
+        }
+        return apiMap;
+    }
+}
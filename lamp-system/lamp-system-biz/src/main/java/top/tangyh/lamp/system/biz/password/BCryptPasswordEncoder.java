@@ -0,0 +1,54 @@
+package top.tangyh.lamp.system.biz.password;
+
+import cn.hutool.crypto.digest.BCrypt;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import top.tangyh.lamp.common.properties.SystemProperties;
+
+/**
+ * bcrypt 加密
+ * <p>
+ * 格式: $2a$计算强度$盐和密文， 修改计算强度后旧密码仍可校验
+ *
+ * @author zuihou
+ * @date 2024/9/13 15:00
+ */
+@Component
+@RequiredArgsConstructor
+public class BCryptPasswordEncoder implements PasswordEncoder {
+    public static final String ID = "bcrypt";
+
+    private final SystemProperties systemProperties;
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public String encode(String rawPassword) {
+        return BCrypt.hashpw(rawPassword, BCrypt.gensalt(systemProperties.getPassword().getBcryptCost()));
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String encodedPassword) {
+        try {
+            return BCrypt.checkpw(rawPassword, encodedPassword);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // $2a$10$...
+        if (encodedPassword == null || encodedPassword.length() < 7) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) < systemProperties.getPassword().getBcryptCost();
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+}
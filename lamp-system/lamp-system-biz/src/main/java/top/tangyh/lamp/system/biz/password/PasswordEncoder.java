@@ -0,0 +1,47 @@
+package top.tangyh.lamp.system.biz.password;
+
+/**
+ * 密码加密算法
+ * <p>
+ * 加密后的密码以 {算法id} 作为前缀保存，校验时根据前缀选择算法，
+ * 新增算法只需实现本接口并注册为Spring Bean。
+ *
+ * @author zuihou
+ * @date 2024/9/13 15:00
+ */
+public interface PasswordEncoder {
+
+    /**
+     * 算法id，保存在密码的前缀中，不能修改
+     *
+     * @return 算法id
+     */
+    String getId();
+
+    /**
+     * 加密密码
+     *
+     * @param rawPassword 明文密码
+     * @return 加密后的密码(不含前缀)
+     */
+    String encode(String rawPassword);
+
+    /**
+     * 校验密码
+     *
+     * @param rawPassword     明文密码
+     * @param encodedPassword 加密后的密码(不含前缀)
+     * @return 是否匹配
+     */
+    boolean matches(String rawPassword, String encodedPassword);
+
+    /**
+     * 加密参数是否低于当前配置，需要重新加密
+     *
+     * @param encodedPassword 加密后的密码(不含前缀)
+     * @return 是否需要重新加密
+     */
+    default boolean upgradeEncoding(String encodedPassword) {
+        return false;
+    }
+}
@@ -0,0 +1,232 @@
+package top.tangyh.lamp.system.biz.password;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import top.tangyh.basic.exception.BizException;
+import top.tangyh.basic.utils.ArgumentAssert;
+import top.tangyh.lamp.common.properties.SystemProperties;
+import top.tangyh.lamp.common.stats.StatsSource;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 用户密码加密和校验
+ * <p>
+ * 原来使用 sha256(密码 + 盐) 保存密码，计算太快，无法抵御暴力破解。现在：
+ * 1. 新密码使用配置的算法(pbkdf2、bcrypt)加密，并以 {算法id} 作为前缀保存
+ * 2. 没有前缀的旧密码按 sha256(密码 + 盐) 校验，登录成功后在后台重新加密
+ * 3. 算法或参数调整后，旧参数加密的密码在登录成功后同样会重新加密
+ * 4. 登录时的校验在有界线程池中执行，大量登录请求时排队或直接拒绝，不会耗尽请求线程的CPU
+ * 5. 重新加密在单独的小线程池中执行，繁忙时直接丢弃，不占用登录校验的线程
+ *
+ * @author zuihou
+ * @date 2024/9/13 15:00
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PasswordHasher implements StatsSource {
+    /**
+     * def_user.password 字段的长度
+     */
+    public static final int MAX_LENGTH = 255;
+    private static final String PREFIX = "{";
+    private static final String SUFFIX = "}";
+
+    private final List<PasswordEncoder> encoderList;
+    private final SystemProperties systemProperties;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+    private final LongAdder rehashDropped = new LongAdder();
+    private Map<String, PasswordEncoder> encoderMap;
+    private ThreadPoolExecutor executor;
+    private ThreadPoolExecutor rehashExecutor;
+
+    @PostConstruct
+    public void init() {
+        encoderMap = encoderList.stream().collect(Collectors.toMap(PasswordEncoder::getId, Function.identity()));
+        ArgumentAssert.notNull(encoderMap.get(getPassword().getAlgorithm()), "不支持的密码加密算法: {}", getPassword().getAlgorithm());
+
+        int threads = Math.max(getPassword().getVerifyThreads(), 1);
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(getPassword().getVerifyQueueSize(), 1)),
+                new NamedThreadFactory("password-hash-", true), new ThreadPoolExecutor.AbortPolicy());
+        rehashExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(getPassword().getRehashQueueSize(), 1)),
+                new NamedThreadFactory("password-rehash-", true), (r, e) -> rehashDropped.increment());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+        rehashExecutor.shutdownNow();
+    }
+
+    /**
+     * 使用当前配置的算法加密密码
+     *
+     * @param rawPassword 明文密码
+     * @return {算法id}加密后的密码
+     */
+    public String encode(String rawPassword) {
+        PasswordEncoder encoder = encoderMap.get(getPassword().getAlgorithm());
+        return PREFIX + encoder.getId() + SUFFIX + encoder.encode(rawPassword);
+    }
+
+    /**
+     * 在当前线程校验密码，用于修改密码等低频操作
+     *
+     * @param rawPassword     明文密码
+     * @param encodedPassword 数据库中保存的密码
+     * @param salt            数据库中保存的盐， 只有旧密码使用
+     * @return 是否匹配
+     */
+    public boolean matches(String rawPassword, String encodedPassword, String salt) {
+        if (rawPassword == null || StrUtil.isEmpty(encodedPassword)) {
+            return false;
+        }
+        String id = getId(encodedPassword);
+        if (id == null) {
+            byte[] actual = SecureUtil.sha256(rawPassword + StrUtil.nullToEmpty(salt)).getBytes(StandardCharsets.UTF_8);
+            return MessageDigest.isEqual(actual, encodedPassword.toLowerCase().getBytes(StandardCharsets.UTF_8));
+        }
+        PasswordEncoder encoder = encoderMap.get(id);
+        if (encoder == null) {
+            log.warn("不支持的密码加密算法: {}", id);
+            return false;
+        }
+        return encoder.matches(rawPassword, encodedPassword.substring(id.length() + 2));
+    }
+
+    /**
+     * 在有界线程池中校验密码，用于登录
+     * 线程池已满或等待超时时，抛出异常，不占用请求线程计算
+     *
+     * @param rawPassword     明文密码
+     * @param encodedPassword 数据库中保存的密码
+     * @param salt            数据库中保存的盐， 只有旧密码使用
+     * @return 是否匹配
+     */
+    public boolean verify(String rawPassword, String encodedPassword, String salt) {
+        Future<Boolean> future;
+        try {
+            future = executor.submit(() -> matches(rawPassword, encodedPassword, salt));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw BizException.wrap("登录人数过多，请稍后再试");
+        }
+        try {
+            return future.get(getPassword().getVerifyTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw BizException.wrap("登录人数过多，请稍后再试");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw BizException.wrap("登录已中断，请重试");
+        } catch (ExecutionException e) {
+            throw new BizException("校验密码失败", e.getCause());
+        }
+    }
+
+    /**
+     * 加密算法或参数是否已过时
+     *
+     * @param encodedPassword 数据库中保存的密码
+     * @return 是否需要重新加密
+     */
+    public boolean needsRehash(String encodedPassword) {
+        String id = getId(encodedPassword);
+        if (id == null || !id.equals(getPassword().getAlgorithm())) {
+            return true;
+        }
+        return encoderMap.get(id).upgradeEncoding(encodedPassword.substring(id.length() + 2));
+    }
+
+    /**
+     * 密码校验成功后，若加密算法或参数已过时，在后台线程中重新加密
+     * 重新加密使用单独的线程池，繁忙时放弃，下次登录成功后再重新加密
+     *
+     * @param rawPassword     明文密码
+     * @param encodedPassword 数据库中保存的密码
+     * @param consumer        保存新密码
+     */
+    public void rehashAsync(String rawPassword, String encodedPassword, Consumer<String> consumer) {
+        if (!Boolean.TRUE.equals(getPassword().getRehashOnLogin()) || !needsRehash(encodedPassword)) {
+            return;
+        }
+        rehashExecutor.execute(() -> {
+            try {
+                consumer.accept(encode(rawPassword));
+                rehashed.increment();
+            } catch (Exception e) {
+                log.warn("重新加密密码失败", e);
+            }
+        });
+    }
+
+    @Override
+    public String getStatsName() {
+        return "passwordHasher";
+    }
+
+    /**
+     * 运行指标， 通过 /actuator/lampstats/passwordHasher 查看
+     *
+     * @return 指标
+     */
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("algorithm", getPassword().getAlgorithm());
+        stats.put("activeCount", executor.getActiveCount());
+        stats.put("queueSize", executor.getQueue().size());
+        stats.put("completedCount", executor.getCompletedTaskCount());
+        stats.put("rejected", rejected.sum());
+        stats.put("rehashed", rehashed.sum());
+        stats.put("rehashQueueSize", rehashExecutor.getQueue().size());
+        stats.put("rehashDropped", rehashDropped.sum());
+        return stats;
+    }
+
+    private SystemProperties.Password getPassword() {
+        return systemProperties.getPassword();
+    }
+
+    /**
+     * 解析密码前缀中的算法id
+     *
+     * @param encodedPassword 数据库中保存的密码
+     * @return 算法id， 旧密码没有前缀时返回null
+     */
+    private static String getId(String encodedPassword) {
+        if (encodedPassword == null || !encodedPassword.startsWith(PREFIX)) {
+            return null;
+        }
+        int end = encodedPassword.indexOf(SUFFIX);
+        return end > 1 ? encodedPassword.substring(1, end) : null;
+    }
+}
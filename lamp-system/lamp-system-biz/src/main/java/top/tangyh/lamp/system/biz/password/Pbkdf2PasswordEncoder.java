@@ -0,0 +1,83 @@
+package top.tangyh.lamp.system.biz.password;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import top.tangyh.basic.exception.BizException;
+import top.tangyh.lamp.common.properties.SystemProperties;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * PBKDF2WithHmacSHA256 加密
+ * <p>
+ * 格式: 迭代次数$盐$密文， 盐和密文使用Base64编码，修改迭代次数后旧密码仍可校验
+ *
+ * @author zuihou
+ * @date 2024/9/13 15:00
+ */
+@Component
+@RequiredArgsConstructor
+public class Pbkdf2PasswordEncoder implements PasswordEncoder {
+    public static final String ID = "pbkdf2";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final SystemProperties systemProperties;
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public String encode(String rawPassword) {
+        int iterations = systemProperties.getPassword().getPbkdf2Iterations();
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = hash(rawPassword, salt, iterations);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String encodedPassword) {
+        List<String> parts = StrUtil.split(encodedPassword, '$');
+        if (parts.size() != 3) {
+            return false;
+        }
+        try {
+            int iterations = Integer.parseInt(parts.get(0));
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] expected = decoder.decode(parts.get(2));
+            return MessageDigest.isEqual(expected, hash(rawPassword, decoder.decode(parts.get(1)), iterations));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        String iterations = StrUtil.subBefore(encodedPassword, '$', false);
+        return !StrUtil.isNumeric(iterations) || Integer.parseInt(iterations) < systemProperties.getPassword().getPbkdf2Iterations();
+    }
+
+    private static byte[] hash(String rawPassword, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new BizException("密码加密失败", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -6,6 +6,8 @@ import top.tangyh.lamp.system.entity.application.DefResourceApi;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * <p>
@@ -62,4 +64,24 @@ public interface DefResourceApiManager extends SuperCacheManager<DefResourceApi>
      */
     List<DefResourceApi> findResourceApi(List<Long> applicationIdList,
                                          Collection<String> resourceTypes);
+
+    /**
+     * 查询完整的接口权限表
+     *
+     * @return uri###method -> 资源编码
+     */
+    Map<String, Set<String>> findAllApiMap();
+
+    /**
+     * 资源或资源接口修改后，淘汰接口权限表
+     */
+    void evictApiMap();
+
+    /**
+     * 查询服务启动时扫描到的接口
+     *
+     * @param springApplicationName 服务名
+     * @return 接口
+     */
+    List<DefResourceApi> findScanApi(String springApplicationName);
 }
@@ -81,4 +81,22 @@ public interface DefResourceManager extends SuperCacheManager<DefResource> {
      */
     List<DefResource> findByApplicationId(List<Long> applicationIds);
 
+    /**
+     * 查询指定路径前缀下所有资源的id
+     *
+     * @param treePathPrefix 路径前缀，如: /1/5/
+     * @return 资源id
+     */
+    List<Long> findIdByTreePathPrefix(String treePathPrefix);
+
+    /**
+     * 将某个资源的所有子孙节点整体移动到新的路径下
+     * 一条 update 语句修改 tree_path 的前缀和 tree_grade，不逐行修改
+     *
+     * @param oldPrefix  原路径前缀，即 资源原来的 treePath + 资源id
+     * @param newPrefix  新路径前缀，即 资源新的 treePath + 资源id
+     * @param gradeDelta 层级变化量
+     * @return 当前数据库不支持时返回false， 由调用方逐行修改
+     */
+    boolean moveChildren(String oldPrefix, String newPrefix, int gradeDelta);
 }
@@ -1,24 +1,30 @@
 package top.tangyh.lamp.system.manager.application.impl;
 
 import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.StrUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import top.tangyh.basic.base.manager.impl.SuperCacheManagerImpl;
+import top.tangyh.basic.cache.redis2.CacheResult;
+import top.tangyh.basic.cache.repository.CachePlusOps;
 import top.tangyh.basic.database.mybatis.conditions.Wraps;
 import top.tangyh.basic.database.mybatis.conditions.query.LbQueryWrap;
 import top.tangyh.basic.model.cache.CacheKey;
 import top.tangyh.basic.model.cache.CacheKeyBuilder;
 import top.tangyh.lamp.common.cache.tenant.application.ResourceApiCacheKeyBuilder;
+import top.tangyh.lamp.common.cache.tenant.application.ResourceApiScanCacheKeyBuilder;
 import top.tangyh.lamp.common.cache.tenant.application.ResourceResourceApiCacheKeyBuilder;
 import top.tangyh.lamp.model.vo.result.ResourceApiVO;
 import top.tangyh.lamp.system.entity.application.DefResourceApi;
 import top.tangyh.lamp.system.manager.application.DefResourceApiManager;
 import top.tangyh.lamp.system.mapper.application.DefResourceApiMapper;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
@@ -35,6 +41,9 @@ import java.util.function.Function;
 @Service
 @Slf4j
 public class DefResourceApiManagerImpl extends SuperCacheManagerImpl<DefResourceApiMapper, DefResourceApi> implements DefResourceApiManager {
+    private final DefResourceApiMap defResourceApiMap;
+    private final CachePlusOps cachePlusOps;
+
     @Override
     protected CacheKeyBuilder cacheKeyBuilder() {
         return new ResourceApiCacheKeyBuilder();
@@ -55,6 +64,7 @@ public class DefResourceApiManagerImpl extends SuperCacheManagerImpl<DefResource
 
         CacheKey[] resourceResourceApiKeys = resourceIdList.stream().map(ResourceResourceApiCacheKeyBuilder::builder).toArray(CacheKey[]::new);
         cacheOps.del(resourceResourceApiKeys);
+        defResourceApiMap.evict();
     }
 
     @Override
@@ -126,4 +136,38 @@ public class DefResourceApiManagerImpl extends SuperCacheManagerImpl<DefResource
     public List<DefResourceApi> findResourceApi(List<Long> applicationIdList, Collection<String> resourceTypes) {
         return baseMapper.findResourceApi(applicationIdList, resourceTypes);
     }
+
+    @Override
+    public Map<String, Set<String>> findAllApiMap() {
+        return defResourceApiMap.findAll();
+    }
+
+    @Override
+    public void evictApiMap() {
+        defResourceApiMap.evict();
+    }
+
+    @Override
+    public List<DefResourceApi> findScanApi(String springApplicationName) {
+        Map<String, CacheResult<String>> map = cachePlusOps.hGetAll(ResourceApiScanCacheKeyBuilder.builder(springApplicationName));
+        List<DefResourceApi> list = new ArrayList<>(map.size());
+        map.forEach((api, value) -> {
+            List<String> apiParts = StrUtil.split(api, DefResourceApiMap.API_SPLIT);
+            if (apiParts.size() != 2 || value == null) {
+                // #digest 等非接口字段
+                return;
+            }
+            List<String> valueParts = StrUtil.split(Convert.toStr(value.getValue()), DefResourceApiMap.API_SPLIT);
+            DefResourceApi resourceApi = new DefResourceApi();
+            resourceApi.setSpringApplicationName(springApplicationName);
+            resourceApi.setUri(apiParts.get(0));
+            resourceApi.setRequestMethod(apiParts.get(1));
+            resourceApi.setController(valueParts.get(0));
+            resourceApi.setName(valueParts.size() > 1 ? valueParts.get(1) : valueParts.get(0));
+            resourceApi.setIsInput(false);
+            list.add(resourceApi);
+        });
+        list.sort((a, b) -> StrUtil.compare(a.getUri(), b.getUri(), false));
+        return list;
+    }
 }
@@ -0,0 +1,131 @@
+package top.tangyh.lamp.system.manager.application.impl;
+
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.StrUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import top.tangyh.basic.cache.redis2.CacheResult;
+import top.tangyh.basic.cache.repository.CachePlusOps;
+import top.tangyh.basic.utils.StrPool;
+import top.tangyh.lamp.common.cache.tenant.application.ResourceApiMapCacheKeyBuilder;
+import top.tangyh.lamp.model.vo.result.ResourceApiVO;
+import top.tangyh.lamp.system.mapper.application.DefResourceApiMapper;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 接口权限表
+ * <p>
+ * 网关、认证服务每个请求都需要 "uri###method -> 资源编码" 的完整映射，原来每次都要关联查询资源表和资源接口表。
+ * 现在将映射保存在一个 Redis hash 中：
+ * 1. hash 中的 #version 字段记录加载时间，资源或资源接口修改后删除整个 hash，下次读取时从数据库重新加载
+ * 2. 本机保存最近一次读取的映射和版本号，每秒最多检查一次版本号，版本不变时直接使用本机的映射
+ * 3. 版本变化时，一次 hGetAll 读取完整映射
+ *
+ * @author zuihou
+ * @date 2024/9/10 17:20
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DefResourceApiMap {
+    public static final String API_SPLIT = "###";
+    private static final String VERSION_FIELD = "#version";
+    private static final long VERSION_CHECK_MILLIS = 1000L;
+
+    private final DefResourceApiMapper defResourceApiMapper;
+    private final CachePlusOps cachePlusOps;
+
+    private volatile Snapshot snapshot;
+    private volatile long lastCheckTime = 0L;
+
+    /**
+     * 查询完整的接口权限表
+     *
+     * @return uri###method -> 资源编码
+     */
+    public Map<String, Set<String>> findAll() {
+        Snapshot current = snapshot;
+        long now = System.currentTimeMillis();
+        if (current != null && now - lastCheckTime < VERSION_CHECK_MILLIS) {
+            return current.getApiMap();
+        }
+        lastCheckTime = now;
+        if (current != null) {
+            CacheResult<String> result = cachePlusOps.hGet(ResourceApiMapCacheKeyBuilder.builder(VERSION_FIELD));
+            String version = result == null ? null : Convert.toStr(result.getValue());
+            if (Objects.equals(version, current.getVersion())) {
+                return current.getApiMap();
+            }
+        }
+
+        Map<String, CacheResult<String>> all = cachePlusOps.hGetAll(ResourceApiMapCacheKeyBuilder.builder(), key -> load());
+        String version = null;
+        Map<String, Set<String>> apiMap = new LinkedHashMap<>(all.size() * 2);
+        for (Map.Entry<String, CacheResult<String>> entry : all.entrySet()) {
+            String value = entry.getValue() == null ? null : Convert.toStr(entry.getValue().getValue());
+            if (VERSION_FIELD.equals(entry.getKey())) {
+                version = value;
+                continue;
+            }
+            apiMap.put(entry.getKey(), Collections.unmodifiableSet(new LinkedHashSet<>(StrUtil.split(value, StrPool.COMMA, true, true))));
+        }
+        Snapshot loaded = new Snapshot(version, Collections.unmodifiableMap(apiMap));
+        snapshot = loaded;
+        log.info("加载接口权限表，版本: {}， 共 {} 个接口", version, apiMap.size());
+        return loaded.getApiMap();
+    }
+
+    /**
+     * 淘汰接口权限表
+     * 存在事务时，在事务提交后执行，避免其他服务加载到未提交的数据
+     */
+    public void evict() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvict();
+                }
+            });
+            return;
+        }
+        doEvict();
+    }
+
+    private void doEvict() {
+        cachePlusOps.del(ResourceApiMapCacheKeyBuilder.builder());
+        lastCheckTime = 0L;
+    }
+
+    private Map<String, String> load() {
+        List<ResourceApiVO> list = defResourceApiMapper.findAllApi();
+        Map<String, Set<String>> codeMap = new LinkedHashMap<>();
+        for (ResourceApiVO api : list) {
+            codeMap.computeIfAbsent(api.getUri() + API_SPLIT + api.getRequestMethod(), k -> new LinkedHashSet<>()).add(api.getCode());
+        }
+        Map<String, String> map = new HashMap<>(codeMap.size() * 2 + 2);
+        codeMap.forEach((api, codes) -> map.put(api, StrUtil.join(StrPool.COMMA, codes)));
+        map.put(VERSION_FIELD, String.valueOf(System.currentTimeMillis()));
+        return map;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Snapshot {
+        private final String version;
+        private final Map<String, Set<String>> apiMap;
+    }
+}
@@ -2,20 +2,26 @@ package top.tangyh.lamp.system.manager.application.impl;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
+import com.baomidou.mybatisplus.annotation.DbType;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import top.tangyh.basic.base.manager.impl.SuperCacheManagerImpl;
+import top.tangyh.basic.context.ContextUtil;
 import top.tangyh.basic.database.mybatis.conditions.Wraps;
 import top.tangyh.basic.database.mybatis.conditions.query.LbQueryWrap;
 import top.tangyh.basic.model.cache.CacheKeyBuilder;
 import top.tangyh.basic.utils.ArgumentAssert;
+import top.tangyh.basic.utils.DbPlusUtil;
 import top.tangyh.basic.utils.TreeUtil;
 import top.tangyh.lamp.common.cache.tenant.application.ResourceCacheKeyBuilder;
 import top.tangyh.lamp.system.entity.application.DefResource;
 import top.tangyh.lamp.system.manager.application.DefResourceManager;
 import top.tangyh.lamp.system.mapper.application.DefResourceMapper;
 
+import javax.sql.DataSource;
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
@@ -29,10 +35,17 @@ import java.util.Objects;
  * @date 2021/9/29 1:26 下午
  * @create [2021/9/29 1:26 下午 ] [tangyh] [初始创建]
  */
+@Slf4j
 @RequiredArgsConstructor
 @Service
 public class DefResourceManagerImpl extends SuperCacheManagerImpl<DefResourceMapper, DefResource> implements DefResourceManager {
+    /**
+     * 不支持批量修改路径的数据库
+     */
+    private static final String DIALECT_NONE = "none";
 
+    private final DataSource dataSource;
+    private volatile String treePathDialect;
 
     @Override
     protected CacheKeyBuilder cacheKeyBuilder() {
@@ -89,5 +102,38 @@ public class DefResourceManagerImpl extends SuperCacheManagerImpl<DefResourceMap
         return list(Wraps.<DefResource>lbQ().like(DefResource::getTreePath, TreeUtil.buildTreePath(parentId)).orderByAsc(DefResource::getSortValue));
     }
 
+    @Override
+    public List<Long> findIdByTreePathPrefix(String treePathPrefix) {
+        ArgumentAssert.notEmpty(treePathPrefix, "treePathPrefix 不能为空");
+        return listObjs(Wraps.<DefResource>lbQ().select(DefResource::getId).likeRight(DefResource::getTreePath, treePathPrefix), Convert::toLong);
+    }
+
+    @Override
+    public boolean moveChildren(String oldPrefix, String newPrefix, int gradeDelta) {
+        String dialect = getTreePathDialect();
+        if (DIALECT_NONE.equals(dialect)) {
+            return false;
+        }
+        baseMapper.moveChildren(oldPrefix, newPrefix, gradeDelta, dialect, ContextUtil.getUserId(), LocalDateTime.now());
+        return true;
+    }
 
+    /**
+     * 各数据库拼接字符串的方式不同
+     */
+    private String getTreePathDialect() {
+        String dialect = treePathDialect;
+        if (dialect == null) {
+            DbType dbType = DbPlusUtil.getDbType(dataSource);
+            dialect = dbType == null ? DIALECT_NONE : switch (dbType) {
+                case MYSQL, MARIADB -> "concat";
+                case SQL_SERVER, SQL_SERVER2005 -> "plus";
+                case ORACLE, ORACLE_12C, POSTGRE_SQL, DM, H2, KINGBASE_ES -> "pipe";
+                default -> DIALECT_NONE;
+            };
+            log.info("数据库类型: {}， 资源路径批量修改方式: {}", dbType, dialect);
+            treePathDialect = dialect;
+        }
+        return dialect;
+    }
 }
@@ -13,12 +13,4 @@ import top.tangyh.lamp.system.entity.system.DefClient;
  * @date 2021-10-13
  */
 public interface DefClientManager extends SuperCacheManager<DefClient> {
-    /**
-     * 根据 客户端id 和 客户端秘钥查询应用
-     *
-     * @param clientId
-     * @param clientSecret
-     * @return
-     */
-    DefClient getClient(String clientId, String clientSecret);
 }
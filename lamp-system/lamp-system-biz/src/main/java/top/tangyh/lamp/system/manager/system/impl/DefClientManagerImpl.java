@@ -4,13 +4,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import top.tangyh.basic.base.manager.impl.SuperCacheManagerImpl;
-import top.tangyh.basic.cache.redis2.CacheResult;
-import top.tangyh.basic.database.mybatis.conditions.Wraps;
-import top.tangyh.basic.model.cache.CacheKey;
 import top.tangyh.basic.model.cache.CacheKeyBuilder;
-import top.tangyh.basic.utils.ArgumentAssert;
 import top.tangyh.lamp.common.cache.tenant.system.DefClientCacheKeyBuilder;
-import top.tangyh.lamp.common.cache.tenant.system.DefClientSecretCacheKeyBuilder;
 import top.tangyh.lamp.system.entity.system.DefClient;
 import top.tangyh.lamp.system.manager.system.DefClientManager;
 import top.tangyh.lamp.system.mapper.system.DefClientMapper;
@@ -33,16 +28,4 @@ public class DefClientManagerImpl extends SuperCacheManagerImpl<DefClientMapper,
     protected CacheKeyBuilder cacheKeyBuilder() {
         return new DefClientCacheKeyBuilder();
     }
-
-    @Override
-    public DefClient getClient(String clientId, String clientSecret) {
-        CacheKey key = DefClientSecretCacheKeyBuilder.builder(clientId, clientSecret);
-        CacheResult<Long> result = cacheOps.get(key, k -> {
-            DefClient one = getOne(Wraps.<DefClient>lbQ().eq(DefClient::getClientId, clientId).eq(DefClient::getClientSecret, clientSecret));
-            return one == null ? null : one.getId();
-        });
-        Long id = result.asLong();
-        ArgumentAssert.notNull(id, "客户端[{}]不存在", clientId);
-        return getByIdCache(id);
-    }
 }
@@ -0,0 +1,223 @@
+package top.tangyh.lamp.system.manager.system.impl;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import top.tangyh.basic.cache.redis2.CacheResult;
+import top.tangyh.basic.cache.repository.CacheOps;
+import top.tangyh.basic.database.mybatis.conditions.Wraps;
+import top.tangyh.lamp.common.cache.tenant.system.DefClientVersionCacheKeyBuilder;
+import top.tangyh.lamp.common.utils.Base64Util;
+import top.tangyh.lamp.system.entity.system.DefClient;
+import top.tangyh.lamp.system.mapper.system.DefClientMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 客户端注册表
+ * <p>
+ * 客户端数量很少且极少修改，全部加载到内存，登录时只需一次内存查找即可完成校验：
+ * 1. 内存中只保存秘钥的 SHA-256 摘要，校验时使用常量时间比较
+ * 2. 客户端新增、修改、删除后，本服务立即重新加载，并更新缓存中的版本号
+ * 3. 其他服务(网关、认证服务等)定时检查版本号，发现变化后重新加载
+ *
+ * @author zuihou
+ * @date 2024/9/5 15:40
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DefClientRegistry {
+    private static final long VERSION_CHECK_SECONDS = 10L;
+    private static final long MISS_RELOAD_INTERVAL_MILLIS = 5000L;
+
+    private final DefClientMapper defClientMapper;
+    private final CacheOps cacheOps;
+
+    /**
+     * 请求头 -> [clientId, clientSecret]， 避免每次请求都做base64解码
+     */
+    private final Cache<String, String[]> headerCache = CacheBuilder.newBuilder().maximumSize(256).build();
+    private volatile Map<String, ClientEntry> clientMap;
+    private volatile Long version;
+    private volatile long lastMissReloadTime = 0L;
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("client-registry-", true));
+        executor.scheduleWithFixedDelay(this::checkVersion, VERSION_CHECK_SECONDS, VERSION_CHECK_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 校验客户端id和秘钥
+     *
+     * @param clientId     客户端id
+     * @param clientSecret 客户端秘钥
+     * @return 客户端(不含秘钥)， 客户端不存在或秘钥错误时返回null
+     */
+    public DefClient verify(String clientId, String clientSecret) {
+        if (StrUtil.hasEmpty(clientId, clientSecret)) {
+            return null;
+        }
+        ClientEntry entry = getClientMap().get(clientId);
+        if (entry == null && reloadOnMiss()) {
+            entry = getClientMap().get(clientId);
+        }
+        if (entry == null || !MessageDigest.isEqual(entry.getSecretDigest(), digest(clientSecret))) {
+            return null;
+        }
+        DefClient client = new DefClient();
+        client.setId(entry.getId());
+        client.setClientId(entry.getClientId());
+        client.setName(entry.getName());
+        client.setType(entry.getType());
+        client.setState(entry.getState());
+        return client;
+    }
+
+    /**
+     * 解析请求头中的客户端信息
+     *
+     * @param basicHeader base64(clientId:clientSecret)
+     * @return [clientId, clientSecret]
+     */
+    public String[] parseHeader(String basicHeader) {
+        String[] client = headerCache.getIfPresent(basicHeader);
+        if (client == null) {
+            client = Base64Util.getClient(basicHeader);
+            headerCache.put(basicHeader, client);
+        }
+        return client;
+    }
+
+    /**
+     * 重新加载本服务的注册表，并通知其他服务重新加载
+     * 存在事务时，在事务提交后执行，避免其他服务加载到未提交的数据
+     */
+    public void refresh() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doRefresh();
+                }
+            });
+            return;
+        }
+        doRefresh();
+    }
+
+    private void doRefresh() {
+        long newVersion = System.currentTimeMillis();
+        cacheOps.set(DefClientVersionCacheKeyBuilder.builder(), newVersion);
+        load(newVersion);
+    }
+
+    private Map<String, ClientEntry> getClientMap() {
+        Map<String, ClientEntry> map = clientMap;
+        if (map == null) {
+            synchronized (this) {
+                if (clientMap == null) {
+                    load(currentVersion());
+                }
+                map = clientMap;
+            }
+        }
+        return map;
+    }
+
+    /**
+     * 未知的客户端id 可能是刚新增的，限制频率重新加载一次
+     */
+    private boolean reloadOnMiss() {
+        long now = System.currentTimeMillis();
+        if (now - lastMissReloadTime < MISS_RELOAD_INTERVAL_MILLIS) {
+            return false;
+        }
+        synchronized (this) {
+            if (now - lastMissReloadTime < MISS_RELOAD_INTERVAL_MILLIS) {
+                return false;
+            }
+            lastMissReloadTime = now;
+            load(currentVersion());
+        }
+        return true;
+    }
+
+    private void checkVersion() {
+        try {
+            Long latest = currentVersion();
+            if (clientMap != null && !Objects.equals(latest, version)) {
+                log.info("客户端数据版本变化 {} -> {}，重新加载", version, latest);
+                load(latest);
+            }
+        } catch (Exception e) {
+            log.warn("检查客户端数据版本失败", e);
+        }
+    }
+
+    private Long currentVersion() {
+        CacheResult<Long> result = cacheOps.get(DefClientVersionCacheKeyBuilder.builder());
+        Long version = result == null ? null : result.asLong();
+        if (version == null) {
+            // 版本号过期或缓存被清空后，写入随机版本号，避免不同时间加载的数据使用相同的版本号
+            version = RandomUtil.randomLong(1L, Long.MAX_VALUE);
+            cacheOps.set(DefClientVersionCacheKeyBuilder.builder(), version);
+        }
+        return version;
+    }
+
+    private synchronized void load(Long newVersion) {
+        List<DefClient> list = defClientMapper.selectList(Wraps.<DefClient>lbQ());
+        Map<String, ClientEntry> map = new HashMap<>(list.size() * 2);
+        for (DefClient client : list) {
+            map.put(client.getClientId(), new ClientEntry(client.getId(), client.getClientId(), client.getName(),
+                    client.getType(), client.getState(), digest(client.getClientSecret())));
+        }
+        clientMap = map;
+        version = newVersion;
+        headerCache.invalidateAll();
+        log.info("加载客户端 {} 个", map.size());
+    }
+
+    private static byte[] digest(String secret) {
+        return SecureUtil.sha256().digest(StrUtil.nullToEmpty(secret).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class ClientEntry {
+        private final Long id;
+        private final String clientId;
+        private final String name;
+        private final String type;
+        private final Boolean state;
+        private final byte[] secretDigest;
+    }
+}
@@ -1,6 +1,5 @@
 package top.tangyh.lamp.system.manager.system.impl;
 
-import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.map.MapBuilder;
 import cn.hutool.core.map.MapUtil;
@@ -27,15 +26,11 @@ import top.tangyh.lamp.system.vo.result.system.DefDictItemResultVO;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.toList;
-
 /**
  * @author zuihou
  * @date 2021/10/10 23:21
@@ -47,6 +42,7 @@ public class DefDictManagerImpl extends SuperManagerImpl<DefDictMapper, DefDict>
     private final DefDictMapper defDictMapper;
     private final CachePlusOps cachePlusOps;
     private final EchoProperties ips;
+    private final DefDictRegistry defDictRegistry;
 
     @Override
     
@@ -84,13 +80,7 @@ public class DefDictManagerImpl extends SuperManagerImpl<DefDictMapper, DefDict>
         if (CollUtil.isEmpty(dictKeys)) {
             return Collections.emptyMap();
         }
-        LbQueryWrap<DefDict> query = Wraps.<DefDict>lbQ().in(DefDict::getParentKey, dictKeys).eq(DefDict::getState, true)
-                .orderByAsc(DefDict::getSortValue);
-        List<DefDict> list = super.list(query);
-        List<DefDictItemResultVO> voList = BeanUtil.copyToList(list, DefDictItemResultVO.class);
-
-        //key 是类型
-        return voList.stream().collect(groupingBy(DefDictItemResultVO::getParentKey, LinkedHashMap::new, toList()));
+        return defDictRegistry.find(dictKeys);
     }
 
     @Override
@@ -0,0 +1,179 @@
+package top.tangyh.lamp.system.manager.system.impl;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.RandomUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import top.tangyh.basic.cache.redis2.CacheResult;
+import top.tangyh.basic.cache.repository.CacheOps;
+import top.tangyh.basic.database.mybatis.conditions.Wraps;
+import top.tangyh.lamp.common.cache.tenant.base.DefDictVersionCacheKeyBuilder;
+import top.tangyh.lamp.system.entity.system.DefDict;
+import top.tangyh.lamp.system.mapper.system.DefDictMapper;
+import top.tangyh.lamp.system.vo.result.system.DefDictItemResultVO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 字典注册表
+ * <p>
+ * 前端几乎每个页面都要按字典类型查询字典项，字典数据量小且极少修改，全部加载到内存：
+ * 1. 只加载启用的字典项，按字典类型分组、按排序值排序，查询只需内存查找
+ * 2. 字典、字典项新增、修改、删除后，本服务立即重新加载，并更新缓存中的版本号
+ * 3. 其他服务定时检查版本号，发现变化后重新加载
+ * 4. 版本号可作为字典数据的 ETag，版本不变时客户端可以继续使用本地的数据
+ * <p>
+ * 返回的字典项列表是共享且只读的，调用方不能修改。
+ *
+ * @author zuihou
+ * @date 2024/9/12 9:30
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DefDictRegistry {
+    private static final long VERSION_CHECK_SECONDS = 5L;
+
+    private final DefDictMapper defDictMapper;
+    private final CacheOps cacheOps;
+
+    private volatile Snapshot snapshot;
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("dict-registry-", true));
+        executor.scheduleWithFixedDelay(this::checkVersion, VERSION_CHECK_SECONDS, VERSION_CHECK_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 根据字典类型查询字典项
+     *
+     * @param dictKeys 字典类型
+     * @return key: 字典类型 value: 启用的字典项， 没有字典项的类型不返回
+     */
+    public Map<String, List<DefDictItemResultVO>> find(Collection<String> dictKeys) {
+        Map<String, List<DefDictItemResultVO>> map = getSnapshot().getDictMap();
+        Map<String, List<DefDictItemResultVO>> result = new LinkedHashMap<>();
+        for (String dictKey : dictKeys) {
+            List<DefDictItemResultVO> items = map.get(dictKey);
+            if (items != null) {
+                result.put(dictKey, items);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 当前加载的数据版本
+     *
+     * @return 版本号
+     */
+    public long getVersion() {
+        return getSnapshot().getVersion();
+    }
+
+    /**
+     * 重新加载本服务的注册表，并通知其他服务重新加载
+     * 存在事务时，在事务提交后执行，避免其他服务加载到未提交的数据
+     */
+    public void refresh() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doRefresh();
+                }
+            });
+            return;
+        }
+        doRefresh();
+    }
+
+    private void doRefresh() {
+        long newVersion = System.currentTimeMillis();
+        cacheOps.set(DefDictVersionCacheKeyBuilder.builder(), newVersion);
+        load(newVersion);
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    load(currentVersion());
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private void checkVersion() {
+        try {
+            Snapshot current = snapshot;
+            Long latest = currentVersion();
+            if (current != null && !Objects.equals(latest, current.getVersion())) {
+                log.info("字典数据版本变化 {} -> {}，重新加载", current.getVersion(), latest);
+                load(latest);
+            }
+        } catch (Exception e) {
+            log.warn("检查字典数据版本失败", e);
+        }
+    }
+
+    private Long currentVersion() {
+        CacheResult<Long> result = cacheOps.get(DefDictVersionCacheKeyBuilder.builder());
+        Long version = result == null ? null : result.asLong();
+        if (version == null) {
+            // 版本号过期或缓存被清空后，写入随机版本号，避免不同时间加载的数据使用相同的版本号
+            version = RandomUtil.randomLong(1L, Long.MAX_VALUE);
+            cacheOps.set(DefDictVersionCacheKeyBuilder.builder(), version);
+        }
+        return version;
+    }
+
+    private synchronized void load(Long newVersion) {
+        List<DefDict> list = defDictMapper.selectList(Wraps.<DefDict>lbQ().isNotNull(DefDict::getParentKey)
+                .eq(DefDict::getState, true).orderByAsc(DefDict::getSortValue));
+        Map<String, List<DefDictItemResultVO>> map = new LinkedHashMap<>();
+        for (DefDict item : list) {
+            map.computeIfAbsent(item.getParentKey(), k -> new ArrayList<>()).add(BeanUtil.toBean(item, DefDictItemResultVO.class));
+        }
+        map.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        snapshot = new Snapshot(newVersion, Collections.unmodifiableMap(map));
+        log.info("加载字典 {} 个，字典项 {} 个", map.size(), list.size());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Snapshot {
+        private final Long version;
+        /**
+         * 字典类型 -> 字典项
+         */
+        private final Map<String, List<DefDictItemResultVO>> dictMap;
+    }
+}
@@ -1,17 +1,23 @@
 package top.tangyh.lamp.system.manager.system.impl;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import top.tangyh.basic.base.manager.impl.SuperManagerImpl;
 import top.tangyh.basic.database.mybatis.conditions.Wraps;
+import top.tangyh.basic.database.mybatis.conditions.query.LbQueryWrap;
+import top.tangyh.lamp.common.page.SeekPageHelper;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
+import top.tangyh.lamp.common.retention.LogRetentionExecutor;
+import top.tangyh.lamp.common.retention.LogRetentionProgress;
 import top.tangyh.lamp.system.entity.system.DefLoginLog;
 import top.tangyh.lamp.system.manager.system.DefLoginLogManager;
 import top.tangyh.lamp.system.mapper.system.DefLoginLogMapper;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -28,13 +34,73 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 public class DefLoginLogManagerImpl extends SuperManagerImpl<DefLoginLogMapper, DefLoginLog> implements DefLoginLogManager {
+    private final LogRetentionExecutor logRetentionExecutor;
+
+    @Override
+    public String getRetentionTable() {
+        return TABLE;
+    }
+
     @Override
     public Long clearLog(LocalDateTime clearBeforeTime, Integer clearBeforeNum) {
-        List<Long> idList = Collections.emptyList();
-        if (clearBeforeNum != null) {
-            Page<DefLoginLog> page = super.page(new Page<>(0, clearBeforeNum), Wraps.<DefLoginLog>lbQ().select(DefLoginLog::getId).orderByDesc(DefLoginLog::getCreatedTime));
-            idList = page.getRecords().stream().map(DefLoginLog::getId).toList();
+        return logRetentionExecutor.execute(TABLE, this, clearBeforeTime, clearBeforeNum);
+    }
+
+    @Override
+    public Long clearLogByPolicy() {
+        return logRetentionExecutor.executePolicy(TABLE, this);
+    }
+
+    @Override
+    public LogRetentionProgress getClearProgress() {
+        return logRetentionExecutor.getProgress(TABLE);
+    }
+
+    @Override
+    public SeekPageResult<DefLoginLog> seekPage(LbQueryWrap<DefLoginLog> wrap, SeekPageParams<?> params) {
+        return SeekPageHelper.seekPage(this, wrap, params, DefLoginLog::getCreatedTime, DefLoginLog::getId);
+    }
+
+    @Override
+    public Long findClearUpperBoundId(LocalDateTime clearBeforeTime, Integer keepNum) {
+        Long upperBoundId = null;
+        if (clearBeforeTime != null) {
+            upperBoundId = baseMapper.selectMaxIdBefore(clearBeforeTime);
+            if (upperBoundId == null) {
+                return null;
+            }
+        }
+        if (keepNum != null) {
+            // 跳过最新的 keepNum 条，剩余的最大id
+            Long keepBoundId = findIdByOffset(Wraps.<DefLoginLog>lbQ().select(DefLoginLog::getId).orderByDesc(DefLoginLog::getId), keepNum);
+            if (keepBoundId == null) {
+                return null;
+            }
+            upperBoundId = upperBoundId == null ? keepBoundId : Math.min(upperBoundId, keepBoundId);
         }
-        return baseMapper.clearLog(clearBeforeTime, idList);
+        if (clearBeforeTime == null && keepNum == null) {
+            upperBoundId = findIdByOffset(Wraps.<DefLoginLog>lbQ().select(DefLoginLog::getId).orderByDesc(DefLoginLog::getId), 0);
+        }
+        return upperBoundId;
+    }
+
+    @Override
+    public Long findClearBatchEndId(Long startId, Long upperBoundId, int batchSize) {
+        return findIdByOffset(Wraps.<DefLoginLog>lbQ().select(DefLoginLog::getId)
+                .gt(startId != null, DefLoginLog::getId, startId)
+                .le(DefLoginLog::getId, upperBoundId)
+                .orderByAsc(DefLoginLog::getId), batchSize - 1);
+    }
+
+    @Override
+    public long deleteByIdRange(Long startId, Long endId, LocalDateTime clearBeforeTime) {
+        Long deleted = baseMapper.deleteByIdRange(startId, endId, clearBeforeTime);
+        return deleted == null ? 0L : deleted;
+    }
+
+    private Long findIdByOffset(Wrapper<DefLoginLog> wrapper, long offset) {
+        // current = offset + 1, size = 1, 不查询总数
+        List<DefLoginLog> list = super.page(new Page<>(offset + 1, 1, false), wrapper).getRecords();
+        return list.isEmpty() ? null : list.get(0).getId();
     }
 }
@@ -7,8 +7,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import top.tangyh.basic.base.manager.impl.SuperCacheManagerImpl;
-import top.tangyh.basic.database.mybatis.conditions.Wraps;
-import top.tangyh.basic.database.mybatis.conditions.query.LbQueryWrap;
 import top.tangyh.basic.model.cache.CacheKeyBuilder;
 import top.tangyh.basic.utils.CollHelper;
 import top.tangyh.lamp.common.cache.tenant.base.DictParameterKeyBuilder;
@@ -38,6 +36,8 @@ import java.util.Set;
 @Service
 @RequiredArgsConstructor
 public class DefParameterManagerImpl extends SuperCacheManagerImpl<DefParameterMapper, DefParameter> implements DefParameterManager {
+    private final DefParameterRegistry defParameterRegistry;
+
     @Override
     protected CacheKeyBuilder cacheKeyBuilder() {
         return new DictParameterKeyBuilder();
@@ -63,10 +63,6 @@ public class DefParameterManagerImpl extends SuperCacheManagerImpl<DefParameterM
         if (CollUtil.isEmpty(paramsKeys)) {
             return Collections.emptyMap();
         }
-        LbQueryWrap<DefParameter> query = Wraps.<DefParameter>lbQ().in(DefParameter::getKey, paramsKeys).eq(DefParameter::getState, true);
-        List<DefParameter> list = super.list(query);
-
-        //key 是类型
-        return CollHelper.uniqueIndex(list, DefParameter::getKey, DefParameter::getValue);
+        return defParameterRegistry.find(paramsKeys);
     }
 }
@@ -0,0 +1,213 @@
+package top.tangyh.lamp.system.manager.system.impl;
+
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import top.tangyh.basic.cache.redis2.CacheResult;
+import top.tangyh.basic.cache.repository.CacheOps;
+import top.tangyh.basic.database.mybatis.conditions.Wraps;
+import top.tangyh.lamp.common.cache.tenant.base.DefParameterVersionCacheKeyBuilder;
+import top.tangyh.lamp.system.entity.system.DefParameter;
+import top.tangyh.lamp.system.mapper.system.DefParameterMapper;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 参数注册表
+ * <p>
+ * 登录时的密码错误次数限制等热点代码每次都要读取参数，参数数量少且极少修改，全部加载到内存：
+ * 1. 只加载启用的参数，读取参数只需一次内存查找
+ * 2. 参数新增、修改、删除后，本服务立即重新加载，并更新缓存中的版本号
+ * 3. 其他服务(网关、认证服务等)定时检查版本号，发现变化后重新加载
+ * 4. 按类型读取时，每个参数只解析一次，重新加载后清空解析结果
+ *
+ * @author zuihou
+ * @date 2024/9/11 16:00
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DefParameterRegistry {
+    private static final long VERSION_CHECK_SECONDS = 5L;
+    private static final Object NULL = new Object();
+
+    private final DefParameterMapper defParameterMapper;
+    private final CacheOps cacheOps;
+
+    private volatile Snapshot snapshot;
+    private volatile Long version;
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("parameter-registry-", true));
+        executor.scheduleWithFixedDelay(this::checkVersion, VERSION_CHECK_SECONDS, VERSION_CHECK_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 根据参数key查参数值
+     *
+     * @param keys 参数key
+     * @return key： 参数key  value: 参数值， 不存在或已禁用的参数不返回
+     */
+    public Map<String, String> find(Collection<String> keys) {
+        Map<String, String> map = getSnapshot().getParamMap();
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String key : keys) {
+            String value = map.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 查询参数值
+     *
+     * @param key    参数key
+     * @param defVal 默认值
+     * @return 参数值， 不存在时返回默认值
+     */
+    public String getString(String key, String defVal) {
+        String value = getSnapshot().getParamMap().get(key);
+        return value == null ? defVal : value;
+    }
+
+    /**
+     * 查询整数参数
+     *
+     * @param key    参数key
+     * @param defVal 默认值
+     * @return 参数值， 不存在或格式错误时返回默认值
+     */
+    public Integer getInt(String key, Integer defVal) {
+        return getParsed("int", key, defVal, value -> Convert.toInt(StrUtil.trim(value), null));
+    }
+
+    /**
+     * 重新加载本服务的注册表，并通知其他服务重新加载
+     * 存在事务时，在事务提交后执行，避免其他服务加载到未提交的数据
+     */
+    public void refresh() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doRefresh();
+                }
+            });
+            return;
+        }
+        doRefresh();
+    }
+
+    private void doRefresh() {
+        long newVersion = System.currentTimeMillis();
+        cacheOps.set(DefParameterVersionCacheKeyBuilder.builder(), newVersion);
+        load(newVersion);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getParsed(String type, String key, T defVal, Function<String, T> parser) {
+        Snapshot current = getSnapshot();
+        String value = current.getParamMap().get(key);
+        if (value == null) {
+            return defVal;
+        }
+        Object parsed = current.getParsedMap().computeIfAbsent(type + ":" + key, k -> {
+            T result = parser.apply(value);
+            if (result == null) {
+                log.warn("参数[{}]的值[{}]无法解析为{}，使用默认值", key, value, type);
+            }
+            return result == null ? NULL : result;
+        });
+        return parsed == NULL ? defVal : (T) parsed;
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    load(currentVersion());
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private void checkVersion() {
+        try {
+            Long latest = currentVersion();
+            if (snapshot != null && !Objects.equals(latest, version)) {
+                log.info("参数数据版本变化 {} -> {}，重新加载", version, latest);
+                load(latest);
+            }
+        } catch (Exception e) {
+            log.warn("检查参数数据版本失败", e);
+        }
+    }
+
+    private Long currentVersion() {
+        CacheResult<Long> result = cacheOps.get(DefParameterVersionCacheKeyBuilder.builder());
+        Long version = result == null ? null : result.asLong();
+        if (version == null) {
+            // 版本号过期或缓存被清空后，写入随机版本号，避免不同时间加载的数据使用相同的版本号
+            version = RandomUtil.randomLong(1L, Long.MAX_VALUE);
+            cacheOps.set(DefParameterVersionCacheKeyBuilder.builder(), version);
+        }
+        return version;
+    }
+
+    private synchronized void load(Long newVersion) {
+        List<DefParameter> list = defParameterMapper.selectList(Wraps.<DefParameter>lbQ()
+                .select(DefParameter::getKey, DefParameter::getValue).eq(DefParameter::getState, true));
+        Map<String, String> map = new HashMap<>(list.size() * 2);
+        for (DefParameter parameter : list) {
+            if (parameter.getKey() != null && parameter.getValue() != null) {
+                map.put(parameter.getKey(), parameter.getValue());
+            }
+        }
+        snapshot = new Snapshot(Collections.unmodifiableMap(map), new ConcurrentHashMap<>());
+        version = newVersion;
+        log.info("加载参数 {} 个", map.size());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Snapshot {
+        private final Map<String, String> paramMap;
+        /**
+         * 类型:参数key -> 解析后的值
+         */
+        private final Map<String, Object> parsedMap;
+    }
+}
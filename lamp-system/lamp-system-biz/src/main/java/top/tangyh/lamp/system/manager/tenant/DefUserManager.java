@@ -1,13 +1,18 @@
 package top.tangyh.lamp.system.manager.tenant;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import top.tangyh.basic.base.manager.SuperCacheManager;
 import top.tangyh.basic.interfaces.echo.LoadService;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
 import top.tangyh.lamp.system.entity.tenant.DefUser;
 import top.tangyh.lamp.system.vo.query.tenant.DefUserPageQuery;
 import top.tangyh.lamp.system.vo.result.tenant.DefUserResultVO;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 /**
  * <p>
@@ -47,6 +52,8 @@ public interface DefUserManager extends SuperCacheManager<DefUser>, LoadService
 
     /**
      * 查找同一企业下的用户
+     * <p>
+     * 邮箱、手机、身份证 按前缀匹配；用户名、姓名 先通过分词表缩小范围再模糊匹配。
      *
      * @param pageQuery 参数
      * @param page      分页参数
@@ -54,6 +61,17 @@ public interface DefUserManager extends SuperCacheManager<DefUser>, LoadService
      */
     IPage<DefUserResultVO> pageUser(DefUserPageQuery pageQuery, IPage<DefUser> page);
 
+    /**
+     * 游标分页查找同一企业下的用户
+     * <p>
+     * 查询条件与 pageUser 一致，按 (创建时间, id) 倒序翻页；只在查询第一页时统计总数
+     *
+     * @param pageQuery 参数
+     * @param params    分页参数
+     * @return 分页结果
+     */
+    SeekPageResult<DefUserResultVO> seekPageUser(DefUserPageQuery pageQuery, SeekPageParams<?> params);
+
 
     /**
      * 检测用户名是否可用
@@ -133,4 +151,39 @@ public interface DefUserManager extends SuperCacheManager<DefUser>, LoadService
      * @param list id或用户对象
      */
     void delUserCache(Collection<?> list);
+
+    /**
+     * 根据登录标识(用户名、手机号、邮箱、身份证)查询用户
+     * <p>
+     * 根据标识的格式只查询一种类型，不存在的标识会被短暂缓存，避免重复查询数据库
+     *
+     * @param identifier 登录标识
+     * @return 用户， 不存在返回null
+     */
+    DefUser getUserByLoginIdentifier(String identifier);
+
+    /**
+     * 将用户最新的登录标识、搜索分词写入索引
+     *
+     * @param id 用户id
+     */
+    void refreshUserIndex(Long id);
+
+    /**
+     * 查询某个字段已存在的值
+     * 批量导入时每批只需对每个唯一字段执行一次 in 查询
+     *
+     * @param column 字段
+     * @param values 待检查的值
+     * @return 数据库中已存在的值， 已去除首尾空格并转为小写
+     */
+    Set<String> findExistValues(SFunction<DefUser, String> column, Collection<String> values);
+
+    /**
+     * 批量保存新用户，并写入搜索分词
+     * 登录索引需要在事务提交后由调用方写入
+     *
+     * @param list 新用户
+     */
+    void saveBatchNew(List<DefUser> list);
 }
@@ -0,0 +1,332 @@
+package top.tangyh.lamp.system.manager.tenant.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import top.tangyh.basic.cache.redis2.CacheResult;
+import top.tangyh.basic.cache.repository.CachePlusOps;
+import top.tangyh.basic.database.mybatis.conditions.Wraps;
+import top.tangyh.basic.utils.ValidatorUtil;
+import top.tangyh.lamp.common.cache.tenant.base.DefUserLoginIndexCacheKeyBuilder;
+import top.tangyh.lamp.common.cache.tenant.base.DefUserLoginIndexVersionCacheKeyBuilder;
+import top.tangyh.lamp.common.properties.SystemProperties;
+import top.tangyh.lamp.system.entity.tenant.DefUser;
+import top.tangyh.lamp.system.mapper.tenant.DefUserMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户登录标识索引
+ * <p>
+ * 登录标识(用户名、手机号、邮箱、身份证) -> 用户id
+ * 查询顺序：
+ * 1. 本地缓存 (包含不存在的标识)
+ * 2. redis hash (所有服务共享， 用户新增/修改时同步写入)
+ * 3. 布隆过滤器 (判定一定不存在时直接返回， 防止撞库请求打到数据库)
+ * 4. 数据库
+ * <p>
+ * 布隆过滤器只在本服务内更新，其他服务新增、修改的标识要等下次重建才能加入。
+ * 写入标识时同时更新缓存中的版本号，版本号与加载布隆过滤器时不一致时，不信任布隆过滤器的判定，继续查询数据库。
+ *
+ * @author zuihou
+ * @date 2024/9/4 14:30
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DefUserLoginIndex {
+    private static final int BLOOM_LOAD_BATCH = 5000;
+
+    private final DefUserMapper defUserMapper;
+    private final CachePlusOps cachePlusOps;
+    private final SystemProperties systemProperties;
+
+    /**
+     * 重建布隆过滤器期间新增的标识，重建完成后补录
+     */
+    private final Queue<String> pendingKeys = new ConcurrentLinkedQueue<>();
+    private Cache<String, Long> localCache;
+    private Cache<String, Boolean> nullCache;
+    private volatile BloomFilter<CharSequence> bloomFilter;
+    /**
+     * 加载布隆过滤器时的版本号
+     */
+    private volatile Long bloomVersion;
+    private volatile boolean rebuilding = false;
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        SystemProperties.LoginIndex config = systemProperties.getLoginIndex();
+        localCache = CacheBuilder.newBuilder()
+                .maximumSize(config.getLocalMaxSize())
+                .expireAfterWrite(config.getLocalExpireMinutes(), TimeUnit.MINUTES)
+                .build();
+        nullCache = CacheBuilder.newBuilder()
+                .maximumSize(config.getLocalMaxSize())
+                .expireAfterWrite(config.getNullValSeconds(), TimeUnit.SECONDS)
+                .build();
+        // 布隆过滤器在后台加载，加载完成前不做拦截
+        executor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("login-index-bloom-", true));
+        executor.scheduleWithFixedDelay(this::rebuildBloomFilter, 0, config.getBloomRebuildMinutes(), TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 根据登录标识查询用户id
+     *
+     * @param type       标识类型
+     * @param identifier 标识
+     * @return 用户id， 不存在返回null
+     */
+    public Long findUserId(IdentifierType type, String identifier) {
+        if (StrUtil.isBlank(identifier)) {
+            return null;
+        }
+        String key = type.key(identifier);
+        Long userId = localCache.getIfPresent(key);
+        if (userId != null) {
+            return userId;
+        }
+        if (nullCache.getIfPresent(key) != null) {
+            return null;
+        }
+
+        CacheResult<Long> result = cachePlusOps.hGet(DefUserLoginIndexCacheKeyBuilder.builder(key));
+        userId = result != null ? Convert.toLong(result.getValue()) : null;
+        if (userId != null) {
+            localCache.put(key, userId);
+            return userId;
+        }
+
+        BloomFilter<CharSequence> filter = bloomFilter;
+        if (filter != null && !filter.mightContain(key) && Objects.equals(bloomVersion, currentVersion())) {
+            nullCache.put(key, Boolean.TRUE);
+            return null;
+        }
+
+        List<Object> idList = defUserMapper.selectObjs(Wraps.<DefUser>lbQ().select(DefUser::getId).eq(type.getColumn(), identifier.trim()));
+        userId = CollUtil.isEmpty(idList) ? null : Convert.toLong(idList.get(0));
+        if (userId == null) {
+            nullCache.put(key, Boolean.TRUE);
+            return null;
+        }
+        put(key, userId);
+        return userId;
+    }
+
+    /**
+     * 淘汰某个登录标识
+     *
+     * @param type       标识类型
+     * @param identifier 标识
+     */
+    public void evict(IdentifierType type, String identifier) {
+        if (StrUtil.isBlank(identifier)) {
+            return;
+        }
+        String key = type.key(identifier);
+        localCache.invalidate(key);
+        cachePlusOps.hDel(DefUserLoginIndexCacheKeyBuilder.builder(key));
+    }
+
+    /**
+     * 将用户的所有登录标识写入索引
+     *
+     * @param user 用户
+     */
+    public void register(DefUser user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        for (IdentifierType type : IdentifierType.values()) {
+            String value = type.getColumn().apply(user);
+            if (StrUtil.isNotBlank(value)) {
+                put(type.key(value), user.getId());
+            }
+        }
+    }
+
+    /**
+     * 将用户的所有登录标识从索引中移除
+     *
+     * @param user 用户
+     */
+    public void remove(DefUser user) {
+        if (user == null) {
+            return;
+        }
+        for (IdentifierType type : IdentifierType.values()) {
+            evict(type, type.getColumn().apply(user));
+        }
+    }
+
+    private void put(String key, Long userId) {
+        cachePlusOps.hSet(DefUserLoginIndexCacheKeyBuilder.builder(key), userId);
+        localCache.put(key, userId);
+        nullCache.invalidate(key);
+        BloomFilter<CharSequence> filter = bloomFilter;
+        if (filter == null || !filter.mightContain(key)) {
+            // 新的标识，其他服务的布隆过滤器中也可能没有
+            cachePlusOps.set(DefUserLoginIndexVersionCacheKeyBuilder.builder(), RandomUtil.randomLong(1L, Long.MAX_VALUE));
+        }
+        if (filter != null) {
+            filter.put(key);
+        }
+        if (rebuilding) {
+            pendingKeys.add(key);
+        }
+    }
+
+    private void rebuildBloomFilter() {
+        SystemProperties.LoginIndex config = systemProperties.getLoginIndex();
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        pendingKeys.clear();
+        try {
+            // 先读取版本号再加载，加载期间其他服务写入的标识会使版本号变化
+            Long version = currentVersion();
+            BloomFilter<CharSequence> filter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+                    config.getBloomExpectedSize(), config.getBloomFpp());
+            long count = 0;
+            Long lastId = null;
+            while (true) {
+                Page<DefUser> page = defUserMapper.selectPage(new Page<>(1, BLOOM_LOAD_BATCH, false),
+                        Wraps.<DefUser>lbQ().select(DefUser::getId, DefUser::getUsername, DefUser::getMobile, DefUser::getEmail, DefUser::getIdCard)
+                                .gt(lastId != null, DefUser::getId, lastId)
+                                .orderByAsc(DefUser::getId));
+                List<DefUser> list = page.getRecords();
+                for (DefUser user : list) {
+                    for (IdentifierType type : IdentifierType.values()) {
+                        String value = type.getColumn().apply(user);
+                        if (StrUtil.isNotBlank(value)) {
+                            filter.put(type.key(value));
+                            count++;
+                        }
+                    }
+                }
+                if (list.size() < BLOOM_LOAD_BATCH) {
+                    break;
+                }
+                lastId = list.get(list.size() - 1).getId();
+            }
+            bloomFilter = filter;
+            bloomVersion = version;
+            log.info("用户登录标识布隆过滤器加载完成，共 {} 个标识，耗时 {} ms", count, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("用户登录标识布隆过滤器加载失败，暂不拦截未知标识", e);
+            bloomFilter = null;
+        } finally {
+            rebuilding = false;
+            BloomFilter<CharSequence> filter = bloomFilter;
+            String key;
+            while ((key = pendingKeys.poll()) != null) {
+                if (filter != null) {
+                    filter.put(key);
+                }
+            }
+        }
+    }
+
+    private Long currentVersion() {
+        CacheResult<Long> result = cachePlusOps.get(DefUserLoginIndexVersionCacheKeyBuilder.builder());
+        Long version = result == null ? null : result.asLong();
+        if (version == null) {
+            // 版本号过期或缓存被清空后，写入随机版本号，之前加载的布隆过滤器都不再可信
+            version = RandomUtil.randomLong(1L, Long.MAX_VALUE);
+            cachePlusOps.set(DefUserLoginIndexVersionCacheKeyBuilder.builder(), version);
+        }
+        return version;
+    }
+
+    /**
+     * 登录标识类型
+     */
+    @Getter
+    @AllArgsConstructor
+    public enum IdentifierType {
+        /**
+         * 邮箱
+         */
+        EMAIL("email", DefUser::getEmail),
+        /**
+         * 身份证
+         */
+        ID_CARD("idCard", DefUser::getIdCard),
+        /**
+         * 手机号
+         */
+        MOBILE("mobile", DefUser::getMobile),
+        /**
+         * 用户名
+         */
+        USERNAME("username", DefUser::getUsername),
+        ;
+
+        private final String prefix;
+        private final SFunction<DefUser, String> column;
+
+        /**
+         * 根据登录标识的格式判断类型
+         *
+         * @param identifier 登录标识
+         * @return 类型
+         */
+        public static IdentifierType of(String identifier) {
+            if (ValidatorUtil.isEmail(identifier)) {
+                return EMAIL;
+            }
+            if (ValidatorUtil.isIdCard(identifier)) {
+                return ID_CARD;
+            }
+            if (ValidatorUtil.isMobile(identifier)) {
+                return MOBILE;
+            }
+            return USERNAME;
+        }
+
+        /**
+         * 用户的该类型标识 是否与登录标识一致
+         *
+         * @param user       用户
+         * @param identifier 登录标识
+         * @return 是否一致
+         */
+        public boolean matches(DefUser user, String identifier) {
+            return StrUtil.equalsIgnoreCase(StrUtil.trim(column.apply(user)), StrUtil.trim(identifier));
+        }
+
+        /**
+         * 归一化后的索引key， 如: mobile:13800000000
+         */
+        public String key(String identifier) {
+            return prefix + ":" + StrUtil.trim(identifier).toLowerCase();
+        }
+    }
+}
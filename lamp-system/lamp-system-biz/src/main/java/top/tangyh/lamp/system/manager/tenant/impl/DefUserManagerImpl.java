@@ -2,10 +2,12 @@ package top.tangyh.lamp.system.manager.tenant.impl;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.StrUtil;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +23,9 @@ import top.tangyh.lamp.common.cache.tenant.base.DefUserEmailCacheKeyBuilder;
 import top.tangyh.lamp.common.cache.tenant.base.DefUserIdCardCacheKeyBuilder;
 import top.tangyh.lamp.common.cache.tenant.base.DefUserMobileCacheKeyBuilder;
 import top.tangyh.lamp.common.cache.tenant.base.DefUserUserNameCacheKeyBuilder;
+import top.tangyh.lamp.common.page.SeekCursor;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
 
 import top.tangyh.lamp.system.entity.tenant.DefUser;
 import top.tangyh.lamp.system.manager.tenant.DefUserManager;
@@ -33,6 +38,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -49,6 +55,9 @@ import java.util.Set;
 @RequiredArgsConstructor
 @Service
 public class DefUserManagerImpl extends SuperCacheManagerImpl<DefUserMapper, DefUser> implements DefUserManager {
+    private final DefUserLoginIndex defUserLoginIndex;
+    private final DefUserSearchIndex defUserSearchIndex;
+
     @Override
     protected CacheKeyBuilder cacheKeyBuilder() {
         return new DefUserCacheKeyBuilder();
@@ -65,7 +74,23 @@ public class DefUserManagerImpl extends SuperCacheManagerImpl<DefUserMapper, Def
 
     @Override
     public IPage<DefUserResultVO> pageUser(DefUserPageQuery pageQuery, IPage<DefUser> page) {
-        return baseMapper.pageUser(pageQuery, page);
+        List<String> usernameTokens = defUserSearchIndex.queryTokens(DefUserSearchIndex.SearchField.USERNAME, pageQuery.getUsername());
+        List<String> nickNameTokens = defUserSearchIndex.queryTokens(DefUserSearchIndex.SearchField.NICK_NAME, pageQuery.getNickName());
+        return baseMapper.pageUser(pageQuery, usernameTokens, nickNameTokens, null, page);
+    }
+
+    @Override
+    public SeekPageResult<DefUserResultVO> seekPageUser(DefUserPageQuery pageQuery, SeekPageParams<?> params) {
+        List<String> usernameTokens = defUserSearchIndex.queryTokens(DefUserSearchIndex.SearchField.USERNAME, pageQuery.getUsername());
+        List<String> nickNameTokens = defUserSearchIndex.queryTokens(DefUserSearchIndex.SearchField.NICK_NAME, pageQuery.getNickName());
+        int limit = params.limit();
+        SeekCursor cursor = SeekCursor.decode(params.getCursor());
+        // 总数的查询条件中会带上游标，所以只在第一页统计
+        boolean searchCount = cursor == null && Boolean.TRUE.equals(params.getSearchCount());
+        // 多查一条，用于判断是否还有下一页
+        IPage<DefUserResultVO> page = baseMapper.pageUser(pageQuery, usernameTokens, nickNameTokens, cursor, new Page<>(1, limit + 1L, searchCount));
+        return SeekPageResult.of(page.getRecords(), limit, DefUserResultVO::getCreatedTime, DefUserResultVO::getId)
+                .setTotal(searchCount ? page.getTotal() : null);
     }
 
     @Override
@@ -125,6 +150,61 @@ public class DefUserManagerImpl extends SuperCacheManagerImpl<DefUserMapper, Def
     }
 
 
+    @Override
+    public DefUser getUserByLoginIdentifier(String identifier) {
+        if (StrUtil.isBlank(identifier)) {
+            return null;
+        }
+        DefUserLoginIndex.IdentifierType type = DefUserLoginIndex.IdentifierType.of(identifier);
+        DefUser user = getByIdCache(defUserLoginIndex.findUserId(type, identifier));
+        if (user != null && !type.matches(user, identifier)) {
+            // 索引已过期(如用户修改了手机号)，淘汰后重新查询一次
+            defUserLoginIndex.evict(type, identifier);
+            user = getByIdCache(defUserLoginIndex.findUserId(type, identifier));
+            if (user != null && !type.matches(user, identifier)) {
+                return null;
+            }
+        }
+        return user;
+    }
+
+    @Override
+    public void refreshUserIndex(Long id) {
+        if (id == null) {
+            return;
+        }
+        DefUser user = getById(id);
+        defUserLoginIndex.register(user);
+        defUserSearchIndex.register(user);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Set<String> findExistValues(SFunction<DefUser, String> column, Collection<String> values) {
+        if (CollUtil.isEmpty(values)) {
+            return Collections.emptySet();
+        }
+        List<DefUser> list = list(Wraps.<DefUser>lbQ().select(column).in(column, values));
+        Set<String> set = new HashSet<>(list.size() * 2);
+        for (DefUser user : list) {
+            String value = column.apply(user);
+            if (value != null) {
+                set.add(value.trim().toLowerCase());
+            }
+        }
+        return set;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void saveBatchNew(List<DefUser> list) {
+        if (CollUtil.isEmpty(list)) {
+            return;
+        }
+        saveBatch(list);
+        defUserSearchIndex.registerNew(list);
+    }
+
     private DefUser getDefUser(CacheKey key, String value, SFunction<DefUser, ?> fun) {
         CacheResult<Long> result = cacheOps.get(key, k -> {
             DefUser defUser = getOne(Wrappers.<DefUser>lambdaQuery().eq(fun, value), false);
@@ -136,6 +216,7 @@ public class DefUserManagerImpl extends SuperCacheManagerImpl<DefUserMapper, Def
     @Override
     public boolean removeById(DefUser entity) {
         delUserCache(Collections.singletonList(entity.getId()));
+        defUserSearchIndex.remove(Collections.singletonList(entity.getId()));
         return super.removeById(entity);
     }
 
@@ -143,18 +224,21 @@ public class DefUserManagerImpl extends SuperCacheManagerImpl<DefUserMapper, Def
     @Override
     public boolean removeByIds(Collection<?> list, boolean useFill) {
         delUserCache(list);
+        defUserSearchIndex.remove(toIdList(list));
         return super.removeByIds(list, useFill);
     }
 
     @Override
     public boolean removeBatchByIds(Collection<?> list) {
         delUserCache(list);
+        defUserSearchIndex.remove(toIdList(list));
         return super.removeBatchByIds(list);
     }
 
     @Override
     public boolean removeBatchByIds(Collection<?> list, boolean useFill) {
         delUserCache(list);
+        defUserSearchIndex.remove(toIdList(list));
         return super.removeBatchByIds(list, useFill);
     }
 
@@ -164,15 +248,7 @@ public class DefUserManagerImpl extends SuperCacheManagerImpl<DefUserMapper, Def
         if (CollUtil.isEmpty(list)) {
             return;
         }
-        List<Long> idList = new ArrayList<>();
-        for (Object o : list) {
-            if (o instanceof DefUser user) {
-                idList.add(user.getId());
-            } else {
-                idList.add(Convert.toLong(o));
-            }
-        }
-        List<DefUser> defUsers = listByIds(idList);
+        List<DefUser> defUsers = listByIds(toIdList(list));
         ArgumentAssert.notEmpty(defUsers, "待删除数据不存在");
         List<CacheKey> keyList = new ArrayList<>();
         for (DefUser defUser : defUsers) {
@@ -184,8 +260,24 @@ public class DefUserManagerImpl extends SuperCacheManagerImpl<DefUserMapper, Def
             keyList.add(mobileKey);
             keyList.add(emailKey);
             keyList.add(usernameKey);
+            defUserLoginIndex.remove(defUser);
         }
 
         cacheOps.del(keyList);
     }
+
+    private static List<Long> toIdList(Collection<?> list) {
+        List<Long> idList = new ArrayList<>();
+        if (list == null) {
+            return idList;
+        }
+        for (Object o : list) {
+            if (o instanceof DefUser user) {
+                idList.add(user.getId());
+            } else {
+                idList.add(Convert.toLong(o));
+            }
+        }
+        return idList;
+    }
 }
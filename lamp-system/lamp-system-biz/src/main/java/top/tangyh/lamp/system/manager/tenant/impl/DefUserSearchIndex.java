@@ -0,0 +1,328 @@
+package top.tangyh.lamp.system.manager.tenant.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.net.NetUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import top.tangyh.basic.database.mybatis.conditions.Wraps;
+import top.tangyh.lamp.common.properties.SystemProperties;
+import top.tangyh.lamp.system.entity.tenant.DefUser;
+import top.tangyh.lamp.system.mapper.tenant.DefUserMapper;
+import top.tangyh.lamp.system.mapper.tenant.DefUserSearchTokenMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户搜索索引
+ * <p>
+ * like '%x%' 无法使用索引，用户量大时后台按用户名、姓名搜索会全表扫描。
+ * 将用户名、姓名拆分为单字和相邻两字(n-gram)写入 def_user_search_token，查询时：
+ * 1. 关键字只有1个字时，按单字查找
+ * 2. 关键字有多个字时，要求用户包含关键字的全部两字分词
+ * 分词表只负责缩小候选范围，最终仍由 like '%x%' 在候选用户上精确过滤。
+ * <p>
+ * 分词与用户在同一事务中写入。刚升级时，后台从用户表回填：
+ * 1. 回填完成后在 def_user_search_token_state 中记录分词版本，只有记录的版本与 INDEX_VERSION 一致时才使用分词表
+ * 2. 回填期间持有 def_user_search_token_state 中的锁并按批续期，多个实例同时启动时只有一个实例回填
+ * 3. 回填中断(如停机)后锁会过期，由下一个检查到的实例重新回填；回填完成前退化为 like 查询
+ * 修改分词规则后需要递增 INDEX_VERSION，升级后会重新回填。
+ *
+ * @author zuihou
+ * @date 2024/9/9 10:30
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DefUserSearchIndex {
+    /**
+     * 分词版本，修改分词规则后递增
+     */
+    public static final int INDEX_VERSION = 1;
+    /**
+     * 回填锁的有效期，回填每批用户后续期
+     */
+    private static final long LOCK_SECONDS = 300;
+    /**
+     * 回填未完成时，每隔多久检查一次
+     */
+    private static final long CHECK_INTERVAL_SECONDS = 30;
+    /**
+     * 查询时最多使用的分词数
+     */
+    private static final int MAX_QUERY_TOKENS = 8;
+    /**
+     * 批量写入时每条 insert 语句包含的用户数
+     */
+    private static final int INSERT_BATCH_USERS = 100;
+
+    private final DefUserMapper defUserMapper;
+    private final DefUserSearchTokenMapper defUserSearchTokenMapper;
+    private final SystemProperties systemProperties;
+
+    private final String owner = StrUtil.subPre(NetUtil.getLocalHostName(), 31) + ":" + IdUtil.fastSimpleUUID();
+    private volatile boolean ready = false;
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("user-search-index-", true));
+        executor.scheduleWithFixedDelay(this::loadOrRebuild, 0, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 分词表是否可用
+     *
+     * @return 是否可用
+     */
+    public boolean isReady() {
+        return ready && Boolean.TRUE.equals(systemProperties.getUserSearch().getEnabled());
+    }
+
+    /**
+     * 查询关键字对应的分词
+     *
+     * @param field   字段
+     * @param keyword 关键字
+     * @return 分词， 分词表不可用或关键字为空时返回空集合
+     */
+    public List<String> queryTokens(SearchField field, String keyword) {
+        if (!isReady() || StrUtil.isBlank(keyword)) {
+            return Collections.emptyList();
+        }
+        int[] chars = normalize(keyword);
+        Set<String> tokens = new LinkedHashSet<>();
+        if (chars.length == 1) {
+            tokens.add(field.token(chars, 0, 1));
+        }
+        for (int i = 0; i + 1 < chars.length && tokens.size() < MAX_QUERY_TOKENS; i++) {
+            tokens.add(field.token(chars, i, 2));
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * 重建用户的分词
+     *
+     * @param user 用户
+     */
+    public void register(DefUser user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        defUserSearchTokenMapper.deleteByUserIds(Collections.singletonList(user.getId()));
+        Set<String> tokens = tokenize(user);
+        if (!tokens.isEmpty()) {
+            defUserSearchTokenMapper.insertTokens(user.getId(), tokens);
+        }
+    }
+
+    /**
+     * 写入新增用户的分词
+     * 新增的用户没有旧分词，不需要先删除；多个用户的分词合并为一条 insert 语句
+     *
+     * @param users 新增的用户
+     */
+    public void registerNew(List<DefUser> users) {
+        if (CollUtil.isEmpty(users)) {
+            return;
+        }
+        Map<Long, Set<String>> userTokens = new LinkedHashMap<>();
+        for (DefUser user : users) {
+            Set<String> tokens = tokenize(user);
+            if (user.getId() != null && !tokens.isEmpty()) {
+                userTokens.put(user.getId(), tokens);
+            }
+            if (userTokens.size() >= INSERT_BATCH_USERS) {
+                defUserSearchTokenMapper.insertUserTokens(userTokens);
+                userTokens = new LinkedHashMap<>();
+            }
+        }
+        if (!userTokens.isEmpty()) {
+            defUserSearchTokenMapper.insertUserTokens(userTokens);
+        }
+    }
+
+    /**
+     * 删除用户的分词
+     *
+     * @param userIds 用户id
+     */
+    public void remove(Collection<Long> userIds) {
+        if (CollUtil.isEmpty(userIds)) {
+            return;
+        }
+        defUserSearchTokenMapper.deleteByUserIds(userIds);
+    }
+
+    /**
+     * 检查分词表是否已回填完成，未完成时尝试获取锁并回填
+     * 启动后定时执行，直到分词表可用
+     */
+    public void loadOrRebuild() {
+        if (ready) {
+            return;
+        }
+        SystemProperties.UserSearch config = systemProperties.getUserSearch();
+        try {
+            Integer version = defUserSearchTokenMapper.selectVersion();
+            if (version != null && version == INDEX_VERSION) {
+                ready = true;
+                log.info("用户搜索分词表已回填完成，分词版本: {}", version);
+                return;
+            }
+            if (!Boolean.TRUE.equals(config.getRebuildOnStartup())) {
+                log.debug("用户搜索分词表尚未回填，且未开启自动回填，用户名、姓名搜索将使用 like 查询");
+                return;
+            }
+            if (!tryLock()) {
+                log.debug("其他实例正在回填用户搜索分词表");
+                return;
+            }
+            boolean completed = false;
+            try {
+                completed = rebuild(config.getRebuildBatchSize()) &&
+                        defUserSearchTokenMapper.complete(owner, INDEX_VERSION, LocalDateTime.now()) > 0;
+                ready = completed;
+            } finally {
+                if (!completed) {
+                    defUserSearchTokenMapper.unlock(owner);
+                }
+            }
+        } catch (Exception e) {
+            log.error("用户搜索分词表回填失败，用户名、姓名搜索将使用 like 查询", e);
+        }
+    }
+
+    private boolean tryLock() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expireTime = now.plusSeconds(LOCK_SECONDS);
+        if (defUserSearchTokenMapper.tryLock(owner, now, expireTime) > 0) {
+            return true;
+        }
+        Integer exists = defUserSearchTokenMapper.selectStateExists();
+        if (exists != null && exists > 0) {
+            return false;
+        }
+        // 升级时没有初始化状态记录
+        try {
+            return defUserSearchTokenMapper.insertState(owner, expireTime) > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 按id游标分批回填
+     *
+     * @param batchSize 每批用户数
+     * @return 是否回填完成， 被中断或锁被其他实例获取时返回false
+     */
+    private boolean rebuild(int batchSize) {
+        long start = System.currentTimeMillis();
+        long count = 0;
+        Long lastId = null;
+        while (!Thread.currentThread().isInterrupted()) {
+            Page<DefUser> page = defUserMapper.selectPage(new Page<>(1, batchSize, false),
+                    Wraps.<DefUser>lbQ().select(DefUser::getId, DefUser::getUsername, DefUser::getNickName)
+                            .gt(lastId != null, DefUser::getId, lastId)
+                            .orderByAsc(DefUser::getId));
+            List<DefUser> list = page.getRecords();
+            for (DefUser user : list) {
+                try {
+                    register(user);
+                } catch (Exception e) {
+                    // 回填期间用户被并发修改时，分词已由修改事务写入
+                    log.warn("回填用户[{}]的搜索分词失败", user.getId(), e);
+                }
+            }
+            count += list.size();
+            if (list.size() < batchSize) {
+                log.info("用户搜索分词表回填完成，共 {} 个用户，耗时 {} ms", count, System.currentTimeMillis() - start);
+                return true;
+            }
+            lastId = list.get(list.size() - 1).getId();
+            if (!tryLock()) {
+                log.warn("用户搜索分词表回填锁已被其他实例获取，停止回填，已回填 {} 个用户", count);
+                return false;
+            }
+        }
+        log.warn("用户搜索分词表回填被中断，已回填 {} 个用户", count);
+        return false;
+    }
+
+    private static Set<String> tokenize(DefUser user) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (SearchField field : SearchField.values()) {
+            String value = field.getColumn().apply(user);
+            if (StrUtil.isBlank(value)) {
+                continue;
+            }
+            int[] chars = normalize(value);
+            for (int i = 0; i < chars.length; i++) {
+                tokens.add(field.token(chars, i, 1));
+                if (i + 1 < chars.length) {
+                    tokens.add(field.token(chars, i, 2));
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static int[] normalize(String text) {
+        return StrUtil.trim(text).toLowerCase().codePoints().toArray();
+    }
+
+    /**
+     * 参与分词的字段
+     */
+    @Getter
+    @AllArgsConstructor
+    public enum SearchField {
+        /**
+         * 用户名
+         */
+        USERNAME("u:", DefUser::getUsername),
+        /**
+         * 姓名
+         */
+        NICK_NAME("n:", DefUser::getNickName),
+        ;
+
+        private final String prefix;
+        private final SFunction<DefUser, String> column;
+
+        /**
+         * 分词， 如: n:张三
+         */
+        private String token(int[] chars, int offset, int length) {
+            return prefix + new String(chars, offset, length);
+        }
+    }
+}
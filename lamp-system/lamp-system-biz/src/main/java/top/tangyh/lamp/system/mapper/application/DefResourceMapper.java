@@ -6,6 +6,7 @@ import org.springframework.stereotype.Repository;
 import top.tangyh.basic.base.mapper.SuperMapper;
 import top.tangyh.lamp.system.entity.application.DefResource;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -31,4 +32,19 @@ public interface DefResourceMapper extends SuperMapper<DefResource> {
      */
     int deleteRoleResourceRelByResourceId(@Param("resourceIds") List<Long> resourceIds);
 
+    /**
+     * 将 tree_path 以 oldPrefix 开头的资源整体移动到 newPrefix 下
+     *
+     * @param oldPrefix   原路径前缀
+     * @param newPrefix   新路径前缀
+     * @param gradeDelta  层级变化量
+     * @param dialect     路径拼接方式 concat: concat(a, b)； plus: a + b； pipe: a || b
+     * @param updatedBy   修改人
+     * @param updatedTime 修改时间
+     * @return 被修改了几行数据
+     */
+    int moveChildren(@Param("oldPrefix") String oldPrefix, @Param("newPrefix") String newPrefix,
+                     @Param("gradeDelta") int gradeDelta, @Param("dialect") String dialect,
+                     @Param("updatedBy") Long updatedBy, @Param("updatedTime") LocalDateTime updatedTime);
+
 }
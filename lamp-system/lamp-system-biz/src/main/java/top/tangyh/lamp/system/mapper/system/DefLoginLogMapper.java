@@ -7,7 +7,6 @@ import top.tangyh.basic.base.mapper.SuperMapper;
 import top.tangyh.lamp.system.entity.system.DefLoginLog;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 /**
  * <p>
@@ -22,11 +21,21 @@ import java.util.List;
 @InterceptorIgnore(tenantLine = "true", dynamicTableName = "true")
 public interface DefLoginLogMapper extends SuperMapper<DefLoginLog> {
     /**
-     * 清理日志
+     * 查询指定时间之前的最大id
      *
      * @param clearBeforeTime 多久之前的
-     * @param idList          待删除
-     * @return 是否成功
+     * @return 最大id
      */
-    Long clearLog(@Param("clearBeforeTime") LocalDateTime clearBeforeTime, @Param("idList") List<Long> idList);
+    Long selectMaxIdBefore(@Param("clearBeforeTime") LocalDateTime clearBeforeTime);
+
+    /**
+     * 按主键区间清理日志
+     *
+     * @param startId         起始id (不包含)
+     * @param endId           结束id (包含)
+     * @param clearBeforeTime 多久之前的
+     * @return 删除行数
+     */
+    Long deleteByIdRange(@Param("startId") Long startId, @Param("endId") Long endId,
+                         @Param("clearBeforeTime") LocalDateTime clearBeforeTime);
 }
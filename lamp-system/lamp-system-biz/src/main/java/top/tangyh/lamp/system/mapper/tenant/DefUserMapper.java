@@ -5,11 +5,13 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 import top.tangyh.basic.base.mapper.SuperMapper;
+import top.tangyh.lamp.common.page.SeekCursor;
 import top.tangyh.lamp.system.entity.tenant.DefUser;
 import top.tangyh.lamp.system.vo.query.tenant.DefUserPageQuery;
 import top.tangyh.lamp.system.vo.result.tenant.DefUserResultVO;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * <p>
@@ -27,11 +29,18 @@ public interface DefUserMapper extends SuperMapper<DefUser> {
     /**
      * 查找同一企业下的用户
      *
-     * @param pageQuery 参数
-     * @param page      分页参数
+     * @param pageQuery      参数
+     * @param usernameTokens 用户名分词， 为空时直接 like 匹配
+     * @param nickNameTokens 姓名分词， 为空时直接 like 匹配
+     * @param cursor         游标翻页的翻页标识， 为null时从第一条开始
+     * @param page           分页参数
      * @return
      */
-    IPage<DefUserResultVO> pageUser(@Param("param") DefUserPageQuery pageQuery, IPage<DefUser> page);
+    IPage<DefUserResultVO> pageUser(@Param("param") DefUserPageQuery pageQuery,
+                                    @Param("usernameTokens") List<String> usernameTokens,
+                                    @Param("nickNameTokens") List<String> nickNameTokens,
+                                    @Param("cursor") SeekCursor cursor,
+                                    IPage<DefUser> page);
 
     /**
      * 递增 密码错误次数
@@ -0,0 +1,100 @@
+package top.tangyh.lamp.system.mapper.tenant;
+
+import com.baomidou.mybatisplus.annotation.InterceptorIgnore;
+import org.apache.ibatis.annotations.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * <p>
+ * Mapper 接口
+ * 用户搜索分词
+ * </p>
+ *
+ * @author zuihou
+ * @date 2024/9/9 10:20
+ */
+@Repository
+@InterceptorIgnore(tenantLine = "true", dynamicTableName = "true")
+public interface DefUserSearchTokenMapper {
+
+    /**
+     * 批量写入用户的分词
+     *
+     * @param userId 用户id
+     * @param tokens 分词
+     * @return 写入条数
+     */
+    int insertTokens(@Param("userId") Long userId, @Param("tokens") Collection<String> tokens);
+
+    /**
+     * 批量写入多个用户的分词
+     *
+     * @param userTokens 用户id -> 分词， 分词不能为空
+     * @return 写入条数
+     */
+    int insertUserTokens(@Param("userTokens") Map<Long, ? extends Collection<String>> userTokens);
+
+    /**
+     * 删除用户的全部分词
+     *
+     * @param userIds 用户id
+     * @return 删除条数
+     */
+    int deleteByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 查询已回填完成的分词版本
+     *
+     * @return 分词版本， 尚未回填完成时返回null
+     */
+    Integer selectVersion();
+
+    /**
+     * 回填状态记录是否存在
+     *
+     * @return 存在返回1， 否则返回0
+     */
+    Integer selectStateExists();
+
+    /**
+     * 新增回填状态记录，并由当前实例持有回填锁
+     *
+     * @param owner      当前实例
+     * @param expireTime 锁过期时间
+     * @return 写入条数
+     */
+    int insertState(@Param("owner") String owner, @Param("expireTime") LocalDateTime expireTime);
+
+    /**
+     * 获取或续期回填锁
+     * 锁未被持有、已过期或由当前实例持有时成功
+     *
+     * @param owner      当前实例
+     * @param now        当前时间
+     * @param expireTime 锁过期时间
+     * @return 成功返回1， 否则返回0
+     */
+    int tryLock(@Param("owner") String owner, @Param("now") LocalDateTime now, @Param("expireTime") LocalDateTime expireTime);
+
+    /**
+     * 记录回填完成的分词版本，并释放回填锁
+     *
+     * @param owner   当前实例
+     * @param version 分词版本
+     * @param now     当前时间
+     * @return 成功返回1， 锁已被其他实例持有时返回0
+     */
+    int complete(@Param("owner") String owner, @Param("version") Integer version, @Param("now") LocalDateTime now);
+
+    /**
+     * 释放回填锁
+     *
+     * @param owner 当前实例
+     * @return 释放条数
+     */
+    int unlock(@Param("owner") String owner);
+}
@@ -12,6 +12,7 @@ import java.io.Serializable;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * <p>
@@ -28,6 +29,21 @@ public interface DefResourceService extends SuperCacheService<Long, DefResource>
      * @return API与资源编码
      */
     List<ResourceApiVO> findAllApi();
+
+    /**
+     * 查询完整的接口权限表
+     *
+     * @return uri###method -> 资源编码
+     */
+    Map<String, Set<String>> findAllApiMap();
+
+    /**
+     * 查询服务启动时扫描到的接口
+     *
+     * @param springApplicationName 服务名
+     * @return 接口
+     */
+    List<DefResourceApi> findScanApi(String springApplicationName);
     /**
      * 查找租户拥有的资源
      *
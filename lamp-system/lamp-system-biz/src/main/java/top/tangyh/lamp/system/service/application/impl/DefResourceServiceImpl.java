@@ -6,6 +6,7 @@ import com.google.common.collect.Multimap;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import top.tangyh.basic.base.service.impl.SuperCacheServiceImpl;
 import top.tangyh.basic.database.mybatis.conditions.Wraps;
@@ -34,12 +35,13 @@ import top.tangyh.lamp.system.vo.save.application.DefResourceSaveVO;
 import top.tangyh.lamp.system.vo.update.application.DefResourceUpdateVO;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * <p>
@@ -61,6 +63,18 @@ public class DefResourceServiceImpl extends SuperCacheServiceImpl<DefResourceMan
     public List<ResourceApiVO> findAllApi() {
         return defResourceApiManager.findAllApi();
     }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Set<String>> findAllApiMap() {
+        return defResourceApiManager.findAllApiMap();
+    }
+
+    @Override
+    public List<DefResourceApi> findScanApi(String springApplicationName) {
+        return defResourceApiManager.findScanApi(springApplicationName);
+    }
+
     @Override
     public Map<Long, Collection<Long>> findResource() {
         List<DefResource> list = super.list(Wraps.<DefResource>lbQ().eq(DefResource::getState, true));
@@ -165,6 +179,7 @@ public class DefResourceServiceImpl extends SuperCacheServiceImpl<DefResourceMan
                         return api;
                     }).toList();
             defResourceApiManager.saveBatch(list);
+            defResourceApiManager.evictApiMap();
         }
     }
 
@@ -190,8 +205,6 @@ public class DefResourceServiceImpl extends SuperCacheServiceImpl<DefResourceMan
 
         DefResource current = superManager.getByIdCache(id);
         ArgumentAssert.notNull(current, "当前资源信息不存在");
-        List<DefResource> childrenList = superManager.findAllChildrenByParentId(id);
-
 
         // 是否跟节点移动到根节点 （跟节点可能为null)
         boolean isTopMoveTop = TreeUtil.isRoot(current.getParentId()) && TreeUtil.isRoot(parentId);
@@ -202,26 +215,32 @@ public class DefResourceServiceImpl extends SuperCacheServiceImpl<DefResourceMan
             return;
         }
 
+        // 子孙节点的路径都以此开头
+        String oldPrefix = TreeUtil.getTreePath(current.getTreePath(), current.getId());
         DefResource parent = null;
         if (parentId != null) {
             ArgumentAssert.isFalse(id.equals(parentId), "不能移动到自己的子节点");
-            boolean flag = childrenList.stream().anyMatch(item -> item.getId().equals(parentId));
-            ArgumentAssert.isFalse(flag, "不能移动到自己的子节点");
             parent = superManager.getByIdCache(parentId);
             ArgumentAssert.notNull(parent, "需要移动到的父资源不存在");
+            ArgumentAssert.isFalse(StrUtil.startWith(parent.getTreePath(), oldPrefix), "不能移动到自己的子节点");
         }
 
+        List<Long> childrenIdList = superManager.findIdByTreePathPrefix(oldPrefix);
+        int oldGrade = current.getTreeGrade() == null ? DefValConstants.TREE_GRADE : current.getTreeGrade();
         fill(current, parent);
-        if (CollUtil.isNotEmpty(childrenList)) {
-            List<DefResource> tree = TreeUtil.buildTree(childrenList);
-            recursiveFill(tree, current);
-
-            superManager.updateBatchById(childrenList);
+        if (CollUtil.isNotEmpty(childrenIdList)) {
+            String newPrefix = TreeUtil.getTreePath(current.getTreePath(), current.getId());
+            if (!superManager.moveChildren(oldPrefix, newPrefix, current.getTreeGrade() - oldGrade)) {
+                List<DefResource> childrenList = superManager.findAllChildrenByParentId(id);
+                List<DefResource> tree = TreeUtil.buildTree(childrenList);
+                recursiveFill(tree, current);
+                superManager.updateBatchById(childrenList);
+            }
         }
         superManager.updateById(current);
 
         // 只修改了 父ID、path等字段，清理资源缓存，无需清理 资源API的缓存
-        List<Long> allIdList = childrenList.stream().map(DefResource::getId).collect(Collectors.toList());
+        List<Long> allIdList = new ArrayList<>(childrenIdList);
         allIdList.add(current.getId());
         superManager.delCache(allIdList);
     }
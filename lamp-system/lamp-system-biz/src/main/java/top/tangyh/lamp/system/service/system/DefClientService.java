@@ -16,10 +16,11 @@ public interface DefClientService extends SuperCacheService<Long, DefClient> {
 
     /**
      * 根据 客户端id 和 客户端秘钥查询应用
+     * 从内存中的客户端注册表校验，不查询缓存和数据库
      *
-     * @param clientId
-     * @param clientSecret
-     * @return
+     * @param clientId     客户端id
+     * @param clientSecret 客户端秘钥
+     * @return 客户端(不含秘钥)， 不存在或秘钥错误时返回null
      */
     DefClient getClient(String clientId, String clientSecret);
 }
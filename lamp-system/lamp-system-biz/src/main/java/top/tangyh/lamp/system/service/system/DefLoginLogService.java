@@ -1,7 +1,12 @@
 package top.tangyh.lamp.system.service.system;
 
 import top.tangyh.basic.base.service.SuperService;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
+import top.tangyh.lamp.common.retention.LogRetentionProgress;
 import top.tangyh.lamp.system.entity.system.DefLoginLog;
+import top.tangyh.lamp.system.vo.query.system.DefLoginLogPageQuery;
+import top.tangyh.lamp.system.vo.result.system.DefLoginLogResultVO;
 
 import java.time.LocalDateTime;
 
@@ -23,4 +28,26 @@ public interface DefLoginLogService extends SuperService<Long, DefLoginLog> {
      * @return 是否成功
      */
     boolean clearLog(LocalDateTime clearBeforeTime, Integer clearBeforeNum);
+
+    /**
+     * 按配置的保留策略清理日志
+     *
+     * @return 删除行数
+     */
+    Long clearLogByPolicy();
+
+    /**
+     * 查询清理进度
+     *
+     * @return 清理进度
+     */
+    LogRetentionProgress getClearProgress();
+
+    /**
+     * 游标分页查询
+     *
+     * @param params 分页参数
+     * @return 分页结果
+     */
+    SeekPageResult<DefLoginLogResultVO> seekPage(SeekPageParams<DefLoginLogPageQuery> params);
 }
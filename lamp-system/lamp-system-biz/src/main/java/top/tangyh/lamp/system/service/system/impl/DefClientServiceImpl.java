@@ -10,9 +10,12 @@ import top.tangyh.basic.base.service.impl.SuperCacheServiceImpl;
 
 import top.tangyh.lamp.system.entity.system.DefClient;
 import top.tangyh.lamp.system.manager.system.DefClientManager;
+import top.tangyh.lamp.system.manager.system.impl.DefClientRegistry;
 import top.tangyh.lamp.system.service.system.DefClientService;
 import top.tangyh.lamp.system.vo.save.system.DefClientSaveVO;
 
+import java.util.Collection;
+
 /**
  * <p>
  * 业务实现类
@@ -29,6 +32,7 @@ import top.tangyh.lamp.system.vo.save.system.DefClientSaveVO;
 
 public class DefClientServiceImpl extends SuperCacheServiceImpl<DefClientManager, Long, DefClient>
         implements DefClientService {
+    private final DefClientRegistry defClientRegistry;
 
     @Override
     protected <SaveVO> DefClient saveBefore(SaveVO saveVO) {
@@ -39,8 +43,26 @@ public class DefClientServiceImpl extends SuperCacheServiceImpl<DefClientManager
         return defClient;
     }
 
+    @Override
+    protected <SaveVO> void saveAfter(SaveVO saveVO, DefClient entity) {
+        defClientRegistry.refresh();
+    }
+
+    @Override
+    protected <UpdateVO> void updateAfter(UpdateVO updateVO, DefClient entity) {
+        defClientRegistry.refresh();
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean removeByIds(Collection<Long> idList) {
+        boolean flag = super.removeByIds(idList);
+        defClientRegistry.refresh();
+        return flag;
+    }
+
     @Override
     public DefClient getClient(String clientId, String clientSecret) {
-        return superManager.getClient(clientId, clientSecret);
+        return defClientRegistry.verify(clientId, clientSecret);
     }
 }
@@ -16,6 +16,7 @@ import top.tangyh.lamp.common.cache.tenant.base.DictCacheKeyBuilder;
 import top.tangyh.lamp.model.enumeration.system.DictClassifyEnum;
 import top.tangyh.lamp.system.entity.system.DefDict;
 import top.tangyh.lamp.system.manager.system.DefDictManager;
+import top.tangyh.lamp.system.manager.system.impl.DefDictRegistry;
 import top.tangyh.lamp.system.service.system.DefDictItemService;
 import top.tangyh.lamp.system.vo.save.system.DefDictItemSaveVO;
 import top.tangyh.lamp.system.vo.update.system.DefDictItemUpdateVO;
@@ -39,6 +40,7 @@ import java.util.Collection;
 public class DefDictItemServiceImpl extends SuperServiceImpl<DefDictManager, Long, DefDict> implements DefDictItemService {
 
     private final CachePlusOps cachePlusOps;
+    private final DefDictRegistry defDictRegistry;
 
 
     @Override
@@ -62,6 +64,7 @@ public class DefDictItemServiceImpl extends SuperServiceImpl<DefDictManager, Lon
         superManager.save(model);
         CacheHashKey hashKey = DictCacheKeyBuilder.builder(model.getParentKey(), model.getKey());
         cachePlusOps.hSet(hashKey, model.getName());
+        defDictRegistry.refresh();
         return model;
     }
 
@@ -84,12 +87,15 @@ public class DefDictItemServiceImpl extends SuperServiceImpl<DefDictManager, Lon
         // 设置新缓存
         CacheHashKey hashKey = DictCacheKeyBuilder.builder(parent.getKey(), model.getKey());
         cachePlusOps.hSet(hashKey, model.getName());
+        defDictRegistry.refresh();
         return model;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean removeByIds(Collection<Long> idList) {
-        return superManager.removeItemByIds(idList);
+        boolean flag = superManager.removeItemByIds(idList);
+        defDictRegistry.refresh();
+        return flag;
     }
 }
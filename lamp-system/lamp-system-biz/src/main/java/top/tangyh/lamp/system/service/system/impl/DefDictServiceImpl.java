@@ -19,6 +19,7 @@ import top.tangyh.lamp.common.constant.DefValConstants;
 import top.tangyh.lamp.model.enumeration.system.DictClassifyEnum;
 import top.tangyh.lamp.system.entity.system.DefDict;
 import top.tangyh.lamp.system.manager.system.DefDictManager;
+import top.tangyh.lamp.system.manager.system.impl.DefDictRegistry;
 import top.tangyh.lamp.system.service.system.DefDictService;
 import top.tangyh.lamp.system.vo.save.system.DefDictItemSaveVO;
 import top.tangyh.lamp.system.vo.save.system.DefDictSaveVO;
@@ -45,6 +46,7 @@ import java.util.List;
 public class DefDictServiceImpl extends SuperServiceImpl<DefDictManager, Long, DefDict> implements DefDictService {
 
     private final CachePlusOps cachePlusOps;
+    private final DefDictRegistry defDictRegistry;
 
     @Override
     public boolean checkByKey(String key, Long id) {
@@ -65,6 +67,7 @@ public class DefDictServiceImpl extends SuperServiceImpl<DefDictManager, Long, D
         superManager.save(dict);
 
         saveItem(dictSaveVO.getInsertList(), dict);
+        defDictRegistry.refresh();
         return dict;
     }
 
@@ -125,6 +128,7 @@ public class DefDictServiceImpl extends SuperServiceImpl<DefDictManager, Long, D
         boolean flag = removeByIds(ids);
         CacheHashKey[] typeKeys = list.stream().map(type -> DictCacheKeyBuilder.builder(type.getKey())).toArray(CacheHashKey[]::new);
         cachePlusOps.del(typeKeys);
+        defDictRegistry.refresh();
         return flag;
     }
 
@@ -144,7 +148,7 @@ public class DefDictServiceImpl extends SuperServiceImpl<DefDictManager, Long, D
         saveItem(dictUpdateVO.getInsertList(), dict);
         updateItem(dictUpdateVO.getUpdateList(), dict, old);
         superManager.removeItemByIds(dictUpdateVO.getDeleteList());
-
+        defDictRegistry.refresh();
         return dict;
     }
 
@@ -170,6 +174,7 @@ public class DefDictServiceImpl extends SuperServiceImpl<DefDictManager, Long, D
             item.setParentKey(dict.getKey());
         });
         superManager.saveBatch(itemList);
+        defDictRegistry.refresh();
         return dict;
     }
 
@@ -9,15 +9,23 @@ import cn.hutool.http.useragent.UserAgentUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import top.tangyh.basic.base.service.impl.SuperServiceImpl;
+import top.tangyh.basic.database.mybatis.conditions.Wraps;
+import top.tangyh.basic.database.mybatis.conditions.query.LbQueryWrap;
+import top.tangyh.basic.utils.BeanPlusUtil;
 import top.tangyh.basic.utils.DateUtils;
-
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
+import top.tangyh.lamp.common.retention.LogRetentionProgress;
 import top.tangyh.lamp.system.entity.system.DefLoginLog;
 import top.tangyh.lamp.system.entity.tenant.DefUser;
 import top.tangyh.lamp.system.manager.system.DefLoginLogManager;
 import top.tangyh.lamp.system.manager.tenant.DefUserManager;
 import top.tangyh.lamp.system.service.system.DefLoginLogService;
+import top.tangyh.lamp.system.vo.query.system.DefLoginLogPageQuery;
+import top.tangyh.lamp.system.vo.result.system.DefLoginLogResultVO;
 import top.tangyh.lamp.system.vo.save.system.DefLoginLogSaveVO;
 
 import java.time.LocalDateTime;
@@ -90,9 +98,40 @@ public class DefLoginLogServiceImpl extends SuperServiceImpl<DefLoginLogManager,
         return defLoginLog;
     }
 
+    /**
+     * 不开启事务，每批删除单独提交
+     */
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean clearLog(LocalDateTime clearBeforeTime, Integer clearBeforeNum) {
         return superManager.clearLog(clearBeforeTime, clearBeforeNum) > 0;
     }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Long clearLogByPolicy() {
+        return superManager.clearLogByPolicy();
+    }
+
+    @Override
+    public LogRetentionProgress getClearProgress() {
+        return superManager.getClearProgress();
+    }
+
+    @Override
+    public SeekPageResult<DefLoginLogResultVO> seekPage(SeekPageParams<DefLoginLogPageQuery> params) {
+        DefLoginLogPageQuery query = params.getModel() == null ? new DefLoginLogPageQuery() : params.getModel();
+        LbQueryWrap<DefLoginLog> wrap = Wraps.<DefLoginLog>lbQ()
+                .eq(DefLoginLog::getEmployeeId, query.getEmployeeId())
+                .eq(DefLoginLog::getUserId, query.getUserId())
+                .eq(DefLoginLog::getRequestIp, query.getRequestIp())
+                .like(DefLoginLog::getNickName, query.getNickName())
+                .like(DefLoginLog::getUsername, query.getUsername())
+                .like(DefLoginLog::getDescription, query.getDescription())
+                .eq(DefLoginLog::getLoginDate, query.getLoginDate())
+                .eq(DefLoginLog::getBrowser, query.getBrowser())
+                .eq(DefLoginLog::getOperatingSystem, query.getOperatingSystem())
+                .eq(DefLoginLog::getStatus, query.getStatus());
+        return superManager.seekPage(wrap, params).convert(list -> BeanPlusUtil.toBeanList(list, DefLoginLogResultVO.class));
+    }
 }
@@ -12,9 +12,12 @@ import top.tangyh.basic.utils.ArgumentAssert;
 import top.tangyh.lamp.model.enumeration.system.DataTypeEnum;
 import top.tangyh.lamp.system.entity.system.DefParameter;
 import top.tangyh.lamp.system.manager.system.DefParameterManager;
+import top.tangyh.lamp.system.manager.system.impl.DefParameterRegistry;
 import top.tangyh.lamp.system.service.system.DefParameterService;
 import top.tangyh.lamp.system.vo.save.system.DefParameterSaveVO;
 
+import java.util.Collection;
+
 /**
  * <p>
  * 业务实现类
@@ -30,6 +33,7 @@ import top.tangyh.lamp.system.vo.save.system.DefParameterSaveVO;
 @Transactional(readOnly = true)
 
 public class DefParameterServiceImpl extends SuperCacheServiceImpl<DefParameterManager, Long, DefParameter> implements DefParameterService {
+    private final DefParameterRegistry defParameterRegistry;
 
     @Override
     protected <SaveVO> DefParameter saveBefore(SaveVO saveVO) {
@@ -39,6 +43,24 @@ public class DefParameterServiceImpl extends SuperCacheServiceImpl<DefParameterM
         return defParameter;
     }
 
+    @Override
+    protected <SaveVO> void saveAfter(SaveVO saveVO, DefParameter entity) {
+        defParameterRegistry.refresh();
+    }
+
+    @Override
+    protected <UpdateVO> void updateAfter(UpdateVO updateVO, DefParameter entity) {
+        defParameterRegistry.refresh();
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean removeByIds(Collection<Long> idList) {
+        boolean flag = super.removeByIds(idList);
+        defParameterRegistry.refresh();
+        return flag;
+    }
+
     @Override
     public Boolean checkKey(String key, Long id) {
         ArgumentAssert.notEmpty(key, "请填写参数健");
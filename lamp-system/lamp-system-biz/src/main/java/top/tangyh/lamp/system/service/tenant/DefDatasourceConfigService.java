@@ -2,6 +2,10 @@ package top.tangyh.lamp.system.service.tenant;
 
 import top.tangyh.basic.base.service.SuperService;
 import top.tangyh.lamp.system.entity.tenant.DefDatasourceConfig;
+import top.tangyh.lamp.system.vo.result.tenant.DefDatasourceHealthResultVO;
+
+import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -20,4 +24,19 @@ public interface DefDatasourceConfigService extends SuperService<Long, DefDataso
      * @return
      */
     Boolean testConnection(Long id);
+
+    /**
+     * 并行测试多个数据源链接
+     *
+     * @param ids 数据源id
+     * @return key: 数据源id value: 检查后的状态
+     */
+    Map<Long, DefDatasourceHealthResultVO> testConnection(List<Long> ids);
+
+    /**
+     * 查询全部数据源最近一次检查的状态
+     *
+     * @return 状态， 未检查过的数据源不返回
+     */
+    List<DefDatasourceHealthResultVO> findHealth();
 }
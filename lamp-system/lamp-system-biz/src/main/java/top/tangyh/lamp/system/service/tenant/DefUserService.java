@@ -3,6 +3,8 @@ package top.tangyh.lamp.system.service.tenant;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import top.tangyh.basic.base.request.PageParams;
 import top.tangyh.basic.base.service.SuperCacheService;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
 import top.tangyh.lamp.system.entity.tenant.DefUser;
 import top.tangyh.lamp.system.vo.query.tenant.DefUserPageQuery;
 import top.tangyh.lamp.system.vo.result.tenant.DefUserResultVO;
@@ -55,6 +57,16 @@ public interface DefUserService extends SuperCacheService<Long, DefUser> {
      */
     List<Long> findUserIdList(DefUserPageQuery pageQuery);
 
+    /**
+     * 按id游标分批查询用户， 用于流式导出
+     *
+     * @param pageQuery 查询条件
+     * @param lastId    上一批最后一个用户的id， 第一批为null
+     * @param batchSize 每批数量
+     * @return 用户， 按id升序
+     */
+    List<DefUser> listBatchForExport(DefUserPageQuery pageQuery, Long lastId, int batchSize);
+
     /**
      * 检测用户名是否可用
      *
@@ -127,6 +139,14 @@ public interface DefUserService extends SuperCacheService<Long, DefUser> {
      */
     DefUser getUserByUsername(String username);
 
+    /**
+     * 根据登录标识(用户名、手机号、邮箱、身份证)查询用户
+     *
+     * @param identifier 登录标识
+     * @return 用户， 不存在返回null
+     */
+    DefUser getUserByLoginIdentifier(String identifier);
+
     /**
      * 根据手机号查询用户
      *
@@ -208,6 +228,17 @@ public interface DefUserService extends SuperCacheService<Long, DefUser> {
      */
     void incrPasswordErrorNumById(Long id);
 
+    /**
+     * 登录成功后，使用新的加密算法或参数重新保存密码
+     * 密码在此期间已被修改、或新密码超过字段长度时不保存
+     *
+     * @param id          用户id
+     * @param oldPassword 校验时数据库中的密码
+     * @param newPassword 重新加密后的密码
+     * @return 是否保存成功
+     */
+    boolean rehashPassword(Long id, String oldPassword, String newPassword);
+
     /**
      * 注册
      *
@@ -232,6 +263,14 @@ public interface DefUserService extends SuperCacheService<Long, DefUser> {
      */
     IPage<DefUserResultVO> pageUser(PageParams<DefUserPageQuery> params);
 
+    /**
+     * 游标分页查找同一企业下的用户
+     *
+     * @param params 分页参数
+     * @return 分页结果
+     */
+    SeekPageResult<DefUserResultVO> seekPageUser(SeekPageParams<DefUserPageQuery> params);
+
     /**
      * 邀请员工进入企业前精确查询用户
      *
@@ -1,23 +1,23 @@
 package top.tangyh.lamp.system.service.tenant.impl;
 
 
-import cn.hutool.db.ds.DSFactory;
-import cn.hutool.setting.Setting;
+import cn.hutool.core.collection.CollUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import top.tangyh.basic.base.service.impl.SuperServiceImpl;
 import top.tangyh.basic.exception.BizException;
 import top.tangyh.basic.utils.ArgumentAssert;
+import top.tangyh.lamp.system.biz.DatasourceHealthProber;
 import top.tangyh.lamp.system.entity.tenant.DefDatasourceConfig;
 import top.tangyh.lamp.system.manager.tenant.DefDatasourceConfigManager;
 import top.tangyh.lamp.system.service.tenant.DefDatasourceConfigService;
+import top.tangyh.lamp.system.vo.result.tenant.DefDatasourceHealthResultVO;
 
-import javax.sql.DataSource;
-import java.sql.Connection;
-import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -35,8 +35,7 @@ import java.sql.SQLException;
 @Transactional(readOnly = true)
 public class DefDatasourceConfigServiceImpl extends SuperServiceImpl<DefDatasourceConfigManager, Long, DefDatasourceConfig>
         implements DefDatasourceConfigService {
-    @Value("${spring.datasource.druid.validation-query}")
-    private String validationQuery;
+    private final DatasourceHealthProber datasourceHealthProber;
 
     @Override
     public Boolean testConnection(Long id) {
@@ -44,44 +43,33 @@ public class DefDatasourceConfigServiceImpl extends SuperServiceImpl<DefDatasour
         DefDatasourceConfig defDatasourceConfig = superManager.getById(id);
         ArgumentAssert.notNull(defDatasourceConfig, "请先配置数据源:{}", id);
 
-        String group = defDatasourceConfig.getName();
-        Setting setting = Setting.create()
-                .setByGroup("url", group, defDatasourceConfig.getUrl())
-                .setByGroup("username", group, defDatasourceConfig.getUsername())
-                .setByGroup("password", group, defDatasourceConfig.getPassword())
-                .setByGroup("driver", group, defDatasourceConfig.getDriverClassName())
-                .setByGroup("initialSize", group, "1")
-                .setByGroup("maxActive", group, "1")
-                .setByGroup("maxWait", group, "3000")
-                .setByGroup("useUnfairLock", group, "true")
-                .setByGroup("minIdle", group, "1")
-                .setByGroup("validationQuery", group, validationQuery)
-                // 链接错误重试次数
-                .setByGroup("connectionErrorRetryAttempts", group, "0")
-                // 获取失败后中断
-                .setByGroup("breakAfterAcquireFailure", group, "true")
-                // 5.7 版本支持注释
-                .setByGroup("useInformationSchema", group, "true")
-                .setByGroup("remarks", group, "true");
-
-        boolean flag;
-        Connection connection = null;
-        DataSource dataSource;
-        try (DSFactory dsFactory = DSFactory.create(setting)) {
-            dataSource = dsFactory.getDataSource(group);
-            connection = dataSource.getConnection();
-            flag = connection != null;
-        } catch (Exception e) {
+        DefDatasourceHealthResultVO health = datasourceHealthProber.probe(defDatasourceConfig);
+        if (!Boolean.TRUE.equals(health.getUp())) {
             log.error("创建测试链接错误 {}", defDatasourceConfig.getUrl());
-            throw new BizException("创建测试链接错误 " + defDatasourceConfig.getUrl(), e);
-        } finally {
-            if (connection != null) {
-                try {
-                    connection.close();
-                } catch (SQLException e) {
-                    log.warn("关闭测试数据源链接异常", e);
-                }
-            }
+            throw new BizException("创建测试链接错误 " + defDatasourceConfig.getUrl() + " " + health.getLastError());
+        }
+        return true;
+    }
+
+    @Override
+    public Map<Long, DefDatasourceHealthResultVO> testConnection(List<Long> ids) {
+        ArgumentAssert.notEmpty(ids, "请先选择数据源");
+        List<DefDatasourceConfig> list = superManager.listByIds(ids);
+        ArgumentAssert.notEmpty(list, "请先配置数据源");
+        return datasourceHealthProber.probe(list);
+    }
+
+    @Override
+    public List<DefDatasourceHealthResultVO> findHealth() {
+        return datasourceHealthProber.getStatus();
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean removeByIds(Collection<Long> idList) {
+        boolean flag = super.removeByIds(idList);
+        if (CollUtil.isNotEmpty(idList)) {
+            datasourceHealthProber.remove(idList);
         }
         return flag;
     }
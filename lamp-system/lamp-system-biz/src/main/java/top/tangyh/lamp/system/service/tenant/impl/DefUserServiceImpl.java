@@ -5,9 +5,9 @@ import cn.hutool.core.convert.Convert;
 import cn.hutool.core.lang.UUID;
 import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.crypto.SecureUtil;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -24,11 +24,15 @@ import top.tangyh.lamp.common.cache.tenant.base.DefUserEmailCacheKeyBuilder;
 import top.tangyh.lamp.common.cache.tenant.base.DefUserIdCardCacheKeyBuilder;
 import top.tangyh.lamp.common.cache.tenant.base.DefUserMobileCacheKeyBuilder;
 import top.tangyh.lamp.common.constant.AppendixType;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
 import top.tangyh.lamp.common.properties.SystemProperties;
 import top.tangyh.lamp.file.service.AppendixService;
 import top.tangyh.lamp.model.vo.save.AppendixSaveVO;
+import top.tangyh.lamp.system.biz.password.PasswordHasher;
 import top.tangyh.lamp.system.entity.tenant.DefUser;
 import top.tangyh.lamp.system.manager.tenant.DefUserManager;
+import top.tangyh.lamp.system.manager.tenant.impl.DefUserLoginIndex;
 import top.tangyh.lamp.system.service.tenant.DefUserService;
 import top.tangyh.lamp.system.vo.query.tenant.DefUserPageQuery;
 import top.tangyh.lamp.system.vo.result.tenant.DefUserResultVO;
@@ -66,6 +70,8 @@ public class DefUserServiceImpl extends SuperCacheServiceImpl<DefUserManager, Lo
 
     private final AppendixService appendixService;
     private final SystemProperties systemProperties;
+    private final DefUserLoginIndex defUserLoginIndex;
+    private final PasswordHasher passwordHasher;
 
     @Override
     public Map<Serializable, Object> findByIds(Set<Serializable> ids) {
@@ -112,6 +118,11 @@ public class DefUserServiceImpl extends SuperCacheServiceImpl<DefUserManager, Lo
         return superManager.getUserByUsername(username);
     }
 
+    @Override
+    public DefUser getUserByLoginIdentifier(String identifier) {
+        return superManager.getUserByLoginIdentifier(identifier);
+    }
+
     @Override
     protected <SaveVO> DefUser saveBefore(SaveVO vo) {
         DefUserSaveVO saveVO = (DefUserSaveVO) vo;
@@ -130,7 +141,7 @@ public class DefUserServiceImpl extends SuperCacheServiceImpl<DefUserManager, Lo
         if (StrUtil.isEmpty(defUser.getPassword())) {
             defUser.setPassword(systemProperties.getDefPwd());
         }
-        defUser.setPassword(SecureUtil.sha256(defUser.getPassword() + defUser.getSalt()));
+        defUser.setPassword(passwordHasher.encode(defUser.getPassword()));
         defUser.setPasswordErrorNum(0);
         defUser.setReadonly(false);
         defUser.setState(true);
@@ -145,17 +156,20 @@ public class DefUserServiceImpl extends SuperCacheServiceImpl<DefUserManager, Lo
         defUser.setNickName(defUser.getMobile());
 
         superManager.save(defUser);
+        superManager.refreshUserIndex(defUser.getId());
         return defUser.getMobile();
     }
 
     @Override
     protected <SaveVO> void saveAfter(SaveVO saveVO, DefUser entity) {
         superManager.delUserCache(Collections.singletonList(entity));
+        superManager.refreshUserIndex(entity.getId());
     }
 
     @Override
     protected <UpdateVO> void updateAfter(UpdateVO updateVO, DefUser entity) {
         superManager.delUserCache(Collections.singletonList(entity));
+        superManager.refreshUserIndex(entity.getId());
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -166,12 +180,13 @@ public class DefUserServiceImpl extends SuperCacheServiceImpl<DefUserManager, Lo
         defUser.setNickName(defUser.getEmail());
 
         superManager.save(defUser);
+        superManager.refreshUserIndex(defUser.getId());
         return defUser.getEmail();
     }
 
     private void setDefUser(DefUser defUser) {
         defUser.setSalt(RandomUtil.randomString(20));
-        defUser.setPassword(SecureUtil.sha256(defUser.getPassword() + defUser.getSalt()));
+        defUser.setPassword(passwordHasher.encode(defUser.getPassword()));
         defUser.setPasswordErrorNum(0);
         defUser.setReadonly(false);
         defUser.setState(true);
@@ -192,7 +207,7 @@ public class DefUserServiceImpl extends SuperCacheServiceImpl<DefUserManager, Lo
         DefUser user = superManager.getById(data.getId());
         ArgumentAssert.notNull(user, "您要重置密码的用户不存在");
 
-        return updateUserPassword(user.getId(), data.getPassword(), user.getSalt());
+        return updateUserPassword(user.getId(), data.getPassword());
     }
 
     @Override
@@ -219,10 +234,9 @@ public class DefUserServiceImpl extends SuperCacheServiceImpl<DefUserManager, Lo
         DefUser user = superManager.getById(data.getId());
         ArgumentAssert.notNull(user, "用户不存在");
         ArgumentAssert.equals(user.getId(), ContextUtil.getUserId(), "只能修改自己的密码");
-        String oldPassword = SecureUtil.sha256(data.getOldPassword() + user.getSalt());
-        ArgumentAssert.equals(user.getPassword(), oldPassword, "旧密码错误");
+        ArgumentAssert.isTrue(passwordHasher.matches(data.getOldPassword(), user.getPassword(), user.getSalt()), "旧密码错误");
 
-        return updateUserPassword(user.getId(), data.getPassword(), user.getSalt());
+        return updateUserPassword(user.getId(), data.getPassword());
     }
 
     @Override
@@ -231,11 +245,14 @@ public class DefUserServiceImpl extends SuperCacheServiceImpl<DefUserManager, Lo
         Long id = ContextUtil.getUserId();
         DefUser user = superManager.getById(id);
         ArgumentAssert.notNull(user, "用户不存在");
+        String oldMobile = user.getMobile();
         user.setMobile(data.getMobile());
         superManager.updateById(user);
 
         // 淘汰旧手机缓存
-        cacheOps.del(DefUserMobileCacheKeyBuilder.builder(user.getMobile()));
+        cacheOps.del(DefUserMobileCacheKeyBuilder.builder(oldMobile));
+        defUserLoginIndex.evict(DefUserLoginIndex.IdentifierType.MOBILE, oldMobile);
+        superManager.refreshUserIndex(id);
         return true;
     }
 
@@ -245,17 +262,18 @@ public class DefUserServiceImpl extends SuperCacheServiceImpl<DefUserManager, Lo
         Long id = ContextUtil.getUserId();
         DefUser user = superManager.getById(id);
         ArgumentAssert.notNull(user, "用户不存在");
+        String oldEmail = user.getEmail();
         user.setEmail(data.getEmail());
         superManager.updateById(user);
-        cacheOps.del(DefUserEmailCacheKeyBuilder.builder(user.getEmail()));
+        // 淘汰旧邮箱缓存
+        cacheOps.del(DefUserEmailCacheKeyBuilder.builder(oldEmail));
+        defUserLoginIndex.evict(DefUserLoginIndex.IdentifierType.EMAIL, oldEmail);
+        superManager.refreshUserIndex(id);
         return true;
     }
 
-    private boolean updateUserPassword(Long id, String password, String salt) {
-        if (StrUtil.isEmpty(salt)) {
-            salt = RandomUtil.randomString(20);
-        }
-        String defPassword = SecureUtil.sha256(password + salt);
+    private boolean updateUserPassword(Long id, String password) {
+        String defPassword = passwordHasher.encode(password);
 
         boolean flag = superManager.update(Wrappers.<DefUser>lambdaUpdate()
                 .set(DefUser::getPassword, defPassword)
@@ -279,7 +297,9 @@ public class DefUserServiceImpl extends SuperCacheServiceImpl<DefUserManager, Lo
         boolean flag = superManager.updateById(defUser);
         if (StrUtil.isAllNotEmpty(data.getIdCard(), old.getIdCard()) && !StrUtil.equals(old.getIdCard(), data.getIdCard())) {
             cacheOps.del(DefUserIdCardCacheKeyBuilder.builder(old.getIdCard()));
+            defUserLoginIndex.evict(DefUserLoginIndex.IdentifierType.ID_CARD, old.getIdCard());
         }
+        superManager.refreshUserIndex(data.getId());
         return flag;
     }
 
@@ -290,6 +310,12 @@ public class DefUserServiceImpl extends SuperCacheServiceImpl<DefUserManager, Lo
         return superManager.pageUser(pageQuery, page);
     }
 
+    @Override
+    public SeekPageResult<DefUserResultVO> seekPageUser(SeekPageParams<DefUserPageQuery> params) {
+        DefUserPageQuery pageQuery = params.getModel() == null ? new DefUserPageQuery() : params.getModel();
+        return superManager.seekPageUser(pageQuery, params);
+    }
+
     @Override
     public List<Long> findUserIdList(DefUserPageQuery pageQuery) {
         if (pageQuery == null) {
@@ -305,6 +331,22 @@ public class DefUserServiceImpl extends SuperCacheServiceImpl<DefUserManager, Lo
     }
 
 
+    @Override
+    public List<DefUser> listBatchForExport(DefUserPageQuery pageQuery, Long lastId, int batchSize) {
+        DefUserPageQuery query = pageQuery == null ? new DefUserPageQuery() : pageQuery;
+        // 与 pageUser 的条件一致：邮箱、手机、身份证按前缀匹配
+        LbQueryWrap<DefUser> wrap = Wraps.<DefUser>lbQ()
+                .like(DefUser::getUsername, query.getUsername())
+                .like(DefUser::getNickName, query.getNickName())
+                .likeRight(DefUser::getEmail, StrUtil.trim(query.getEmail()))
+                .likeRight(DefUser::getMobile, StrUtil.trim(query.getMobile()))
+                .likeRight(DefUser::getIdCard, StrUtil.trim(query.getIdCard()))
+                .eq(DefUser::getState, query.getState())
+                .gt(lastId != null, DefUser::getId, lastId)
+                .orderByAsc(DefUser::getId);
+        return superManager.page(new Page<>(1, batchSize, false), wrap).getRecords();
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public int resetPassErrorNum(Long id) {
@@ -320,6 +362,25 @@ public class DefUserServiceImpl extends SuperCacheServiceImpl<DefUserManager, Lo
         superManager.delCache(id);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean rehashPassword(Long id, String oldPassword, String newPassword) {
+        // 字段未加长(未执行升级脚本)时，保存会截断或报错，导致用户无法登录
+        if (StrUtil.isEmpty(newPassword) || newPassword.length() > PasswordHasher.MAX_LENGTH) {
+            log.warn("用户[{}]重新加密后的密码长度{}不在字段长度{}以内，不保存", id, StrUtil.length(newPassword), PasswordHasher.MAX_LENGTH);
+            return false;
+        }
+        boolean flag = superManager.update(Wrappers.<DefUser>lambdaUpdate()
+                .set(DefUser::getPassword, newPassword)
+                .eq(DefUser::getId, id)
+                .eq(DefUser::getPassword, oldPassword)
+        );
+        if (flag) {
+            superManager.delCache(id);
+        }
+        return flag;
+    }
+
     @Override
     public List<DefUserResultVO> queryUser(DefUserPageQuery params) {
         LbQueryWrap<DefUser> wrap = Wraps.lbQ();
@@ -28,6 +28,7 @@ import top.tangyh.lamp.system.biz.application.DefResourceBiz;
 import top.tangyh.lamp.system.entity.application.DefResource;
 import top.tangyh.lamp.system.service.application.DefResourceService;
 import top.tangyh.lamp.system.vo.query.application.DefResourcePageQuery;
+import top.tangyh.lamp.system.vo.result.application.DefResourceApiResultVO;
 import top.tangyh.lamp.system.vo.result.application.DefResourceResultVO;
 import top.tangyh.lamp.system.vo.save.application.DefResourceSaveVO;
 import top.tangyh.lamp.system.vo.update.application.DefResourceUpdateVO;
@@ -132,6 +133,13 @@ public class DefResourceController extends SuperController<DefResourceService, L
         return success();
     }
 
+    @Operation(summary = "查询服务扫描到的接口", description = "各服务启动时扫描本服务的接口，配置资源接口时从中选择")
+    @GetMapping("/findScanApi")
+    @WebLog("'查询服务扫描到的接口:' + #springApplicationName")
+    public R<List<DefResourceApiResultVO>> findScanApi(@RequestParam String springApplicationName) {
+        return success(BeanPlusUtil.toBeanList(superService.findScanApi(springApplicationName), DefResourceApiResultVO.class));
+    }
+
     @Override
     public R<DefResourceResultVO> get(@PathVariable Long id) {
         return R.success(superService.getResourceById(id));
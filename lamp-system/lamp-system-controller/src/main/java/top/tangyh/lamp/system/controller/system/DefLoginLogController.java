@@ -6,6 +6,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -13,6 +16,9 @@ import top.tangyh.basic.annotation.log.WebLog;
 import top.tangyh.basic.base.R;
 import top.tangyh.basic.base.controller.SuperController;
 import top.tangyh.basic.interfaces.echo.EchoService;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
+import top.tangyh.lamp.common.retention.LogRetentionProgress;
 import top.tangyh.lamp.system.entity.system.DefLoginLog;
 import top.tangyh.lamp.system.service.system.DefLoginLogService;
 import top.tangyh.lamp.system.vo.query.system.DefLoginLogPageQuery;
@@ -49,6 +55,14 @@ public class DefLoginLogController extends SuperController<DefLoginLogService, L
     }
 
 
+    @Operation(summary = "游标分页查询", description = "按上一页返回的 nextCursor 翻页，不统计总数，适合数据量大、翻页深的场景")
+    @PostMapping("/seekPage")
+    public R<SeekPageResult<DefLoginLogResultVO>> seekPage(@RequestBody SeekPageParams<DefLoginLogPageQuery> params) {
+        SeekPageResult<DefLoginLogResultVO> result = superService.seekPage(params);
+        echoService.action(result.getRecords());
+        return success(result);
+    }
+
     @Operation(summary = "清空日志")
     @DeleteMapping("clear")
     @WebLog("清空日志")
@@ -78,4 +92,17 @@ public class DefLoginLogController extends SuperController<DefLoginLogService, L
         }
         return success(superService.clearLog(clearBeforeTime, clearBeforeNum));
     }
+
+    @Operation(summary = "按保留策略清理日志", description = "由定时任务调用")
+    @PostMapping("clearByPolicy")
+    @WebLog("按保留策略清理日志")
+    public R<Long> clearByPolicy() {
+        return success(superService.clearLogByPolicy());
+    }
+
+    @Operation(summary = "查询清理进度")
+    @GetMapping("clearProgress")
+    public R<LogRetentionProgress> clearProgress() {
+        return success(superService.getClearProgress());
+    }
 }
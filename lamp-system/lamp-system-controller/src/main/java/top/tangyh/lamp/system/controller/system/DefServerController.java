@@ -1,5 +1,6 @@
 package top.tangyh.lamp.system.controller.system;
 
+import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,6 +10,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import top.tangyh.basic.base.R;
 import top.tangyh.lamp.system.controller.system.domain.Server;
+import top.tangyh.lamp.system.controller.system.domain.ServerSampler;
+import top.tangyh.lamp.system.controller.system.domain.server.ServerHistory;
+
+import java.util.List;
 
 /**
  * @author tangyh
@@ -23,11 +28,24 @@ import top.tangyh.lamp.system.controller.system.domain.Server;
 @RequestMapping("/defServer")
 @Tag(name = "服务监控")
 public class DefServerController {
+    private final ServerSampler serverSampler;
+
+    @Operation(summary = "查询服务器监控信息", description = "返回后台最近一次的采样结果")
     @GetMapping()
     public R<Server> server() {
-        Server server = new Server();
-        server.copyTo();
+        Server server = serverSampler.getLatest();
+        if (server == null) {
+            // 刚启动，后台还没有采样完成
+            server = new Server();
+            server.copyTo();
+        }
         return R.success(server);
     }
 
+    @Operation(summary = "查询服务器监控历史", description = "CPU、内存、JVM、磁盘使用率的历史采样，按时间升序")
+    @GetMapping("/history")
+    public R<List<ServerHistory>> history() {
+        return R.success(serverSampler.getHistory());
+    }
+
 }
@@ -56,6 +56,11 @@ public class Server {
      */
     private List<SysFile> sysFiles = new LinkedList<>();
 
+    /**
+     * 采样时间
+     */
+    private Long sampleTime;
+
     /**
      * 获取IP地址
      *
@@ -122,10 +127,22 @@ public class Server {
         this.sysFiles = sysFiles;
     }
 
+    public Long getSampleTime() {
+        return sampleTime;
+    }
+
+    public void setSampleTime(Long sampleTime) {
+        this.sampleTime = sampleTime;
+    }
+
     /**
-     * 设置磁盘信息
+     * 查询磁盘信息
+     *
+     * @param os 操作系统
+     * @return 磁盘信息
      */
-    private void buildSysFiles(OperatingSystem os) {
+    public static List<SysFile> buildSysFiles(OperatingSystem os) {
+        List<SysFile> sysFiles = new LinkedList<>();
         FileSystem fileSystem = os.getFileSystem();
         List<OSFileStore> fsArray = fileSystem.getFileStores();
         for (OSFileStore fs : fsArray) {
@@ -142,31 +159,62 @@ public class Server {
             sysFile.setUsage(ArithUtil.mul(ArithUtil.div(used, total, 4), 100));
             sysFiles.add(sysFile);
         }
+        return sysFiles;
+    }
+
+    /**
+     * 查询服务器信息
+     *
+     * @return 服务器信息
+     */
+    public static Sys buildSys() {
+        Properties props = System.getProperties();
+        Sys sys = new Sys();
+        sys.setComputerName(getHostName());
+        sys.setComputerIp(getHostIp());
+        sys.setOsName(props.getProperty("os.name"));
+        sys.setOsArch(props.getProperty("os.arch"));
+        sys.setUserDir(props.getProperty("user.dir"));
+        return sys;
     }
 
     public void copyTo() {
         SystemInfo si = new SystemInfo();
         HardwareAbstractionLayer hal = si.getHardware();
+        CentralProcessor processor = hal.getProcessor();
 
-        setCpuInfo(hal.getProcessor());
+        long[] prevTicks = processor.getSystemCpuLoadTicks();
+        Util.sleep(OSHI_WAIT_SECOND);
+        copyTo(processor, prevTicks, processor.getSystemCpuLoadTicks(), hal.getMemory());
+
+        sys = buildSys();
+
+        sysFiles = buildSysFiles(si.getOperatingSystem());
+    }
 
-        setMemInfo(hal.getMemory());
+    /**
+     * 使用已采集的 CPU 时钟计数填充 CPU、内存、JVM 信息，不等待
+     *
+     * @param processor 处理器
+     * @param prevTicks 上次采集的 CPU 时钟计数
+     * @param ticks     本次采集的 CPU 时钟计数
+     * @param memory    内存
+     */
+    public void copyTo(CentralProcessor processor, long[] prevTicks, long[] ticks, GlobalMemory memory) {
+        setCpuInfo(processor, prevTicks, ticks);
 
-        setSysInfo();
+        setMemInfo(memory);
 
         setJvmInfo();
 
-        buildSysFiles(si.getOperatingSystem());
+        sampleTime = System.currentTimeMillis();
     }
 
     /**
      * 设置CPU信息
      */
-    private void setCpuInfo(CentralProcessor processor) {
+    private void setCpuInfo(CentralProcessor processor, long[] prevTicks, long[] ticks) {
         // CPU信息
-        long[] prevTicks = processor.getSystemCpuLoadTicks();
-        Util.sleep(OSHI_WAIT_SECOND);
-        long[] ticks = processor.getSystemCpuLoadTicks();
         long nice = ticks[TickType.NICE.getIndex()] - prevTicks[TickType.NICE.getIndex()];
         long irq = ticks[TickType.IRQ.getIndex()] - prevTicks[TickType.IRQ.getIndex()];
         long softirq = ticks[TickType.SOFTIRQ.getIndex()] - prevTicks[TickType.SOFTIRQ.getIndex()];
@@ -193,18 +241,6 @@ public class Server {
         mem.setFree(memory.getAvailable());
     }
 
-    /**
-     * 设置服务器信息
-     */
-    private void setSysInfo() {
-        Properties props = System.getProperties();
-        sys.setComputerName(getHostName());
-        sys.setComputerIp(getHostIp());
-        sys.setOsName(props.getProperty("os.name"));
-        sys.setOsArch(props.getProperty("os.arch"));
-        sys.setUserDir(props.getProperty("user.dir"));
-    }
-
     /**
      * 设置Java虚拟机
      */
@@ -223,7 +259,7 @@ public class Server {
      * @param size 字节大小
      * @return 转换后值
      */
-    public String convertFileSize(long size) {
+    public static String convertFileSize(long size) {
         long kb = 1024;
         long mb = kb * 1024;
         long gb = mb * 1024;
@@ -0,0 +1,144 @@
+package top.tangyh.lamp.system.controller.system.domain;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import oshi.SystemInfo;
+import oshi.hardware.CentralProcessor;
+import oshi.hardware.HardwareAbstractionLayer;
+import top.tangyh.basic.utils.ArithUtil;
+import top.tangyh.lamp.common.properties.SystemProperties;
+import top.tangyh.lamp.system.controller.system.domain.server.ServerHistory;
+import top.tangyh.lamp.system.controller.system.domain.server.Sys;
+import top.tangyh.lamp.system.controller.system.domain.server.SysFile;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务器监控采样
+ * <p>
+ * 原来每次请求都新建 SystemInfo，并在请求线程中等待1秒采集 CPU 时钟计数、枚举全部磁盘。本类在后台定时采样：
+ * 1. 整个进程共用一个 SystemInfo
+ * 2. CPU 使用率由相邻两次采样的时钟计数差值计算，不需要等待
+ * 3. 服务器信息只查询一次，磁盘按更长的间隔采集
+ * 4. 保留最近 historySize 次采样的使用率，用于绘制趋势图
+ * 请求直接返回最近一次的采样结果。
+ *
+ * @author zuihou
+ * @date 2024/9/11 10:30
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ServerSampler {
+    private final SystemProperties systemProperties;
+
+    private final Deque<ServerHistory> historyList = new ArrayDeque<>();
+    private ScheduledExecutorService executor;
+    private HardwareAbstractionLayer hal;
+    private SystemInfo systemInfo;
+    private Sys sys;
+    private List<SysFile> sysFiles = Collections.emptyList();
+    private long[] prevTicks;
+    private long lastDiskTime = 0L;
+
+    private volatile Server latest;
+
+    @PostConstruct
+    public void init() {
+        SystemProperties.ServerMonitor config = systemProperties.getServerMonitor();
+        executor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("server-sampler-", true));
+        executor.scheduleWithFixedDelay(this::sample, 0, Math.max(config.getIntervalSeconds(), 1), TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 最近一次的采样结果
+     *
+     * @return 采样结果， 启动后第一次采样完成前为null
+     */
+    public Server getLatest() {
+        return latest;
+    }
+
+    /**
+     * 历史采样
+     *
+     * @return 按采样时间升序
+     */
+    public List<ServerHistory> getHistory() {
+        synchronized (historyList) {
+            return new ArrayList<>(historyList);
+        }
+    }
+
+    private void sample() {
+        try {
+            if (systemInfo == null) {
+                systemInfo = new SystemInfo();
+                hal = systemInfo.getHardware();
+                sys = Server.buildSys();
+                prevTicks = hal.getProcessor().getSystemCpuLoadTicks();
+                return;
+            }
+            CentralProcessor processor = hal.getProcessor();
+            long[] ticks = processor.getSystemCpuLoadTicks();
+            if (totalTicks(ticks) <= totalTicks(prevTicks)) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastDiskTime >= systemProperties.getServerMonitor().getDiskIntervalSeconds() * 1000L) {
+                sysFiles = Collections.unmodifiableList(Server.buildSysFiles(systemInfo.getOperatingSystem()));
+                lastDiskTime = now;
+            }
+
+            Server server = new Server();
+            server.copyTo(processor, prevTicks, ticks, hal.getMemory());
+            server.setSys(sys);
+            server.setSysFiles(sysFiles);
+            prevTicks = ticks;
+            latest = server;
+            addHistory(server);
+        } catch (Exception e) {
+            log.warn("服务器监控采样失败", e);
+        }
+    }
+
+    private void addHistory(Server server) {
+        ServerHistory history = new ServerHistory();
+        history.setTime(server.getSampleTime());
+        history.setCpu(ArithUtil.round(100 - server.getCpu().getFree(), 2));
+        history.setMem(server.getMem().getUsage());
+        history.setJvm(server.getJvm().getUsage());
+        history.setDisk(server.getSysFiles().stream().mapToDouble(SysFile::getUsage).max().orElse(0D));
+        int historySize = Math.max(systemProperties.getServerMonitor().getHistorySize(), 1);
+        synchronized (historyList) {
+            historyList.addLast(history);
+            while (historyList.size() > historySize) {
+                historyList.removeFirst();
+            }
+        }
+    }
+
+    private static long totalTicks(long[] ticks) {
+        long total = 0;
+        for (long tick : ticks) {
+            total += tick;
+        }
+        return total;
+    }
+}
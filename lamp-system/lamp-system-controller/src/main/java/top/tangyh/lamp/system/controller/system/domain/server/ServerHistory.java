@@ -0,0 +1,73 @@
+package top.tangyh.lamp.system.controller.system.domain.server;
+
+/**
+ * 服务器监控的历史采样， 用于绘制趋势图
+ *
+ * @author zuihou
+ */
+public class ServerHistory {
+    /**
+     * 采样时间
+     */
+    private long time;
+
+    /**
+     * CPU使用率
+     */
+    private double cpu;
+
+    /**
+     * 内存使用率
+     */
+    private double mem;
+
+    /**
+     * JVM内存使用率
+     */
+    private double jvm;
+
+    /**
+     * 磁盘使用率， 取使用率最高的盘符
+     */
+    private double disk;
+
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    public double getCpu() {
+        return cpu;
+    }
+
+    public void setCpu(double cpu) {
+        this.cpu = cpu;
+    }
+
+    public double getMem() {
+        return mem;
+    }
+
+    public void setMem(double mem) {
+        this.mem = mem;
+    }
+
+    public double getJvm() {
+        return jvm;
+    }
+
+    public void setJvm(double jvm) {
+        this.jvm = jvm;
+    }
+
+    public double getDisk() {
+        return disk;
+    }
+
+    public void setDisk(double disk) {
+        this.disk = disk;
+    }
+}
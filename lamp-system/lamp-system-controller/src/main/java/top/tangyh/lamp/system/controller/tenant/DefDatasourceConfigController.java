@@ -5,7 +5,9 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -15,10 +17,14 @@ import top.tangyh.basic.interfaces.echo.EchoService;
 import top.tangyh.lamp.system.entity.tenant.DefDatasourceConfig;
 import top.tangyh.lamp.system.service.tenant.DefDatasourceConfigService;
 import top.tangyh.lamp.system.vo.query.tenant.DefDatasourceConfigPageQuery;
+import top.tangyh.lamp.system.vo.result.tenant.DefDatasourceHealthResultVO;
 import top.tangyh.lamp.system.vo.result.tenant.DefDatasourceConfigResultVO;
 import top.tangyh.lamp.system.vo.save.tenant.DefDatasourceConfigSaveVO;
 import top.tangyh.lamp.system.vo.update.tenant.DefDatasourceConfigUpdateVO;
 
+import java.util.List;
+import java.util.Map;
+
 
 /**
  * <p>
@@ -50,4 +56,16 @@ public class DefDatasourceConfigController extends SuperController<DefDatasource
     public R<Boolean> testConnect(@RequestParam Long id) {
         return R.success(superService.testConnection(id));
     }
+
+    @Operation(summary = "批量测试数据库链接", description = "并行检查，返回每个数据源的检查结果")
+    @PostMapping("/testConnects")
+    public R<Map<Long, DefDatasourceHealthResultVO>> testConnects(@RequestBody List<Long> ids) {
+        return R.success(superService.testConnection(ids));
+    }
+
+    @Operation(summary = "查询数据源健康状态", description = "返回后台定时检查的最近一次结果，不会实时连接数据库")
+    @GetMapping("/health")
+    public R<List<DefDatasourceHealthResultVO>> health() {
+        return R.success(superService.findHealth());
+    }
 }
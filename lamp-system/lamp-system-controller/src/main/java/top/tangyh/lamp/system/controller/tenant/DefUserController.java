@@ -11,6 +11,7 @@ import com.baomidou.mybatisplus.core.toolkit.StringPool;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,12 +23,18 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 import top.tangyh.basic.annotation.log.WebLog;
 import top.tangyh.basic.base.R;
 import top.tangyh.basic.base.controller.SuperExcelController;
 import top.tangyh.basic.base.request.PageParams;
 import top.tangyh.basic.interfaces.echo.EchoService;
+import top.tangyh.basic.utils.BeanPlusUtil;
 import top.tangyh.basic.utils.DateUtils;
+import top.tangyh.lamp.common.page.SeekPageParams;
+import top.tangyh.lamp.common.page.SeekPageResult;
+import top.tangyh.lamp.system.biz.DefUserImporter;
+import top.tangyh.lamp.system.biz.ExcelStreamExporter;
 import top.tangyh.lamp.system.entity.tenant.DefUser;
 import top.tangyh.lamp.system.service.tenant.DefUserService;
 import top.tangyh.lamp.system.vo.query.system.OnlineUsersPageQuery;
@@ -35,11 +42,14 @@ import top.tangyh.lamp.system.vo.query.tenant.DefUserPageQuery;
 import top.tangyh.lamp.system.vo.result.system.OnlineTokenResultVO;
 import top.tangyh.lamp.system.vo.result.system.OnlineUsersResultVO;
 import top.tangyh.lamp.system.vo.result.tenant.DefUserExcelVO;
+import top.tangyh.lamp.system.vo.result.tenant.DefUserImportResultVO;
 import top.tangyh.lamp.system.vo.result.tenant.DefUserResultVO;
 import top.tangyh.lamp.system.vo.save.tenant.DefUserSaveVO;
 import top.tangyh.lamp.system.vo.update.tenant.DefUserPasswordResetVO;
 import top.tangyh.lamp.system.vo.update.tenant.DefUserUpdateVO;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -64,6 +74,8 @@ import java.util.stream.Collectors;
 public class DefUserController extends SuperExcelController<DefUserService, Long, DefUser, DefUserSaveVO, DefUserUpdateVO, DefUserPageQuery, DefUserResultVO> {
 
     private final EchoService echoService;
+    private final ExcelStreamExporter excelStreamExporter;
+    private final DefUserImporter defUserImporter;
 
     @Override
     public Class<?> getExcelClass() {
@@ -149,6 +161,49 @@ public class DefUserController extends SuperExcelController<DefUserService, Long
         return R.success(page);
     }
 
+    @Operation(summary = "游标分页查找同一企业下的用户", description = "按上一页返回的 nextCursor 翻页，默认不统计总数，适合用户量大、翻页深的场景")
+    @PostMapping(value = "/seekPageUser")
+    @WebLog("'游标分页查找同一企业下的用户")
+    public R<SeekPageResult<DefUserResultVO>> seekPageUser(@RequestBody SeekPageParams<DefUserPageQuery> params) {
+        SeekPageResult<DefUserResultVO> result = superService.seekPageUser(params);
+        echoService.action(result.getRecords());
+        return R.success(result);
+    }
+
+    @Operation(summary = "生成流式导出id", description = "需要取消流式导出时，先调用本接口生成导出id，导出和取消时携带该id")
+    @PostMapping(value = "/exportStream/prepare")
+    public R<String> prepareExportStream() {
+        return success(excelStreamExporter.prepare());
+    }
+
+    @Operation(summary = "流式导出用户", description = "分批查询、分批写入，导出大量用户时内存占用恒定。exportId 为 prepare 接口生成的导出id， limit 为最大导出行数。导出失败或被取消时返回错误信息，不返回不完整的文件")
+    @PostMapping(value = "/exportStream", produces = "application/octet-stream")
+    @WebLog(value = "'流式导出用户'", response = false)
+    public void exportStream(@RequestBody DefUserPageQuery params,
+                             @RequestParam(required = false) String exportId,
+                             @RequestParam(required = false) Integer limit,
+                             HttpServletResponse response) {
+        excelStreamExporter.export(exportId, "用户列表", DefUserExcelVO.class, limit,
+                (DefUser last, int batchSize) -> superService.listBatchForExport(params, last == null ? null : last.getId(), batchSize),
+                list -> BeanPlusUtil.toBeanList(list, DefUserExcelVO.class), response);
+    }
+
+    @Operation(summary = "取消流式导出", description = "取消当前用户正在进行的流式导出")
+    @PostMapping(value = "/exportStream/cancel")
+    @WebLog("'取消流式导出:' + #exportId")
+    public R<Boolean> cancelExportStream(@RequestParam String exportId) {
+        return success(excelStreamExporter.cancel(exportId));
+    }
+
+    @Operation(summary = "批量导入用户", description = "分批校验、分批保存，返回每一行的失败原因。列：用户名、昵称、邮箱、手机、身份证、性别、密码(为空时使用默认密码)")
+    @PostMapping(value = "/importBatch")
+    @WebLog(value = "'批量导入用户'", request = false)
+    public R<DefUserImportResultVO> importBatch(@RequestParam(value = "file") MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return success(defUserImporter.importUsers(in));
+        }
+    }
+
     @Operation(summary = "邀请员工进入企业前精确查询用户", description = "邀请员工进入企业前精确查询用户")
     @PostMapping(value = "/queryUser")
     @WebLog("'邀请员工进入企业前精确查询用户")
@@ -0,0 +1,49 @@
+package top.tangyh.lamp.system.vo.result.tenant;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * <p>
+ * 实体类
+ * 数据源健康状态
+ * </p>
+ *
+ * @author zuihou
+ * @date 2024/9/11 17:30
+ */
+@Data
+@NoArgsConstructor
+@Schema(description = "数据源健康状态")
+public class DefDatasourceHealthResultVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "数据源id")
+    private Long id;
+    @Schema(description = "数据源名称")
+    private String name;
+    @Schema(description = "最近一次检查是否成功")
+    private Boolean up;
+    @Schema(description = "最近一次检查的耗时(毫秒)")
+    private Long lastLatencyMillis;
+    @Schema(description = "最近一次检查时间")
+    private LocalDateTime lastProbeTime;
+    @Schema(description = "最近一次成功时间")
+    private LocalDateTime lastSuccessTime;
+    @Schema(description = "最近一次错误")
+    private String lastError;
+    @Schema(description = "连续失败次数")
+    private Integer consecutiveFails;
+    @Schema(description = "累计成功次数")
+    private Long successCount;
+    @Schema(description = "累计失败次数")
+    private Long failCount;
+    @Schema(description = "耗时分布 key: 耗时区间 value: 次数")
+    private Map<String, Long> latencyHistogram;
+}
@@ -0,0 +1,55 @@
+package top.tangyh.lamp.system.vo.result.tenant;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * 实体类
+ * 用户导入结果
+ * </p>
+ *
+ * @author zuihou
+ * @date 2024/9/10 15:20
+ */
+@Data
+@NoArgsConstructor
+@Schema(description = "用户导入结果")
+public class DefUserImportResultVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "读取的行数")
+    private long total;
+    @Schema(description = "导入成功的行数")
+    private long success;
+    @Schema(description = "导入失败的行数")
+    private long fail;
+    @Schema(description = "是否因超过最大行数而停止读取")
+    private boolean truncated;
+    @Schema(description = "耗时(毫秒)")
+    private long costMillis;
+    @Schema(description = "失败明细")
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "失败明细")
+    public static class RowError implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Schema(description = "Excel 中的行号 (从1开始，含表头)")
+        private Integer rowNum;
+        @Schema(description = "用户名")
+        private String username;
+        @Schema(description = "失败原因")
+        private String message;
+    }
+}
@@ -0,0 +1,89 @@
+package top.tangyh.lamp.system.vo.save.tenant;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import top.tangyh.basic.annotation.constraints.NotEmptyPattern;
+
+import java.io.Serializable;
+
+import static top.tangyh.basic.utils.ValidatorUtil.REGEX_EMAIL;
+import static top.tangyh.basic.utils.ValidatorUtil.REGEX_ID_CARD;
+import static top.tangyh.basic.utils.ValidatorUtil.REGEX_MOBILE;
+import static top.tangyh.basic.utils.ValidatorUtil.REGEX_USERNAME;
+
+/**
+ * <p>
+ * 实体类
+ * 用户导入
+ * </p>
+ *
+ * @author zuihou
+ * @date 2024/9/10 15:20
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = false)
+@Schema(description = "用户导入")
+public class DefUserImportVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 用户名;大小写数字下划线
+     */
+    @ExcelProperty("用户名")
+    @NotEmpty(message = "请填写用户名")
+    @Size(min = 6, max = 255, message = "用户名长度不能小于{min}或超过{max}")
+    @NotEmptyPattern(regexp = REGEX_USERNAME, message = "仅支持英文(a-zA-Z)数字(0-9)和下划线(_)，且至少包含2项")
+    private String username;
+    /**
+     * 昵称
+     */
+    @ExcelProperty("昵称")
+    @NotEmpty(message = "请填写昵称")
+    @Size(max = 255, message = "昵称长度不能超过{max}")
+    private String nickName;
+    /**
+     * 邮箱
+     */
+    @ExcelProperty("邮箱")
+    @Size(max = 255, message = "邮箱长度不能超过{max}")
+    @NotEmptyPattern(regexp = REGEX_EMAIL, message = "请输入正确的邮箱地址")
+    private String email;
+    /**
+     * 手机;1开头11位纯数字
+     */
+    @ExcelProperty("手机")
+    @Size(max = 11, message = "手机长度不能超过{max}")
+    @NotEmptyPattern(regexp = REGEX_MOBILE, message = "请输入11位的手机号")
+    @NotEmpty(message = "请填写手机")
+    private String mobile;
+    /**
+     * 身份证;15或18位
+     */
+    @ExcelProperty("身份证")
+    @Size(max = 18, message = "身份证长度不能超过{max}")
+    @NotEmptyPattern(regexp = REGEX_ID_CARD, message = "请输入正确的身份证号")
+    private String idCard;
+    /**
+     * 性别;
+     */
+    @ExcelProperty("性别")
+    @Size(max = 1, message = "性别长度不能超过{max}")
+    private String sex;
+    /**
+     * 密码;为空时使用系统默认密码
+     */
+    @ExcelProperty("密码")
+    @Size(max = 64, message = "密码长度不能超过{max}")
+    private String password;
+}
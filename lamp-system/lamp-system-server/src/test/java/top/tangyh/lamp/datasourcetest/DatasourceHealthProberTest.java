@@ -0,0 +1,120 @@
+package top.tangyh.lamp.datasourcetest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import top.tangyh.lamp.common.properties.SystemProperties;
+import top.tangyh.lamp.system.biz.DatasourceHealthProber;
+import top.tangyh.lamp.system.entity.tenant.DefDatasourceConfig;
+import top.tangyh.lamp.system.vo.result.tenant.DefDatasourceHealthResultVO;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 数据源健康检查 测试
+ * <p>
+ * 使用 H2 内存库作为被检查的数据源，不需要启动服务
+ *
+ * @author zuihou
+ * @date 2024/9/11 17:30
+ */
+public class DatasourceHealthProberTest {
+    private static final String URL = "jdbc:h2:mem:datasource_probe;DB_CLOSE_DELAY=-1";
+    /**
+     * 没有服务监听的端口，建立链接立即失败
+     */
+    private static final String DOWN_URL = "jdbc:h2:tcp://127.0.0.1:1/mem:none";
+
+    private DatasourceHealthProber prober;
+
+    @BeforeEach
+    public void init() {
+        SystemProperties systemProperties = new SystemProperties();
+        systemProperties.getDatasourceHealth().setEnabled(false);
+        systemProperties.getDatasourceHealth().setMaxWaitMillis(1000L);
+        prober = new DatasourceHealthProber(null, systemProperties);
+        prober.init();
+    }
+
+    @AfterEach
+    public void destroy() {
+        prober.destroy();
+    }
+
+    @Test
+    public void testProbeUp() throws Exception {
+        DefDatasourceHealthResultVO health = prober.probe(config(1L, URL));
+
+        assertTrue(health.getUp());
+        assertEquals(1L, health.getSuccessCount());
+        assertEquals(0, health.getConsecutiveFails());
+        assertNull(health.getLastError());
+        assertNotNull(health.getLastSuccessTime());
+        assertEquals(1L, health.getLatencyHistogram().values().stream().mapToLong(Long::longValue).sum());
+
+        // 检查完立即关闭链接，只剩下本测试的链接
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS")) {
+            rs.next();
+            assertEquals(1, rs.getInt(1));
+        }
+    }
+
+    @Test
+    public void testProbeDownThenRecover() {
+        DefDatasourceConfig config = config(2L, DOWN_URL);
+        DefDatasourceHealthResultVO health = prober.probe(config);
+        assertFalse(health.getUp());
+        assertEquals(1, health.getConsecutiveFails());
+        assertNotNull(health.getLastError());
+
+        health = prober.probe(config);
+        assertEquals(2, health.getConsecutiveFails());
+        assertEquals(2L, health.getFailCount());
+
+        // 修改链接信息后，下次检查使用新的链接信息
+        config.setUrl(URL);
+        health = prober.probe(config);
+        assertTrue(health.getUp());
+        assertEquals(0, health.getConsecutiveFails());
+        assertEquals(1L, health.getSuccessCount());
+    }
+
+    @Test
+    public void testProbeBatch() {
+        Map<Long, DefDatasourceHealthResultVO> map = prober.probe(Arrays.asList(config(1L, URL), config(2L, DOWN_URL)));
+
+        assertTrue(map.get(1L).getUp());
+        assertFalse(map.get(2L).getUp());
+        assertEquals(2, prober.getStatus().size());
+        assertEquals(1L, prober.getStatus().get(0).getId());
+
+        prober.remove(Collections.singletonList(2L));
+        assertNull(prober.getStatus(2L));
+        assertEquals(1, prober.getStatus().size());
+    }
+
+    private static DefDatasourceConfig config(Long id, String url) {
+        DefDatasourceConfig config = new DefDatasourceConfig();
+        config.setId(id);
+        config.setName("ds" + id);
+        config.setUrl(url);
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setDriverClassName("org.h2.Driver");
+        return config;
+    }
+}
@@ -0,0 +1,100 @@
+package top.tangyh.lamp.echotest;
+
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import top.tangyh.basic.annotation.echo.Echo;
+import top.tangyh.basic.interfaces.echo.EchoService;
+import top.tangyh.basic.interfaces.echo.EchoVO;
+import top.tangyh.lamp.common.api.DictApi;
+import top.tangyh.lamp.common.api.EchoBatchApi;
+import top.tangyh.lamp.common.api.OrgApi;
+import top.tangyh.lamp.common.echo.EchoBatchPostProcessor;
+import top.tangyh.lamp.common.echo.EchoBatchPrefetcher;
+import top.tangyh.lamp.model.constant.EchoApi;
+
+import java.io.Serializable;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 回显数据预取 测试
+ * <p>
+ * 同一页数据中同时包含字典回显和非字典回显时，两者都从批量查询的结果中返回，不再逐个调用 feign 接口
+ *
+ * @author zuihou
+ * @date 2024/9/14 10:00
+ */
+public class EchoBatchPrefetcherTest {
+    private static final String ORG_API = "top.tangyh.lamp.common.api.OrgApi";
+
+    @Test
+    public void testDictAndOrgOnSamePage() {
+        AtomicInteger batchCalls = new AtomicInteger();
+        EchoBatchApi echoBatchApi = typeIds -> {
+            batchCalls.incrementAndGet();
+            Map<String, Map<Serializable, Object>> result = new HashMap<>();
+            // 经过 feign 反序列化后，结果的 key 都是字符串
+            result.put(ORG_API, new HashMap<>(Map.of("1", "研发部", "2", "测试部")));
+            result.put(EchoApi.DICTIONARY_ITEM_FEIGN_CLASS, new HashMap<>(Map.of("SEX###1", "男", "SEX###2", "女")));
+            return result;
+        };
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("echoBatchApi", echoBatchApi);
+        EchoBatchPostProcessor postProcessor = new EchoBatchPostProcessor(new EchoBatchPrefetcher(beanFactory.getBeanProvider(EchoBatchApi.class)));
+
+        AtomicInteger feignCalls = new AtomicInteger();
+        OrgApi orgApi = (OrgApi) postProcessor.postProcessAfterInitialization(feignClient(OrgApi.class, feignCalls), ORG_API);
+        DictApi dictApi = (DictApi) postProcessor.postProcessAfterInitialization(feignClient(DictApi.class, feignCalls), EchoApi.DICTIONARY_ITEM_FEIGN_CLASS);
+
+        // 模拟 EchoService：逐个类型调用 feign 接口
+        List<Map<Serializable, Object>> echoed = new ArrayList<>();
+        EchoService echoService = (EchoService) postProcessor.postProcessAfterInitialization(Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{EchoService.class}, (proxy, method, args) -> {
+                    if ("action".equals(method.getName())) {
+                        echoed.add(orgApi.findByIds(Set.<Serializable>of(1L, 2L)));
+                        echoed.add(dictApi.findByIds(Set.<Serializable>of("SEX")));
+                    }
+                    return null;
+                }), "echoService");
+
+        List<UserVO> list = List.of(new UserVO(1L, "1"), new UserVO(2L, "2"));
+        echoService.action(list);
+
+        assertEquals(1, batchCalls.get());
+        assertEquals(0, feignCalls.get());
+        assertEquals(2, echoed.size());
+        assertEquals("研发部", echoed.get(0).get("1"));
+        assertEquals("测试部", echoed.get(0).get("2"));
+        assertEquals("男", echoed.get(1).get("SEX###1"));
+        assertEquals("女", echoed.get(1).get("SEX###2"));
+    }
+
+    private static Object feignClient(Class<?> api, AtomicInteger feignCalls) {
+        return Proxy.newProxyInstance(EchoBatchPrefetcherTest.class.getClassLoader(), new Class[]{api}, (proxy, method, args) -> {
+            feignCalls.incrementAndGet();
+            return new HashMap<>();
+        });
+    }
+
+    @Data
+    public static class UserVO implements EchoVO {
+        @Echo(api = ORG_API)
+        private Long orgId;
+        @Echo(api = EchoApi.DICTIONARY_ITEM_FEIGN_CLASS, dictType = "SEX")
+        private String sex;
+        private Map<String, Object> echoMap = new HashMap<>();
+
+        public UserVO(Long orgId, String sex) {
+            this.orgId = orgId;
+            this.sex = sex;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package top.tangyh.lamp.usertest;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import top.tangyh.lamp.common.page.SeekCursor;
+import top.tangyh.lamp.common.properties.SystemProperties;
+import top.tangyh.lamp.system.entity.tenant.DefUser;
+import top.tangyh.lamp.system.manager.tenant.impl.DefUserSearchIndex;
+import top.tangyh.lamp.system.mapper.tenant.DefUserMapper;
+import top.tangyh.lamp.system.mapper.tenant.DefUserSearchTokenMapper;
+import top.tangyh.lamp.system.vo.query.tenant.DefUserPageQuery;
+import top.tangyh.lamp.system.vo.result.tenant.DefUserResultVO;
+
+import java.io.InputStream;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用户搜索索引 测试
+ * <p>
+ * 使用 H2 内存库执行 DefUserMapper.xml、DefUserSearchTokenMapper.xml 中的 sql，不需要启动服务
+ *
+ * @author zuihou
+ * @date 2024/9/9 10:30
+ */
+public class DefUserSearchIndexTest {
+    private static final String[] MAPPER_XML = {
+            "mapper_system/base/tenant/DefUserMapper.xml",
+            "mapper_system/ext/tenant/DefUserMapper.xml",
+            "mapper_system/ext/tenant/DefUserSearchTokenMapper.xml",
+    };
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 9, 9, 10, 30);
+
+    private static JdbcDataSource dataSource;
+    private static SqlSessionManager sqlSession;
+
+    private DefUserMapper defUserMapper;
+    private DefUserSearchTokenMapper defUserSearchTokenMapper;
+    private DefUserSearchIndex defUserSearchIndex;
+
+    @BeforeAll
+    public static void initSessionFactory() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:def_user_search;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setEnvironment(new Environment("h2", new JdbcTransactionFactory(), dataSource));
+        configuration.getTypeAliasRegistry().registerAlias("fullLike", FullLikeTypeHandler.class);
+        MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+        interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.H2));
+        configuration.addInterceptor(interceptor);
+        for (String resource : MAPPER_XML) {
+            try (InputStream in = Resources.getResourceAsStream(resource)) {
+                new XMLMapperBuilder(in, configuration, resource, configuration.getSqlFragments()).parse();
+            }
+        }
+        sqlSession = SqlSessionManager.newInstance(new MybatisSqlSessionFactoryBuilder().build(configuration));
+    }
+
+    @BeforeEach
+    public void init() throws SQLException {
+        execute("drop table if exists def_user",
+                "drop table if exists def_user_search_token",
+                "drop table if exists def_user_search_token_state",
+                """
+                        create table def_user (
+                          id bigint not null primary key, username varchar(255) not null, nick_name varchar(255) not null,
+                          email varchar(255), mobile varchar(11), id_card varchar(18), wx_open_id varchar(255), dd_open_id varchar(255),
+                          readonly boolean default false, nation char(2), education char(2), sex char(1), state boolean default true,
+                          work_describe varchar(255), password_error_last_time timestamp, password_error_num int default 0,
+                          password_expire_time timestamp, password varchar(255) default '', salt varchar(20) default '',
+                          last_login_time timestamp, created_by bigint, created_time timestamp, updated_by bigint, updated_time timestamp
+                        )""",
+                "create table def_user_search_token (token varchar(16) not null, user_id bigint not null, primary key (token, user_id))",
+                """
+                        create table def_user_search_token_state (
+                          id int not null primary key, version int, lock_owner varchar(64), lock_expire_time timestamp, updated_time timestamp
+                        )""",
+                "insert into def_user_search_token_state (id) values (1)");
+
+        insertUser(1L, "zhangsan", "张三丰", "a_b@lamp.top", TIME);
+        insertUser(2L, "lisi", "李四", "axb@lamp.top", TIME);
+        insertUser(3L, "wangwu", "王五", "wangwu@lamp.top", TIME.plusMinutes(1));
+        insertUser(4L, "zhaoliu", "赵六", "zhaoliu@lamp.top", TIME.plusMinutes(1));
+        insertUser(5L, "x".repeat(100) + "tail", "长名字", "long@lamp.top", TIME.minusMinutes(1));
+
+        defUserMapper = sqlSession.getMapper(DefUserMapper.class);
+        defUserSearchTokenMapper = sqlSession.getMapper(DefUserSearchTokenMapper.class);
+        SystemProperties systemProperties = new SystemProperties();
+        systemProperties.getUserSearch().setRebuildBatchSize(2);
+        defUserSearchIndex = new DefUserSearchIndex(defUserMapper, defUserSearchTokenMapper, systemProperties);
+    }
+
+    @Test
+    public void testPartialBackfill() throws SQLException {
+        // 模拟上次回填中途停机：部分用户已有分词，但没有写入完成标记
+        DefUser user = defUserMapper.selectById(1L);
+        defUserSearchIndex.register(user);
+        assertTrue(count("select count(*) from def_user_search_token") > 0);
+
+        assertFalse(defUserSearchIndex.isReady());
+        assertTrue(defUserSearchIndex.queryTokens(DefUserSearchIndex.SearchField.NICK_NAME, "四").isEmpty());
+
+        defUserSearchIndex.loadOrRebuild();
+
+        assertTrue(defUserSearchIndex.isReady());
+        assertEquals(DefUserSearchIndex.INDEX_VERSION, defUserSearchTokenMapper.selectVersion());
+        assertEquals(5, count("select count(distinct user_id) from def_user_search_token"));
+        assertEquals(0, count("select count(*) from def_user_search_token_state where lock_owner is not null"));
+    }
+
+    @Test
+    public void testLockHeldByOtherInstance() throws SQLException {
+        execute("update def_user_search_token_state set lock_owner = 'other', lock_expire_time = dateadd('HOUR', 1, current_timestamp)");
+
+        defUserSearchIndex.loadOrRebuild();
+
+        assertFalse(defUserSearchIndex.isReady());
+        assertNull(defUserSearchTokenMapper.selectVersion());
+        assertEquals(0, count("select count(*) from def_user_search_token"));
+
+        // 其他实例停机后锁过期，由当前实例回填
+        execute("update def_user_search_token_state set lock_expire_time = dateadd('HOUR', -1, current_timestamp)");
+        defUserSearchIndex.loadOrRebuild();
+
+        assertTrue(defUserSearchIndex.isReady());
+    }
+
+    @Test
+    public void testTokenSearch() {
+        defUserSearchIndex.loadOrRebuild();
+
+        assertEquals(List.of(1L), search(new DefUserPageQuery().setNickName("三丰")));
+        assertEquals(List.of(2L), search(new DefUserPageQuery().setNickName("四")));
+        assertEquals(List.of(), search(new DefUserPageQuery().setNickName("丰三")));
+        // 超长的值全部参与分词，末尾的字也能搜索到
+        assertEquals(List.of(5L), search(new DefUserPageQuery().setUsername("tail")));
+    }
+
+    @Test
+    public void testTokenSearchAfterUpdate() {
+        defUserSearchIndex.loadOrRebuild();
+
+        DefUser user = defUserMapper.selectById(2L);
+        user.setNickName("李小龙");
+        defUserMapper.updateById(user);
+        defUserSearchIndex.register(user);
+
+        assertEquals(List.of(2L), search(new DefUserPageQuery().setNickName("小龙")));
+        assertEquals(List.of(), search(new DefUserPageQuery().setNickName("李四")));
+    }
+
+    @Test
+    public void testPrefixEscape() {
+        assertEquals(List.of(1L), search(new DefUserPageQuery().setEmail("a_b")));
+        assertEquals(List.of(), search(new DefUserPageQuery().setEmail("%b")));
+        assertEquals(List.of(2L), search(new DefUserPageQuery().setEmail("axb")));
+    }
+
+    @Test
+    public void testKeysetPaging() {
+        List<Long> ids = new ArrayList<>();
+        DefUserPageQuery query = new DefUserPageQuery();
+        SeekCursor cursor = null;
+        while (true) {
+            List<DefUserResultVO> records = defUserMapper.pageUser(query, List.of(), List.of(), cursor, new Page<>(1, 2, false)).getRecords();
+            records.forEach(item -> ids.add(item.getId()));
+            if (records.size() < 2) {
+                break;
+            }
+            DefUserResultVO last = records.get(records.size() - 1);
+            // 与 seekPageUser 一致，翻页标识经过编码、解析
+            cursor = SeekCursor.decode(new SeekCursor(last.getCreatedTime(), last.getId()).encode());
+        }
+        // created_time desc, id desc
+        assertEquals(Arrays.asList(4L, 3L, 2L, 1L, 5L), ids);
+    }
+
+    private List<Long> search(DefUserPageQuery query) {
+        List<String> usernameTokens = defUserSearchIndex.queryTokens(DefUserSearchIndex.SearchField.USERNAME, query.getUsername());
+        List<String> nickNameTokens = defUserSearchIndex.queryTokens(DefUserSearchIndex.SearchField.NICK_NAME, query.getNickName());
+        return defUserMapper.pageUser(query, usernameTokens, nickNameTokens, null, new Page<>(1, 10, false))
+                .getRecords().stream().map(DefUserResultVO::getId).toList();
+    }
+
+    private static void insertUser(Long id, String username, String nickName, String email, LocalDateTime createdTime) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                     "insert into def_user (id, username, nick_name, email, created_time) values (?, ?, ?, ?, ?)")) {
+            ps.setLong(1, id);
+            ps.setString(2, username);
+            ps.setString(3, nickName);
+            ps.setString(4, email);
+            ps.setTimestamp(5, Timestamp.valueOf(createdTime));
+            ps.executeUpdate();
+        }
+    }
+
+    private static void execute(String... sqls) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String sql : sqls) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private static long count(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * 与 lamp-util 中的 fullLike 一致： %value%
+     */
+    public static class FullLikeTypeHandler extends BaseTypeHandler<String> {
+        @Override
+        public void setNonNullParameter(PreparedStatement ps, int i, String parameter, JdbcType jdbcType) throws SQLException {
+            ps.setString(i, "%" + parameter + "%");
+        }
+
+        @Override
+        public String getNullableResult(ResultSet rs, String columnName) throws SQLException {
+            return rs.getString(columnName);
+        }
+
+        @Override
+        public String getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+            return rs.getString(columnIndex);
+        }
+
+        @Override
+        public String getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+            return cs.getString(columnIndex);
+        }
+    }
+}